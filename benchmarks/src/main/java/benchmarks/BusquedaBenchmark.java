@@ -0,0 +1,61 @@
+package benchmarks;
+
+import codeService.ClienteCodeService;
+import codeService.VehiculoCodeService;
+import model.Cliente;
+import model.Vehiculo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de vehículos por placa y de clientes por cédula, teléfono y nombre
+ * entre {@code tamano} registros. Cada invocación busca un registro al azar
+ * para no favorecer a los primeros de la lista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusquedaBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tamano;
+
+    private ClienteCodeService clienteService;
+    private VehiculoCodeService vehiculoService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        clienteService = new ClienteCodeService();
+        vehiculoService = new VehiculoCodeService();
+        DatosBenchmark.cargarClientesConVehiculo(clienteService, vehiculoService, tamano);
+    }
+
+    private int indiceAlAzar() {
+        return ThreadLocalRandom.current().nextInt(tamano);
+    }
+
+    @Benchmark
+    public Vehiculo buscarVehiculo() {
+        return vehiculoService.buscarVehiculo(DatosBenchmark.placa(indiceAlAzar()));
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorCedula() {
+        return clienteService.buscarCliente(DatosBenchmark.cedula(indiceAlAzar()), 1);
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorTelefono() {
+        return clienteService.buscarCliente(DatosBenchmark.telefono(indiceAlAzar()), 2);
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorNombre() {
+        return clienteService.buscarCliente(DatosBenchmark.nombre(indiceAlAzar()), 0);
+    }
+}
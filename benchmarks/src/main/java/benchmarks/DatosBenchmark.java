@@ -0,0 +1,119 @@
+package benchmarks;
+
+import codeService.ClienteCodeService;
+import codeService.MembresiaCodeService;
+import codeService.PagoCodeService;
+import codeService.ParqueaderoCodeService;
+import codeService.RecuperadorEstado;
+import codeService.VehiculoCodeService;
+import eventos.MembresiaRegistrada;
+import eventos.PagoRegistrado;
+import eventos.VehiculoIngresado;
+import model.TipoMembresia;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Carga datos de prueba en los servicios para los benchmarks.
+ * <p>
+ * Solo usa la API pública. Los clientes y vehículos se registran con los
+ * métodos de siempre, que ya no recorren listas. Las membresías, los pagos y
+ * los vehículos estacionados llevan fechas del pasado, así que se cargan como
+ * eventos con {@link RecuperadorEstado#aplicar}, igual que al reproducir la
+ * bitácora. Los datos son deterministas: el elemento {@code i} siempre tiene la
+ * misma placa, cédula y fecha.
+ */
+public final class DatosBenchmark {
+    /** Primer día de los pagos generados */
+    public static final LocalDate PRIMER_DIA = LocalDate.of(2022, 1, 1);
+    /** Días que abarcan los pagos generados */
+    public static final int DIAS_HISTORIAL = 3 * 365;
+
+    private DatosBenchmark() {
+    }
+
+    public static String placa(int i) {
+        return String.format("B%07d", i);
+    }
+
+    public static String cedula(int i) {
+        return String.format("C%09d", i);
+    }
+
+    public static String telefono(int i) {
+        return String.format("3%09d", i);
+    }
+
+    public static String nombre(int i) {
+        return "Cliente " + i;
+    }
+
+    /**
+     * Registra clientes con un vehículo cada uno
+     * @param clienteService Servicio de clientes
+     * @param vehiculoService Servicio de vehículos
+     * @param cantidad Cantidad de clientes
+     */
+    public static void cargarClientesConVehiculo(ClienteCodeService clienteService,
+                                                 VehiculoCodeService vehiculoService, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            clienteService.añadirCliente(nombre(i), cedula(i), telefono(i), "cliente" + i + "@correo.com");
+            vehiculoService.registrarVehiculo(clienteService.buscarCliente(cedula(i), ClienteCodeService.BUSQUEDA_CEDULA),
+                    placa(i), "Rojo", "2020");
+        }
+    }
+
+    /**
+     * Registra una membresía a cada vehículo de los clientes cargados.
+     * Las fechas de fin se reparten en los próximos 90 días, así que una parte
+     * queda próxima a vencer.
+     * @param membresiaService Servicio de membresías
+     * @param clienteService Servicio de clientes ya cargado
+     * @param vehiculoService Servicio de vehículos ya cargado
+     * @param cantidad Cantidad de clientes cargados
+     */
+    public static void cargarMembresias(MembresiaCodeService membresiaService, ClienteCodeService clienteService,
+                                        VehiculoCodeService vehiculoService, int cantidad) {
+        RecuperadorEstado recuperador = new RecuperadorEstado(clienteService, vehiculoService,
+                new ParqueaderoCodeService(), new PagoCodeService(), membresiaService);
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < cantidad; i++) {
+            // El cliente i tiene el vehículo de placa i, como los registra cargarClientesConVehiculo
+            LocalDate fin = hoy.plusDays(1 + i % 90);
+            recuperador.aplicar(new MembresiaRegistrada(placa(i), cedula(i),
+                    TipoMembresia.TRIMESTRAL, fin.minusMonths(3), fin, 100000));
+        }
+    }
+
+    /**
+     * Registra pagos de estacionamiento repartidos en {@link #DIAS_HISTORIAL} días
+     * @param pagoService Servicio de pagos
+     * @param cantidad Cantidad de pagos
+     */
+    public static void cargarPagos(PagoCodeService pagoService, int cantidad) {
+        RecuperadorEstado recuperador = new RecuperadorEstado(new ClienteCodeService(), new VehiculoCodeService(),
+                new ParqueaderoCodeService(), pagoService, new MembresiaCodeService());
+        LocalDateTime inicio = PRIMER_DIA.atTime(6, 0);
+        long segundosHistorial = DIAS_HISTORIAL * 86400L;
+        for (int i = 0; i < cantidad; i++) {
+            LocalDateTime fecha = inicio.plusSeconds(i * segundosHistorial / cantidad);
+            recuperador.aplicar(new PagoRegistrado(String.format("%08x", i), 2000 + i % 7 * 1000, fecha,
+                    "Estacionamiento", "Automóvil", placa(i % 10000), null));
+        }
+    }
+
+    /**
+     * Estaciona automóviles hasta ocupar la cantidad pedida de puestos
+     * @param parqueaderoService Servicio del parqueadero, con capacidad suficiente
+     * @param cantidad Cantidad de vehículos
+     */
+    public static void cargarEstacionados(ParqueaderoCodeService parqueaderoService, int cantidad) {
+        RecuperadorEstado recuperador = new RecuperadorEstado(new ClienteCodeService(), new VehiculoCodeService(),
+                parqueaderoService, new PagoCodeService(), new MembresiaCodeService());
+        LocalDateTime entrada = LocalDateTime.now().minusHours(2);
+        for (int i = 0; i < cantidad; i++) {
+            recuperador.aplicar(new VehiculoIngresado(0, placa(i), "Rojo", "2020", entrada, i + 1));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import codeService.ClienteCodeService;
+import codeService.MembresiaCodeService;
+import codeService.VehiculoCodeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporte de membresías activas con {@code tamano} clientes, cada uno con un
+ * automóvil y una membresía vigente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MembresiaBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tamano;
+
+    private MembresiaCodeService membresiaService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ClienteCodeService clienteService = new ClienteCodeService();
+        VehiculoCodeService vehiculoService = new VehiculoCodeService();
+        DatosBenchmark.cargarClientesConVehiculo(clienteService, vehiculoService, tamano);
+        membresiaService = new MembresiaCodeService();
+        membresiaService.setClienteService(clienteService);
+        membresiaService.setVehiculoService(vehiculoService);
+        DatosBenchmark.cargarMembresias(membresiaService, clienteService, vehiculoService, tamano);
+    }
+
+    @Benchmark
+    public Map<String, Object> generarReporteMembresiasActivas() {
+        return membresiaService.generarReporteMembresiasActivas();
+    }
+}
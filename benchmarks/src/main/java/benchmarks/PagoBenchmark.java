@@ -0,0 +1,65 @@
+package benchmarks;
+
+import codeService.PagoCodeService;
+import model.Pago;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de pagos por rango sobre un historial de {@code tamano} pagos
+ * repartidos en tres años.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagoBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tamano;
+
+    private PagoCodeService pagoService;
+    private LocalDate inicioMes;
+    private LocalDate finMes;
+    private String idBuscado;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        pagoService = new PagoCodeService();
+        DatosBenchmark.cargarPagos(pagoService, tamano);
+        inicioMes = DatosBenchmark.PRIMER_DIA.plusYears(1).withDayOfMonth(1);
+        finMes = inicioMes.plusMonths(1).minusDays(1);
+        List<Pago> historial = pagoService.getHistorialPagos();
+        idBuscado = historial.get(historial.size() - 1).getId();
+    }
+
+    @Benchmark
+    public List<Pago> obtenerPagosDeUnDia() {
+        return pagoService.obtenerPagosPorRango(inicioMes, inicioMes);
+    }
+
+    @Benchmark
+    public List<Pago> obtenerPagosDeUnMes() {
+        return pagoService.obtenerPagosPorRango(inicioMes, finMes);
+    }
+
+    @Benchmark
+    public int contarPagosDeUnMes() {
+        return pagoService.contarPagosPorRango(inicioMes, finMes);
+    }
+
+    @Benchmark
+    public Pago buscarPagoPorId() {
+        return pagoService.buscarPagoPorId(idBuscado);
+    }
+
+    @Benchmark
+    public PagoCodeService.ReporteTotales totalesDeUnMes() {
+        return pagoService.obtenerTotalesPorRango(inicioMes, finMes);
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import codeService.ParqueaderoCodeService;
+import codeService.SalidaResultado;
+import model.Parqueadero;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrada y salida de un vehículo con el parqueadero ya ocupado por
+ * {@code tamano} automóviles. Cada invocación entra y saca la misma placa
+ * nueva, así el estado no crece entre iteraciones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParqueaderoBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tamano;
+
+    private ParqueaderoCodeService parqueaderoService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        parqueaderoService = new ParqueaderoCodeService(new Parqueadero());
+        parqueaderoService.configurarEspacios(10, tamano + 10, 10);
+        parqueaderoService.configurarTarifas(1000, 2000, 3000);
+        DatosBenchmark.cargarEstacionados(parqueaderoService, tamano);
+    }
+
+    @Benchmark
+    public SalidaResultado entradaYSalida() {
+        parqueaderoService.registrarEntradaVehiculo(0, "NUEVA1", "Azul", "2024");
+        return parqueaderoService.registrarSalida("NUEVA1");
+    }
+
+    @Benchmark
+    public SalidaResultado entradaYSalidaMoto() {
+        parqueaderoService.registrarEntradaVehiculo(1, "MOTO1", "Negra", "2023");
+        return parqueaderoService.registrarSalida("MOTO1");
+    }
+}
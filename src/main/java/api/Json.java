@@ -0,0 +1,285 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura y escritura de JSON para el servidor de porterías.
+ * <p>
+ * Solo cubre lo que usa la API: objetos, arreglos, textos, números, booleanos
+ * y null. Al escribir, los enums se escriben con su nombre y cualquier otro
+ * objeto (fechas, por ejemplo) con su {@code toString}.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Convierte un valor a texto JSON
+     * @param valor Mapa, lista, texto, número, booleano, enum o null
+     * @return El texto JSON
+     */
+    static String escribir(Object valor) {
+        StringBuilder salida = new StringBuilder();
+        escribir(valor, salida);
+        return salida.toString();
+    }
+
+    private static void escribir(Object valor, StringBuilder salida) {
+        if (valor == null) {
+            salida.append("null");
+        } else if (valor instanceof String texto) {
+            escribirTexto(texto, salida);
+        } else if (valor instanceof Number numero) {
+            double doble = numero.doubleValue();
+            if (Double.isNaN(doble) || Double.isInfinite(doble)) {
+                salida.append("null");
+            } else {
+                salida.append(numero);
+            }
+        } else if (valor instanceof Boolean) {
+            salida.append(valor);
+        } else if (valor instanceof Map<?, ?> mapa) {
+            salida.append('{');
+            boolean primero = true;
+            for (Map.Entry<?, ?> entrada : mapa.entrySet()) {
+                if (!primero) {
+                    salida.append(',');
+                }
+                primero = false;
+                escribirTexto(String.valueOf(entrada.getKey()), salida);
+                salida.append(':');
+                escribir(entrada.getValue(), salida);
+            }
+            salida.append('}');
+        } else if (valor instanceof Iterable<?> lista) {
+            salida.append('[');
+            boolean primero = true;
+            for (Object elemento : lista) {
+                if (!primero) {
+                    salida.append(',');
+                }
+                primero = false;
+                escribir(elemento, salida);
+            }
+            salida.append(']');
+        } else if (valor instanceof Enum<?> constante) {
+            escribirTexto(constante.name(), salida);
+        } else {
+            escribirTexto(valor.toString(), salida);
+        }
+    }
+
+    private static void escribirTexto(String texto, StringBuilder salida) {
+        salida.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> salida.append("\\\"");
+                case '\\' -> salida.append("\\\\");
+                case '\n' -> salida.append("\\n");
+                case '\r' -> salida.append("\\r");
+                case '\t' -> salida.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        salida.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        salida.append(c);
+                    }
+                }
+            }
+        }
+        salida.append('"');
+    }
+
+    /**
+     * Lee un objeto JSON
+     * @param texto Texto JSON
+     * @return Mapa con los campos del objeto, o null si el texto no es un objeto JSON válido
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> leerObjeto(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        try {
+            Lector lector = new Lector(texto);
+            Object valor = lector.leerValor();
+            lector.saltarEspacios();
+            if (lector.posicion != texto.length() || !(valor instanceof Map)) {
+                return null;
+            }
+            return (Map<String, Object>) valor;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lector de un texto JSON; lanza IllegalArgumentException ante cualquier error
+     */
+    private static final class Lector {
+        // Los cuerpos de la API tienen uno o dos niveles; el límite evita que un
+        // cuerpo de solo corchetes agote la pila del hilo que lo atiende
+        private static final int PROFUNDIDAD_MAXIMA = 32;
+
+        private final String texto;
+        private int posicion;
+        private int profundidad;
+
+        Lector(String texto) {
+            this.texto = texto;
+        }
+
+        Object leerValor() {
+            saltarEspacios();
+            char c = actual();
+            switch (c) {
+                case '{': return leerAnidado(true);
+                case '[': return leerAnidado(false);
+                case '"': return leerTexto();
+                case 't': return leerLiteral("true", Boolean.TRUE);
+                case 'f': return leerLiteral("false", Boolean.FALSE);
+                case 'n': return leerLiteral("null", null);
+                default: return leerNumero();
+            }
+        }
+
+        private Object leerAnidado(boolean esMapa) {
+            if (++profundidad > PROFUNDIDAD_MAXIMA) {
+                throw new IllegalArgumentException("Demasiados niveles anidados");
+            }
+            Object valor = esMapa ? leerMapa() : leerLista();
+            profundidad--;
+            return valor;
+        }
+
+        private Map<String, Object> leerMapa() {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            posicion++;
+            saltarEspacios();
+            if (actual() == '}') {
+                posicion++;
+                return mapa;
+            }
+            while (true) {
+                saltarEspacios();
+                if (actual() != '"') {
+                    throw new IllegalArgumentException("Se esperaba un nombre de campo");
+                }
+                String clave = leerTexto();
+                saltarEspacios();
+                esperar(':');
+                mapa.put(clave, leerValor());
+                saltarEspacios();
+                if (actual() == ',') {
+                    posicion++;
+                } else {
+                    esperar('}');
+                    return mapa;
+                }
+            }
+        }
+
+        private List<Object> leerLista() {
+            List<Object> lista = new ArrayList<>();
+            posicion++;
+            saltarEspacios();
+            if (actual() == ']') {
+                posicion++;
+                return lista;
+            }
+            while (true) {
+                lista.add(leerValor());
+                saltarEspacios();
+                if (actual() == ',') {
+                    posicion++;
+                } else {
+                    esperar(']');
+                    return lista;
+                }
+            }
+        }
+
+        private String leerTexto() {
+            posicion++;
+            StringBuilder resultado = new StringBuilder();
+            while (true) {
+                char c = actual();
+                posicion++;
+                if (c == '"') {
+                    return resultado.toString();
+                }
+                if (c != '\\') {
+                    resultado.append(c);
+                    continue;
+                }
+                char escape = actual();
+                posicion++;
+                switch (escape) {
+                    case '"', '\\', '/' -> resultado.append(escape);
+                    case 'b' -> resultado.append('\b');
+                    case 'f' -> resultado.append('\f');
+                    case 'n' -> resultado.append('\n');
+                    case 'r' -> resultado.append('\r');
+                    case 't' -> resultado.append('\t');
+                    case 'u' -> {
+                        if (posicion + 4 > texto.length()) {
+                            throw new IllegalArgumentException("Escape incompleto");
+                        }
+                        resultado.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                        posicion += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Escape inválido");
+                }
+            }
+        }
+
+        private Object leerLiteral(String literal, Object valor) {
+            if (!texto.startsWith(literal, posicion)) {
+                throw new IllegalArgumentException("Valor inválido");
+            }
+            posicion += literal.length();
+            return valor;
+        }
+
+        private Number leerNumero() {
+            int inicio = posicion;
+            while (posicion < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicion)) >= 0) {
+                posicion++;
+            }
+            String numero = texto.substring(inicio, posicion);
+            if (numero.isEmpty()) {
+                throw new IllegalArgumentException("Valor inválido");
+            }
+            // NumberFormatException es una IllegalArgumentException
+            if (numero.indexOf('.') < 0 && numero.indexOf('e') < 0 && numero.indexOf('E') < 0) {
+                return Long.parseLong(numero);
+            }
+            return Double.parseDouble(numero);
+        }
+
+        void saltarEspacios() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+        }
+
+        private char actual() {
+            if (posicion >= texto.length()) {
+                throw new IllegalArgumentException("Fin inesperado del texto");
+            }
+            return texto.charAt(posicion);
+        }
+
+        private void esperar(char esperado) {
+            if (actual() != esperado) {
+                throw new IllegalArgumentException("Se esperaba '" + esperado + "'");
+            }
+            posicion++;
+        }
+    }
+}
@@ -0,0 +1,639 @@
+package api;
+
+import codeService.ClienteCodeService;
+import codeService.EstadoParqueadero;
+import codeService.MembresiaCodeService;
+import codeService.OcupacionParqueadero;
+import codeService.PagoCodeService;
+import codeService.ParqueaderoCodeService;
+import codeService.ProgramadorInstantaneas;
+import codeService.RecuperadorEstado;
+import codeService.SalidaResultado;
+import codeService.VehiculoCodeService;
+import codeService.VigenciaMembresia;
+import codeService.VigilanteMembresias;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Cliente;
+import model.Parqueadero;
+import model.TipoMembresia;
+import model.TipoVehiculo;
+import model.Vehiculo;
+import persistencia.AlmacenInstantaneas;
+import persistencia.BitacoraEventos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP/JSON para las porterías y los kioscos, sin interfaz gráfica.
+ * <p>
+ * Usa el servidor HTTP que trae el JDK y atiende cada solicitud en su propio
+ * hilo virtual, así que miles de porterías esperando la bitácora o un bloqueo
+ * no ocupan miles de hilos del sistema. Los cuerpos de solicitud y respuesta
+ * son objetos JSON; los errores se responden como {@code {"error": "..."}}.
+ * <p>
+ * Rutas:
+ * <ul>
+ *     <li>{@code GET /parqueadero}: estado de ocupación; con {@code ?version=N} responde 304 si no cambió</li>
+ *     <li>{@code GET /parqueadero/vehiculos}: vehículos estacionados</li>
+ *     <li>{@code POST /parqueadero/espacios}: {@code {motos, automoviles, camiones}}</li>
+ *     <li>{@code POST /parqueadero/tarifas}: {@code {moto, automovil, camion}}</li>
+ *     <li>{@code POST /entradas}: {@code {tipo, placa, color, modelo}}; el tipo es el código o el nombre</li>
+ *     <li>{@code POST /salidas}: {@code {placa}}; cobra la estadía si no tiene membresía vigente</li>
+ *     <li>{@code GET /vehiculos/{placa}} y {@code POST /vehiculos}: {@code {placa, color, modelo, tipo}};
+ *     sin tipo el vehículo es genérico y no se le puede cobrar una membresía</li>
+ *     <li>{@code GET /membresias/{placa}}, {@code GET /membresias?dias=N} (por vencer) y
+ *     {@code POST /membresias}: {@code {placa, tipo, cedula}}</li>
+ *     <li>{@code GET /pagos/monto?tipo=&horas=} y {@code GET /pagos/totales?desde=&hasta=} (yyyy-MM-dd)</li>
+ * </ul>
+ */
+public class ServidorPorteria implements AutoCloseable {
+    public static final int PUERTO_PREDETERMINADO = 8080;
+    // Conexiones en espera de ser aceptadas durante una ráfaga
+    private static final int COLA_CONEXIONES = 4096;
+    private static final int TAMANO_MAXIMO_CUERPO = 16 * 1024;
+    public static final String DIRECTORIO_PREDETERMINADO = "datos";
+    private static final String SIN_REGISTRAR = "No registrado";
+
+    private final ParqueaderoCodeService parqueaderoService;
+    private final PagoCodeService pagoService;
+    private final VehiculoCodeService vehiculoService;
+    private final MembresiaCodeService membresiaService;
+    private HttpServer servidor;
+    private ExecutorService hilos;
+    // Bitácora y tareas de fondo que abrió abrir(); se cierran con el servidor
+    private List<AutoCloseable> recursos = List.of();
+
+    public ServidorPorteria(ParqueaderoCodeService parqueaderoService, PagoCodeService pagoService,
+                            VehiculoCodeService vehiculoService, MembresiaCodeService membresiaService) {
+        this.parqueaderoService = parqueaderoService;
+        this.pagoService = pagoService;
+        this.vehiculoService = vehiculoService;
+        this.membresiaService = membresiaService;
+        // Las tarifas que se configuran en /parqueadero/tarifas también cotizan en /pagos
+        pagoService.setTarifasVigentes(parqueaderoService.getTarifasVigentes());
+    }
+
+    /**
+     * Inicia un servidor que guarda su estado en un directorio de datos
+     * @param args Puerto y directorio de datos, opcionales; por defecto
+     *             {@link #PUERTO_PREDETERMINADO} y {@link #DIRECTORIO_PREDETERMINADO}
+     * @throws IOException si no se puede abrir el puerto o leer el estado guardado
+     */
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_PREDETERMINADO;
+        Path datos = Path.of(args.length > 1 ? args[1] : DIRECTORIO_PREDETERMINADO);
+        ServidorPorteria servidor = abrir(datos);
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::close, "cierre-porterias"));
+        servidor.iniciar(new InetSocketAddress(puerto));
+        System.out.println("Servidor de porterías escuchando en el puerto " + servidor.getPuerto());
+    }
+
+    /**
+     * Crea un servidor con servicios nuevos conectados a la bitácora y a las
+     * instantáneas de un directorio. Antes de atender, recupera el estado que
+     * quedó guardado y programa las instantáneas periódicas y la revisión de
+     * vencimientos de membresías; al cerrar el servidor se detienen y se
+     * cierra la bitácora
+     * @param directorio Directorio de datos
+     * @return El servidor, todavía sin iniciar
+     * @throws IOException si no se puede leer el estado guardado
+     */
+    public static ServidorPorteria abrir(Path directorio) throws IOException {
+        ClienteCodeService clienteService = new ClienteCodeService();
+        VehiculoCodeService vehiculoService = new VehiculoCodeService();
+        PagoCodeService pagoService = new PagoCodeService();
+        MembresiaCodeService membresiaService = new MembresiaCodeService();
+        ParqueaderoCodeService parqueaderoService = new ParqueaderoCodeService(new Parqueadero());
+        membresiaService.setClienteService(clienteService);
+        membresiaService.setVehiculoService(vehiculoService);
+        membresiaService.setPagoService(pagoService);
+        RecuperadorEstado recuperador = new RecuperadorEstado(clienteService, vehiculoService,
+                parqueaderoService, pagoService, membresiaService);
+
+        BitacoraEventos bitacora = new BitacoraEventos(directorio.resolve("bitacora"));
+        AlmacenInstantaneas almacen;
+        try {
+            almacen = new AlmacenInstantaneas(directorio.resolve("instantaneas"));
+            recuperador.recuperar(bitacora, almacen);
+        } catch (IOException | RuntimeException e) {
+            bitacora.close();
+            throw e;
+        }
+        ProgramadorInstantaneas instantaneas = new ProgramadorInstantaneas(recuperador, bitacora, almacen);
+        instantaneas.iniciar();
+        // Baja las membresías vencidas al iniciar y cada medianoche, con el estado ya recuperado
+        VigilanteMembresias vigilante = new VigilanteMembresias(membresiaService);
+        vigilante.iniciar();
+
+        ServidorPorteria servidor = new ServidorPorteria(parqueaderoService, pagoService,
+                vehiculoService, membresiaService);
+        // Se cierran en este orden: primero lo que escribe en la bitácora
+        servidor.recursos = List.of(vigilante, instantaneas, bitacora);
+        return servidor;
+    }
+
+    /**
+     * Abre el puerto y empieza a atender solicitudes
+     * @param direccion Dirección y puerto; el puerto 0 toma uno libre
+     * @return false si ya estaba iniciado
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public synchronized boolean iniciar(InetSocketAddress direccion) throws IOException {
+        if (servidor != null) {
+            return false;
+        }
+        HttpServer nuevo = HttpServer.create(direccion, COLA_CONEXIONES);
+        nuevo.createContext("/parqueadero", intercambio -> atender(intercambio, this::parqueadero));
+        nuevo.createContext("/entradas", intercambio -> atender(intercambio, this::entradas));
+        nuevo.createContext("/salidas", intercambio -> atender(intercambio, this::salidas));
+        nuevo.createContext("/vehiculos", intercambio -> atender(intercambio, this::vehiculos));
+        nuevo.createContext("/membresias", intercambio -> atender(intercambio, this::membresias));
+        nuevo.createContext("/pagos", intercambio -> atender(intercambio, this::pagos));
+        hilos = Executors.newVirtualThreadPerTaskExecutor();
+        nuevo.setExecutor(hilos);
+        nuevo.start();
+        servidor = nuevo;
+        return true;
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor
+     * @return El puerto o -1 si no está iniciado
+     */
+    public synchronized int getPuerto() {
+        return servidor != null ? servidor.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Deja de aceptar solicitudes y espera a que terminen las que están en curso
+     */
+    @Override
+    public synchronized void close() {
+        if (servidor != null) {
+            servidor.stop(0);
+            hilos.close();
+            servidor = null;
+            hilos = null;
+        }
+        for (AutoCloseable recurso : recursos) {
+            try {
+                recurso.close();
+            } catch (Exception e) {
+                // Seguir cerrando los demás; la bitácora confirma lo que alcanzó a escribir
+            }
+        }
+        recursos = List.of();
+    }
+
+    private Respuesta parqueadero(Solicitud solicitud) {
+        switch (solicitud.subruta()) {
+            case "":
+                if (!solicitud.es("GET")) {
+                    return Respuesta.metodoNoPermitido();
+                }
+                return estado(solicitud.parametros().get("version"));
+            case "vehiculos":
+                if (!solicitud.es("GET")) {
+                    return Respuesta.metodoNoPermitido();
+                }
+                return Respuesta.ok(parqueaderoService.obtenerListaVehiculosActuales());
+            case "espacios": {
+                if (!solicitud.es("POST")) {
+                    return Respuesta.metodoNoPermitido();
+                }
+                Map<String, Object> cuerpo = solicitud.cuerpo();
+                if (cuerpo == null) {
+                    return Respuesta.solicitudInvalida();
+                }
+                int motos = entero(cuerpo.get("motos"));
+                int automoviles = entero(cuerpo.get("automoviles"));
+                int camiones = entero(cuerpo.get("camiones"));
+                if (motos < 0 || automoviles < 0 || camiones < 0
+                        || !parqueaderoService.configurarEspacios(motos, automoviles, camiones)) {
+                    return Respuesta.error(400, "Cantidad de espacios inválida");
+                }
+                return estado(null);
+            }
+            case "tarifas": {
+                if (!solicitud.es("POST")) {
+                    return Respuesta.metodoNoPermitido();
+                }
+                Map<String, Object> cuerpo = solicitud.cuerpo();
+                if (cuerpo == null) {
+                    return Respuesta.solicitudInvalida();
+                }
+                double moto = decimal(cuerpo.get("moto"));
+                double automovil = decimal(cuerpo.get("automovil"));
+                double camion = decimal(cuerpo.get("camion"));
+                if (moto < 0 || automovil < 0 || camion < 0
+                        || !parqueaderoService.configurarTarifas(moto, automovil, camion)) {
+                    return Respuesta.error(400, "Tarifas inválidas");
+                }
+                return Respuesta.ok(Map.of("configurado", true));
+            }
+            default:
+                return Respuesta.noEncontrado();
+        }
+    }
+
+    /**
+     * Responde el estado de ocupación, o 304 sin cuerpo si el tablero ya tiene la versión vigente
+     */
+    private Respuesta estado(String versionVista) {
+        EstadoParqueadero estado = parqueaderoService.obtenerEstado();
+        if (versionVista != null) {
+            try {
+                if (!estado.cambioDesde(Long.parseLong(versionVista.trim()))) {
+                    return new Respuesta(304, null);
+                }
+            } catch (NumberFormatException e) {
+                return Respuesta.error(400, "La versión debe ser un número");
+            }
+        }
+        Map<String, Object> cuerpo = estado.aMapa();
+        cuerpo.put("version", estado.version());
+        return Respuesta.ok(cuerpo);
+    }
+
+    private Respuesta entradas(Solicitud solicitud) {
+        if (!solicitud.es("POST") || !solicitud.subruta().isEmpty()) {
+            return Respuesta.metodoNoPermitido();
+        }
+        Map<String, Object> cuerpo = solicitud.cuerpo();
+        if (cuerpo == null) {
+            return Respuesta.solicitudInvalida();
+        }
+        int tipo = tipoVehiculo(cuerpo.get("tipo"));
+        String placa = texto(cuerpo.get("placa"));
+        if (tipo < 0 || placa == null || placa.trim().isEmpty()) {
+            return Respuesta.error(400, "Se requieren el tipo de vehículo y la placa");
+        }
+        String color = texto(cuerpo.get("color"));
+        String modelo = texto(cuerpo.get("modelo"));
+        boolean registrada = parqueaderoService.registrarEntradaVehiculo(tipo, placa,
+                color != null && !color.trim().isEmpty() ? color : SIN_REGISTRAR,
+                modelo != null && !modelo.trim().isEmpty() ? modelo : SIN_REGISTRAR);
+        if (!registrada) {
+            return Respuesta.error(409, "No hay espacio disponible o el vehículo ya está en el parqueadero");
+        }
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("placa", placa);
+        resultado.put("tipoVehiculo", OcupacionParqueadero.nombreDeTipo(tipo));
+        resultado.put("puesto", parqueaderoService.obtenerPuestoVehiculo(placa));
+        return new Respuesta(201, resultado);
+    }
+
+    private Respuesta salidas(Solicitud solicitud) {
+        if (!solicitud.es("POST") || !solicitud.subruta().isEmpty()) {
+            return Respuesta.metodoNoPermitido();
+        }
+        Map<String, Object> cuerpo = solicitud.cuerpo();
+        if (cuerpo == null) {
+            return Respuesta.solicitudInvalida();
+        }
+        // La salida y su cobro se guardan juntos: solo la portería que obtuvo la
+        // salida cobra, y si la bitácora falla no queda una salida sin su pago
+        SalidaResultado salida = parqueaderoService.registrarSalidaCobrada(texto(cuerpo.get("placa")), pagoService);
+        if (salida == null) {
+            return Respuesta.error(404, "El vehículo no está en el parqueadero");
+        }
+        Map<String, Object> factura = salida.aMapa();
+        if (salida.montoTotal() > 0) {
+            factura.put("pagoRegistrado", salida.pagoRegistrado());
+        }
+        return Respuesta.ok(factura);
+    }
+
+    private Respuesta vehiculos(Solicitud solicitud) {
+        if (solicitud.es("GET") && !solicitud.subruta().isEmpty()) {
+            Map<String, String> detalles = vehiculoService.obtenerDetallesVehiculo(solicitud.subruta());
+            return detalles != null ? Respuesta.ok(detalles) : Respuesta.error(404, "Vehículo no encontrado");
+        }
+        if (!solicitud.es("POST") || !solicitud.subruta().isEmpty()) {
+            return Respuesta.metodoNoPermitido();
+        }
+        Map<String, Object> cuerpo = solicitud.cuerpo();
+        if (cuerpo == null) {
+            return Respuesta.solicitudInvalida();
+        }
+        String placa = texto(cuerpo.get("placa"));
+        // Sin tipo el vehículo es genérico y no tiene tarifa de membresía
+        int tipo = cuerpo.get("tipo") != null ? tipoVehiculo(cuerpo.get("tipo")) : -1;
+        if (cuerpo.get("tipo") != null && tipo < 0) {
+            return Respuesta.error(400, "Tipo de vehículo inválido");
+        }
+        if (!vehiculoService.registrarVehiculo(tipo, placa, texto(cuerpo.get("color")), texto(cuerpo.get("modelo")))) {
+            return Respuesta.error(409, "Datos incompletos o la placa ya está registrada");
+        }
+        return new Respuesta(201, vehiculoService.obtenerDetallesVehiculo(placa));
+    }
+
+    private Respuesta membresias(Solicitud solicitud) {
+        if (solicitud.es("GET") && !solicitud.subruta().isEmpty()) {
+            Vehiculo vehiculo = vehiculoService.buscarVehiculo(solicitud.subruta());
+            if (vehiculo == null) {
+                return Respuesta.error(404, "Vehículo no encontrado");
+            }
+            VigenciaMembresia vigencia = membresiaService.consultarVigencia(vehiculo);
+            return vigencia != null ? Respuesta.ok(vigencia.aMapa()) : Respuesta.error(404, "El vehículo no tiene membresía");
+        }
+        if (solicitud.es("GET")) {
+            int dias = entero(solicitud.parametros().get("dias"));
+            if (dias < 0) {
+                return Respuesta.error(400, "Se requiere el parámetro dias");
+            }
+            List<Map<String, Object>> porVencer = new ArrayList<>();
+            for (Vehiculo vehiculo : membresiaService.obtenerMembresiasPorVencer(dias)) {
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("placa", vehiculo.getPlaca());
+                fila.put("tipoMembresia", vehiculo.getMembresia());
+                fila.put("fechaVencimiento", vehiculo.getFechaFinMembresia());
+                porVencer.add(fila);
+            }
+            return Respuesta.ok(porVencer);
+        }
+        if (!solicitud.es("POST") || !solicitud.subruta().isEmpty()) {
+            return Respuesta.metodoNoPermitido();
+        }
+        Map<String, Object> cuerpo = solicitud.cuerpo();
+        if (cuerpo == null) {
+            return Respuesta.solicitudInvalida();
+        }
+        String placa = texto(cuerpo.get("placa"));
+        Vehiculo vehiculo = vehiculoService.buscarVehiculo(placa);
+        if (vehiculo == null) {
+            return Respuesta.error(404, "Vehículo no encontrado");
+        }
+        TipoMembresia tipo = tipoMembresia(cuerpo.get("tipo"));
+        Cliente cliente = clienteDe(texto(cuerpo.get("cedula")), placa);
+        if (tipo == null || cliente == null) {
+            return Respuesta.error(400, "Se requieren un tipo de membresía válido y el cliente dueño del vehículo");
+        }
+        if (vehiculo.getTipo() == null && membresiaService.getPagoService() != null) {
+            return Respuesta.error(400, "El vehículo se registró sin tipo y no tiene tarifa de membresía");
+        }
+        if (!membresiaService.registrarMembresia(vehiculo, cliente, tipo)) {
+            return Respuesta.error(409, "No se pudo registrar la membresía");
+        }
+        return new Respuesta(201, membresiaService.consultarVigencia(vehiculo).aMapa());
+    }
+
+    private Respuesta pagos(Solicitud solicitud) {
+        if (!solicitud.es("GET")) {
+            return Respuesta.metodoNoPermitido();
+        }
+        Map<String, String> parametros = solicitud.parametros();
+        switch (solicitud.subruta()) {
+            case "monto": {
+                int tipo = tipoVehiculo(parametros.get("tipo"));
+                int horas = entero(parametros.get("horas"));
+                if (tipo < 0 || horas <= 0) {
+                    return Respuesta.error(400, "Se requieren el tipo de vehículo y las horas");
+                }
+                return Respuesta.ok(Map.of("monto",
+                        pagoService.calcularMontoAPagar(OcupacionParqueadero.nombreDeTipo(tipo), horas)));
+            }
+            case "totales": {
+                LocalDate desde = fecha(parametros.get("desde"));
+                LocalDate hasta = fecha(parametros.get("hasta"));
+                if (desde == null || hasta == null) {
+                    return Respuesta.error(400, "Se requieren las fechas desde y hasta (yyyy-MM-dd)");
+                }
+                PagoCodeService.ReporteTotales totales = pagoService.obtenerTotalesPorRango(desde, hasta);
+                Map<String, Object> resultado = new LinkedHashMap<>();
+                resultado.put("totalEstacionamiento", totales.getTotalEstacionamiento());
+                resultado.put("totalMembresias", totales.getTotalMembresias());
+                resultado.put("totalAutomoviles", totales.getTotalAutomoviles());
+                resultado.put("totalMotos", totales.getTotalMotos());
+                resultado.put("totalCamiones", totales.getTotalCamiones());
+                resultado.put("totalGeneral", totales.getTotalGeneral());
+                return Respuesta.ok(resultado);
+            }
+            default:
+                return Respuesta.noEncontrado();
+        }
+    }
+
+    /**
+     * Busca el cliente de una membresía: por cédula si viene, si no el dueño del vehículo
+     */
+    private Cliente clienteDe(String cedula, String placa) {
+        ClienteCodeService clienteService = membresiaService.getClienteService();
+        if (clienteService == null) {
+            return null;
+        }
+        if (cedula == null || cedula.trim().isEmpty()) {
+            cedula = vehiculoService.buscarPropietarioVehiculo(placa);
+        }
+        return clienteService.buscarCliente(cedula, ClienteCodeService.BUSQUEDA_CEDULA);
+    }
+
+    /**
+     * Atiende una solicitud y siempre envía una respuesta, aunque el servicio falle
+     */
+    private void atender(HttpExchange intercambio, Ruta ruta) {
+        try (intercambio) {
+            Respuesta respuesta;
+            try {
+                respuesta = ruta.atender(new Solicitud(intercambio));
+            } catch (RuntimeException e) {
+                respuesta = Respuesta.error(500, "Error interno: " + e.getMessage());
+            }
+            if (respuesta.cuerpo() == null) {
+                intercambio.sendResponseHeaders(respuesta.estado(), -1);
+                return;
+            }
+            byte[] bytes = Json.escribir(respuesta.cuerpo()).getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            intercambio.sendResponseHeaders(respuesta.estado(), bytes.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(bytes);
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión; no hay a quién responder
+        }
+    }
+
+    private static int tipoVehiculo(Object valor) {
+        TipoVehiculo tipo;
+        if (valor instanceof Number numero) {
+            tipo = TipoVehiculo.deCodigo(numero.intValue());
+        } else {
+            // Acepta el nombre que se muestra, el nombre de la constante o el código como texto
+            String texto = texto(valor);
+            tipo = TipoVehiculo.deNombre(texto);
+            if (tipo == null && texto != null) {
+                try {
+                    tipo = TipoVehiculo.valueOf(texto.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    tipo = TipoVehiculo.deCodigo(entero(texto));
+                }
+            }
+        }
+        return tipo != null ? tipo.ordinal() : -1;
+    }
+
+    private static TipoMembresia tipoMembresia(Object valor) {
+        String texto = texto(valor);
+        if (texto == null) {
+            return null;
+        }
+        try {
+            TipoMembresia tipo = TipoMembresia.valueOf(texto.trim().toUpperCase(Locale.ROOT));
+            return tipo != TipoMembresia.NINGUNA ? tipo : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String texto(Object valor) {
+        return valor != null ? valor.toString() : null;
+    }
+
+    /**
+     * Lee un entero de un número JSON o de un texto
+     * @return El entero o -1 si no es un entero válido
+     */
+    private static int entero(Object valor) {
+        if (valor instanceof Number numero) {
+            return numero.intValue();
+        }
+        try {
+            return valor != null ? Integer.parseInt(valor.toString().trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Lee un decimal de un número JSON o de un texto
+     * @return El decimal o -1 si no es un número válido
+     */
+    private static double decimal(Object valor) {
+        if (valor instanceof Number numero) {
+            return numero.doubleValue();
+        }
+        try {
+            return valor != null ? Double.parseDouble(valor.toString().trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static LocalDate fecha(String texto) {
+        try {
+            return texto != null ? LocalDate.parse(texto) : null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Atiende una ruta y devuelve la respuesta a enviar
+     */
+    @FunctionalInterface
+    private interface Ruta {
+        Respuesta atender(Solicitud solicitud);
+    }
+
+    /**
+     * Respuesta de una ruta: el código HTTP y el valor que se envía como JSON
+     */
+    private record Respuesta(int estado, Object cuerpo) {
+        static Respuesta ok(Object cuerpo) {
+            return new Respuesta(200, cuerpo);
+        }
+
+        static Respuesta error(int estado, String mensaje) {
+            return new Respuesta(estado, Map.of("error", mensaje));
+        }
+
+        static Respuesta solicitudInvalida() {
+            return error(400, "El cuerpo debe ser un objeto JSON");
+        }
+
+        static Respuesta noEncontrado() {
+            return error(404, "Ruta no encontrada");
+        }
+
+        static Respuesta metodoNoPermitido() {
+            return error(405, "Método no permitido");
+        }
+    }
+
+    /**
+     * Datos de una solicitud: método, resto de la ruta, parámetros y cuerpo
+     */
+    private static final class Solicitud {
+        private final HttpExchange intercambio;
+        private final String subruta;
+
+        Solicitud(HttpExchange intercambio) {
+            this.intercambio = intercambio;
+            String ruta = intercambio.getRequestURI().getPath();
+            String contexto = intercambio.getHttpContext().getPath();
+            String resto = ruta.length() > contexto.length() ? ruta.substring(contexto.length()) : "";
+            this.subruta = resto.startsWith("/") ? resto.substring(1) : resto;
+        }
+
+        boolean es(String metodo) {
+            return metodo.equals(intercambio.getRequestMethod());
+        }
+
+        /**
+         * Parte de la ruta después del contexto, sin la barra inicial
+         */
+        String subruta() {
+            return subruta;
+        }
+
+        Map<String, String> parametros() {
+            Map<String, String> parametros = new HashMap<>();
+            String consulta = intercambio.getRequestURI().getRawQuery();
+            if (consulta == null) {
+                return parametros;
+            }
+            for (String par : consulta.split("&")) {
+                int igual = par.indexOf('=');
+                if (igual > 0) {
+                    parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                            URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return parametros;
+        }
+
+        /**
+         * Lee el cuerpo como objeto JSON
+         * @return Los campos del objeto o null si el cuerpo no es un objeto JSON o es muy grande
+         */
+        Map<String, Object> cuerpo() {
+            try (InputStream entrada = intercambio.getRequestBody()) {
+                byte[] bytes = entrada.readNBytes(TAMANO_MAXIMO_CUERPO + 1);
+                if (bytes.length > TAMANO_MAXIMO_CUERPO) {
+                    return null;
+                }
+                return Json.leerObjeto(new String(bytes, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
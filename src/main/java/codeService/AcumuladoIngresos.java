@@ -0,0 +1,192 @@
+package codeService;
+
+import model.Pago;
+import model.TipoVehiculo;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Totales de ingresos acumulados por día, mes y año.
+ * Cada periodo guarda una pequeña matriz concepto × tipo de vehículo en
+ * centavos, que se actualiza al registrar cada pago. Así el reporte de un día,
+ * un mes o un año se obtiene con una sola búsqueda, sin recorrer los pagos.
+ * <p>
+ * No es seguro para varios hilos; {@link LibroPagos} lo protege con su propio bloqueo.
+ */
+public class AcumuladoIngresos {
+    public static final int CONCEPTO_ESTACIONAMIENTO = 0;
+    public static final int CONCEPTO_MEMBRESIA = 1;
+    public static final int CANTIDAD_CONCEPTOS = 2;
+    // Tipos 0=Automóvil, 1=Moto, 2=Camión como en OcupacionParqueadero, más uno para los desconocidos
+    public static final int TIPO_DESCONOCIDO = OcupacionParqueadero.CANTIDAD_TIPOS;
+    public static final int CANTIDAD_TIPOS = OcupacionParqueadero.CANTIDAD_TIPOS + 1;
+
+    private final Map<LocalDate, long[]> porDia = new HashMap<>();
+    private final Map<YearMonth, long[]> porMes = new HashMap<>();
+    private final Map<Integer, long[]> porAnio = new HashMap<>();
+
+    /**
+     * Suma un pago a los totales de su día, su mes y su año
+     * @param pago El pago a sumar
+     */
+    public void registrar(Pago pago) {
+        registrar(pago.getFechaHora().toLocalDate(), conceptoDe(pago.getConcepto()),
+                tipoDe(pago), aCentavos(pago.getMonto()));
+    }
+
+    /**
+     * Suma un monto ya clasificado a los totales de su día, su mes y su año
+     * @param dia Día del pago
+     * @param concepto CONCEPTO_ESTACIONAMIENTO o CONCEPTO_MEMBRESIA
+     * @param tipo Tipo de vehículo según {@link #tipoDe}
+     * @param centavos Monto en centavos
+     */
+    public void registrar(LocalDate dia, int concepto, int tipo, long centavos) {
+        int celda = celda(concepto, tipo);
+        porDia.computeIfAbsent(dia, d -> nuevaMatriz())[celda] += centavos;
+        porMes.computeIfAbsent(YearMonth.from(dia), m -> nuevaMatriz())[celda] += centavos;
+        porAnio.computeIfAbsent(dia.getYear(), a -> nuevaMatriz())[celda] += centavos;
+    }
+
+    /**
+     * Obtiene los totales de un día
+     * @param dia El día
+     * @return Totales del día
+     */
+    public PagoCodeService.ReporteTotales totalesDia(LocalDate dia) {
+        return aReporte(porDia.get(dia));
+    }
+
+    /**
+     * Obtiene los totales de un mes
+     * @param mes El mes
+     * @return Totales del mes
+     */
+    public PagoCodeService.ReporteTotales totalesMes(YearMonth mes) {
+        return aReporte(porMes.get(mes));
+    }
+
+    /**
+     * Obtiene los totales de un año
+     * @param anio El año
+     * @return Totales del año
+     */
+    public PagoCodeService.ReporteTotales totalesAnio(int anio) {
+        return aReporte(porAnio.get(anio));
+    }
+
+    /**
+     * Obtiene los totales de un rango de días, ambos incluidos.
+     * Los años y meses completos dentro del rango se toman de sus propios
+     * totales, así que solo se suman día a día los extremos.
+     * @param desde Primer día del rango
+     * @param hasta Último día del rango
+     * @return Totales del rango
+     */
+    public PagoCodeService.ReporteTotales totalesEntre(LocalDate desde, LocalDate hasta) {
+        long[] suma = nuevaMatriz();
+        LocalDate dia = desde;
+        while (!dia.isAfter(hasta)) {
+            LocalDate siguiente;
+            if (dia.getDayOfYear() == 1 && !dia.plusYears(1).minusDays(1).isAfter(hasta)) {
+                sumar(suma, porAnio.get(dia.getYear()));
+                siguiente = dia.plusYears(1);
+            } else if (dia.getDayOfMonth() == 1 && !dia.plusMonths(1).minusDays(1).isAfter(hasta)) {
+                sumar(suma, porMes.get(YearMonth.from(dia)));
+                siguiente = dia.plusMonths(1);
+            } else {
+                sumar(suma, porDia.get(dia));
+                siguiente = dia.plusDays(1);
+            }
+            dia = siguiente;
+        }
+        return aReporte(suma);
+    }
+
+    /**
+     * Calcula los totales de una lista cualquiera de pagos
+     * @param pagos Los pagos a sumar
+     * @return Totales de la lista
+     */
+    public static PagoCodeService.ReporteTotales totalizar(Iterable<Pago> pagos) {
+        long[] suma = nuevaMatriz();
+        for (Pago pago : pagos) {
+            suma[celda(conceptoDe(pago.getConcepto()), tipoDe(pago))] += aCentavos(pago.getMonto());
+        }
+        return aReporte(suma);
+    }
+
+    /**
+     * Clasifica el concepto de un pago
+     * @param concepto Concepto del pago
+     * @return CONCEPTO_ESTACIONAMIENTO o CONCEPTO_MEMBRESIA
+     */
+    public static int conceptoDe(String concepto) {
+        return concepto.startsWith("Estacionamiento") ? CONCEPTO_ESTACIONAMIENTO : CONCEPTO_MEMBRESIA;
+    }
+
+    /**
+     * Clasifica el tipo de vehículo de un pago
+     * @param tipoVehiculo Tipo de vehículo como texto
+     * @return 0=Automóvil, 1=Moto, 2=Camión o TIPO_DESCONOCIDO
+     */
+    public static int tipoDe(String tipoVehiculo) {
+        TipoVehiculo tipo = TipoVehiculo.deNombre(tipoVehiculo);
+        return tipo != null ? tipo.ordinal() : TIPO_DESCONOCIDO;
+    }
+
+    /**
+     * Clasifica el tipo de vehículo de un pago
+     * @param pago El pago
+     * @return 0=Automóvil, 1=Moto, 2=Camión o TIPO_DESCONOCIDO
+     */
+    public static int tipoDe(Pago pago) {
+        TipoVehiculo tipo = pago.getTipo();
+        return tipo != null ? tipo.ordinal() : TIPO_DESCONOCIDO;
+    }
+
+    private static int celda(int concepto, int tipo) {
+        return concepto * CANTIDAD_TIPOS + tipo;
+    }
+
+    private static long[] nuevaMatriz() {
+        return new long[CANTIDAD_CONCEPTOS * CANTIDAD_TIPOS];
+    }
+
+    private static long aCentavos(double monto) {
+        return Math.round(monto * 100);
+    }
+
+    private static void sumar(long[] destino, long[] origen) {
+        if (origen != null) {
+            for (int i = 0; i < destino.length; i++) {
+                destino[i] += origen[i];
+            }
+        }
+    }
+
+    private static PagoCodeService.ReporteTotales aReporte(long[] matriz) {
+        if (matriz == null) {
+            return new PagoCodeService.ReporteTotales(0, 0, 0, 0, 0);
+        }
+        long[] porConcepto = new long[CANTIDAD_CONCEPTOS];
+        long[] porTipo = new long[CANTIDAD_TIPOS];
+        for (int concepto = 0; concepto < CANTIDAD_CONCEPTOS; concepto++) {
+            for (int tipo = 0; tipo < CANTIDAD_TIPOS; tipo++) {
+                long valor = matriz[celda(concepto, tipo)];
+                porConcepto[concepto] += valor;
+                porTipo[tipo] += valor;
+            }
+        }
+        return new PagoCodeService.ReporteTotales(
+                porConcepto[CONCEPTO_ESTACIONAMIENTO] / 100.0,
+                porConcepto[CONCEPTO_MEMBRESIA] / 100.0,
+                porTipo[OcupacionParqueadero.TIPO_AUTOMOVIL] / 100.0,
+                porTipo[OcupacionParqueadero.TIPO_MOTO] / 100.0,
+                porTipo[OcupacionParqueadero.TIPO_CAMION] / 100.0
+        );
+    }
+}
@@ -0,0 +1,128 @@
+package codeService;
+
+import java.util.Arrays;
+
+/**
+ * Asignador de puestos físicos para un tipo de vehículo.
+ * Los puestos se numeran desde 1 y el número más bajo es el más cercano a la
+ * entrada. El estado se guarda en un mapa de bits de dos niveles: cada palabra
+ * de {@code palabras} marca 64 puestos y cada bit de {@code resumen} indica si
+ * la palabra correspondiente está llena. Encontrar el primer puesto libre
+ * revisa una palabra de resumen por cada 4096 puestos en lugar de recorrerlos.
+ */
+public class AsignadorPuestos {
+    private static final int BITS_POR_PALABRA = 64;
+
+    private long[] palabras = new long[0];
+    private long[] resumen = new long[0];
+
+    /**
+     * Asigna el puesto libre más cercano a la entrada
+     * @param capacidad Cantidad de puestos configurados para el tipo
+     * @return Número de puesto asignado (desde 1) o -1 si no hay puestos libres
+     */
+    public synchronized int asignar(int capacidad) {
+        if (capacidad <= 0) {
+            return -1;
+        }
+        asegurarCapacidad(capacidad);
+
+        int indice = primerLibre();
+        if (indice < 0 || indice >= capacidad) {
+            return -1;
+        }
+        marcar(indice);
+        return indice + 1;
+    }
+
+    /**
+     * Ocupa un puesto específico, por ejemplo al reconstruir el estado
+     * @param puesto Número de puesto (desde 1)
+     * @return true si el puesto estaba libre y quedó ocupado
+     */
+    public synchronized boolean ocupar(int puesto) {
+        if (puesto < 1) {
+            return false;
+        }
+        int indice = puesto - 1;
+        asegurarCapacidad(indice + 1);
+        if (estaMarcado(indice)) {
+            return false;
+        }
+        marcar(indice);
+        return true;
+    }
+
+    /**
+     * Libera un puesto ocupado
+     * @param puesto Número de puesto (desde 1)
+     * @return true si el puesto estaba ocupado
+     */
+    public synchronized boolean liberar(int puesto) {
+        int indice = puesto - 1;
+        if (indice < 0 || indice >= palabras.length * BITS_POR_PALABRA || !estaMarcado(indice)) {
+            return false;
+        }
+        int palabra = indice / BITS_POR_PALABRA;
+        palabras[palabra] &= ~(1L << (indice % BITS_POR_PALABRA));
+        resumen[palabra / BITS_POR_PALABRA] &= ~(1L << (palabra % BITS_POR_PALABRA));
+        return true;
+    }
+
+    /**
+     * Verifica si un puesto está ocupado
+     * @param puesto Número de puesto (desde 1)
+     * @return true si el puesto está ocupado
+     */
+    public synchronized boolean estaOcupado(int puesto) {
+        int indice = puesto - 1;
+        return indice >= 0 && indice < palabras.length * BITS_POR_PALABRA && estaMarcado(indice);
+    }
+
+    /**
+     * Libera todos los puestos
+     */
+    public synchronized void reiniciar() {
+        Arrays.fill(palabras, 0L);
+        Arrays.fill(resumen, 0L);
+    }
+
+    private int primerLibre() {
+        for (int r = 0; r < resumen.length; r++) {
+            long libres = ~resumen[r];
+            if (libres == 0) {
+                continue;
+            }
+            int palabra = r * BITS_POR_PALABRA + Long.numberOfTrailingZeros(libres);
+            if (palabra >= palabras.length) {
+                return -1;
+            }
+            return palabra * BITS_POR_PALABRA + Long.numberOfTrailingZeros(~palabras[palabra]);
+        }
+        return -1;
+    }
+
+    private boolean estaMarcado(int indice) {
+        return (palabras[indice / BITS_POR_PALABRA] & (1L << (indice % BITS_POR_PALABRA))) != 0;
+    }
+
+    private void marcar(int indice) {
+        int palabra = indice / BITS_POR_PALABRA;
+        palabras[palabra] |= 1L << (indice % BITS_POR_PALABRA);
+        if (palabras[palabra] == -1L) {
+            resumen[palabra / BITS_POR_PALABRA] |= 1L << (palabra % BITS_POR_PALABRA);
+        }
+    }
+
+    private void asegurarCapacidad(int capacidad) {
+        int palabrasNecesarias = (capacidad + BITS_POR_PALABRA - 1) / BITS_POR_PALABRA;
+        if (palabrasNecesarias <= palabras.length) {
+            return;
+        }
+        palabras = Arrays.copyOf(palabras, palabrasNecesarias);
+        int resumenNecesario = (palabrasNecesarias + BITS_POR_PALABRA - 1) / BITS_POR_PALABRA;
+        if (resumenNecesario > resumen.length) {
+            resumen = Arrays.copyOf(resumen, resumenNecesario);
+        }
+    }
+}
@@ -1,18 +1,55 @@
 package codeService;
 
 import model.Cliente;
+import model.FechasMembresia;
 import model.Vehiculo;
+import eventos.ClienteActualizado;
+import eventos.ClienteEliminado;
+import eventos.ClienteRegistrado;
+import persistencia.BitacoraEventos;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
+/**
+ * Registro de clientes con índices por cédula, nombre y teléfono. Cada
+ * operación toma el monitor del servicio para que varios hilos puedan
+ * registrar y consultar a la vez
+ */
 public class ClienteCodeService {
-    private List<Cliente> listaDeClientes;
+    public static final int BUSQUEDA_NOMBRE = 0;
+    public static final int BUSQUEDA_CEDULA = 1;
+    public static final int BUSQUEDA_TELEFONO = 2;
+
+    // Clientes por cédula normalizada, en orden de registro
+    private Map<String, Cliente> clientesPorCedula;
+    // Clientes por teléfono normalizado; varios clientes pueden compartir teléfono
+    private Map<String, List<Cliente>> clientesPorTelefono;
+    // Clientes por nombre en minúsculas, ordenado para buscar por prefijo
+    private NavigableMap<String, List<Cliente>> clientesPorNombre;
+    // Bitácora donde se guardan los clientes nuevos (opcional)
+    private BitacoraEventos bitacora;
+    // Cuenta los clientes eliminados, para que otros índices sepan que deben rehacerse
+    private volatile long bajas;
 
     public ClienteCodeService() {
-        this.listaDeClientes = new ArrayList<>();
+        this.clientesPorCedula = new LinkedHashMap<>();
+        this.clientesPorTelefono = new HashMap<>();
+        this.clientesPorNombre = new TreeMap<>();
+    }
+
+    /**
+     * Establece la bitácora donde se registran los clientes nuevos
+     * @param bitacora Bitácora de eventos
+     */
+    public void setBitacora(BitacoraEventos bitacora) {
+        this.bitacora = bitacora;
     }
 
     /**
@@ -23,7 +60,7 @@ public class ClienteCodeService {
      * @param correo Correo del cliente
      * @return true si se añadió correctamente, false si ya existe un cliente con esa cédula
      */
-    public boolean añadirCliente(String nombre, String cedula, String telefono, String correo) {
+    public synchronized boolean añadirCliente(String nombre, String cedula, String telefono, String correo) {
         // Validar que todos los campos estén completos
         if (nombre == null || cedula == null || telefono == null || correo == null ||
                 nombre.trim().isEmpty() || cedula.trim().isEmpty() ||
@@ -32,48 +69,68 @@ public class ClienteCodeService {
         }
 
         // Validar duplicados por cédula
-        boolean cedulaExiste = listaDeClientes.stream()
-                .anyMatch(c -> c.getCedula().equalsIgnoreCase(cedula));
-
-        if (cedulaExiste) {
+        if (clientesPorCedula.containsKey(normalizar(cedula))) {
             return false;
         }
 
         Cliente nuevoCliente = new Cliente(nombre, cedula, telefono, correo);
-        listaDeClientes.add(nuevoCliente);
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new ClienteRegistrado(nombre, cedula, telefono, correo));
+        }
+        indexar(nuevoCliente);
         return true;
     }
 
+    /**
+     * Agrega a la lista un cliente leído de una instantánea
+     * @param cliente Cliente a agregar
+     */
+    synchronized void restaurarCliente(Cliente cliente) {
+        indexar(cliente);
+    }
+
     /**
      * Busca un cliente según el criterio especificado
      * @param criterio Valor a buscar
      * @param tipoBusqueda Tipo de búsqueda: 0-Nombre, 1-Cédula, 2-Teléfono
      * @return Cliente encontrado o null si no existe
      */
-    public Cliente buscarCliente(String criterio, int tipoBusqueda) {
+    public synchronized Cliente buscarCliente(String criterio, int tipoBusqueda) {
         if (criterio == null || criterio.trim().isEmpty()) {
             return null;
         }
 
         // Buscar según el criterio seleccionado
-        Cliente clienteEncontrado = null;
-        switch (tipoBusqueda) {
-            case 0 -> clienteEncontrado = listaDeClientes.stream()
-                    .filter(c -> c.getNombre().equalsIgnoreCase(criterio))
-                    .findFirst()
-                    .orElse(null);
-            case 1 -> clienteEncontrado = listaDeClientes.stream()
-                    .filter(c -> c.getCedula().equalsIgnoreCase(criterio))
-                    .findFirst()
-                    .orElse(null);
-            case 2 -> clienteEncontrado = listaDeClientes.stream()
-                    .filter(c -> c.getTelefono().equalsIgnoreCase(criterio))
-                    .findFirst()
-                    .orElse(null);
-            default -> clienteEncontrado = null;
-        }
-
-        return clienteEncontrado;
+        return switch (tipoBusqueda) {
+            case BUSQUEDA_NOMBRE -> primero(clientesPorNombre.get(normalizar(criterio)));
+            case BUSQUEDA_CEDULA -> clientesPorCedula.get(normalizar(criterio));
+            case BUSQUEDA_TELEFONO -> primero(clientesPorTelefono.get(normalizarTelefono(criterio)));
+            default -> null;
+        };
+    }
+
+    /**
+     * Busca los clientes cuyo nombre empieza por un texto, sin distinguir mayúsculas
+     * @param prefijo Inicio del nombre
+     * @param limite Cantidad máxima de clientes a retornar
+     * @return Clientes encontrados, ordenados por nombre, o lista vacía si no hay
+     */
+    public synchronized List<Cliente> buscarClientesPorPrefijoNombre(String prefijo, int limite) {
+        List<Cliente> encontrados = new ArrayList<>();
+        if (prefijo == null || prefijo.trim().isEmpty() || limite <= 0) {
+            return encontrados;
+        }
+
+        String desde = normalizar(prefijo);
+        for (List<Cliente> clientes : clientesPorNombre.subMap(desde, true, desde + Character.MAX_VALUE, false).values()) {
+            for (Cliente cliente : clientes) {
+                encontrados.add(cliente);
+                if (encontrados.size() == limite) {
+                    return encontrados;
+                }
+            }
+        }
+        return encontrados;
     }
 
     /**
@@ -83,14 +140,31 @@ public class ClienteCodeService {
      * @param nuevoValor Nuevo valor para el campo
      * @return true si la actualización fue exitosa, false en caso contrario
      */
-    public boolean actualizarCliente(Cliente cliente, int campo, String nuevoValor) {
-        if (cliente == null || nuevoValor == null || nuevoValor.trim().isEmpty()) {
+    public synchronized boolean actualizarCliente(Cliente cliente, int campo, String nuevoValor) {
+        if (cliente == null || nuevoValor == null || nuevoValor.trim().isEmpty() || campo < 0 || campo > 2) {
             return false;
         }
 
+        // Solo se reindexa (y se guarda en la bitácora) si el cliente es el registrado con su cédula
+        boolean registrado = clientesPorCedula.get(normalizar(cliente.getCedula())) == cliente;
+        if (registrado && bitacora != null) {
+            bitacora.registrarYEsperar(new ClienteActualizado(cliente.getCedula(), campo, nuevoValor));
+        }
         switch (campo) {
-            case 0 -> cliente.setNombre(nuevoValor);
-            case 1 -> cliente.setTelefono(nuevoValor);
+            case 0 -> {
+                if (registrado) {
+                    quitar(clientesPorNombre, normalizar(cliente.getNombre()), cliente);
+                    agregar(clientesPorNombre, normalizar(nuevoValor), cliente);
+                }
+                cliente.setNombre(nuevoValor);
+            }
+            case 1 -> {
+                if (registrado) {
+                    quitar(clientesPorTelefono, normalizarTelefono(cliente.getTelefono()), cliente);
+                    agregar(clientesPorTelefono, normalizarTelefono(nuevoValor), cliente);
+                }
+                cliente.setTelefono(nuevoValor);
+            }
             case 2 -> cliente.setCorreo(nuevoValor);
             default -> {
                 return false;
@@ -105,12 +179,32 @@ public class ClienteCodeService {
      * @param cliente Cliente a eliminar
      * @return true si se eliminó correctamente, false en caso contrario
      */
-    public boolean eliminarCliente(Cliente cliente) {
-        if (cliente == null || !listaDeClientes.contains(cliente)) {
+    public synchronized boolean eliminarCliente(Cliente cliente) {
+        if (cliente == null) {
             return false;
         }
 
-        return listaDeClientes.remove(cliente);
+        String cedula = normalizar(cliente.getCedula());
+        if (clientesPorCedula.get(cedula) != cliente) {
+            return false;
+        }
+
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new ClienteEliminado(cliente.getCedula()));
+        }
+        clientesPorCedula.remove(cedula);
+        bajas++;
+        quitar(clientesPorNombre, normalizar(cliente.getNombre()), cliente);
+        quitar(clientesPorTelefono, normalizarTelefono(cliente.getTelefono()), cliente);
+        return true;
+    }
+
+    /**
+     * Obtiene cuántos clientes se han eliminado
+     * @return Contador que solo crece
+     */
+    long getBajas() {
+        return bajas;
     }
 
     /**
@@ -119,19 +213,10 @@ public class ClienteCodeService {
      * @return true si tiene cobertura activa, false en caso contrario
      */
     public boolean verificarCoberturaVehiculo(Vehiculo vehiculo) {
-        if (vehiculo == null || vehiculo.getMembresia() == null || vehiculo.getFechaFinMembresia() == null) {
-            return false;
-        }
-
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            LocalDate fechaActual = LocalDate.now();
-            LocalDate fechaFin = LocalDate.parse(vehiculo.getFechaFinMembresia(), formatter);
-
-            return fechaActual.isBefore(fechaFin) || fechaActual.isEqual(fechaFin);
-        } catch (Exception e) {
+        if (vehiculo == null || vehiculo.getMembresia() == null) {
             return false;
         }
+        return FechasMembresia.hoy() <= vehiculo.getDiaFinMembresia();
     }
 
     /**
@@ -152,15 +237,67 @@ public class ClienteCodeService {
      * Obtiene todos los clientes registrados en el sistema
      * @return Lista con todos los clientes o lista vacía si no hay ninguno
      */
-    public List<Cliente> obtenerTodosLosClientes() {
-        return new ArrayList<>(listaDeClientes);
+    public synchronized List<Cliente> obtenerTodosLosClientes() {
+        return new ArrayList<>(clientesPorCedula.values());
     }
 
     /**
      * Obtiene el número de clientes registrados
      * @return Número de clientes
      */
-    public int obtenerNumeroClientes() {
-        return listaDeClientes.size();
+    public synchronized int obtenerNumeroClientes() {
+        return clientesPorCedula.size();
+    }
+
+    private void indexar(Cliente cliente) {
+        if (clientesPorCedula.putIfAbsent(normalizar(cliente.getCedula()), cliente) != null) {
+            return;
+        }
+        agregar(clientesPorNombre, normalizar(cliente.getNombre()), cliente);
+        agregar(clientesPorTelefono, normalizarTelefono(cliente.getTelefono()), cliente);
+    }
+
+    private static void agregar(Map<String, List<Cliente>> indice, String clave, Cliente cliente) {
+        if (clave != null) {
+            indice.computeIfAbsent(clave, c -> new ArrayList<>(1)).add(cliente);
+        }
+    }
+
+    private static void quitar(Map<String, List<Cliente>> indice, String clave, Cliente cliente) {
+        List<Cliente> clientes = clave != null ? indice.get(clave) : null;
+        if (clientes != null) {
+            clientes.remove(cliente);
+            if (clientes.isEmpty()) {
+                indice.remove(clave);
+            }
+        }
+    }
+
+    private static Cliente primero(List<Cliente> clientes) {
+        return clientes != null && !clientes.isEmpty() ? clientes.get(0) : null;
+    }
+
+    /**
+     * Normaliza un texto para usarlo como llave: sin espacios al inicio o al final y en minúsculas
+     */
+    private static String normalizar(String texto) {
+        return texto != null ? texto.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Normaliza un teléfono dejando solo letras y dígitos, así "300 123-4567" y "3001234567" son iguales
+     */
+    private static String normalizarTelefono(String telefono) {
+        if (telefono == null) {
+            return null;
+        }
+        StringBuilder normalizado = new StringBuilder(telefono.length());
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalizado.append(Character.toLowerCase(c));
+            }
+        }
+        return normalizado.toString();
     }
 }
\ No newline at end of file
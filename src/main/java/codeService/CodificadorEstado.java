@@ -0,0 +1,264 @@
+package codeService;
+
+import model.Automovil;
+import model.Camion;
+import model.Cliente;
+import model.Membresia;
+import model.Moto;
+import model.Pago;
+import model.Parqueadero;
+import model.TipoMembresia;
+import model.Vehiculo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static persistencia.CodificadorEventos.escribirFechaHora;
+import static persistencia.CodificadorEventos.escribirTexto;
+import static persistencia.CodificadorEventos.leerFechaHora;
+import static persistencia.CodificadorEventos.leerTexto;
+
+/**
+ * Escribe y lee el estado completo de los servicios en formato binario para
+ * las instantáneas. Cada vehículo se guarda una sola vez en una tabla y las
+ * demás estructuras (registro, clientes, parqueadero, pagos) lo referencian
+ * por su posición, de modo que al leer se conserva que todas compartan el
+ * mismo objeto.
+ */
+final class CodificadorEstado {
+    private static final int VERSION = 2; // 2: fechas de membresía como días
+    private static final TipoMembresia[] TIPOS_MEMBRESIA = TipoMembresia.values();
+
+    private CodificadorEstado() {
+    }
+
+    /**
+     * Escribe el estado de los servicios
+     */
+    static void escribir(DataOutput salida, ClienteCodeService clienteService, VehiculoCodeService vehiculoService,
+                         ParqueaderoCodeService parqueaderoService, PagoCodeService pagoService) throws IOException {
+        List<Vehiculo> registrados = vehiculoService.obtenerTodosLosVehiculos();
+        Map<String, List<Vehiculo>> porCedula = vehiculoService.obtenerVehiculosPorCedula();
+        List<Cliente> clientes = clienteService.obtenerTodosLosClientes();
+        List<RegistroEstacionamiento> estancias = parqueaderoService.obtenerRegistros();
+        List<Pago> pagos = pagoService.getHistorialPagos();
+
+        // Tabla de vehículos sin repetir el mismo objeto
+        Map<Vehiculo, Integer> indices = new IdentityHashMap<>();
+        List<Vehiculo> tabla = new ArrayList<>();
+        registrados.forEach(v -> agregar(v, indices, tabla));
+        porCedula.values().forEach(lista -> lista.forEach(v -> agregar(v, indices, tabla)));
+        clientes.forEach(c -> c.getVehiculos().forEach(v -> agregar(v, indices, tabla)));
+        estancias.forEach(r -> agregar(r.getVehiculo(), indices, tabla));
+        pagos.forEach(p -> agregar(p.getVehiculo(), indices, tabla));
+
+        salida.writeInt(VERSION);
+        escribirParqueadero(salida, parqueaderoService);
+
+        salida.writeInt(tabla.size());
+        for (Vehiculo vehiculo : tabla) {
+            salida.writeByte(OcupacionParqueadero.tipoDeVehiculo(vehiculo));
+            escribirTexto(salida, vehiculo.getPlaca());
+            escribirTexto(salida, vehiculo.getColor());
+            escribirTexto(salida, vehiculo.getModelo());
+            escribirTipoMembresia(salida, vehiculo.getMembresia());
+            salida.writeInt(vehiculo.getDiaInicioMembresia());
+            salida.writeInt(vehiculo.getDiaFinMembresia());
+        }
+
+        salida.writeInt(clientes.size());
+        for (Cliente cliente : clientes) {
+            escribirTexto(salida, cliente.getNombre());
+            escribirTexto(salida, cliente.getCedula());
+            escribirTexto(salida, cliente.getTelefono());
+            escribirTexto(salida, cliente.getCorreo());
+            salida.writeInt(cliente.getMembresias().size());
+            for (Membresia membresia : cliente.getMembresias()) {
+                escribirTipoMembresia(salida, membresia.getTipo());
+                salida.writeInt(membresia.getDiaInicio());
+                salida.writeInt(membresia.getDiaFin());
+                salida.writeInt(membresia.getTarifa());
+            }
+            escribirReferencias(salida, cliente.getVehiculos(), indices);
+        }
+
+        escribirReferencias(salida, registrados, indices);
+        salida.writeInt(porCedula.size());
+        for (Map.Entry<String, List<Vehiculo>> entry : porCedula.entrySet()) {
+            escribirTexto(salida, entry.getKey());
+            escribirReferencias(salida, entry.getValue(), indices);
+        }
+
+        salida.writeInt(estancias.size());
+        for (RegistroEstacionamiento registro : estancias) {
+            salida.writeInt(indices.get(registro.getVehiculo()));
+            escribirFechaHora(salida, registro.getHoraEntrada());
+            salida.writeInt(registro.getPuesto());
+        }
+
+        salida.writeInt(pagos.size());
+        for (Pago pago : pagos) {
+            escribirTexto(salida, pago.getId());
+            salida.writeDouble(pago.getMonto());
+            escribirFechaHora(salida, pago.getFechaHora());
+            escribirTexto(salida, pago.getConcepto());
+            escribirTexto(salida, pago.getTipoVehiculo());
+            salida.writeInt(pago.getVehiculo() != null ? indices.get(pago.getVehiculo()) : -1);
+            escribirTexto(salida, pago.getCliente() != null ? pago.getCliente().getCedula() : null);
+        }
+    }
+
+    /**
+     * Lee el estado en servicios recién creados
+     */
+    static void leer(DataInput entrada, ClienteCodeService clienteService, VehiculoCodeService vehiculoService,
+                     ParqueaderoCodeService parqueaderoService, PagoCodeService pagoService) throws IOException {
+        int version = entrada.readInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+        leerParqueadero(entrada, parqueaderoService);
+
+        Vehiculo[] tabla = new Vehiculo[entrada.readInt()];
+        for (int i = 0; i < tabla.length; i++) {
+            int tipo = entrada.readByte();
+            String placa = leerTexto(entrada);
+            String color = leerTexto(entrada);
+            String modelo = leerTexto(entrada);
+            Vehiculo vehiculo = switch (tipo) {
+                case OcupacionParqueadero.TIPO_AUTOMOVIL -> new Automovil(placa, color, modelo);
+                case OcupacionParqueadero.TIPO_MOTO -> new Moto(placa, color, modelo);
+                case OcupacionParqueadero.TIPO_CAMION -> new Camion(placa, color, modelo);
+                default -> new Vehiculo(placa, color, modelo);
+            };
+            vehiculo.setMembresia(leerTipoMembresia(entrada));
+            vehiculo.setDiaInicioMembresia(entrada.readInt());
+            vehiculo.setDiaFinMembresia(entrada.readInt());
+            tabla[i] = vehiculo;
+        }
+
+        Map<String, Cliente> clientesPorCedula = new HashMap<>();
+        int totalClientes = entrada.readInt();
+        for (int i = 0; i < totalClientes; i++) {
+            Cliente cliente = new Cliente(leerTexto(entrada), leerTexto(entrada), leerTexto(entrada), leerTexto(entrada));
+            int totalMembresias = entrada.readInt();
+            for (int j = 0; j < totalMembresias; j++) {
+                cliente.getMembresias().add(new Membresia(leerTipoMembresia(entrada), entrada.readInt(),
+                        entrada.readInt(), entrada.readInt()));
+            }
+            cliente.getVehiculos().addAll(leerReferencias(entrada, tabla));
+            clienteService.restaurarCliente(cliente);
+            clientesPorCedula.put(cliente.getCedula(), cliente);
+        }
+
+        for (Vehiculo vehiculo : leerReferencias(entrada, tabla)) {
+            vehiculoService.restaurarVehiculo(vehiculo);
+        }
+        int totalCedulas = entrada.readInt();
+        for (int i = 0; i < totalCedulas; i++) {
+            String cedula = leerTexto(entrada);
+            for (Vehiculo vehiculo : leerReferencias(entrada, tabla)) {
+                vehiculoService.restaurarAsignacion(cedula, vehiculo);
+            }
+        }
+
+        int totalEstancias = entrada.readInt();
+        for (int i = 0; i < totalEstancias; i++) {
+            Vehiculo vehiculo = tabla[entrada.readInt()];
+            parqueaderoService.restaurarEstancia(vehiculo, leerFechaHora(entrada), entrada.readInt());
+        }
+
+        int totalPagos = entrada.readInt();
+        for (int i = 0; i < totalPagos; i++) {
+            String id = leerTexto(entrada);
+            double monto = entrada.readDouble();
+            LocalDateTime fechaHora = leerFechaHora(entrada);
+            String concepto = leerTexto(entrada);
+            String tipoVehiculo = leerTexto(entrada);
+            int vehiculo = entrada.readInt();
+            String cedula = leerTexto(entrada);
+            pagoService.restaurarPago(new Pago(id, monto, fechaHora, concepto,
+                    vehiculo >= 0 ? tabla[vehiculo] : null,
+                    cedula != null ? clientesPorCedula.get(cedula) : null, tipoVehiculo));
+        }
+    }
+
+    private static void escribirParqueadero(DataOutput salida, ParqueaderoCodeService parqueaderoService)
+            throws IOException {
+        Parqueadero parqueadero = parqueaderoService.getParqueadero();
+        salida.writeBoolean(parqueadero != null);
+        if (parqueadero != null) {
+            escribirTexto(salida, parqueadero.getNombre());
+            escribirTexto(salida, parqueadero.getDireccion());
+            escribirTexto(salida, parqueadero.getRepresentante());
+            escribirTexto(salida, parqueadero.getTelefono());
+            escribirTexto(salida, parqueadero.getCorreo());
+            salida.writeInt(parqueadero.getPuestosMotos());
+            salida.writeInt(parqueadero.getPuestosAutomoviles());
+            salida.writeInt(parqueadero.getPuestosCamiones());
+        }
+        salida.writeDouble(parqueaderoService.obtenerTarifaPorTipo(OcupacionParqueadero.TIPO_MOTO));
+        salida.writeDouble(parqueaderoService.obtenerTarifaPorTipo(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        salida.writeDouble(parqueaderoService.obtenerTarifaPorTipo(OcupacionParqueadero.TIPO_CAMION));
+    }
+
+    private static void leerParqueadero(DataInput entrada, ParqueaderoCodeService parqueaderoService)
+            throws IOException {
+        if (entrada.readBoolean()) {
+            Parqueadero parqueadero = parqueaderoService.getParqueadero();
+            if (parqueadero == null) {
+                parqueadero = new Parqueadero();
+                parqueadero.setListaDevehiculos(new ArrayList<>());
+                parqueaderoService.setParqueadero(parqueadero);
+            }
+            parqueadero.setNombre(leerTexto(entrada));
+            parqueadero.setDireccion(leerTexto(entrada));
+            parqueadero.setRepresentante(leerTexto(entrada));
+            parqueadero.setTelefono(leerTexto(entrada));
+            parqueadero.setCorreo(leerTexto(entrada));
+            // Por el servicio, para que publique el estado con la nueva capacidad
+            parqueaderoService.configurarEspacios(entrada.readInt(), entrada.readInt(), entrada.readInt());
+        }
+        parqueaderoService.configurarTarifas(entrada.readDouble(), entrada.readDouble(), entrada.readDouble());
+    }
+
+    private static void agregar(Vehiculo vehiculo, Map<Vehiculo, Integer> indices, List<Vehiculo> tabla) {
+        if (vehiculo != null && !indices.containsKey(vehiculo)) {
+            indices.put(vehiculo, tabla.size());
+            tabla.add(vehiculo);
+        }
+    }
+
+    private static void escribirReferencias(DataOutput salida, List<Vehiculo> vehiculos,
+                                            Map<Vehiculo, Integer> indices) throws IOException {
+        salida.writeInt(vehiculos.size());
+        for (Vehiculo vehiculo : vehiculos) {
+            salida.writeInt(indices.get(vehiculo));
+        }
+    }
+
+    private static List<Vehiculo> leerReferencias(DataInput entrada, Vehiculo[] tabla) throws IOException {
+        int total = entrada.readInt();
+        List<Vehiculo> vehiculos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            vehiculos.add(tabla[entrada.readInt()]);
+        }
+        return vehiculos;
+    }
+
+    private static void escribirTipoMembresia(DataOutput salida, TipoMembresia tipo) throws IOException {
+        salida.writeByte(tipo != null ? tipo.ordinal() : -1);
+    }
+
+    private static TipoMembresia leerTipoMembresia(DataInput entrada) throws IOException {
+        int ordinal = entrada.readByte();
+        return ordinal >= 0 ? TIPOS_MEMBRESIA[ordinal] : null;
+    }
+}
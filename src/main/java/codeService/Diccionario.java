@@ -0,0 +1,59 @@
+package codeService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de valores repetidos: a cada valor distinto le asigna un código
+ * entero consecutivo desde 0, para guardar el código en lugar del valor.
+ * No es seguro para varios hilos.
+ * @param <T> Tipo de los valores
+ */
+class Diccionario<T> {
+    private final Map<T, Integer> codigos = new HashMap<>();
+    private final List<T> valores = new ArrayList<>();
+
+    /**
+     * Obtiene el código de un valor, agregándolo si es nuevo
+     * @param valor El valor
+     * @return Código del valor
+     */
+    int codigo(T valor) {
+        Integer codigo = codigos.get(valor);
+        if (codigo == null) {
+            codigo = valores.size();
+            codigos.put(valor, codigo);
+            valores.add(valor);
+        }
+        return codigo;
+    }
+
+    /**
+     * Obtiene el código de un valor sin agregarlo
+     * @param valor El valor
+     * @return Código del valor o -1 si no está en el diccionario
+     */
+    int buscar(T valor) {
+        Integer codigo = codigos.get(valor);
+        return codigo != null ? codigo : -1;
+    }
+
+    /**
+     * Obtiene el valor de un código
+     * @param codigo Código asignado por {@link #codigo}
+     * @return El valor
+     */
+    T valor(int codigo) {
+        return valores.get(codigo);
+    }
+
+    /**
+     * Obtiene la cantidad de valores distintos
+     * @return Número de valores
+     */
+    int tamano() {
+        return valores.size();
+    }
+}
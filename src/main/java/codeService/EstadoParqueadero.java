@@ -0,0 +1,71 @@
+package codeService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Foto inmutable de la ocupación del parqueadero.
+ * <p>
+ * {@link ParqueaderoCodeService} publica una nueva después de cada entrada,
+ * salida o cambio de capacidad, con una versión mayor que la anterior. Leerla
+ * no bloquea ni crea objetos, así que los tableros pueden consultarla seguido
+ * y comparar la versión para no volver a dibujar cuando nada cambió.
+ * @param version Número que crece con cada cambio publicado
+ */
+public record EstadoParqueadero(long version,
+                                int motosActuales, int motosTotales,
+                                int automovilesActuales, int automovilesTotales,
+                                int camionesActuales, int camionesTotales) {
+
+    /** Estado de un parqueadero sin espacios ni vehículos */
+    public static final EstadoParqueadero VACIO = new EstadoParqueadero(0, 0, 0, 0, 0, 0, 0);
+
+    public int motosDisponibles() {
+        return motosTotales - motosActuales;
+    }
+
+    public int automovilesDisponibles() {
+        return automovilesTotales - automovilesActuales;
+    }
+
+    public int camionesDisponibles() {
+        return camionesTotales - camionesActuales;
+    }
+
+    public int totalEspacios() {
+        return motosTotales + automovilesTotales + camionesTotales;
+    }
+
+    public int totalOcupacion() {
+        return motosActuales + automovilesActuales + camionesActuales;
+    }
+
+    /**
+     * Indica si este estado es posterior a una versión ya vista
+     * @param version Versión que tiene quien consulta
+     * @return true si hubo cambios desde esa versión
+     */
+    public boolean cambioDesde(long version) {
+        return this.version > version;
+    }
+
+    /**
+     * Convierte el estado al mapa que devuelve {@link ParqueaderoCodeService#obtenerEstadoParqueadero()}
+     * @return Mapa con datos de ocupación
+     */
+    public Map<String, Object> aMapa() {
+        Map<String, Object> estado = new HashMap<>();
+        estado.put("motosActuales", motosActuales);
+        estado.put("motosTotales", motosTotales);
+        estado.put("motosDisponibles", motosDisponibles());
+        estado.put("automovilesActuales", automovilesActuales);
+        estado.put("automovilesTotales", automovilesTotales);
+        estado.put("automovilesDisponibles", automovilesDisponibles());
+        estado.put("camionesActuales", camionesActuales);
+        estado.put("camionesTotales", camionesTotales);
+        estado.put("camionesDisponibles", camionesDisponibles());
+        estado.put("totalEspacios", totalEspacios());
+        estado.put("totalOcupacion", totalOcupacion());
+        return estado;
+    }
+}
@@ -0,0 +1,190 @@
+package codeService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Índice de placas para búsquedas parciales mientras se escribe.
+ * <p>
+ * Las placas se guardan en un conjunto ordenado, así que las que empiezan por
+ * un texto forman un rango contiguo. Para buscar un texto en cualquier parte de
+ * la placa, cada placa tiene un número y cada trigrama (tres caracteres
+ * seguidos) guarda los números de las placas que lo contienen. Se recorre solo
+ * la lista del trigrama menos frecuente del texto y se verifica cada candidata.
+ * <p>
+ * Las placas eliminadas dejan su número vacío en las listas de trigramas; cuando
+ * hay más vacíos que placas vigentes el índice se reconstruye.
+ * Las placas deben llegar ya normalizadas. No es seguro para varios hilos.
+ */
+public class IndicePlacas {
+    private static final int LARGO_TRIGRAMA = 3;
+    private static final int MINIMO_PARA_RECONSTRUIR = 1024;
+
+    private final NavigableSet<String> placasOrdenadas = new TreeSet<>();
+    private final Map<String, Integer> numeroPorPlaca = new HashMap<>();
+    private final List<String> placaPorNumero = new ArrayList<>();
+    private final Map<String, Numeros> placasPorTrigrama = new HashMap<>();
+    private int eliminadas;
+
+    /**
+     * Agrega una placa al índice
+     * @param placa Placa normalizada
+     * @return true si se agregó, false si ya estaba o es nula
+     */
+    public boolean agregar(String placa) {
+        if (placa == null || numeroPorPlaca.containsKey(placa)) {
+            return false;
+        }
+        int numero = placaPorNumero.size();
+        placaPorNumero.add(placa);
+        numeroPorPlaca.put(placa, numero);
+        placasOrdenadas.add(placa);
+        indexarTrigramas(placa, numero);
+        return true;
+    }
+
+    /**
+     * Quita una placa del índice
+     * @param placa Placa normalizada
+     * @return true si se quitó, false si no estaba
+     */
+    public boolean quitar(String placa) {
+        Integer numero = placa != null ? numeroPorPlaca.remove(placa) : null;
+        if (numero == null) {
+            return false;
+        }
+        placaPorNumero.set(numero, null);
+        placasOrdenadas.remove(placa);
+        eliminadas++;
+        if (eliminadas >= MINIMO_PARA_RECONSTRUIR && eliminadas > numeroPorPlaca.size()) {
+            reconstruir();
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la cantidad de placas en el índice
+     * @return Número de placas
+     */
+    public int tamano() {
+        return numeroPorPlaca.size();
+    }
+
+    /**
+     * Busca las placas que contienen un texto, por páginas.
+     * Primero va la placa exacta, luego las que empiezan por el texto en orden
+     * alfabético y al final las que lo contienen más adelante, ordenadas por la
+     * posición donde aparece y luego alfabéticamente. Los textos de menos de
+     * tres caracteres solo buscan por inicio de placa.
+     * @param texto Texto normalizado a buscar
+     * @param pagina Número de página, desde 0
+     * @param tamanoPagina Cantidad de placas por página
+     * @return Placas de la página pedida o lista vacía si no hay más
+     */
+    public List<String> buscar(String texto, int pagina, int tamanoPagina) {
+        if (texto == null || texto.isEmpty() || pagina < 0 || tamanoPagina <= 0) {
+            return new ArrayList<>();
+        }
+        long necesarias = (long) (pagina + 1) * tamanoPagina;
+        List<String> resultado = new ArrayList<>();
+
+        // El texto exacto es el primero de su rango en el conjunto ordenado
+        for (String placa : placasOrdenadas.subSet(texto, true, texto + Character.MAX_VALUE, false)) {
+            resultado.add(placa);
+            if (resultado.size() == necesarias) {
+                break;
+            }
+        }
+
+        if (resultado.size() < necesarias && texto.length() >= LARGO_TRIGRAMA) {
+            List<String> interiores = buscarInteriores(texto);
+            interiores.sort(Comparator.comparingInt((String placa) -> placa.indexOf(texto))
+                    .thenComparing(Comparator.naturalOrder()));
+            for (String placa : interiores) {
+                resultado.add(placa);
+                if (resultado.size() == necesarias) {
+                    break;
+                }
+            }
+        }
+
+        int desde = (int) Math.min(resultado.size(), (long) pagina * tamanoPagina);
+        return new ArrayList<>(resultado.subList(desde, resultado.size()));
+    }
+
+    /**
+     * Busca las placas que contienen el texto sin empezar por él
+     */
+    private List<String> buscarInteriores(String texto) {
+        Numeros menor = null;
+        for (int i = 0; i + LARGO_TRIGRAMA <= texto.length(); i++) {
+            Numeros numeros = placasPorTrigrama.get(texto.substring(i, i + LARGO_TRIGRAMA));
+            if (numeros == null) {
+                return new ArrayList<>();
+            }
+            if (menor == null || numeros.cantidad < menor.cantidad) {
+                menor = numeros;
+            }
+        }
+
+        List<String> encontradas = new ArrayList<>();
+        for (int i = 0; i < menor.cantidad; i++) {
+            String placa = placaPorNumero.get(menor.valores[i]);
+            if (placa != null && placa.indexOf(texto) > 0) {
+                encontradas.add(placa);
+            }
+        }
+        return encontradas;
+    }
+
+    private void indexarTrigramas(String placa, int numero) {
+        for (int i = 0; i + LARGO_TRIGRAMA <= placa.length(); i++) {
+            placasPorTrigrama.computeIfAbsent(placa.substring(i, i + LARGO_TRIGRAMA), t -> new Numeros())
+                    .agregar(numero);
+        }
+    }
+
+    private void reconstruir() {
+        List<String> vigentes = new ArrayList<>(numeroPorPlaca.size());
+        for (String placa : placaPorNumero) {
+            if (placa != null) {
+                vigentes.add(placa);
+            }
+        }
+        placaPorNumero.clear();
+        numeroPorPlaca.clear();
+        placasPorTrigrama.clear();
+        eliminadas = 0;
+        for (String placa : vigentes) {
+            int numero = placaPorNumero.size();
+            placaPorNumero.add(placa);
+            numeroPorPlaca.put(placa, numero);
+            indexarTrigramas(placa, numero);
+        }
+    }
+
+    /**
+     * Lista creciente de números de placa de un trigrama
+     */
+    private static final class Numeros {
+        int[] valores = new int[2];
+        int cantidad;
+
+        void agregar(int numero) {
+            // Un trigrama repetido en la misma placa se guarda una sola vez
+            if (cantidad > 0 && valores[cantidad - 1] == numero) {
+                return;
+            }
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = numero;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package codeService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de placas tolerante a errores de lectura de cámaras.
+ * <p>
+ * Cada placa se lleva a una forma canónica donde los caracteres que una cámara
+ * confunde se vuelven el mismo dígito (O, Q y D son 0; I y L son 1; Z es 2;
+ * S es 5; G es 6; B es 8) y se descartan los separadores. Así una lectura como
+ * "A8C-l23" encuentra "ABC123" con una sola búsqueda.
+ * <p>
+ * Para tolerar además un carácter mal leído, sobrante, faltante o dos
+ * caracteres vecinos intercambiados, se usa el método de borrado simétrico: por
+ * cada forma canónica se guardan todas las variantes que resultan de borrarle un
+ * carácter. Una lectura se compara con las formas y variantes de sí misma, lo
+ * que cuesta unas pocas búsquedas en mapas sin importar cuántas placas haya.
+ * <p>
+ * Las placas deben llegar ya normalizadas. Es seguro para varios hilos sin un
+ * bloqueo común: agregar o quitar una placa solo toma las llaves de su forma
+ * canónica y de sus variantes, así las porterías con placas distintas no se
+ * esperan entre sí, y las búsquedas no se bloquean.
+ */
+public class IndicePlacasAproximado {
+    /** Máxima distancia de edición entre formas canónicas para considerar una placa candidata */
+    public static final int DISTANCIA_MAXIMA = 1;
+
+    // Placas por forma canónica; varias placas distintas pueden compartir forma
+    private final Map<String, Set<String>> placasPorCanonica = new ConcurrentHashMap<>();
+    // Formas canónicas por cada variante con un carácter borrado. Solo se cambia mientras
+    // se tiene la llave de la forma en placasPorCanonica, siempre en ese orden
+    private final Map<String, Set<String>> canonicasPorBorrado = new ConcurrentHashMap<>();
+
+    /**
+     * Agrega una placa al índice
+     * @param placa Placa normalizada
+     */
+    public void agregar(String placa) {
+        String canonica = canonica(placa);
+        if (canonica == null) {
+            return;
+        }
+        placasPorCanonica.compute(canonica, (forma, placas) -> {
+            if (placas == null) {
+                placas = ConcurrentHashMap.newKeySet(2);
+                for (String borrado : borrados(forma)) {
+                    canonicasPorBorrado.compute(borrado, (b, canonicas) -> {
+                        if (canonicas == null) {
+                            canonicas = ConcurrentHashMap.newKeySet(2);
+                        }
+                        canonicas.add(forma);
+                        return canonicas;
+                    });
+                }
+            }
+            placas.add(placa);
+            return placas;
+        });
+    }
+
+    /**
+     * Quita una placa del índice
+     * @param placa Placa normalizada
+     */
+    public void quitar(String placa) {
+        String canonica = canonica(placa);
+        if (canonica == null) {
+            return;
+        }
+        placasPorCanonica.computeIfPresent(canonica, (forma, placas) -> {
+            if (!placas.remove(placa) || !placas.isEmpty()) {
+                return placas;
+            }
+            for (String borrado : borrados(forma)) {
+                canonicasPorBorrado.computeIfPresent(borrado, (b, canonicas) -> {
+                    canonicas.remove(forma);
+                    return canonicas.isEmpty() ? null : canonicas;
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Quita todas las placas del índice
+     */
+    public void limpiar() {
+        placasPorCanonica.clear();
+        canonicasPorBorrado.clear();
+    }
+
+    /**
+     * Busca las placas que se parecen a una lectura, de la más a la menos parecida:
+     * primero la placa idéntica, luego las de la misma forma canónica y al final
+     * las que están a {@link #DISTANCIA_MAXIMA} de distancia, en orden alfabético
+     * @param lectura Placa leída, normalizada
+     * @return Placas candidatas o lista vacía si no hay ninguna
+     */
+    public List<String> buscar(String lectura) {
+        List<String> candidatas = new ArrayList<>();
+        String canonica = canonica(lectura);
+        if (canonica == null) {
+            return candidatas;
+        }
+
+        Set<String> mismaForma = placasPorCanonica.getOrDefault(canonica, Set.of());
+        if (mismaForma.contains(lectura)) {
+            candidatas.add(lectura);
+        }
+        for (String placa : new TreeSet<>(mismaForma)) {
+            if (!placa.equals(lectura)) {
+                candidatas.add(placa);
+            }
+        }
+
+        TreeSet<String> cercanas = new TreeSet<>();
+        for (String otra : formasCercanas(canonica)) {
+            cercanas.addAll(placasPorCanonica.getOrDefault(otra, Set.of()));
+        }
+        candidatas.addAll(cercanas);
+        return candidatas;
+    }
+
+    /**
+     * Busca la placa que corresponde a una lectura solo si no hay duda: la
+     * idéntica, o la única del grupo más parecido
+     * @param lectura Placa leída, normalizada
+     * @return La placa o null si no hay ninguna o hay varias igual de parecidas
+     */
+    public String buscarUnica(String lectura) {
+        String canonica = canonica(lectura);
+        if (canonica == null) {
+            return null;
+        }
+        Set<String> mismaForma = placasPorCanonica.get(canonica);
+        if (mismaForma != null) {
+            if (mismaForma.contains(lectura)) {
+                return lectura;
+            }
+            return unica(mismaForma);
+        }
+        Set<String> cercanas = formasCercanas(canonica);
+        if (cercanas.size() != 1) {
+            return null;
+        }
+        return unica(placasPorCanonica.getOrDefault(cercanas.iterator().next(), Set.of()));
+    }
+
+    /**
+     * Obtiene la única placa de un grupo, leyéndolo una sola vez porque otro hilo puede cambiarlo
+     * @return La placa o null si el grupo está vacío o tiene varias
+     */
+    private static String unica(Set<String> placas) {
+        String encontrada = null;
+        for (String placa : placas) {
+            if (encontrada != null) {
+                return null;
+            }
+            encontrada = placa;
+        }
+        return encontrada;
+    }
+
+    /**
+     * Obtiene las formas canónicas registradas a distancia 1 de una forma, sin incluirla
+     */
+    private Set<String> formasCercanas(String canonica) {
+        Set<String> posibles = new LinkedHashSet<>();
+        // Lectura con un carácter de más: la forma registrada es un borrado de la lectura
+        List<String> borradosLectura = borrados(canonica);
+        for (String borrado : borradosLectura) {
+            if (placasPorCanonica.containsKey(borrado)) {
+                posibles.add(borrado);
+            }
+        }
+        // Lectura con un carácter de menos: la lectura es un borrado de la forma registrada
+        posibles.addAll(canonicasPorBorrado.getOrDefault(canonica, Set.of()));
+        // Carácter cambiado o vecinos intercambiados: comparten un borrado
+        for (String borrado : borradosLectura) {
+            posibles.addAll(canonicasPorBorrado.getOrDefault(borrado, Set.of()));
+        }
+
+        Set<String> cercanas = new LinkedHashSet<>();
+        for (String posible : posibles) {
+            if (!posible.equals(canonica) && distanciaMaximaUno(canonica, posible)) {
+                cercanas.add(posible);
+            }
+        }
+        return cercanas;
+    }
+
+    /**
+     * Convierte una placa a su forma canónica
+     * @param placa Placa normalizada
+     * @return Forma canónica o null si la placa no tiene letras ni dígitos
+     */
+    static String canonica(String placa) {
+        if (placa == null) {
+            return null;
+        }
+        StringBuilder forma = new StringBuilder(placa.length());
+        for (int i = 0; i < placa.length(); i++) {
+            char c = Character.toUpperCase(placa.charAt(i));
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            switch (c) {
+                case 'O', 'Q', 'D' -> forma.append('0');
+                case 'I', 'L' -> forma.append('1');
+                case 'Z' -> forma.append('2');
+                case 'S' -> forma.append('5');
+                case 'G' -> forma.append('6');
+                case 'B' -> forma.append('8');
+                default -> forma.append(c);
+            }
+        }
+        return forma.length() > 0 ? forma.toString() : null;
+    }
+
+    private static List<String> borrados(String forma) {
+        List<String> borrados = new ArrayList<>(forma.length());
+        for (int i = 0; i < forma.length(); i++) {
+            // Borrar cualquiera de dos caracteres iguales seguidos da el mismo resultado
+            if (i > 0 && forma.charAt(i) == forma.charAt(i - 1)) {
+                continue;
+            }
+            borrados.add(forma.substring(0, i) + forma.substring(i + 1));
+        }
+        return borrados;
+    }
+
+    /**
+     * Verifica si dos formas están a lo sumo a un cambio, un carácter de más o de
+     * menos, o un intercambio de vecinos
+     */
+    static boolean distanciaMaximaUno(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        if (a.length() == b.length()) {
+            int primera = -1;
+            int diferencias = 0;
+            for (int i = 0; i < a.length(); i++) {
+                if (a.charAt(i) != b.charAt(i)) {
+                    if (++diferencias > 2) {
+                        return false;
+                    }
+                    if (primera < 0) {
+                        primera = i;
+                    }
+                }
+            }
+            if (diferencias <= 1) {
+                return true;
+            }
+            // Dos diferencias solo valen si son vecinos intercambiados
+            return primera + 1 < a.length()
+                    && a.charAt(primera) == b.charAt(primera + 1)
+                    && a.charAt(primera + 1) == b.charAt(primera);
+        }
+        String corta = a.length() < b.length() ? a : b;
+        String larga = a.length() < b.length() ? b : a;
+        int i = 0;
+        while (i < corta.length() && corta.charAt(i) == larga.charAt(i)) {
+            i++;
+        }
+        return corta.regionMatches(i, larga, i + 1, corta.length() - i);
+    }
+}
@@ -0,0 +1,150 @@
+package codeService;
+
+import model.Cliente;
+import model.Vehiculo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Índice de membresías ordenado por día de vencimiento.
+ * <p>
+ * Cada día de vencimiento es un grupo con los vehículos que vencen ese día, y
+ * los grupos están en un mapa ordenado. Las membresías que vencen en un rango
+ * de días son un rango contiguo de grupos, así que consultarlas cuesta lo que
+ * mide el resultado y no el total de membresías.
+ * <p>
+ * Un vehículo tiene a lo sumo una entrada, con todos sus propietarios;
+ * registrarlo de nuevo lo mueve a su nuevo día. No es seguro para varios hilos.
+ */
+public class IndiceVencimientos {
+    private final NavigableMap<Integer, Map<Vehiculo, Vencimiento>> porDia = new TreeMap<>();
+    private final Map<Vehiculo, Vencimiento> porVehiculo = new HashMap<>();
+
+    /**
+     * Membresía de un vehículo con su cliente y su día de vencimiento
+     * @param vehiculo Vehículo con la membresía
+     * @param cliente Cliente dueño de la membresía, puede ser null
+     * @param diaFin Último día de vigencia, en días desde 1970-01-01
+     * @param propietarios Clientes a los que pertenece el vehículo, incluido el de la membresía
+     */
+    public record Vencimiento(Vehiculo vehiculo, Cliente cliente, int diaFin, List<Cliente> propietarios) {
+    }
+
+    /**
+     * Registra o mueve la membresía de un vehículo, conservando los propietarios que ya tenía
+     * @param vehiculo Vehículo con la membresía
+     * @param cliente Cliente dueño de la membresía, puede ser null
+     * @param diaFin Último día de vigencia
+     */
+    public void registrar(Vehiculo vehiculo, Cliente cliente, int diaFin) {
+        Vencimiento anterior = porVehiculo.get(vehiculo);
+        List<Cliente> propietarios = anterior != null ? anterior.propietarios() : List.of();
+        quitar(vehiculo);
+        poner(new Vencimiento(vehiculo, cliente, diaFin, conPropietario(propietarios, cliente)));
+    }
+
+    /**
+     * Agrega un propietario a la membresía registrada de un vehículo
+     * @param vehiculo El vehículo
+     * @param cliente Otro cliente dueño del vehículo
+     * @return false si el vehículo no está en el índice
+     */
+    public boolean agregarPropietario(Vehiculo vehiculo, Cliente cliente) {
+        Vencimiento actual = porVehiculo.get(vehiculo);
+        if (actual == null) {
+            return false;
+        }
+        // Reemplaza la entrada en su mismo lugar del grupo del día
+        poner(new Vencimiento(vehiculo, actual.cliente(), actual.diaFin(),
+                conPropietario(actual.propietarios(), cliente)));
+        return true;
+    }
+
+    private void poner(Vencimiento vencimiento) {
+        porVehiculo.put(vencimiento.vehiculo(), vencimiento);
+        porDia.computeIfAbsent(vencimiento.diaFin(), d -> new LinkedHashMap<>()).put(vencimiento.vehiculo(), vencimiento);
+    }
+
+    private static List<Cliente> conPropietario(List<Cliente> propietarios, Cliente cliente) {
+        if (cliente == null || propietarios.contains(cliente)) {
+            return propietarios;
+        }
+        List<Cliente> nuevos = new ArrayList<>(propietarios.size() + 1);
+        nuevos.addAll(propietarios);
+        nuevos.add(cliente);
+        return Collections.unmodifiableList(nuevos);
+    }
+
+    /**
+     * Quita la membresía de un vehículo
+     * @param vehiculo El vehículo
+     * @return true si estaba en el índice
+     */
+    public boolean quitar(Vehiculo vehiculo) {
+        Vencimiento anterior = porVehiculo.remove(vehiculo);
+        if (anterior == null) {
+            return false;
+        }
+        Map<Vehiculo, Vencimiento> grupo = porDia.get(anterior.diaFin());
+        grupo.remove(vehiculo);
+        if (grupo.isEmpty()) {
+            porDia.remove(anterior.diaFin());
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la membresía registrada de un vehículo
+     * @param vehiculo El vehículo
+     * @return La membresía o null si no está en el índice
+     */
+    public Vencimiento buscar(Vehiculo vehiculo) {
+        return porVehiculo.get(vehiculo);
+    }
+
+    /**
+     * Obtiene las membresías que vencen entre dos días, ambos incluidos,
+     * ordenadas por día de vencimiento
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Membresías encontradas o lista vacía si no hay
+     */
+    public List<Vencimiento> vencenEntre(int desde, int hasta) {
+        List<Vencimiento> resultado = new ArrayList<>();
+        if (desde > hasta) {
+            return resultado;
+        }
+        for (Map<Vehiculo, Vencimiento> grupo : porDia.subMap(desde, true, hasta, true).values()) {
+            resultado.addAll(grupo.values());
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta las membresías que siguen vigentes en un día
+     * @param dia El día
+     * @return Cantidad de membresías que vencen ese día o después
+     */
+    public int contarVigentesEn(int dia) {
+        int total = 0;
+        for (Map<Vehiculo, Vencimiento> grupo : porDia.tailMap(dia, true).values()) {
+            total += grupo.size();
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene la cantidad de membresías en el índice
+     * @return Número de membresías
+     */
+    public int tamano() {
+        return porVehiculo.size();
+    }
+}
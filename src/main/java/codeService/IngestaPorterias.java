@@ -0,0 +1,319 @@
+package codeService;
+
+import model.Vehiculo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal de entrada de los eventos de las porterías, pensado para las ráfagas
+ * de los cambios de turno.
+ * <p>
+ * Las porterías dejan sus entradas y salidas en un buffer circular de tamaño
+ * fijo y un único hilo las aplica por lotes a la ocupación, al historial de
+ * pagos y a la bitácora. Dentro de un lote nada espera al disco: se toman las
+ * confirmaciones de todos los eventos y se espera una sola vez al final, así
+ * que un lote completo comparte las sincronizaciones de la bitácora.
+ * <p>
+ * Cuando el buffer está lleno la portería recibe null en lugar de quedarse
+ * esperando: es la señal para reintentar más tarde o desviar el tráfico, y
+ * evita que la espera crezca sin límite durante la ráfaga.
+ * <p>
+ * Una salida con cobro se guarda junto con su pago en un solo evento, así que
+ * ambos se confirman o fallan juntos. Si la bitácora no confirma un evento, su
+ * cambio se deshace antes de responder: la entrada se retira y el vehículo de la
+ * salida vuelve a su puesto sin que su pago entre al historial, así que la
+ * memoria queda igual a lo que se recuperaría al reiniciar. Los eventos del lote
+ * que sí se confirmaron se responden normalmente. Las respuestas se completan
+ * fuera del hilo escritor, para que lo que la portería encadene a ellas no
+ * detenga el siguiente lote. Interrumpir al escritor detiene el canal como si
+ * se cerrara, pero los eventos en espera fallan en lugar de aplicarse.
+ */
+public class IngestaPorterias implements AutoCloseable {
+    public static final int CAPACIDAD_PREDETERMINADA = 8192;
+    private static final int MAXIMO_LOTE = 512;
+
+    private final ParqueaderoCodeService parqueaderoService;
+    private final PagoCodeService pagoService;
+    private final BlockingQueue<Evento> pendientes;
+    private final Thread escritor;
+    private final AtomicLong rechazados = new AtomicLong();
+    private volatile boolean cerrada;
+
+    /**
+     * Evento de portería en espera de ser aplicado
+     */
+    private sealed interface Evento permits Entrada, Salida, Fin {
+    }
+
+    private record Entrada(int tipoVehiculo, String placa, String color, String modelo,
+                           CompletableFuture<Boolean> respuesta) implements Evento {
+    }
+
+    private record Salida(String placa, CompletableFuture<SalidaResultado> respuesta) implements Evento {
+    }
+
+    private record Fin() implements Evento {
+    }
+
+    /**
+     * Evento ya aplicado en memoria que espera la confirmación de la bitácora
+     * @param vehiculo Vehículo de una salida, para devolverlo a su puesto si no se confirma
+     * @param confirmacion Confirmación del evento (con su pago, si lo tiene), o null si no hay bitácora
+     */
+    private record Aplicado(Evento evento, Object resultado, Vehiculo vehiculo,
+                            CompletableFuture<Long> confirmacion) {
+    }
+
+    public IngestaPorterias(ParqueaderoCodeService parqueaderoService, PagoCodeService pagoService) {
+        this(parqueaderoService, pagoService, CAPACIDAD_PREDETERMINADA);
+    }
+
+    /**
+     * Crea el canal e inicia su hilo escritor
+     * @param parqueaderoService Servicio donde se aplican las entradas y salidas
+     * @param pagoService Servicio donde se cobran las salidas, o null para no cobrarlas
+     * @param capacidad Cantidad máxima de eventos en espera
+     */
+    public IngestaPorterias(ParqueaderoCodeService parqueaderoService, PagoCodeService pagoService, int capacidad) {
+        this.parqueaderoService = parqueaderoService;
+        this.pagoService = pagoService;
+        this.pendientes = new ArrayBlockingQueue<>(capacidad);
+        escritor = new Thread(this::aplicarLotes, "ingesta-porterias");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Deja una entrada en el canal sin esperar a que se aplique
+     * @param tipoVehiculo 0=Automóvil, 1=Moto, 2=Camión
+     * @param placa placa del vehículo
+     * @param color color del vehículo
+     * @param modelo modelo del vehículo
+     * @return Respuesta que se completa con true si la entrada se registró y ya
+     * está en la bitácora, o null si el canal está lleno o cerrado
+     */
+    public CompletableFuture<Boolean> ofrecerEntrada(int tipoVehiculo, String placa, String color, String modelo) {
+        CompletableFuture<Boolean> respuesta = new CompletableFuture<>();
+        return ofrecer(new Entrada(tipoVehiculo, placa, color, modelo, respuesta)) ? respuesta : null;
+    }
+
+    /**
+     * Deja una salida en el canal sin esperar a que se aplique. Si la salida
+     * tiene monto y hay servicio de pagos, el pago se registra en el mismo evento
+     * @param placa placa del vehículo que sale
+     * @return Respuesta que se completa con la información de la salida (o null
+     * si el vehículo no estaba), o null si el canal está lleno o cerrado
+     */
+    public CompletableFuture<SalidaResultado> ofrecerSalida(String placa) {
+        CompletableFuture<SalidaResultado> respuesta = new CompletableFuture<>();
+        return ofrecer(new Salida(placa, respuesta)) ? respuesta : null;
+    }
+
+    /**
+     * Obtiene la cantidad de eventos que esperan ser aplicados
+     * @return Eventos en espera
+     */
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Obtiene cuántos eventos más caben en el canal antes de rechazar
+     * @return Lugares libres
+     */
+    public int getCapacidadLibre() {
+        return pendientes.remainingCapacity();
+    }
+
+    /**
+     * Obtiene la cantidad de eventos rechazados porque el canal estaba lleno
+     * @return Eventos rechazados desde que se creó el canal
+     */
+    public long getRechazados() {
+        return rechazados.get();
+    }
+
+    /**
+     * Deja de recibir eventos y espera a que se apliquen los que ya estaban en el canal
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+        }
+        try {
+            // Si el canal está lleno, el escritor le hace lugar a la marca de cierre
+            pendientes.put(new Fin());
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Eventos que llegaron mientras se cerraba
+        Evento tardio;
+        while ((tardio = pendientes.poll()) != null) {
+            responderError(tardio, new IllegalStateException("El canal de porterías está cerrado"));
+        }
+    }
+
+    private boolean ofrecer(Evento evento) {
+        if (cerrada || !pendientes.offer(evento)) {
+            rechazados.incrementAndGet();
+            return false;
+        }
+        // Si el canal se cerró mientras tanto y nadie lo sacó, no quedaría sin respuesta
+        if (cerrada && pendientes.remove(evento)) {
+            rechazados.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void aplicarLotes() {
+        List<Evento> lote = new ArrayList<>();
+        List<Aplicado> aplicados = new ArrayList<>();
+        boolean terminar = false;
+        while (!terminar) {
+            try {
+                lote.add(pendientes.take());
+            } catch (InterruptedException e) {
+                detener();
+                return;
+            }
+            pendientes.drainTo(lote, MAXIMO_LOTE - 1);
+            for (Evento evento : lote) {
+                try {
+                    switch (evento) {
+                        case Entrada entrada -> {
+                            CompletableFuture<Long> confirmacion = parqueaderoService.admitirEntrada(
+                                    entrada.tipoVehiculo(), entrada.placa(), entrada.color(), entrada.modelo());
+                            if (confirmacion == null) {
+                                completar(entrada.respuesta(), false);
+                            } else {
+                                aplicados.add(new Aplicado(entrada, true, null, confirmacion));
+                            }
+                        }
+                        case Salida salida -> {
+                            Aplicado aplicado = aplicarSalida(salida);
+                            if (aplicado == null) {
+                                completar(salida.respuesta(), null);
+                            } else {
+                                aplicados.add(aplicado);
+                            }
+                        }
+                        case Fin fin -> terminar = true;
+                    }
+                } catch (RuntimeException e) {
+                    responderError(evento, e);
+                }
+            }
+            responder(aplicados);
+            lote.clear();
+            aplicados.clear();
+        }
+    }
+
+    /**
+     * Deja de recibir eventos después de una interrupción y hace fallar los que esperaban
+     */
+    private void detener() {
+        cerrada = true;
+        IllegalStateException falla = new IllegalStateException("El canal de porterías se detuvo");
+        Evento pendiente;
+        while ((pendiente = pendientes.poll()) != null) {
+            responderError(pendiente, falla);
+        }
+    }
+
+    private Aplicado aplicarSalida(Salida salida) {
+        // Buscar antes de salir: después el vehículo ya no está en el parqueadero
+        Vehiculo vehiculo = parqueaderoService.buscarVehiculoPorPlaca(salida.placa());
+        List<CompletableFuture<Long>> confirmaciones = new ArrayList<>(1);
+        SalidaResultado resultado = parqueaderoService.registrarSalida(salida.placa(), confirmaciones, pagoService);
+        if (resultado == null) {
+            return null;
+        }
+        CompletableFuture<Long> confirmacion = confirmaciones.isEmpty() ? null : confirmaciones.get(0);
+        return new Aplicado(salida, resultado, vehiculo, confirmacion);
+    }
+
+    /**
+     * Espera una sola vez a la bitácora por todo el lote, deshace lo que no se
+     * confirmó y completa las respuestas
+     */
+    private void responder(List<Aplicado> aplicados) {
+        List<CompletableFuture<Long>> confirmaciones = new ArrayList<>(aplicados.size());
+        for (Aplicado aplicado : aplicados) {
+            if (aplicado.confirmacion() != null) {
+                confirmaciones.add(aplicado.confirmacion());
+            }
+        }
+        CompletableFuture.allOf(confirmaciones.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+
+        // En orden inverso, para que una entrada y una salida de la misma placa se deshagan bien
+        for (int i = aplicados.size() - 1; i >= 0; i--) {
+            Aplicado aplicado = aplicados.get(i);
+            if (fallo(aplicado.confirmacion())) {
+                deshacer(aplicado);
+            }
+        }
+        for (Aplicado aplicado : aplicados) {
+            if (fallo(aplicado.confirmacion())) {
+                responderError(aplicado.evento(), new IllegalStateException(
+                        "No se pudo escribir en la bitácora de eventos", causa(aplicado.confirmacion())));
+            } else if (aplicado.evento() instanceof Entrada entrada) {
+                completar(entrada.respuesta(), (Boolean) aplicado.resultado());
+            } else if (aplicado.evento() instanceof Salida salida) {
+                completar(salida.respuesta(), (SalidaResultado) aplicado.resultado());
+            }
+        }
+    }
+
+    private void deshacer(Aplicado aplicado) {
+        if (aplicado.evento() instanceof Entrada entrada) {
+            parqueaderoService.deshacerEntrada(entrada.placa());
+        } else if (aplicado.evento() instanceof Salida && aplicado.vehiculo() != null) {
+            SalidaResultado resultado = (SalidaResultado) aplicado.resultado();
+            parqueaderoService.restaurarEstancia(aplicado.vehiculo(), resultado.horaEntrada(), resultado.puesto());
+        }
+    }
+
+    private static boolean fallo(CompletableFuture<Long> confirmacion) {
+        return confirmacion != null && confirmacion.isCompletedExceptionally();
+    }
+
+    private static Throwable causa(CompletableFuture<Long> confirmacion) {
+        try {
+            confirmacion.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Completa una respuesta fuera del hilo escritor
+     */
+    private static <T> void completar(CompletableFuture<T> respuesta, T valor) {
+        respuesta.completeAsync(() -> valor);
+    }
+
+    private static void responderError(Evento evento, RuntimeException error) {
+        if (evento instanceof Entrada entrada) {
+            CompletableFuture.runAsync(() -> entrada.respuesta().completeExceptionally(error));
+        } else if (evento instanceof Salida salida) {
+            CompletableFuture.runAsync(() -> salida.respuesta().completeExceptionally(error));
+        }
+    }
+}
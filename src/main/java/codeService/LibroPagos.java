@@ -0,0 +1,397 @@
+package codeService;
+
+import model.Cliente;
+import model.Pago;
+import model.Vehiculo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Libro de pagos guardado por columnas y particionado por día.
+ * <p>
+ * En lugar de un objeto {@link Pago} por registro, cada campo va en su propio
+ * arreglo: el monto en centavos, la fecha en segundos desde 1970 y el concepto
+ * y el tipo de vehículo como códigos de un byte. El vehículo y el cliente se
+ * guardan como referencias a los mismos objetos con que se registró el pago,
+ * así un cambio de placa se ve en el pago como antes. Los ID que genera
+ * {@link Pago} (8 dígitos hexadecimales) se guardan como número, y un índice
+ * de direccionamiento abierto sobre arreglos de primitivos los lleva a su fila
+ * sin recorrer el libro. Los {@link Pago} se construyen al consultarlos y son
+ * copias: modificarlos no cambia el libro.
+ * <p>
+ * Cada fila se agrega además al grupo de su día dentro de un índice ordenado
+ * por fecha, así que una consulta por periodo recorre solo los días pedidos.
+ * Los totales de ingresos por periodo se mantienen en un {@link AcumuladoIngresos};
+ * para contar o recorrer los pagos de un periodo sin construir un {@link Pago}
+ * por fila están {@link #contarEntre} y {@link #recorrerEntre}.
+ */
+public class LibroPagos {
+    private static final int CAPACIDAD_INICIAL = 256;
+    private static final int MAXIMO_CODIGOS_BYTE = 256;
+    private static final long SEGUNDOS_POR_DIA = 86400L;
+    private static final int LARGO_ID = 8;
+    private static final long SIN_ID = -1;
+
+    private int cantidad;
+    // El ID hexadecimal como número, SIN_ID si es null o -(código + 2) en diccionarioOtrosIds
+    private long[] ids = new long[CAPACIDAD_INICIAL];
+    private long[] centavos = new long[CAPACIDAD_INICIAL];
+    private long[] segundos = new long[CAPACIDAD_INICIAL];
+    private byte[] conceptos = new byte[CAPACIDAD_INICIAL];
+    private byte[] tiposVehiculo = new byte[CAPACIDAD_INICIAL];
+    private Vehiculo[] vehiculos = new Vehiculo[CAPACIDAD_INICIAL];
+    private Cliente[] clientes = new Cliente[CAPACIDAD_INICIAL];
+
+    // Fila de cada ID; si se repite un ID se conserva la primera fila
+    private final IndiceIds filaPorId = new IndiceIds();
+    // IDs que no tienen la forma de los que genera Pago; son pocos (pagos importados o de prueba)
+    private final Diccionario<String> diccionarioOtrosIds = new Diccionario<>();
+    private final Diccionario<String> diccionarioConceptos = new Diccionario<>();
+    private final Diccionario<String> diccionarioTipos = new Diccionario<>();
+
+    private final NavigableMap<Long, FilasDia> filasPorDia = new TreeMap<>();
+    private final AcumuladoIngresos acumulado = new AcumuladoIngresos();
+
+    /**
+     * Agrega un pago al libro
+     * @param pago El pago a agregar
+     */
+    public synchronized void agregar(Pago pago) {
+        asegurarCapacidad(cantidad + 1);
+        int fila = cantidad;
+        long segundosPago = pago.getFechaHora().toEpochSecond(ZoneOffset.UTC);
+        long centavosPago = Math.round(pago.getMonto() * 100);
+
+        long id = codificarId(pago.getId());
+        ids[fila] = id;
+        centavos[fila] = centavosPago;
+        segundos[fila] = segundosPago;
+        conceptos[fila] = codigoByte(diccionarioConceptos, pago.getConcepto());
+        tiposVehiculo[fila] = codigoByte(diccionarioTipos, pago.getTipoVehiculo());
+        vehiculos[fila] = pago.getVehiculo();
+        clientes[fila] = pago.getCliente();
+        cantidad++;
+        if (id != SIN_ID) {
+            filaPorId.agregarSiFalta(id, fila);
+        }
+
+        long dia = Math.floorDiv(segundosPago, SEGUNDOS_POR_DIA);
+        filasPorDia.computeIfAbsent(dia, d -> new FilasDia()).agregar(fila);
+        acumulado.registrar(LocalDate.ofEpochDay(dia), AcumuladoIngresos.conceptoDe(pago.getConcepto()),
+                AcumuladoIngresos.tipoDe(pago), centavosPago);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un día
+     * @param dia El día
+     * @return Totales del día
+     */
+    public synchronized PagoCodeService.ReporteTotales totalesDia(LocalDate dia) {
+        return acumulado.totalesDia(dia);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un mes
+     * @param mes El mes
+     * @return Totales del mes
+     */
+    public synchronized PagoCodeService.ReporteTotales totalesMes(YearMonth mes) {
+        return acumulado.totalesMes(mes);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un año
+     * @param anio El año
+     * @return Totales del año
+     */
+    public synchronized PagoCodeService.ReporteTotales totalesAnio(int anio) {
+        return acumulado.totalesAnio(anio);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un rango de días, ambos incluidos
+     * @param desde Primer día del rango
+     * @param hasta Último día del rango
+     * @return Totales del rango
+     */
+    public synchronized PagoCodeService.ReporteTotales totalesEntre(LocalDate desde, LocalDate hasta) {
+        return acumulado.totalesEntre(desde, hasta);
+    }
+
+    /**
+     * Obtiene los pagos de un rango de días, ambos incluidos
+     * @param desde Primer día del rango
+     * @param hasta Último día del rango
+     * @return Pagos del rango ordenados por día y, dentro del día, por orden de registro
+     */
+    public synchronized List<Pago> obtenerEntre(LocalDate desde, LocalDate hasta) {
+        List<Pago> resultado = new ArrayList<>();
+        if (desde.isAfter(hasta)) {
+            return resultado;
+        }
+        for (FilasDia filasDia : filasPorDia.subMap(desde.toEpochDay(), true, hasta.toEpochDay(), true).values()) {
+            for (int i = 0; i < filasDia.cantidad; i++) {
+                resultado.add(pagoEn(filasDia.filas[i]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta los pagos de un rango de días, ambos incluidos, sin recorrer sus filas
+     * @param desde Primer día del rango
+     * @param hasta Último día del rango
+     * @return Número de pagos del rango
+     */
+    public synchronized int contarEntre(LocalDate desde, LocalDate hasta) {
+        int total = 0;
+        if (desde.isAfter(hasta)) {
+            return total;
+        }
+        for (FilasDia filasDia : filasPorDia.subMap(desde.toEpochDay(), true, hasta.toEpochDay(), true).values()) {
+            total += filasDia.cantidad;
+        }
+        return total;
+    }
+
+    /**
+     * Recorre los pagos de un rango de días, ambos incluidos, en el mismo orden
+     * que {@link #obtenerEntre}, entregando las columnas de cada fila sin crear un {@link Pago}
+     * @param desde Primer día del rango
+     * @param hasta Último día del rango
+     * @param visitante Recibe cada fila; se llama con el libro bloqueado, así que no debe tardar
+     */
+    public synchronized void recorrerEntre(LocalDate desde, LocalDate hasta, VisitanteFila visitante) {
+        if (desde.isAfter(hasta)) {
+            return;
+        }
+        for (FilasDia filasDia : filasPorDia.subMap(desde.toEpochDay(), true, hasta.toEpochDay(), true).values()) {
+            for (int i = 0; i < filasDia.cantidad; i++) {
+                int fila = filasDia.filas[i];
+                visitante.visitar(idEn(fila), centavos[fila], segundos[fila],
+                        diccionarioConceptos.valor(conceptos[fila] & 0xFF),
+                        diccionarioTipos.valor(tiposVehiculo[fila] & 0xFF));
+            }
+        }
+    }
+
+    /**
+     * Busca un pago por su ID
+     * @param id ID del pago
+     * @return El pago o null si no existe
+     */
+    public synchronized Pago buscarPorId(String id) {
+        long codigo = buscarCodigoId(id);
+        int fila = codigo != SIN_ID ? filaPorId.buscar(codigo) : -1;
+        return fila >= 0 ? pagoEn(fila) : null;
+    }
+
+    /**
+     * Obtiene todos los pagos en orden de registro
+     * @return Lista nueva con los pagos
+     */
+    public synchronized List<Pago> obtenerTodos() {
+        List<Pago> resultado = new ArrayList<>(cantidad);
+        for (int fila = 0; fila < cantidad; fila++) {
+            resultado.add(pagoEn(fila));
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la cantidad de pagos registrados
+     * @return Número de pagos
+     */
+    public synchronized int tamano() {
+        return cantidad;
+    }
+
+    private Pago pagoEn(int fila) {
+        return new Pago(
+                idEn(fila),
+                centavos[fila] / 100.0,
+                LocalDateTime.ofEpochSecond(segundos[fila], 0, ZoneOffset.UTC),
+                diccionarioConceptos.valor(conceptos[fila] & 0xFF),
+                vehiculos[fila],
+                clientes[fila],
+                diccionarioTipos.valor(tiposVehiculo[fila] & 0xFF));
+    }
+
+    private long codificarId(String id) {
+        if (id == null) {
+            return SIN_ID;
+        }
+        long hexadecimal = valorHexadecimal(id);
+        return hexadecimal >= 0 ? hexadecimal : -(diccionarioOtrosIds.codigo(id) + 2L);
+    }
+
+    /**
+     * Obtiene el código de columna de un ID sin agregarlo
+     * @return El código o SIN_ID si el ID nunca se agregó
+     */
+    private long buscarCodigoId(String id) {
+        if (id == null) {
+            return SIN_ID;
+        }
+        long hexadecimal = valorHexadecimal(id);
+        if (hexadecimal >= 0) {
+            return hexadecimal;
+        }
+        int codigo = diccionarioOtrosIds.buscar(id);
+        return codigo >= 0 ? -(codigo + 2L) : SIN_ID;
+    }
+
+    private String idEn(int fila) {
+        long codigo = ids[fila];
+        if (codigo == SIN_ID) {
+            return null;
+        }
+        if (codigo < 0) {
+            return diccionarioOtrosIds.valor((int) (-codigo - 2));
+        }
+        char[] digitos = new char[LARGO_ID];
+        for (int i = LARGO_ID - 1; i >= 0; i--) {
+            digitos[i] = Character.forDigit((int) (codigo & 0xF), 16);
+            codigo >>>= 4;
+        }
+        return new String(digitos);
+    }
+
+    /**
+     * Lee un ID de 8 dígitos hexadecimales en minúscula, la forma que genera {@link Pago}
+     * @return El valor, o -1 si el ID tiene otra forma y no se puede volver a escribir igual
+     */
+    private static long valorHexadecimal(String id) {
+        if (id.length() != LARGO_ID) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < LARGO_ID; i++) {
+            char c = id.charAt(i);
+            int digito;
+            if (c >= '0' && c <= '9') {
+                digito = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digito = c - 'a' + 10;
+            } else {
+                return -1;
+            }
+            valor = (valor << 4) | digito;
+        }
+        return valor;
+    }
+
+    private static byte codigoByte(Diccionario<String> diccionario, String valor) {
+        int codigo = diccionario.codigo(valor);
+        if (codigo >= MAXIMO_CODIGOS_BYTE) {
+            throw new IllegalStateException("Demasiados valores distintos para un código de un byte: " + valor);
+        }
+        return (byte) codigo;
+    }
+
+    private void asegurarCapacidad(int necesaria) {
+        if (necesaria <= ids.length) {
+            return;
+        }
+        int nueva = Math.max(necesaria, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, nueva);
+        centavos = Arrays.copyOf(centavos, nueva);
+        segundos = Arrays.copyOf(segundos, nueva);
+        conceptos = Arrays.copyOf(conceptos, nueva);
+        tiposVehiculo = Arrays.copyOf(tiposVehiculo, nueva);
+        vehiculos = Arrays.copyOf(vehiculos, nueva);
+        clientes = Arrays.copyOf(clientes, nueva);
+    }
+
+    /**
+     * Recibe las columnas de una fila del libro
+     */
+    @FunctionalInterface
+    public interface VisitanteFila {
+        /**
+         * @param id ID del pago
+         * @param centavos Monto en centavos
+         * @param segundos Fecha y hora en segundos desde 1970, en UTC
+         * @param concepto Concepto del pago
+         * @param tipoVehiculo Tipo de vehículo como texto
+         */
+        void visitar(String id, long centavos, long segundos, String concepto, String tipoVehiculo);
+    }
+
+    /**
+     * Tabla de códigos de ID a filas con direccionamiento abierto: las claves y
+     * las filas van en arreglos de primitivos, sin un objeto por entrada
+     */
+    private static final class IndiceIds {
+        private long[] claves = new long[CAPACIDAD_INICIAL * 2];
+        // Fila + 1; 0 marca una casilla libre
+        private int[] filas = new int[CAPACIDAD_INICIAL * 2];
+        private int ocupadas;
+
+        void agregarSiFalta(long clave, int fila) {
+            if ((ocupadas + 1) * 2 > claves.length) {
+                crecer();
+            }
+            int casilla = casillaDe(clave);
+            if (filas[casilla] == 0) {
+                claves[casilla] = clave;
+                filas[casilla] = fila + 1;
+                ocupadas++;
+            }
+        }
+
+        /**
+         * @return La fila de la clave o -1 si no está
+         */
+        int buscar(long clave) {
+            return filas[casillaDe(clave)] - 1;
+        }
+
+        private int casillaDe(long clave) {
+            int mascara = claves.length - 1;
+            long mezcla = clave * 0x9E3779B97F4A7C15L;
+            int casilla = (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+            while (filas[casilla] != 0 && claves[casilla] != clave) {
+                casilla = (casilla + 1) & mascara;
+            }
+            return casilla;
+        }
+
+        private void crecer() {
+            long[] clavesAnteriores = claves;
+            int[] filasAnteriores = filas;
+            claves = new long[clavesAnteriores.length * 2];
+            filas = new int[filasAnteriores.length * 2];
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (filasAnteriores[i] != 0) {
+                    int casilla = casillaDe(clavesAnteriores[i]);
+                    claves[casilla] = clavesAnteriores[i];
+                    filas[casilla] = filasAnteriores[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Filas de un día, en orden de registro
+     */
+    private static final class FilasDia {
+        int[] filas = new int[4];
+        int cantidad;
+
+        void agregar(int fila) {
+            if (cantidad == filas.length) {
+                filas = Arrays.copyOf(filas, cantidad * 2);
+            }
+            filas[cantidad++] = fila;
+        }
+    }
+}
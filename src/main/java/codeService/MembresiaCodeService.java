@@ -1,26 +1,32 @@
 package codeService;
 
 import model.Cliente;
+import model.FechasMembresia;
 import model.Membresia;
 import model.TipoMembresia;
 import model.Vehiculo;
-import model.Automovil;
-import model.Moto;
-import model.Camion;
+import eventos.MembresiaCancelada;
+import eventos.MembresiaRegistrada;
+import eventos.MembresiaVencida;
+import persistencia.BitacoraEventos;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class MembresiaCodeService {
     private PagoCodeService pagoService;
     private ClienteCodeService clienteService;
     private VehiculoCodeService vehiculoService;
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private BitacoraEventos bitacora; // Bitácora donde se guardan las membresías (opcional)
+    // Membresías por día de vencimiento; se construye en la primera consulta
+    private IndiceVencimientos vencimientos;
+    // Cambios de propietarios y bajas de clientes que ya refleja el índice de vencimientos
+    private long cambiosVehiculos;
+    private long bajasClientes;
     private static final int DIAS_PROXIMIDAD_VENCIMIENTO = 30; // Días para considerar una membresía próxima a vencer
 
     public MembresiaCodeService() {
@@ -39,6 +45,7 @@ public class MembresiaCodeService {
      */
     public void setClienteService(ClienteCodeService clienteService) {
         this.clienteService = clienteService;
+        this.vencimientos = null;
     }
     
     /**
@@ -46,6 +53,14 @@ public class MembresiaCodeService {
      */
     public void setVehiculoService(VehiculoCodeService vehiculoService) {
         this.vehiculoService = vehiculoService;
+        this.vencimientos = null;
+    }
+
+    /**
+     * Establece la bitácora donde se registran las membresías
+     */
+    public void setBitacora(BitacoraEventos bitacora) {
+        this.bitacora = bitacora;
     }
 
     public PagoCodeService getPagoService() {
@@ -67,7 +82,7 @@ public class MembresiaCodeService {
      * @param tipoMembresia El tipo de membresía a registrar
      * @return true si el registro fue exitoso, false en caso contrario
      */
-    public boolean registrarMembresia(Vehiculo vehiculo, Cliente cliente, TipoMembresia tipoMembresia) {
+    public synchronized boolean registrarMembresia(Vehiculo vehiculo, Cliente cliente, TipoMembresia tipoMembresia) {
         if (vehiculo == null || cliente == null || tipoMembresia == null || tipoMembresia == TipoMembresia.NINGUNA) {
             return false;
         }
@@ -79,28 +94,29 @@ public class MembresiaCodeService {
 
         // Calcular fecha de fin según el tipo de membresía
         LocalDate fechaInicio = LocalDate.now();
-        LocalDate fechaFin;
-
-        switch (tipoMembresia) {
-            case MENSUAL: fechaFin = fechaInicio.plusMonths(1); break;
-            case TRIMESTRAL: fechaFin = fechaInicio.plusMonths(3); break;
-            case ANUAL: fechaFin = fechaInicio.plusYears(1); break;
-            default: return false;
+        LocalDate fechaFin = FechasMembresia.calcularFin(tipoMembresia, fechaInicio);
+        if (fechaFin == null) {
+            return false;
         }
 
+        registrarEnBitacora(vehiculo, cliente, tipoMembresia, fechaInicio, fechaFin);
+
         // Registrar la membresía en el vehículo
+        int diaInicio = FechasMembresia.aDia(fechaInicio);
+        int diaFin = FechasMembresia.aDia(fechaFin);
         vehiculo.setMembresia(tipoMembresia);
-        vehiculo.setFechaInicioMembresia(fechaInicio.format(FORMATTER));
-        vehiculo.setFechaFinMembresia(fechaFin.format(FORMATTER));
+        vehiculo.setDiaInicioMembresia(diaInicio);
+        vehiculo.setDiaFinMembresia(diaFin);
 
         // Crear y agregar la membresía al cliente
         Membresia membresia = new Membresia(
                 tipoMembresia,
-                fechaInicio.format(FORMATTER),
-                fechaFin.format(FORMATTER),
+                diaInicio,
+                diaFin,
                 calcularTarifaMembresia(vehiculo, tipoMembresia)
         );
         cliente.getMembresias().add(membresia);
+        indexarVencimiento(vehiculo, cliente);
 
         // Registrar el pago si se ha configurado el pagoService
         if (pagoService != null) {
@@ -116,6 +132,16 @@ public class MembresiaCodeService {
      * @return Un mapa con la información de vigencia o null si no tiene membresía
      */
     public Map<String, Object> verificarVigencia(Vehiculo vehiculo) {
+        VigenciaMembresia vigencia = consultarVigencia(vehiculo);
+        return vigencia != null ? vigencia.aMapa() : null;
+    }
+
+    /**
+     * Consulta la vigencia de la membresía de un vehículo
+     * @param vehiculo El vehículo cuya membresía se verificará
+     * @return La vigencia o null si no tiene membresía
+     */
+    public VigenciaMembresia consultarVigencia(Vehiculo vehiculo) {
         if (vehiculo == null) {
             return null;
         }
@@ -124,32 +150,7 @@ public class MembresiaCodeService {
             return null;
         }
         
-        Map<String, Object> resultado = new HashMap<>();
-        
-        // Extraer fecha de fin y verificar vigencia
-        try {
-            String fechaFinStr = vehiculo.getFechaFinMembresia();
-            LocalDate fechaFin = LocalDate.parse(fechaFinStr, FORMATTER);
-            LocalDate hoy = LocalDate.now();
-            
-            resultado.put("tipoMembresia", vehiculo.getMembresia());
-            resultado.put("fechaVencimiento", fechaFinStr);
-            
-            if (fechaFin.isBefore(hoy)) {
-                resultado.put("vigente", false);
-                resultado.put("mensaje", "La membresía ha vencido");
-            } else {
-                long diasRestantes = ChronoUnit.DAYS.between(hoy, fechaFin);
-                resultado.put("vigente", true);
-                resultado.put("diasRestantes", diasRestantes);
-                resultado.put("mensaje", "La membresía está vigente");
-            }
-            
-            return resultado;
-        } catch (Exception e) {
-            resultado.put("error", "Error al verificar la vigencia: " + e.getMessage());
-            return resultado;
-        }
+        return VigenciaMembresia.en(vehiculo.getMembresia(), vehiculo.getDiaFinMembresia(), FechasMembresia.hoy());
     }
 
     /**
@@ -158,7 +159,7 @@ public class MembresiaCodeService {
      * @param cliente El cliente asociado a la membresía
      * @return true si la renovación fue exitosa, false en caso contrario
      */
-    public boolean renovarMembresia(Vehiculo vehiculo, Cliente cliente) {
+    public synchronized boolean renovarMembresia(Vehiculo vehiculo, Cliente cliente) {
         if (vehiculo == null || cliente == null) {
             return false;
         }
@@ -178,7 +179,7 @@ public class MembresiaCodeService {
      * @param nuevoTipo El nuevo tipo de membresía
      * @return true si la renovación fue exitosa, false en caso contrario
      */
-    public boolean renovarMembresiaConNuevoTipo(Vehiculo vehiculo, Cliente cliente, TipoMembresia nuevoTipo) {
+    public synchronized boolean renovarMembresiaConNuevoTipo(Vehiculo vehiculo, Cliente cliente, TipoMembresia nuevoTipo) {
         if (vehiculo == null || cliente == null || nuevoTipo == null || nuevoTipo == TipoMembresia.NINGUNA) {
             return false;
         }
@@ -207,40 +208,35 @@ public class MembresiaCodeService {
         }
         
         // Determinar fecha de inicio (puede ser la fecha actual o la fecha de fin de la membresía actual)
-        LocalDate fechaFin;
-        try {
-            fechaFin = LocalDate.parse(vehiculo.getFechaFinMembresia(), FORMATTER);
-        } catch (Exception e) {
-            fechaFin = LocalDate.now();
-        }
-
-        // Si la fecha fin ya pasó, usar la fecha actual como inicio
+        // Si la fecha fin ya pasó o no existe, usar la fecha actual como inicio
         LocalDate fechaInicio = LocalDate.now();
-        if (fechaFin.isAfter(fechaInicio)) {
-            fechaInicio = fechaFin; // Continuar desde donde termina la membresía actual
+        if (vehiculo.getDiaFinMembresia() > FechasMembresia.aDia(fechaInicio)) {
+            fechaInicio = FechasMembresia.aFecha(vehiculo.getDiaFinMembresia()); // Continuar desde donde termina la membresía actual
         }
 
         // Calcular nueva fecha de fin
-        LocalDate nuevaFechaFin;
-        switch (tipo) {
-            case MENSUAL: nuevaFechaFin = fechaInicio.plusMonths(1); break;
-            case TRIMESTRAL: nuevaFechaFin = fechaInicio.plusMonths(3); break;
-            case ANUAL: nuevaFechaFin = fechaInicio.plusYears(1); break;
-            default: return false;
+        LocalDate nuevaFechaFin = FechasMembresia.calcularFin(tipo, fechaInicio);
+        if (nuevaFechaFin == null) {
+            return false;
         }
 
+        registrarEnBitacora(vehiculo, cliente, tipo, fechaInicio, nuevaFechaFin);
+
         // Actualizar datos en el vehículo
-        vehiculo.setFechaInicioMembresia(fechaInicio.format(FORMATTER));
-        vehiculo.setFechaFinMembresia(nuevaFechaFin.format(FORMATTER));
+        int diaInicio = FechasMembresia.aDia(fechaInicio);
+        int diaFin = FechasMembresia.aDia(nuevaFechaFin);
+        vehiculo.setDiaInicioMembresia(diaInicio);
+        vehiculo.setDiaFinMembresia(diaFin);
 
         // Crear y agregar la membresía renovada al cliente
         Membresia membresia = new Membresia(
                 tipo,
-                fechaInicio.format(FORMATTER),
-                nuevaFechaFin.format(FORMATTER),
+                diaInicio,
+                diaFin,
                 calcularTarifaMembresia(vehiculo, tipo)
         );
         cliente.getMembresias().add(membresia);
+        indexarVencimiento(vehiculo, cliente);
 
         // Registrar pago si está disponible el servicio
         if (pagoService != null) {
@@ -255,6 +251,15 @@ public class MembresiaCodeService {
      * @return Un mapa con la información del reporte o null si hay error
      */
     public Map<String, Object> generarReporteMembresiasActivas() {
+        ReporteMembresias reporte = generarReporteMembresias();
+        return reporte != null ? reporte.aMapa() : null;
+    }
+
+    /**
+     * Genera un reporte de clientes con membresías activas y próximas a vencer
+     * @return El reporte (con el motivo si no se pudo generar) o null si faltan servicios
+     */
+    public synchronized ReporteMembresias generarReporteMembresias() {
         if (clienteService == null || vehiculoService == null) {
             return null;
         }
@@ -262,93 +267,47 @@ public class MembresiaCodeService {
         // Estructuras para almacenar resultados
         Map<Cliente, List<Vehiculo>> clientesConMembresiasActivas = new HashMap<>();
         Map<Cliente, List<Vehiculo>> clientesConMembresiasProximasAVencer = new HashMap<>();
-        Map<String, Object> reporte = new HashMap<>();
         
         try {
-            // Obtener todos los clientes
-            List<Cliente> clientes = clienteService.obtenerTodosLosClientes();
-            
-            if (clientes == null || clientes.isEmpty()) {
-                reporte.put("error", "No hay clientes registrados en el sistema");
-                return reporte;
+            if (clienteService.obtenerNumeroClientes() == 0) {
+                return ReporteMembresias.conError("No hay clientes registrados en el sistema");
             }
             
             // Fecha actual para comparaciones
-            LocalDate fechaActual = LocalDate.now();
+            int hoy = FechasMembresia.hoy();
             
-            // Procesar cada cliente
-            for (Cliente cliente : clientes) {
-                // Verificar si el cliente tiene membresía activa
-                if (cliente.tieneMembresiaActiva()) {
-                    // Obtener vehículos del cliente
-                    List<Vehiculo> vehiculosCliente = vehiculoService.obtenerVehiculosPorCliente(cliente);
+            // Recorrer solo las membresías que no han vencido, en orden de vencimiento
+            Map<Cliente, Boolean> clienteActivo = new HashMap<>();
+            for (IndiceVencimientos.Vencimiento vencimiento : vencimientos().vencenEntre(hoy, Integer.MAX_VALUE)) {
+                Vehiculo vehiculo = vencimiento.vehiculo();
+                if (!vehiculo.membresiaVigenteEn(hoy)) {
+                    continue;
+                }
+                // Un vehículo con varios dueños aparece con cada uno
+                for (Cliente cliente : vencimiento.propietarios()) {
+                    // Verificar si el cliente tiene membresía activa
+                    Boolean activo = clienteActivo.get(cliente);
+                    if (activo == null) {
+                        activo = cliente.tieneMembresiaActiva();
+                        clienteActivo.put(cliente, activo);
+                    }
+                    if (!activo) {
+                        continue;
+                    }
+                    
+                    clientesConMembresiasActivas.computeIfAbsent(cliente, c -> new ArrayList<>()).add(vehiculo);
                     
-                    if (vehiculosCliente != null && !vehiculosCliente.isEmpty()) {
-                        List<Vehiculo> vehiculosActivos = new ArrayList<>();
-                        List<Vehiculo> vehiculosProximosAVencer = new ArrayList<>();
-                        
-                        // Verificar estado de cada vehículo
-                        for (Vehiculo vehiculo : vehiculosCliente) {
-                            if (vehiculo.getMembresia() != null && 
-                                vehiculo.getMembresia() != TipoMembresia.NINGUNA &&
-                                vehiculo.getFechaFinMembresia() != null) {
-                                
-                                try {
-                                    LocalDate fechaFin = LocalDate.parse(vehiculo.getFechaFinMembresia(), FORMATTER);
-                                    
-                                    // Verificar si está activa (no ha vencido)
-                                    if (fechaActual.isBefore(fechaFin) || fechaActual.isEqual(fechaFin)) {
-                                        vehiculosActivos.add(vehiculo);
-                                        
-                                        // Verificar si está próxima a vencer (30 días o menos)
-                                        long diasRestantes = ChronoUnit.DAYS.between(fechaActual, fechaFin);
-                                        if (diasRestantes <= DIAS_PROXIMIDAD_VENCIMIENTO) {
-                                            vehiculosProximosAVencer.add(vehiculo);
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    // Ignorar errores de formato de fecha
-                                    continue;
-                                }
-                            }
-                        }
-                        
-                        // Almacenar resultados
-                        if (!vehiculosActivos.isEmpty()) {
-                            clientesConMembresiasActivas.put(cliente, vehiculosActivos);
-                        }
-                        
-                        if (!vehiculosProximosAVencer.isEmpty()) {
-                            clientesConMembresiasProximasAVencer.put(cliente, vehiculosProximosAVencer);
-                        }
+                    // Verificar si está próxima a vencer (30 días o menos)
+                    if (vehiculo.getDiaFinMembresia() - hoy <= DIAS_PROXIMIDAD_VENCIMIENTO) {
+                        clientesConMembresiasProximasAVencer.computeIfAbsent(cliente, c -> new ArrayList<>()).add(vehiculo);
                     }
                 }
             }
             
-            // Estadísticas
-            int totalClientes = clientesConMembresiasActivas.size();
-            int totalVehiculos = 0;
-            for (List<Vehiculo> vehiculos : clientesConMembresiasActivas.values()) {
-                totalVehiculos += vehiculos.size();
-            }
-            
-            int totalProximosVencer = 0;
-            for (List<Vehiculo> vehiculos : clientesConMembresiasProximasAVencer.values()) {
-                totalProximosVencer += vehiculos.size();
-            }
-            
-            // Generar el reporte
-            reporte.put("totalClientes", totalClientes);
-            reporte.put("totalVehiculos", totalVehiculos);
-            reporte.put("totalProximosVencer", totalProximosVencer);
-            reporte.put("clientesConMembresiasActivas", clientesConMembresiasActivas);
-            reporte.put("clientesConMembresiasProximasAVencer", clientesConMembresiasProximasAVencer);
-            reporte.put("diasProximidadVencimiento", DIAS_PROXIMIDAD_VENCIMIENTO);
-            
-            return reporte;
+            return new ReporteMembresias(clientesConMembresiasActivas, clientesConMembresiasProximasAVencer,
+                    DIAS_PROXIMIDAD_VENCIMIENTO, null);
         } catch (Exception e) {
-            reporte.put("error", "Error al generar el reporte: " + e.getMessage());
-            return reporte;
+            return ReporteMembresias.conError("Error al generar el reporte: " + e.getMessage());
         }
     }
 
@@ -366,38 +325,13 @@ public class MembresiaCodeService {
         if (pagoService != null) {
             // Si tenemos el servicio de pagos, usar su método
             return (int) pagoService.calcularTarifaMembresia(vehiculo, tipo);
-        } else {
-            // Tarifas por defecto si no hay servicio de pagos
-            if (vehiculo instanceof Automovil) {
-                switch (tipo) {
-                    case MENSUAL: return 100000;
-                    case TRIMESTRAL: return 270000;
-                    case ANUAL: return 960000;
-                    default: return 0;
-                }
-            } else if (vehiculo instanceof Moto) {
-                switch (tipo) {
-                    case MENSUAL: return 50000;
-                    case TRIMESTRAL: return 135000;
-                    case ANUAL: return 480000;
-                    default: return 0;
-                }
-            } else if (vehiculo instanceof Camion) {
-                switch (tipo) {
-                    case MENSUAL: return 150000;
-                    case TRIMESTRAL: return 405000;
-                    case ANUAL: return 1440000;
-                    default: return 0;
-                }
-            }
-            // Valor predeterminado para otros tipos de vehículos
-            switch (tipo) {
-                case MENSUAL: return 100000;
-                case TRIMESTRAL: return 270000;
-                case ANUAL: return 960000;
-                default: return 0;
-            }
         }
+        // Tarifas predeterminadas; otros tipos de vehículo pagan como automóvil
+        int tipoVehiculo = OcupacionParqueadero.tipoDeVehiculo(vehiculo);
+        if (tipoVehiculo < 0) {
+            tipoVehiculo = OcupacionParqueadero.TIPO_AUTOMOVIL;
+        }
+        return (int) TablaTarifas.PREDETERMINADA.tarifaMembresia(tipoVehiculo, tipo);
     }
     
     /**
@@ -410,19 +344,7 @@ public class MembresiaCodeService {
             return false;
         }
         
-        if (vehiculo.getMembresia() == null || vehiculo.getMembresia() == TipoMembresia.NINGUNA) {
-            return false;
-        }
-        
-        try {
-            String fechaFinStr = vehiculo.getFechaFinMembresia();
-            LocalDate fechaFin = LocalDate.parse(fechaFinStr, FORMATTER);
-            LocalDate hoy = LocalDate.now();
-            
-            return hoy.isBefore(fechaFin) || hoy.isEqual(fechaFin);
-        } catch (Exception e) {
-            return false;
-        }
+        return vehiculo.membresiaVigenteEn(FechasMembresia.hoy());
     }
     
     /**
@@ -435,16 +357,8 @@ public class MembresiaCodeService {
             return false;
         }
         
-        try {
-            String fechaFinStr = vehiculo.getFechaFinMembresia();
-            LocalDate fechaFin = LocalDate.parse(fechaFinStr, FORMATTER);
-            LocalDate hoy = LocalDate.now();
-            
-            long diasRestantes = ChronoUnit.DAYS.between(hoy, fechaFin);
-            return diasRestantes <= DIAS_PROXIMIDAD_VENCIMIENTO && diasRestantes >= 0;
-        } catch (Exception e) {
-            return false;
-        }
+        long diasRestantes = (long) vehiculo.getDiaFinMembresia() - FechasMembresia.hoy();
+        return diasRestantes <= DIAS_PROXIMIDAD_VENCIMIENTO && diasRestantes >= 0;
     }
     
     /**
@@ -457,23 +371,115 @@ public class MembresiaCodeService {
             return -1;
         }
         
-        try {
-            String fechaFinStr = vehiculo.getFechaFinMembresia();
-            LocalDate fechaFin = LocalDate.parse(fechaFinStr, FORMATTER);
-            LocalDate hoy = LocalDate.now();
-            
-            return ChronoUnit.DAYS.between(hoy, fechaFin);
-        } catch (Exception e) {
+        int diaFin = vehiculo.getDiaFinMembresia();
+        if (diaFin == FechasMembresia.SIN_FECHA) {
             return -1;
         }
+        return diaFin - FechasMembresia.hoy();
     }
     
+    /**
+     * Obtiene los vehículos cuya membresía vence en los próximos días,
+     * ordenados por fecha de vencimiento
+     * @param dias Cantidad de días a partir de hoy, incluido
+     * @return Lista de vehículos o lista vacía si no hay ninguno o faltan servicios
+     */
+    public synchronized List<Vehiculo> obtenerMembresiasPorVencer(int dias) {
+        List<Vehiculo> resultado = new ArrayList<>();
+        if (clienteService == null || vehiculoService == null || dias < 0) {
+            return resultado;
+        }
+        int hoy = FechasMembresia.hoy();
+        for (IndiceVencimientos.Vencimiento vencimiento : vencimientos().vencenEntre(hoy, (int) Math.min((long) hoy + dias, Integer.MAX_VALUE))) {
+            if (vencimiento.vehiculo().membresiaVigenteEn(hoy)) {
+                resultado.add(vencimiento.vehiculo());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta las membresías vigentes hoy
+     * @return Número de membresías activas o 0 si faltan servicios
+     */
+    public synchronized int contarMembresiasActivas() {
+        if (clienteService == null || vehiculoService == null) {
+            return 0;
+        }
+        return vencimientos().contarVigentesEn(FechasMembresia.hoy());
+    }
+
+    /**
+     * Baja a NINGUNA las membresías que vencieron antes de un día. Conserva las
+     * fechas para poder consultarlas después. Cada vencimiento se guarda en la
+     * bitácora antes de aplicarlo, así al reiniciar no vuelve a aparecer vigente
+     * @param hoy Día de referencia; vencen las membresías con fecha de fin anterior
+     * @return Membresías vencidas o lista vacía si no hay o faltan servicios
+     * @throws IllegalStateException si no se pudieron escribir los vencimientos;
+     *                               ninguno se aplica y se reintentan en la siguiente revisión
+     */
+    public synchronized List<IndiceVencimientos.Vencimiento> vencerMembresias(LocalDate hoy) {
+        List<IndiceVencimientos.Vencimiento> vencidas = new ArrayList<>();
+        if (clienteService == null || vehiculoService == null || hoy == null) {
+            return vencidas;
+        }
+        int dia = FechasMembresia.aDia(hoy);
+        IndiceVencimientos indice = vencimientos();
+        for (IndiceVencimientos.Vencimiento vencimiento : indice.vencenEntre(Integer.MIN_VALUE, dia - 1)) {
+            Vehiculo vehiculo = vencimiento.vehiculo();
+            if (vehiculo.membresiaVigenteEn(dia)) {
+                // La fecha se cambió fuera del servicio; se vuelve a indexar con la actual
+                indice.registrar(vehiculo, vencimiento.cliente(), vehiculo.getDiaFinMembresia());
+            } else if (vehiculo.getMembresia() != null && vehiculo.getMembresia() != TipoMembresia.NINGUNA) {
+                vencidas.add(vencimiento);
+            } else {
+                indice.quitar(vehiculo);
+            }
+        }
+
+        // Encolar todos los vencimientos y esperar una sola vez: el lote se sincroniza junto
+        if (bitacora != null && !vencidas.isEmpty()) {
+            CompletableFuture<Long> ultima = null;
+            for (IndiceVencimientos.Vencimiento vencida : vencidas) {
+                ultima = bitacora.registrar(new MembresiaVencida(vencida.vehiculo().getPlaca(),
+                        FechasMembresia.aFecha(vencida.diaFin())));
+            }
+            BitacoraEventos.esperar(ultima);
+        }
+        for (IndiceVencimientos.Vencimiento vencida : vencidas) {
+            indice.quitar(vencida.vehiculo());
+            vencida.vehiculo().setMembresia(TipoMembresia.NINGUNA);
+        }
+        return vencidas;
+    }
+
+    /**
+     * Obtiene las membresías vigentes que vencen entre dos días, ambos incluidos,
+     * ordenadas por vencimiento
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Membresías encontradas o lista vacía si no hay o faltan servicios
+     */
+    public synchronized List<IndiceVencimientos.Vencimiento> obtenerVencimientosEntre(LocalDate desde, LocalDate hasta) {
+        List<IndiceVencimientos.Vencimiento> resultado = new ArrayList<>();
+        if (clienteService == null || vehiculoService == null || desde == null || hasta == null) {
+            return resultado;
+        }
+        int primerDia = FechasMembresia.aDia(desde);
+        for (IndiceVencimientos.Vencimiento vencimiento : vencimientos().vencenEntre(primerDia, FechasMembresia.aDia(hasta))) {
+            if (vencimiento.vehiculo().membresiaVigenteEn(primerDia)) {
+                resultado.add(vencimiento);
+            }
+        }
+        return resultado;
+    }
+
     /**
      * Cancela la membresía de un vehículo
      * @param vehiculo El vehículo cuya membresía se cancelará
      * @return true si la cancelación fue exitosa, false en caso contrario
      */
-    public boolean cancelarMembresia(Vehiculo vehiculo) {
+    public synchronized boolean cancelarMembresia(Vehiculo vehiculo) {
         if (vehiculo == null) {
             return false;
         }
@@ -482,10 +488,132 @@ public class MembresiaCodeService {
             return false;
         }
         
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new MembresiaCancelada(vehiculo.getPlaca()));
+        }
         vehiculo.setMembresia(TipoMembresia.NINGUNA);
-        vehiculo.setFechaInicioMembresia(null);
-        vehiculo.setFechaFinMembresia(null);
+        vehiculo.setDiaInicioMembresia(FechasMembresia.SIN_FECHA);
+        vehiculo.setDiaFinMembresia(FechasMembresia.SIN_FECHA);
+        if (vencimientos != null) {
+            vencimientos.quitar(vehiculo);
+        }
         
         return true;
     }
+
+    /**
+     * Vuelve a aplicar una membresía leída de la bitácora, sin registrar el pago
+     * (el pago tiene su propio evento)
+     * @param vehiculo El vehículo de la membresía
+     * @param cliente El cliente asociado, puede ser null
+     * @param evento La membresía registrada
+     */
+    synchronized void restaurarMembresia(Vehiculo vehiculo, Cliente cliente, MembresiaRegistrada evento) {
+        if (vehiculo == null || evento == null) {
+            return;
+        }
+        int diaInicio = FechasMembresia.aDia(evento.fechaInicio());
+        int diaFin = FechasMembresia.aDia(evento.fechaFin());
+        vehiculo.setMembresia(evento.tipo());
+        vehiculo.setDiaInicioMembresia(diaInicio);
+        vehiculo.setDiaFinMembresia(diaFin);
+        if (cliente != null) {
+            cliente.getMembresias().add(new Membresia(evento.tipo(), diaInicio, diaFin, evento.tarifa()));
+        }
+        indexarVencimiento(vehiculo, cliente);
+    }
+
+    /**
+     * Quita la membresía cancelada de un vehículo leída de la bitácora
+     * @param vehiculo El vehículo de la membresía
+     */
+    synchronized void restaurarCancelacion(Vehiculo vehiculo) {
+        if (vehiculo == null) {
+            return;
+        }
+        vehiculo.setMembresia(TipoMembresia.NINGUNA);
+        vehiculo.setDiaInicioMembresia(FechasMembresia.SIN_FECHA);
+        vehiculo.setDiaFinMembresia(FechasMembresia.SIN_FECHA);
+        if (vencimientos != null) {
+            vencimientos.quitar(vehiculo);
+        }
+    }
+
+    /**
+     * Baja a NINGUNA una membresía vencida leída de la bitácora, conservando sus fechas
+     * @param vehiculo El vehículo de la membresía
+     */
+    synchronized void restaurarVencimiento(Vehiculo vehiculo) {
+        if (vehiculo == null) {
+            return;
+        }
+        vehiculo.setMembresia(TipoMembresia.NINGUNA);
+        if (vencimientos != null) {
+            vencimientos.quitar(vehiculo);
+        }
+    }
+
+    /**
+     * Descarta el índice de vencimientos para que se vuelva a construir con
+     * los datos actuales, por ejemplo después de cargar una instantánea
+     */
+    synchronized void reindexarVencimientos() {
+        vencimientos = null;
+    }
+
+    /**
+     * Obtiene el índice de vencimientos, construyéndolo la primera vez con las
+     * membresías de los vehículos de cada cliente. Se vuelve a construir si
+     * desde entonces se eliminó un cliente, se eliminó un vehículo o cambiaron
+     * sus propietarios
+     */
+    private IndiceVencimientos vencimientos() {
+        long vehiculos = vehiculoService.getCambiosPropietarios();
+        long clientes = clienteService.getBajas();
+        if (vencimientos == null || vehiculos != cambiosVehiculos || clientes != bajasClientes) {
+            cambiosVehiculos = vehiculos;
+            bajasClientes = clientes;
+            IndiceVencimientos indice = new IndiceVencimientos();
+            for (Cliente cliente : clienteService.obtenerTodosLosClientes()) {
+                for (Vehiculo vehiculo : vehiculoService.obtenerVehiculosPorCliente(cliente)) {
+                    if (!tieneFechaDeMembresia(vehiculo)) {
+                        continue;
+                    }
+                    // El primer dueño queda como cliente de la membresía; todos quedan como propietarios
+                    if (indice.buscar(vehiculo) == null) {
+                        indice.registrar(vehiculo, cliente, vehiculo.getDiaFinMembresia());
+                    } else {
+                        indice.agregarPropietario(vehiculo, cliente);
+                    }
+                }
+            }
+            vencimientos = indice;
+        }
+        return vencimientos;
+    }
+
+    private void indexarVencimiento(Vehiculo vehiculo, Cliente cliente) {
+        if (vencimientos == null || !tieneFechaDeMembresia(vehiculo)) {
+            return;
+        }
+        // Sin cliente (membresía restaurada de un vehículo suelto) se conserva el que ya tenía
+        IndiceVencimientos.Vencimiento anterior = vencimientos.buscar(vehiculo);
+        if (cliente == null && anterior != null) {
+            cliente = anterior.cliente();
+        }
+        vencimientos.registrar(vehiculo, cliente, vehiculo.getDiaFinMembresia());
+    }
+
+    private static boolean tieneFechaDeMembresia(Vehiculo vehiculo) {
+        return vehiculo.getMembresia() != null && vehiculo.getMembresia() != TipoMembresia.NINGUNA
+                && vehiculo.getDiaFinMembresia() != FechasMembresia.SIN_FECHA;
+    }
+
+    private void registrarEnBitacora(Vehiculo vehiculo, Cliente cliente, TipoMembresia tipo,
+                                     LocalDate fechaInicio, LocalDate fechaFin) {
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new MembresiaRegistrada(vehiculo.getPlaca(), cliente.getCedula(), tipo,
+                    fechaInicio, fechaFin, calcularTarifaMembresia(vehiculo, tipo)));
+        }
+    }
 }
\ No newline at end of file
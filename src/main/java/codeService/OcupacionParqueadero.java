@@ -0,0 +1,146 @@
+package codeService;
+
+import model.TipoVehiculo;
+import model.Vehiculo;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Libro de ocupación del parqueadero.
+ * Mantiene contadores vivos por tipo de vehículo que se actualizan en cada
+ * entrada y salida, de modo que consultar la ocupación no requiere recorrer
+ * la lista de vehículos del parqueadero.
+ * Los contadores son atómicos: cada tipo se reserva con compare-and-set, así
+ * que varias porterías pueden admitir vehículos a la vez sin exceder la
+ * capacidad y sin bloquearse entre tipos distintos.
+ */
+public class OcupacionParqueadero {
+    // Códigos de tipo: son los ordinales de TipoVehiculo
+    public static final int TIPO_AUTOMOVIL = 0;
+    public static final int TIPO_MOTO = 1;
+    public static final int TIPO_CAMION = 2;
+    public static final int CANTIDAD_TIPOS = 3;
+
+    private final AtomicIntegerArray ocupados = new AtomicIntegerArray(CANTIDAD_TIPOS);
+
+    /**
+     * Reserva un espacio del tipo indicado si todavía hay cupo.
+     * La verificación y el incremento ocurren en una sola operación atómica.
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @param capacidad Cantidad de espacios configurados para ese tipo
+     * @return true si se reservó el espacio, false si no hay cupo o el tipo no es válido
+     */
+    public boolean reservar(int tipo, int capacidad) {
+        if (!esTipoValido(tipo)) {
+            return false;
+        }
+        while (true) {
+            int actuales = ocupados.get(tipo);
+            if (actuales >= capacidad) {
+                return false;
+            }
+            if (ocupados.compareAndSet(tipo, actuales, actuales + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Registra la entrada de un vehículo del tipo indicado sin verificar cupo
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     */
+    public void registrarEntrada(int tipo) {
+        if (esTipoValido(tipo)) {
+            ocupados.incrementAndGet(tipo);
+        }
+    }
+
+    /**
+     * Registra la salida de un vehículo del tipo indicado, liberando su espacio
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     */
+    public void registrarSalida(int tipo) {
+        if (!esTipoValido(tipo)) {
+            return;
+        }
+        while (true) {
+            int actuales = ocupados.get(tipo);
+            if (actuales <= 0 || ocupados.compareAndSet(tipo, actuales, actuales - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de vehículos de un tipo que están en el parqueadero
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @return Número de vehículos de ese tipo, 0 si el tipo no es válido
+     */
+    public int obtenerOcupados(int tipo) {
+        return esTipoValido(tipo) ? ocupados.get(tipo) : 0;
+    }
+
+    /**
+     * Obtiene la cantidad total de vehículos en el parqueadero
+     * @return Suma de los contadores de todos los tipos
+     */
+    public int obtenerTotalOcupados() {
+        int total = 0;
+        for (int i = 0; i < CANTIDAD_TIPOS; i++) {
+            total += ocupados.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Reconstruye los contadores a partir de una lista de vehículos.
+     * Solo se usa al asociar un parqueadero que ya trae vehículos.
+     * @param vehiculos Lista de vehículos presentes en el parqueadero
+     */
+    public void reconstruir(List<Vehiculo> vehiculos) {
+        for (int i = 0; i < CANTIDAD_TIPOS; i++) {
+            ocupados.set(i, 0);
+        }
+        if (vehiculos == null) {
+            return;
+        }
+        for (Vehiculo vehiculo : vehiculos) {
+            registrarEntrada(tipoDeVehiculo(vehiculo));
+        }
+    }
+
+    /**
+     * Determina el código de tipo de un vehículo
+     * @param vehiculo El vehículo a evaluar
+     * @return 0=Automóvil, 1=Moto, 2=Camión o -1 si no se reconoce
+     */
+    public static int tipoDeVehiculo(Vehiculo vehiculo) {
+        TipoVehiculo tipo = vehiculo != null ? vehiculo.getTipo() : null;
+        return tipo != null ? tipo.ordinal() : -1;
+    }
+
+    /**
+     * Obtiene el nombre que se muestra de un tipo de vehículo
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @return El nombre o "Desconocido" si el tipo no es válido
+     */
+    public static String nombreDeTipo(int tipo) {
+        TipoVehiculo tipoVehiculo = TipoVehiculo.deCodigo(tipo);
+        return tipoVehiculo != null ? tipoVehiculo.getNombre() : "Desconocido";
+    }
+
+    /**
+     * Determina el código de tipo a partir del nombre que se muestra del tipo
+     * @param nombre "Automóvil", "Moto" o "Camión"
+     * @return 0=Automóvil, 1=Moto, 2=Camión o -1 si no se reconoce
+     */
+    public static int tipoDeNombre(String nombre) {
+        TipoVehiculo tipo = TipoVehiculo.deNombre(nombre);
+        return tipo != null ? tipo.ordinal() : -1;
+    }
+
+    private static boolean esTipoValido(int tipo) {
+        return tipo >= 0 && tipo < CANTIDAD_TIPOS;
+    }
+}
@@ -4,49 +4,121 @@ import model.Cliente;
 import model.Pago;
 import model.TipoMembresia;
 import model.Vehiculo;
-import model.Automovil;
-import model.Moto;
-import model.Camion;
+import eventos.PagoRegistrado;
+import persistencia.BitacoraEventos;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class PagoCodeService {
-    private List<Pago> historialPagos;
+    // Historial de pagos particionado por día
+    private final LibroPagos historialPagos = new LibroPagos();
+    // Bitácora donde se guardan los pagos (opcional)
+    private BitacoraEventos bitacora;
+    // Se toma la lectura al encolar un pago; una instantánea toma la escritura
+    private volatile ReadWriteLock barrera = new ReentrantReadWriteLock();
+    // Confirmación de los pagos cuando no hay bitácora
+    private static final CompletableFuture<Long> SIN_BITACORA = CompletableFuture.completedFuture(0L);
     
-    // Tarifas de membresía por tipo de vehículo y período
-    private static final double TARIFA_MENSUAL_AUTO = 100000;
-    private static final double TARIFA_TRIMESTRAL_AUTO = 270000;
-    private static final double TARIFA_ANUAL_AUTO = 960000;
-    
-    private static final double TARIFA_MENSUAL_MOTO = 50000;
-    private static final double TARIFA_TRIMESTRAL_MOTO = 135000;
-    private static final double TARIFA_ANUAL_MOTO = 480000;
-    
-    private static final double TARIFA_MENSUAL_CAMION = 150000;
-    private static final double TARIFA_TRIMESTRAL_CAMION = 405000;
-    private static final double TARIFA_ANUAL_CAMION = 1440000;
+    // Tarifas vigentes; se reemplaza la tabla completa para cambiarlas y se puede compartir
+    private volatile TarifasVigentes tarifas = new TarifasVigentes();
 
     public PagoCodeService() {
-        this.historialPagos = new ArrayList<>();
+    }
+
+    /**
+     * Establece la bitácora donde se registran los pagos
+     */
+    public void setBitacora(BitacoraEventos bitacora) {
+        this.bitacora = bitacora;
+    }
+
+    /**
+     * Establece la barrera que comparte con los demás servicios para tomar instantáneas
+     */
+    void setBarrera(ReadWriteLock barrera) {
+        this.barrera = barrera;
+    }
+
+    /**
+     * Obtiene la tabla de tarifas vigente
+     */
+    public TablaTarifas getTablaTarifas() {
+        return tarifas.obtener();
+    }
+
+    /**
+     * Reemplaza la tabla de tarifas; los cálculos en curso terminan con la anterior
+     */
+    public void setTablaTarifas(TablaTarifas tarifas) {
+        this.tarifas.reemplazar(tarifas);
+    }
+
+    /**
+     * Usa una referencia de tarifas compartida, por ejemplo la de
+     * {@link ParqueaderoCodeService#getTarifasVigentes()}, para cotizar con las que se configuren allí
+     */
+    public void setTarifasVigentes(TarifasVigentes tarifas) {
+        if (tarifas != null) {
+            this.tarifas = tarifas;
+        }
     }
 
     /**
      * Registra un pago por estacionamiento temporal
      */
     public boolean registrarPago(Vehiculo vehiculo, double monto) {
-        if (vehiculo == null || monto <= 0) {
+        CompletableFuture<Long> confirmacion = registrarPagoSinEsperar(vehiculo, monto);
+        if (confirmacion == null) {
             return false;
         }
+        BitacoraEventos.esperar(confirmacion);
+        return true;
+    }
+
+    /**
+     * Registra un pago por estacionamiento sin esperar a que quede en la bitácora.
+     * El pago entra al historial cuando la bitácora lo confirma, así un pago que
+     * no se pudo escribir nunca aparece en los totales
+     * @return Confirmación de la bitácora (ya completa si no hay bitácora) o null si el pago no es válido
+     */
+    CompletableFuture<Long> registrarPagoSinEsperar(Vehiculo vehiculo, double monto) {
+        if (vehiculo == null || monto <= 0) {
+            return null;
+        }
         
         String tipoVehiculo = determinarTipoVehiculo(vehiculo);
-        Pago pago = new Pago(monto, vehiculo, tipoVehiculo);
-        historialPagos.add(pago);
-        
-        return true;
+        return registrarYAgregar(new Pago(monto, vehiculo, tipoVehiculo));
+    }
+
+    /**
+     * Prepara el pago de una estadía sin registrarlo, para guardarlo en la
+     * bitácora en el mismo evento que la salida
+     * @return El pago o null si no es válido
+     */
+    Pago prepararPago(Vehiculo vehiculo, double monto) {
+        if (vehiculo == null || monto <= 0) {
+            return null;
+        }
+        return new Pago(monto, vehiculo, determinarTipoVehiculo(vehiculo));
+    }
+
+    /**
+     * Agrega al historial un pago preparado cuando se confirme el evento que lo
+     * contiene. Se llama dentro de la barrera, igual que al registrar un pago
+     * @return Confirmación que se completa después de agregar el pago
+     */
+    CompletableFuture<Long> agregarAlConfirmar(Pago pago, CompletableFuture<Long> confirmacion) {
+        return confirmacion.thenApply(secuencia -> {
+            historialPagos.agregar(pago);
+            return secuencia;
+        });
     }
 
     /**
@@ -62,12 +134,54 @@ public class PagoCodeService {
             return false;
         }
         
-        Pago pago = new Pago(monto, vehiculo, cliente, tipoMembresia);
-        historialPagos.add(pago);
+        BitacoraEventos.esperar(registrarYAgregar(new Pago(monto, vehiculo, cliente, tipoMembresia)));
         
         return true;
     }
 
+    /**
+     * Agrega al historial un pago leído de la bitácora, sin volver a registrarlo
+     */
+    void restaurarPago(Pago pago) {
+        if (pago != null) {
+            historialPagos.agregar(pago);
+        }
+    }
+
+    /**
+     * Encola un pago y lo agrega al historial cuando la bitácora lo confirma.
+     * Se encadena dentro de la barrera: si la confirmación ya llegó, el pago se
+     * agrega antes de soltarla y una instantánea nunca ve el evento sin el pago
+     */
+    private CompletableFuture<Long> registrarYAgregar(Pago pago) {
+        ReadWriteLock barrera = this.barrera;
+        barrera.readLock().lock();
+        try {
+            return agregarAlConfirmar(pago, registrarEnBitacora(pago));
+        } finally {
+            barrera.readLock().unlock();
+        }
+    }
+
+    private CompletableFuture<Long> registrarEnBitacora(Pago pago) {
+        if (bitacora == null) {
+            return SIN_BITACORA;
+        }
+        return bitacora.registrar(eventoDe(pago));
+    }
+
+    /**
+     * Convierte un pago en el evento con que se guarda en la bitácora
+     */
+    static PagoRegistrado eventoDe(Pago pago) {
+        Vehiculo vehiculo = pago.getVehiculo();
+        Cliente cliente = pago.getCliente();
+        return new PagoRegistrado(pago.getId(), pago.getMonto(), pago.getFechaHora(),
+                pago.getConcepto(), pago.getTipoVehiculo(),
+                vehiculo != null ? vehiculo.getPlaca() : null,
+                cliente != null ? cliente.getCedula() : null);
+    }
+
     /**
      * Calcula el monto a pagar por una membresía según el tipo de vehículo y período
      */
@@ -76,47 +190,14 @@ public class PagoCodeService {
             return 0;
         }
         
-        if (vehiculo instanceof Automovil) {
-            switch (tipoMembresia) {
-                case MENSUAL: return TARIFA_MENSUAL_AUTO;
-                case TRIMESTRAL: return TARIFA_TRIMESTRAL_AUTO;
-                case ANUAL: return TARIFA_ANUAL_AUTO;
-                default: return 0;
-            }
-        } else if (vehiculo instanceof Moto) {
-            switch (tipoMembresia) {
-                case MENSUAL: return TARIFA_MENSUAL_MOTO;
-                case TRIMESTRAL: return TARIFA_TRIMESTRAL_MOTO;
-                case ANUAL: return TARIFA_ANUAL_MOTO;
-                default: return 0;
-            }
-        } else if (vehiculo instanceof Camion) {
-            switch (tipoMembresia) {
-                case MENSUAL: return TARIFA_MENSUAL_CAMION;
-                case TRIMESTRAL: return TARIFA_TRIMESTRAL_CAMION;
-                case ANUAL: return TARIFA_ANUAL_CAMION;
-                default: return 0;
-            }
-        }
-        return 0;
+        return tarifas.obtener().tarifaMembresia(vehiculo, tipoMembresia);
     }
 
     /**
      * Determina el tipo de vehículo como texto
      */
     public String determinarTipoVehiculo(Vehiculo vehiculo) {
-        if (vehiculo == null) {
-            return "Desconocido";
-        }
-        
-        if (vehiculo instanceof Automovil) {
-            return "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            return "Moto";
-        } else if (vehiculo instanceof Camion) {
-            return "Camión";
-        }
-        return "Desconocido";
+        return OcupacionParqueadero.nombreDeTipo(OcupacionParqueadero.tipoDeVehiculo(vehiculo));
     }
 
     /**
@@ -127,12 +208,7 @@ public class PagoCodeService {
             return null;
         }
         
-        for (Pago pago : historialPagos) {
-            if (pago.getId().equals(id)) {
-                return pago;
-            }
-        }
-        return null;
+        return historialPagos.buscarPorId(id);
     }
 
     /**
@@ -143,16 +219,7 @@ public class PagoCodeService {
             return 0;
         }
         
-        double tarifaHora = 0;
-        
-        switch (tipoVehiculo) {
-            case "Automóvil": tarifaHora = 2000; break;
-            case "Moto": tarifaHora = 1000; break;
-            case "Camión": tarifaHora = 3000; break;
-            default: return 0;
-        }
-        
-        return tarifaHora * horas;
+        return tarifas.obtener().tarifaHora(OcupacionParqueadero.tipoDeNombre(tipoVehiculo)) * horas;
     }
 
     /**
@@ -163,36 +230,30 @@ public class PagoCodeService {
             return new ArrayList<>();
         }
         
-        return historialPagos.stream()
-            .filter(pago -> pago.getFechaHora().toLocalDate().equals(dia))
-            .collect(Collectors.toList());
+        return historialPagos.obtenerEntre(dia, dia);
     }
 
     /**
      * Obtiene pagos filtrados por mes y año
      */
     public List<Pago> obtenerPagosPorMes(int mes, int anio) {
-        if (mes < 1 || mes > 12 || anio < 0) {
+        if (mes < 1 || mes > 12 || anio < 0 || anio > Year.MAX_VALUE) {
             return new ArrayList<>();
         }
         
-        return historialPagos.stream()
-            .filter(pago -> pago.getFechaHora().getMonthValue() == mes && 
-                           pago.getFechaHora().getYear() == anio)
-            .collect(Collectors.toList());
+        YearMonth periodo = YearMonth.of(anio, mes);
+        return historialPagos.obtenerEntre(periodo.atDay(1), periodo.atEndOfMonth());
     }
 
     /**
      * Obtiene pagos filtrados por año
      */
     public List<Pago> obtenerPagosPorAnio(int anio) {
-        if (anio < 0) {
+        if (anio < 0 || anio > Year.MAX_VALUE) {
             return new ArrayList<>();
         }
         
-        return historialPagos.stream()
-            .filter(pago -> pago.getFechaHora().getYear() == anio)
-            .collect(Collectors.toList());
+        return historialPagos.obtenerEntre(LocalDate.of(anio, 1, 1), LocalDate.of(anio, 12, 31));
     }
 
     /**
@@ -203,13 +264,18 @@ public class PagoCodeService {
             return new ArrayList<>();
         }
         
-        return historialPagos.stream()
-            .filter(pago -> {
-                LocalDate fechaPago = pago.getFechaHora().toLocalDate();
-                return (fechaPago.isEqual(fechaInicio) || fechaPago.isAfter(fechaInicio)) && 
-                       (fechaPago.isEqual(fechaFin) || fechaPago.isBefore(fechaFin));
-            })
-            .collect(Collectors.toList());
+        return historialPagos.obtenerEntre(fechaInicio, fechaFin);
+    }
+
+    /**
+     * Cuenta los pagos de un rango de fechas sin construirlos
+     */
+    public int contarPagosPorRango(LocalDate fechaInicio, LocalDate fechaFin) {
+        if (fechaInicio == null || fechaFin == null || fechaInicio.isAfter(fechaFin)) {
+            return 0;
+        }
+        
+        return historialPagos.contarEntre(fechaInicio, fechaFin);
     }
 
     /**
@@ -220,37 +286,51 @@ public class PagoCodeService {
             return new ReporteTotales(0, 0, 0, 0, 0);
         }
         
-        double totalEstacionamiento = 0;
-        double totalMembresias = 0;
-        double totalAutomoviles = 0;
-        double totalMotos = 0;
-        double totalCamiones = 0;
-        
-        for (Pago pago : pagos) {
-            if (pago.getConcepto().startsWith("Estacionamiento")) {
-                totalEstacionamiento += pago.getMonto();
-            } else {
-                totalMembresias += pago.getMonto();
-            }
-            
-            switch (pago.getTipoVehiculo()) {
-                case "Automóvil": totalAutomoviles += pago.getMonto(); break;
-                case "Moto": totalMotos += pago.getMonto(); break;
-                case "Camión": totalCamiones += pago.getMonto(); break;
-            }
+        return AcumuladoIngresos.totalizar(pagos);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un día sin recorrer los pagos
+     */
+    public ReporteTotales obtenerTotalesPorDia(LocalDate dia) {
+        if (dia == null) {
+            return new ReporteTotales(0, 0, 0, 0, 0);
         }
-        
-        return new ReporteTotales(
-            totalEstacionamiento, 
-            totalMembresias, 
-            totalAutomoviles, 
-            totalMotos, 
-            totalCamiones
-        );
+        return historialPagos.totalesDia(dia);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un mes sin recorrer los pagos
+     */
+    public ReporteTotales obtenerTotalesPorMes(int mes, int anio) {
+        if (mes < 1 || mes > 12 || anio < 0 || anio > Year.MAX_VALUE) {
+            return new ReporteTotales(0, 0, 0, 0, 0);
+        }
+        return historialPagos.totalesMes(YearMonth.of(anio, mes));
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un año sin recorrer los pagos
+     */
+    public ReporteTotales obtenerTotalesPorAnio(int anio) {
+        if (anio < 0) {
+            return new ReporteTotales(0, 0, 0, 0, 0);
+        }
+        return historialPagos.totalesAnio(anio);
+    }
+
+    /**
+     * Obtiene los totales de ingresos de un rango de fechas
+     */
+    public ReporteTotales obtenerTotalesPorRango(LocalDate fechaInicio, LocalDate fechaFin) {
+        if (fechaInicio == null || fechaFin == null || fechaInicio.isAfter(fechaFin)) {
+            return new ReporteTotales(0, 0, 0, 0, 0);
+        }
+        return historialPagos.totalesEntre(fechaInicio, fechaFin);
     }
     
     public List<Pago> getHistorialPagos() {
-        return new ArrayList<>(historialPagos);
+        return historialPagos.obtenerTodos();
     }
     
     // Clase interna para encapsular los resultados del reporte
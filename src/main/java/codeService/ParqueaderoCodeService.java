@@ -5,7 +5,12 @@ import model.Vehiculo;
 import model.Automovil;
 import model.Moto;
 import model.Camion;
-import model.TipoMembresia;
+import model.FechasMembresia;
+import model.Pago;
+import eventos.SalidaCobrada;
+import eventos.VehiculoIngresado;
+import eventos.VehiculoSalio;
+import persistencia.BitacoraEventos;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -13,18 +18,41 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 public class ParqueaderoCodeService {
     private Parqueadero parqueadero;
-    // Registro de vehículos actualmente en el parqueadero con su hora de entrada
-    private Map<String, LocalDateTime> vehiculosActuales = new HashMap<>();
-    // Tarifas por hora para cada tipo de vehículo
-    private double tarifaHoraAutomovil = 2000;
-    private double tarifaHoraMoto = 1000;
-    private double tarifaHoraCamion = 3000;
+    // Índice de vehículos actualmente en el parqueadero por placa normalizada
+    private Map<String, RegistroEstacionamiento> vehiculosActuales = new ConcurrentHashMap<>();
+    // Placas de los vehículos actuales para búsquedas tolerantes a errores de lectura;
+    // se cambia dentro de la llave de la placa y no tiene un bloqueo común
+    private final IndicePlacasAproximado placasAproximadas = new IndicePlacasAproximado();
+    // Contadores de ocupación por tipo de vehículo
+    private final OcupacionParqueadero ocupacion = new OcupacionParqueadero();
+    // Puestos físicos por tipo de vehículo (0=Automóvil, 1=Moto, 2=Camión)
+    private final AsignadorPuestos[] puestos = {
+            new AsignadorPuestos(), new AsignadorPuestos(), new AsignadorPuestos()
+    };
+    // Tarifas vigentes, compartidas con los servicios que cobran; configurarTarifas reemplaza
+    // la tabla completa y las salidas la leen sin bloquearse
+    private volatile TarifasVigentes tarifas = new TarifasVigentes();
+    // Bitácora donde se guardan las entradas y salidas (opcional)
+    private BitacoraEventos bitacora;
+    // Entradas y salidas toman la lectura mientras cambian la memoria y encolan su evento;
+    // una instantánea toma la escritura para no verlas a medias
+    private volatile ReadWriteLock barrera = new ReentrantReadWriteLock();
+    // Última foto de la ocupación; se reemplaza completa después de cada cambio
+    private final AtomicReference<EstadoParqueadero> estado = new AtomicReference<>(EstadoParqueadero.VACIO);
+    // Confirmación de las entradas cuando no hay bitácora
+    private static final CompletableFuture<Long> SIN_BITACORA = CompletableFuture.completedFuture(0L);
 
     public ParqueaderoCodeService(Parqueadero parqueadero) {
-        this.parqueadero = parqueadero;
+        setParqueadero(parqueadero);
     }
     
     /**
@@ -38,6 +66,27 @@ public class ParqueaderoCodeService {
      */
     public void setParqueadero(Parqueadero parqueadero) {
         this.parqueadero = parqueadero;
+        // El índice y los contadores parten de los vehículos que ya traiga el parqueadero
+        vehiculosActuales.clear();
+        placasAproximadas.limpiar();
+        for (AsignadorPuestos asignador : puestos) {
+            asignador.reiniciar();
+        }
+        if (parqueadero != null) {
+            LocalDateTime ahora = LocalDateTime.now();
+            for (Vehiculo vehiculo : parqueadero.getListaDevehiculos()) {
+                String clave = UtilidadesPlaca.normalizar(vehiculo.getPlaca());
+                if (clave != null && !vehiculosActuales.containsKey(clave)) {
+                    int tipo = OcupacionParqueadero.tipoDeVehiculo(vehiculo);
+                    // Los puestos se numeran dentro de la capacidad de su tipo, igual que en una entrada
+                    int puesto = tipo >= 0 ? puestos[tipo].asignar(capacidadPorTipo(tipo)) : -1;
+                    vehiculosActuales.put(clave, new RegistroEstacionamiento(vehiculo, ahora, puesto));
+                    placasAproximadas.agregar(clave);
+                }
+            }
+        }
+        ocupacion.reconstruir(parqueadero != null ? parqueadero.getListaDevehiculos() : null);
+        publicarEstado();
     }
     
     /**
@@ -47,11 +96,39 @@ public class ParqueaderoCodeService {
         return this.parqueadero;
     }
     
+    /**
+     * Establece la bitácora donde se registran las entradas y salidas
+     */
+    public void setBitacora(BitacoraEventos bitacora) {
+        this.bitacora = bitacora;
+    }
+
+    /**
+     * Establece la barrera que comparte con los demás servicios para tomar instantáneas
+     */
+    void setBarrera(ReadWriteLock barrera) {
+        this.barrera = barrera;
+    }
+    
     /**
      * Getter para vehículos actuales
      */
     public Map<String, LocalDateTime> getVehiculosActuales() {
-        return new HashMap<>(vehiculosActuales);
+        Map<String, LocalDateTime> copia = new HashMap<>();
+        for (RegistroEstacionamiento registro : vehiculosActuales.values()) {
+            copia.put(registro.getVehiculo().getPlaca(), registro.getHoraEntrada());
+        }
+        return copia;
+    }
+
+    /**
+     * Cambia la hora de entrada de un vehículo que está en el parqueadero (útil para pruebas)
+     * @param placa placa del vehículo
+     * @param horaEntrada nueva hora de entrada
+     */
+    void establecerHoraEntrada(String placa, LocalDateTime horaEntrada) {
+        vehiculosActuales.computeIfPresent(UtilidadesPlaca.normalizar(placa),
+                (clave, registro) -> new RegistroEstacionamiento(registro.getVehiculo(), horaEntrada, registro.getPuesto()));
     }
 
     /**
@@ -66,6 +143,7 @@ public class ParqueaderoCodeService {
             parqueadero.setPuestosMotos(puestosMotos);
             parqueadero.setPuestosAutomoviles(puestosAutomoviles);
             parqueadero.setPuestosCamiones(puestosCamiones);
+            publicarEstado();
             return true;
         } catch (Exception e) {
             return false;
@@ -81,9 +159,7 @@ public class ParqueaderoCodeService {
      */
     public boolean configurarTarifas(double tarifaMoto, double tarifaAutomovil, double tarifaCamion) {
         try {
-            this.tarifaHoraMoto = tarifaMoto;
-            this.tarifaHoraAutomovil = tarifaAutomovil;
-            this.tarifaHoraCamion = tarifaCamion;
+            tarifas.cambiarTarifasHora(tarifaMoto, tarifaAutomovil, tarifaCamion);
             return true;
         } catch (Exception e) {
             return false;
@@ -99,58 +175,91 @@ public class ParqueaderoCodeService {
      * @return true si la entrada fue registrada exitosamente
      */
     public boolean registrarEntradaVehiculo(int tipoVehiculo, String placa, String color, String modelo) {
+        CompletableFuture<Long> confirmacion = admitirEntrada(tipoVehiculo, placa, color, modelo);
+        if (confirmacion == null) {
+            return false;
+        }
+        // Esperar sin bloquear a nadie: el lote se sincroniza junto con otras porterías
+        try {
+            BitacoraEventos.esperar(confirmacion);
+        } catch (IllegalStateException e) {
+            // La entrada no quedó en la bitácora: deshacerla para que la memoria no quede adelante
+            deshacerEntrada(placa);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Retira una entrada admitida cuyo evento no se pudo escribir en la bitácora
+     * @param placa placa del vehículo que se había admitido
+     */
+    void deshacerEntrada(String placa) {
+        RegistroEstacionamiento registro = quitarEstancia(UtilidadesPlaca.normalizar(placa), null);
+        if (registro != null) {
+            retirarVehiculo(registro);
+        }
+    }
+
+    /**
+     * Registra la entrada de un vehículo sin esperar a que quede en la bitácora
+     * @return Confirmación de la bitácora (ya completa si no hay bitácora) o null si no se admitió
+     */
+    CompletableFuture<Long> admitirEntrada(int tipoVehiculo, String placa, String color, String modelo) {
         // Validar datos de entrada
         if (placa == null || placa.trim().isEmpty() || 
             color == null || color.trim().isEmpty() || 
             modelo == null || modelo.trim().isEmpty() ||
             tipoVehiculo < 0 || tipoVehiculo > 2) {
-            return false;
-        }
-        
-        // Verificar disponibilidad de espacios
-        boolean hayEspacio = false;
-        switch (tipoVehiculo) {
-            case 0: // Automóvil
-                hayEspacio = verificarDisponibilidadAutomoviles();
-                break;
-            case 1: // Moto
-                hayEspacio = verificarDisponibilidadMotos();
-                break;
-            case 2: // Camión
-                hayEspacio = verificarDisponibilidadCamiones();
-                break;
+            return null;
         }
         
-        if (!hayEspacio) {
-            return false;
-        }
+        // Crear el vehículo según el tipo
+        Vehiculo vehiculo = switch (tipoVehiculo) {
+            case 0 -> new Automovil(placa, color, modelo);
+            case 1 -> new Moto(placa, color, modelo);
+            default -> new Camion(placa, color, modelo);
+        };
         
-        // Verificar si el vehículo ya está en el parqueadero
-        if (vehiculosActuales.containsKey(placa)) {
-            return false;
+        // Reclamar la placa antes de reservar: un duplicado nunca ocupa el último espacio.
+        // El espacio, el puesto y el evento se toman mientras se tiene la llave de la placa,
+        // así una salida de la misma placa nunca encuentra el vehículo a medio registrar y
+        // la bitácora conserva el orden real. Placas distintas no se esperan entre sí
+        String clave = UtilidadesPlaca.normalizar(placa);
+        int capacidad = capacidadPorTipo(tipoVehiculo);
+        LocalDateTime horaEntrada = LocalDateTime.now();
+        AtomicReference<CompletableFuture<Long>> confirmacion = new AtomicReference<>();
+        RegistroEstacionamiento registro;
+        ReadWriteLock barrera = this.barrera;
+        barrera.readLock().lock();
+        try {
+            registro = vehiculosActuales.computeIfAbsent(clave, llave -> {
+                if (!ocupacion.reservar(tipoVehiculo, capacidad)) {
+                    return null;
+                }
+                // Asignar el puesto libre más cercano a la entrada
+                int puesto = puestos[tipoVehiculo].asignar(capacidad);
+                if (puesto < 0) {
+                    ocupacion.registrarSalida(tipoVehiculo);
+                    return null;
+                }
+                placasAproximadas.agregar(llave);
+                confirmacion.set(bitacora != null
+                        ? bitacora.registrar(new VehiculoIngresado(tipoVehiculo, placa, color, modelo,
+                                horaEntrada, puesto))
+                        : SIN_BITACORA);
+                return new RegistroEstacionamiento(vehiculo, horaEntrada, puesto);
+            });
+        } finally {
+            barrera.readLock().unlock();
         }
-        
-        // Crear el vehículo según el tipo
-        Vehiculo vehiculo = null;
-        switch (tipoVehiculo) {
-            case 0: // Automóvil
-                vehiculo = new Automovil(placa, color, modelo);
-                break;
-            case 1: // Moto
-                vehiculo = new Moto(placa, color, modelo);
-                break;
-            case 2: // Camión
-                vehiculo = new Camion(placa, color, modelo);
-                break;
+        if (confirmacion.get() == null) {
+            // La placa ya estaba en el parqueadero o no hay espacio
+            return null;
         }
-        
-        // Registrar hora de entrada
-        vehiculosActuales.put(placa, LocalDateTime.now());
-        
-        // Agregar a la lista de vehículos del parqueadero
-        parqueadero.getListaDevehiculos().add(vehiculo);
-        
-        return true;
+        listarEstancia(clave, registro);
+        publicarEstado();
+        return confirmacion.get();
     }
 
     /**
@@ -159,79 +268,287 @@ public class ParqueaderoCodeService {
      * @return mapa con información sobre la salida del vehículo o null si falló
      */
     public Map<String, Object> registrarSalidaVehiculo(String placa) {
-        Map<String, Object> resultado = new HashMap<>();
-        
+        SalidaResultado salida = registrarSalida(placa, null, null);
+        return salida != null ? salida.aMapa() : null;
+    }
+
+    /**
+     * Registra la salida de un vehículo y calcula el monto a pagar
+     * @param placa placa del vehículo que sale
+     * @return información sobre la salida del vehículo o null si no estaba en el parqueadero
+     */
+    public SalidaResultado registrarSalida(String placa) {
+        return registrarSalida(placa, null, null);
+    }
+
+    /**
+     * Registra la salida de un vehículo y cobra su estadía. La salida y el pago se
+     * guardan en un solo evento de la bitácora: si no se confirma, el vehículo
+     * vuelve a su puesto y el pago nunca entra al historial
+     * @param placa placa del vehículo que sale
+     * @param pagoService Servicio donde se registra el pago
+     * @return información sobre la salida del vehículo o null si no estaba en el parqueadero
+     */
+    public SalidaResultado registrarSalidaCobrada(String placa, PagoCodeService pagoService) {
+        return registrarSalida(placa, null, pagoService);
+    }
+
+    /**
+     * Registra la salida de un vehículo y calcula el monto a pagar
+     * @param placa placa del vehículo que sale
+     * @param confirmaciones Lista donde se agrega la confirmación de la bitácora en
+     *                       lugar de esperarla, o null para esperarla aquí
+     * @param pagoService Servicio donde se cobra la estadía junto con la salida, o null para no cobrarla
+     * @return información sobre la salida del vehículo o null si falló
+     */
+    SalidaResultado registrarSalida(String placa, List<CompletableFuture<Long>> confirmaciones,
+                                    PagoCodeService pagoService) {
         // Validar datos de entrada
         if (placa == null || placa.trim().isEmpty()) {
             return null;
         }
         
-        // Verificar si el vehículo está en el parqueadero
-        if (!vehiculosActuales.containsKey(placa)) {
-            return null;
-        }
-        
-        // Buscar el vehículo en la lista
-        Vehiculo vehiculo = buscarVehiculoPorPlaca(placa);
-        if (vehiculo == null) {
-            return null;
-        }
-        
-        // Calcular tiempo de permanencia
-        LocalDateTime horaEntrada = vehiculosActuales.get(placa);
+        // Reclamar la salida: si otra portería ya la procesó, no se cobra dos veces. El
+        // cobro se calcula y se encola en el mismo evento mientras se tiene la llave
         LocalDateTime horaSalida = LocalDateTime.now();
-        long horasEstadia = java.time.Duration.between(horaEntrada, horaSalida).toHours();
-        // Mínimo 1 hora
-        if (horasEstadia < 1) {
-            horasEstadia = 1;
+        AtomicReference<SalidaResultado> calculada = new AtomicReference<>();
+        AtomicReference<CompletableFuture<Long>> encolada = new AtomicReference<>();
+        RegistroEstacionamiento registro;
+        ReadWriteLock barrera = this.barrera;
+        barrera.readLock().lock();
+        try {
+            registro = quitarEstancia(UtilidadesPlaca.normalizar(placa), estancia -> {
+                SalidaResultado resultado = calcularSalida(placa, estancia, horaSalida);
+                Pago pago = pagoService != null ? pagoService.prepararPago(estancia.getVehiculo(),
+                        resultado.montoTotal()) : null;
+                VehiculoSalio salida = new VehiculoSalio(estancia.getVehiculo().getPlaca(), horaSalida);
+                CompletableFuture<Long> confirmacion = null;
+                if (bitacora != null) {
+                    confirmacion = bitacora.registrar(pago != null
+                            ? new SalidaCobrada(salida, PagoCodeService.eventoDe(pago)) : salida);
+                } else if (pago != null) {
+                    confirmacion = SIN_BITACORA;
+                }
+                if (pago != null) {
+                    confirmacion = pagoService.agregarAlConfirmar(pago, confirmacion);
+                    resultado = resultado.conPagoRegistrado(true);
+                }
+                calculada.set(resultado);
+                encolada.set(confirmacion);
+            });
+            if (registro == null) {
+                return null;
+            }
+            retirarVehiculo(registro);
+        } finally {
+            barrera.readLock().unlock();
+        }
+        CompletableFuture<Long> confirmacion = encolada.get();
+        if (confirmacion != null) {
+            if (confirmaciones != null) {
+                confirmaciones.add(confirmacion);
+            } else {
+                try {
+                    BitacoraEventos.esperar(confirmacion);
+                } catch (IllegalStateException e) {
+                    // La salida no quedó en la bitácora: el vehículo vuelve a su puesto
+                    restaurarEstancia(registro.getVehiculo(), registro.getHoraEntrada(), registro.getPuesto());
+                    throw e;
+                }
+            }
         }
+        return calculada.get();
+    }
+
+    /**
+     * Calcula el tiempo y el monto de la estadía de un vehículo que sale
+     * @param placa placa con que se pidió la salida
+     * @param registro La estancia del vehículo
+     * @param horaSalida Hora de salida
+     * @return información de la salida, sin pago registrado
+     */
+    private SalidaResultado calcularSalida(String placa, RegistroEstacionamiento registro, LocalDateTime horaSalida) {
+        Vehiculo vehiculo = registro.getVehiculo();
+        LocalDateTime horaEntrada = registro.getHoraEntrada();
         
-        // Guardar información base
-        resultado.put("placa", placa);
-        resultado.put("horaEntrada", horaEntrada);
-        resultado.put("horaSalida", horaSalida);
-        resultado.put("horasEstadia", horasEstadia);
+        // Calcular tiempo de permanencia (mínimo 1 hora)
+        long horasEstadia = TablaTarifas.horasCobradas(horaEntrada, horaSalida);
         
-        // Verificar si tiene membresía activa
-        if (vehiculo.getMembresia() != null && vehiculo.getMembresia() != TipoMembresia.NINGUNA) {
-            resultado.put("tieneMembresiaActiva", true);
-            resultado.put("montoTotal", 0.0);
-            
-            // Remover vehículo de la lista de actuales
-            vehiculosActuales.remove(placa);
-            parqueadero.getListaDevehiculos().remove(vehiculo);
-            
-            return resultado;
+        // Verificar si tiene membresía activa. El vigilante baja las vencidas cada medianoche;
+        // comparar el día de fin cubre el rato antes de su revisión y los servicios sin vigilante
+        if (vehiculo.membresiaVigenteEn(FechasMembresia.hoy())) {
+            return new SalidaResultado(placa, vehiculo.getTipo(), horaEntrada, horaSalida, horasEstadia,
+                    registro.getPuesto(), true, 0, 0.0, false);
         }
         
         // Calcular tarifa según tipo de vehículo
-        double tarifaHora = 0;
-        String tipoVehiculo = "";
+        TablaTarifas tabla = tarifas.obtener();
+        int tipo = OcupacionParqueadero.tipoDeVehiculo(vehiculo);
+        double tarifaHora = tabla.tarifaHora(tipo);
+        double montoTotal = tabla.cobroEstadia(tipo, horasEstadia);
         
-        if (vehiculo instanceof Automovil) {
-            tarifaHora = tarifaHoraAutomovil;
-            tipoVehiculo = "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            tarifaHora = tarifaHoraMoto;
-            tipoVehiculo = "Moto";
-        } else if (vehiculo instanceof Camion) {
-            tarifaHora = tarifaHoraCamion;
-            tipoVehiculo = "Camión";
+        return new SalidaResultado(placa, vehiculo.getTipo(), horaEntrada, horaSalida, horasEstadia,
+                registro.getPuesto(), false, tarifaHora, montoTotal, false);
+    }
+
+    /**
+     * Quita la estancia de una placa del índice y de las búsquedas aproximadas.
+     * Se hace mientras se tiene la llave, igual que la entrada, para que ambas
+     * queden en la bitácora en el orden en que ocurrieron
+     * @param clave Placa normalizada
+     * @param alQuitar Acción que se ejecuta con la estancia antes de soltar la llave, o null
+     * @return La estancia quitada o null si la placa no estaba
+     */
+    private RegistroEstacionamiento quitarEstancia(String clave, Consumer<RegistroEstacionamiento> alQuitar) {
+        if (clave == null) {
+            return null;
+        }
+        AtomicReference<RegistroEstacionamiento> quitada = new AtomicReference<>();
+        vehiculosActuales.computeIfPresent(clave, (llave, estancia) -> {
+            // Si la acción falla, la estancia queda como estaba
+            if (alQuitar != null) {
+                alQuitar.accept(estancia);
+            }
+            placasAproximadas.quitar(llave);
+            quitada.set(estancia);
+            return null;
+        });
+        return quitada.get();
+    }
+
+    /**
+     * Agrega el vehículo de una estancia a la lista del parqueadero, si la estancia
+     * sigue en el índice. Se hace después de soltar la llave de la placa; si una
+     * salida ya quitó la estancia, el vehículo no se agrega
+     * @param clave Placa normalizada
+     * @param registro La estancia recién agregada al índice
+     */
+    private void listarEstancia(String clave, RegistroEstacionamiento registro) {
+        List<Vehiculo> listaVehiculos = parqueadero != null ? parqueadero.getListaDevehiculos() : null;
+        if (listaVehiculos == null) {
+            return;
+        }
+        synchronized (listaVehiculos) {
+            if (vehiculosActuales.get(clave) == registro) {
+                listaVehiculos.add(registro.getVehiculo());
+            }
+        }
+    }
+
+    /**
+     * Libera el puesto y el espacio de un vehículo cuya estancia ya se quitó del
+     * índice, y lo quita de la lista del parqueadero
+     * @param registro La estancia del vehículo que sale
+     */
+    private void retirarVehiculo(RegistroEstacionamiento registro) {
+        List<Vehiculo> listaVehiculos = parqueadero != null ? parqueadero.getListaDevehiculos() : null;
+        if (listaVehiculos != null) {
+            synchronized (listaVehiculos) {
+                listaVehiculos.remove(registro.getVehiculo());
+            }
+        }
+        int tipo = OcupacionParqueadero.tipoDeVehiculo(registro.getVehiculo());
+        if (tipo >= 0) {
+            puestos[tipo].liberar(registro.getPuesto());
+        }
+        ocupacion.registrarSalida(tipo);
+        publicarEstado();
+    }
+
+    /**
+     * Vuelve a aplicar una entrada leída de la bitácora, sin verificar cupo
+     * ni volver a registrarla
+     * @param evento La entrada a aplicar
+     */
+    void restaurarEntrada(VehiculoIngresado evento) {
+        Vehiculo vehiculo;
+        switch (evento.tipoVehiculo()) {
+            case OcupacionParqueadero.TIPO_AUTOMOVIL:
+                vehiculo = new Automovil(evento.placa(), evento.color(), evento.modelo());
+                break;
+            case OcupacionParqueadero.TIPO_MOTO:
+                vehiculo = new Moto(evento.placa(), evento.color(), evento.modelo());
+                break;
+            case OcupacionParqueadero.TIPO_CAMION:
+                vehiculo = new Camion(evento.placa(), evento.color(), evento.modelo());
+                break;
+            default:
+                return;
+        }
+        restaurarEstancia(vehiculo, evento.horaEntrada(), evento.puesto());
+    }
+
+    /**
+     * Vuelve a ubicar un vehículo en el parqueadero con su hora de entrada y su
+     * puesto originales, sin verificar cupo ni registrarlo en la bitácora
+     * @param vehiculo El vehículo estacionado
+     * @param horaEntrada Hora original de entrada
+     * @param puesto Puesto que ocupaba, o -1 para asignar uno libre
+     */
+    void restaurarEstancia(Vehiculo vehiculo, LocalDateTime horaEntrada, int puesto) {
+        String clave = UtilidadesPlaca.normalizar(vehiculo.getPlaca());
+        int tipo = OcupacionParqueadero.tipoDeVehiculo(vehiculo);
+        if (clave == null || tipo < 0 || vehiculosActuales.containsKey(clave)) {
+            return;
+        }
+        if (puesto < 1 || !puestos[tipo].ocupar(puesto)) {
+            puesto = puestos[tipo].asignar(Math.max(capacidadPorTipo(tipo), ocupacion.obtenerOcupados(tipo) + 1));
+        }
+        RegistroEstacionamiento registro = new RegistroEstacionamiento(vehiculo, horaEntrada, puesto);
+        vehiculosActuales.computeIfAbsent(clave, llave -> {
+            placasAproximadas.agregar(llave);
+            return registro;
+        });
+        listarEstancia(clave, registro);
+        ocupacion.registrarEntrada(tipo);
+        publicarEstado();
+    }
+
+    /**
+     * Obtiene las estancias de los vehículos que están en el parqueadero
+     * @return Copia de los registros de estacionamiento
+     */
+    List<RegistroEstacionamiento> obtenerRegistros() {
+        return new ArrayList<>(vehiculosActuales.values());
+    }
+
+    /**
+     * Vuelve a aplicar una salida leída de la bitácora
+     * @param evento La salida a aplicar
+     */
+    void restaurarSalida(VehiculoSalio evento) {
+        RegistroEstacionamiento registro = quitarEstancia(UtilidadesPlaca.normalizar(evento.placa()), null);
+        if (registro != null) {
+            retirarVehiculo(registro);
+        }
+    }
+
+    /**
+     * Obtiene el puesto que ocupa un vehículo dentro del parqueadero
+     * @param placa La placa del vehículo
+     * @return Número de puesto (desde 1) o -1 si el vehículo no está en el parqueadero
+     */
+    public int obtenerPuestoVehiculo(String placa) {
+        String clave = UtilidadesPlaca.normalizar(placa);
+        if (clave == null) {
+            return -1;
+        }
+        RegistroEstacionamiento registro = vehiculosActuales.get(clave);
+        return registro != null ? registro.getPuesto() : -1;
+    }
+
+    /**
+     * Obtiene la capacidad configurada para un tipo de vehículo
+     * @param tipo El tipo de vehículo (0=Auto, 1=Moto, 2=Camión)
+     * @return Cantidad de espacios para ese tipo
+     */
+    private int capacidadPorTipo(int tipo) {
+        switch (tipo) {
+            case OcupacionParqueadero.TIPO_AUTOMOVIL: return parqueadero.getPuestosAutomoviles();
+            case OcupacionParqueadero.TIPO_MOTO: return parqueadero.getPuestosMotos();
+            case OcupacionParqueadero.TIPO_CAMION: return parqueadero.getPuestosCamiones();
+            default: return 0;
         }
-        
-        double montoTotal = tarifaHora * horasEstadia;
-        
-        // Guardar información adicional
-        resultado.put("tipoVehiculo", tipoVehiculo);
-        resultado.put("tarifaHora", tarifaHora);
-        resultado.put("montoTotal", montoTotal);
-        resultado.put("tieneMembresiaActiva", false);
-        
-        // Remover vehículo de las listas
-        vehiculosActuales.remove(placa);
-        parqueadero.getListaDevehiculos().remove(vehiculo);
-        
-        return resultado;
     }
 
     /**
@@ -239,28 +556,44 @@ public class ParqueaderoCodeService {
      * @return Mapa con datos de ocupación
      */
     public Map<String, Object> obtenerEstadoParqueadero() {
-        Map<String, Object> estado = new HashMap<>();
-        
-        int motosActuales = contarVehiculosPorTipo(Moto.class);
-        int automovilesActuales = contarVehiculosPorTipo(Automovil.class);
-        int camionesActuales = contarVehiculosPorTipo(Camion.class);
-        
-        estado.put("motosActuales", motosActuales);
-        estado.put("motosTotales", parqueadero.getPuestosMotos());
-        estado.put("motosDisponibles", parqueadero.getPuestosMotos() - motosActuales);
-        
-        estado.put("automovilesActuales", automovilesActuales);
-        estado.put("automovilesTotales", parqueadero.getPuestosAutomoviles());
-        estado.put("automovilesDisponibles", parqueadero.getPuestosAutomoviles() - automovilesActuales);
-        
-        estado.put("camionesActuales", camionesActuales);
-        estado.put("camionesTotales", parqueadero.getPuestosCamiones());
-        estado.put("camionesDisponibles", parqueadero.getPuestosCamiones() - camionesActuales);
-        
-        estado.put("totalEspacios", parqueadero.getPuestosMotos() + parqueadero.getPuestosAutomoviles() + parqueadero.getPuestosCamiones());
-        estado.put("totalOcupacion", motosActuales + automovilesActuales + camionesActuales);
-        
-        return estado;
+        return estado.get().aMapa();
+    }
+
+    /**
+     * Obtiene la última foto publicada de la ocupación, sin bloquearse ni crear objetos
+     * @return Estado vigente del parqueadero
+     */
+    public EstadoParqueadero obtenerEstado() {
+        return estado.get();
+    }
+
+    /**
+     * Indica si la ocupación cambió desde una versión ya vista
+     * @param version Versión del último estado que se leyó
+     * @return true si hay un estado más reciente
+     */
+    public boolean cambioDesde(long version) {
+        return estado.get().cambioDesde(version);
+    }
+
+    /**
+     * Publica una foto nueva de la ocupación con la versión siguiente. Si otro
+     * hilo publica al mismo tiempo, se vuelve a leer la ocupación para que la
+     * última foto nunca quede atrás de un cambio ya hecho
+     */
+    private void publicarEstado() {
+        if (parqueadero == null) {
+            return;
+        }
+        EstadoParqueadero anterior;
+        EstadoParqueadero nuevo;
+        do {
+            anterior = estado.get();
+            nuevo = new EstadoParqueadero(anterior.version() + 1,
+                    ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_MOTO), parqueadero.getPuestosMotos(),
+                    ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_AUTOMOVIL), parqueadero.getPuestosAutomoviles(),
+                    ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_CAMION), parqueadero.getPuestosCamiones());
+        } while (!estado.compareAndSet(anterior, nuevo));
     }
     
     /**
@@ -268,7 +601,7 @@ public class ParqueaderoCodeService {
      * @return true si hay espacio disponible
      */
     public boolean verificarDisponibilidadMotos() {
-        int motosActuales = contarVehiculosPorTipo(Moto.class);
+        int motosActuales = ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_MOTO);
         return motosActuales < parqueadero.getPuestosMotos();
     }
 
@@ -277,7 +610,7 @@ public class ParqueaderoCodeService {
      * @return true si hay espacio disponible
      */
     public boolean verificarDisponibilidadAutomoviles() {
-        int automovilesActuales = contarVehiculosPorTipo(Automovil.class);
+        int automovilesActuales = ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_AUTOMOVIL);
         return automovilesActuales < parqueadero.getPuestosAutomoviles();
     }
 
@@ -286,37 +619,60 @@ public class ParqueaderoCodeService {
      * @return true si hay espacio disponible
      */
     public boolean verificarDisponibilidadCamiones() {
-        int camionesActuales = contarVehiculosPorTipo(Camion.class);
+        int camionesActuales = ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_CAMION);
         return camionesActuales < parqueadero.getPuestosCamiones();
     }
 
     /**
-     * Cuenta cuántos vehículos de un tipo específico hay actualmente en el parqueadero
-     * @param clase La clase del tipo de vehículo
-     * @return Número de vehículos de ese tipo
+     * Busca un vehículo por su placa entre los vehículos del parqueadero
+     * @param placa La placa a buscar (no distingue mayúsculas ni espacios externos)
+     * @return El vehículo encontrado o null si no existe
      */
-    private int contarVehiculosPorTipo(Class<?> clase) {
-        int contador = 0;
-        for (Vehiculo vehiculo : parqueadero.getListaDevehiculos()) {
-            if (clase.isInstance(vehiculo)) {
-                contador++;
-            }
+    public Vehiculo buscarVehiculoPorPlaca(String placa) {
+        String clave = UtilidadesPlaca.normalizar(placa);
+        if (clave == null) {
+            return null;
         }
-        return contador;
+        RegistroEstacionamiento registro = vehiculosActuales.get(clave);
+        return registro != null ? registro.getVehiculo() : null;
     }
 
     /**
-     * Busca un vehículo por su placa en la lista de vehículos del parqueadero
-     * @param placa La placa a buscar
-     * @return El vehículo encontrado o null si no existe
+     * Busca entre los vehículos del parqueadero los que pueden corresponder a una
+     * placa mal leída, por ejemplo por una cámara que confunde O con 0 o B con 8
+     * @param placa La placa leída
+     * @return Vehículos candidatos, del más al menos parecido, o lista vacía si no hay
      */
-    public Vehiculo buscarVehiculoPorPlaca(String placa) {
-        for (Vehiculo vehiculo : parqueadero.getListaDevehiculos()) {
-            if (vehiculo.getPlaca().equalsIgnoreCase(placa)) {
-                return vehiculo;
+    public List<Vehiculo> buscarVehiculosPorPlacaAproximada(String placa) {
+        List<Vehiculo> candidatos = new ArrayList<>();
+        String clave = UtilidadesPlaca.normalizar(placa);
+        if (clave == null) {
+            return candidatos;
+        }
+        for (String candidata : placasAproximadas.buscar(clave)) {
+            RegistroEstacionamiento registro = vehiculosActuales.get(candidata);
+            if (registro != null) {
+                candidatos.add(registro.getVehiculo());
             }
         }
-        return null;
+        return candidatos;
+    }
+
+    /**
+     * Busca un vehículo del parqueadero por una placa que puede estar mal leída.
+     * Solo retorna un vehículo si no hay duda de cuál es; si varios se parecen
+     * igual, la placa debe confirmarse manualmente
+     * @param placa La placa leída
+     * @return El vehículo o null si no hay ninguno o hay varios posibles
+     */
+    public Vehiculo buscarVehiculoPorPlacaTolerante(String placa) {
+        Vehiculo exacto = buscarVehiculoPorPlaca(placa);
+        if (exacto != null) {
+            return exacto;
+        }
+        String clave = UtilidadesPlaca.normalizar(placa);
+        String candidata = clave != null ? placasAproximadas.buscarUnica(clave) : null;
+        return candidata != null ? buscarVehiculoPorPlaca(candidata) : null;
     }
 
     /**
@@ -325,59 +681,36 @@ public class ParqueaderoCodeService {
      */
     public List<Map<String, Object>> obtenerListaVehiculosActuales() {
         List<Map<String, Object>> resultado = new ArrayList<>();
-        
-        if (vehiculosActuales.isEmpty()) {
-            return resultado;
+        for (VehiculoActual vehiculo : listarVehiculosActuales()) {
+            resultado.add(vehiculo.aMapa());
         }
-        
-        // Convertir el mapa a una lista
-        List<Map.Entry<String, LocalDateTime>> listaVehiculos = new ArrayList<>(vehiculosActuales.entrySet());
-        
-        // Procesar cada vehículo
-        for (Map.Entry<String, LocalDateTime> entry : listaVehiculos) {
-            String placa = entry.getKey();
-            LocalDateTime horaEntrada = entry.getValue();
-            Vehiculo vehiculo = buscarVehiculoPorPlaca(placa);
-            
+        return resultado;
+    }
+
+    /**
+     * Obtiene los vehículos que están en el parqueadero con su estancia y su membresía
+     * @return Lista de vehículos actuales
+     */
+    public List<VehiculoActual> listarVehiculosActuales() {
+        List<VehiculoActual> resultado = new ArrayList<>(vehiculosActuales.size());
+        for (RegistroEstacionamiento registro : vehiculosActuales.values()) {
+            Vehiculo vehiculo = registro.getVehiculo();
             if (vehiculo != null) {
-                Map<String, Object> infoVehiculo = new HashMap<>();
-                
-                infoVehiculo.put("placa", placa);
-                infoVehiculo.put("tipo", obtenerTipoVehiculo(vehiculo));
-                infoVehiculo.put("color", vehiculo.getColor());
-                infoVehiculo.put("modelo", vehiculo.getModelo());
-                infoVehiculo.put("horaEntrada", horaEntrada);
-                
-                // Verificar si tiene membresía
-                if (vehiculo.getMembresia() != null && vehiculo.getMembresia() != TipoMembresia.NINGUNA) {
-                    infoVehiculo.put("tieneMembresia", true);
-                    infoVehiculo.put("tipoMembresia", vehiculo.getMembresia());
-                    infoVehiculo.put("fechaFinMembresia", vehiculo.getFechaFinMembresia());
-                } else {
-                    infoVehiculo.put("tieneMembresia", false);
-                }
-                
-                resultado.add(infoVehiculo);
+                resultado.add(new VehiculoActual(vehiculo.getPlaca(), vehiculo.getTipo(), vehiculo.getColor(),
+                        vehiculo.getModelo(), registro.getHoraEntrada(), registro.getPuesto(),
+                        vehiculo.getMembresia(), vehiculo.getDiaFinMembresia()));
             }
         }
-        
         return resultado;
     }
 
     /**
-     * Determina el tipo de vehículo basado en su instancia
+     * Determina el tipo de vehículo como texto
      * @param vehiculo El vehículo a evaluar
      * @return Tipo de vehículo como texto
      */
     public String obtenerTipoVehiculo(Vehiculo vehiculo) {
-        if (vehiculo instanceof Automovil) {
-            return "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            return "Moto";
-        } else if (vehiculo instanceof Camion) {
-            return "Camión";
-        }
-        return "Desconocido";
+        return OcupacionParqueadero.nombreDeTipo(OcupacionParqueadero.tipoDeVehiculo(vehiculo));
     }
     
     /**
@@ -386,11 +719,40 @@ public class ParqueaderoCodeService {
      * @return La tarifa correspondiente
      */
     public double obtenerTarifaPorTipo(int tipo) {
-        switch (tipo) {
-            case 0: return tarifaHoraAutomovil;
-            case 1: return tarifaHoraMoto;
-            case 2: return tarifaHoraCamion;
-            default: return 0;
+        return tarifas.obtener().tarifaHora(tipo);
+    }
+
+    /**
+     * Obtiene la tabla de tarifas vigente
+     * @return La tabla de tarifas
+     */
+    public TablaTarifas getTablaTarifas() {
+        return tarifas.obtener();
+    }
+
+    /**
+     * Reemplaza la tabla de tarifas completa
+     * @param tarifas La tabla nueva
+     */
+    public void setTablaTarifas(TablaTarifas tarifas) {
+        this.tarifas.reemplazar(tarifas);
+    }
+
+    /**
+     * Obtiene la referencia a las tarifas vigentes, para compartirla con otros servicios
+     * @return La referencia que actualiza {@link #configurarTarifas}
+     */
+    public TarifasVigentes getTarifasVigentes() {
+        return tarifas;
+    }
+
+    /**
+     * Usa una referencia de tarifas compartida con otros servicios
+     * @param tarifas La referencia; null no cambia nada
+     */
+    public void setTarifasVigentes(TarifasVigentes tarifas) {
+        if (tarifas != null) {
+            this.tarifas = tarifas;
         }
     }
 }
\ No newline at end of file
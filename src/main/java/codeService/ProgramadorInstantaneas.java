@@ -0,0 +1,117 @@
+package codeService;
+
+import persistencia.AlmacenInstantaneas;
+import persistencia.BitacoraEventos;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toma instantáneas en segundo plano cada cierto intervalo, para que la
+ * bitácora no crezca sin límite y el arranque solo reproduzca los eventos
+ * recientes.
+ * <p>
+ * Si desde la última instantánea no se escribió ningún evento, la omite. Una
+ * instantánea que falla no detiene las siguientes: la bitácora conserva los
+ * eventos hasta que una se guarde.
+ */
+public class ProgramadorInstantaneas implements AutoCloseable {
+    /** Intervalo entre instantáneas si no se indica otro */
+    public static final Duration INTERVALO_PREDETERMINADO = Duration.ofMinutes(15);
+
+    private final RecuperadorEstado recuperador;
+    private final BitacoraEventos bitacora;
+    private final AlmacenInstantaneas almacen;
+    // Secuencia de la última instantánea guardada, -1 si no se ha guardado ninguna
+    private long ultimaSecuencia = -1;
+    private Exception ultimaFalla;
+    private ScheduledExecutorService programador;
+
+    public ProgramadorInstantaneas(RecuperadorEstado recuperador, BitacoraEventos bitacora,
+                                   AlmacenInstantaneas almacen) {
+        this.recuperador = recuperador;
+        this.bitacora = bitacora;
+        this.almacen = almacen;
+    }
+
+    /**
+     * Inicia las instantáneas en segundo plano con el intervalo predeterminado
+     * @return false si ya estaba iniciado
+     */
+    public boolean iniciar() {
+        return iniciar(INTERVALO_PREDETERMINADO);
+    }
+
+    /**
+     * Inicia las instantáneas en segundo plano; la primera se toma después de un intervalo
+     * @param intervalo Tiempo entre el fin de una instantánea y el inicio de la siguiente
+     * @return false si ya estaba iniciado o el intervalo no es positivo
+     */
+    public synchronized boolean iniciar(Duration intervalo) {
+        if (programador != null || intervalo == null || intervalo.isNegative() || intervalo.isZero()) {
+            return false;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "instantaneas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long milisegundos = intervalo.toMillis();
+        programador.scheduleWithFixedDelay(this::ejecutar, milisegundos, milisegundos, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Detiene las instantáneas en segundo plano; una que esté en curso termina
+     */
+    @Override
+    public synchronized void close() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+
+    /**
+     * Toma una instantánea si hubo eventos desde la anterior
+     * @return true si se guardó una instantánea nueva
+     * @throws IOException si no se pudo guardar la instantánea o compactar la bitácora
+     */
+    public synchronized boolean tomar() throws IOException {
+        if (bitacora.getUltimaSecuencia() == ultimaSecuencia) {
+            return false;
+        }
+        ultimaSecuencia = recuperador.tomarInstantanea(bitacora, almacen);
+        return true;
+    }
+
+    /**
+     * Obtiene la secuencia de la última instantánea guardada
+     * @return La secuencia o -1 si todavía no se guardó ninguna
+     */
+    public synchronized long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    /**
+     * Obtiene el error de la última instantánea en segundo plano que falló
+     * @return El error o null si ninguna ha fallado
+     */
+    public synchronized Exception getUltimaFalla() {
+        return ultimaFalla;
+    }
+
+    private void ejecutar() {
+        try {
+            tomar();
+        } catch (IOException | RuntimeException e) {
+            // Una excepción cancelaría la programación; se guarda y se reintenta en el siguiente intervalo
+            synchronized (this) {
+                ultimaFalla = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package codeService;
+
+import eventos.ClienteActualizado;
+import eventos.ClienteEliminado;
+import eventos.ClienteRegistrado;
+import eventos.EventoParqueadero;
+import eventos.MembresiaCancelada;
+import eventos.MembresiaRegistrada;
+import eventos.MembresiaVencida;
+import eventos.PagoRegistrado;
+import eventos.SalidaCobrada;
+import eventos.VehiculoActualizado;
+import eventos.VehiculoAsignado;
+import eventos.VehiculoDesvinculado;
+import eventos.VehiculoEliminado;
+import eventos.VehiculoIngresado;
+import eventos.VehiculoRegistrado;
+import eventos.VehiculoSalio;
+import model.Cliente;
+import model.Pago;
+import model.Vehiculo;
+import persistencia.AlmacenInstantaneas;
+import persistencia.BitacoraEventos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reconstruye el estado de los servicios a partir de la bitácora de eventos.
+ * Los eventos se aplican en el mismo orden en que se registraron y sin volver
+ * a escribirlos; al terminar, la bitácora queda conectada a los servicios para
+ * que las operaciones nuevas se sigan registrando.
+ * <p>
+ * Con un almacén de instantáneas, el arranque carga la última instantánea y
+ * solo reproduce los eventos posteriores, así que su duración depende del
+ * tamaño del estado y no de la antigüedad de la bitácora.
+ */
+public class RecuperadorEstado {
+    private final ClienteCodeService clienteService;
+    private final VehiculoCodeService vehiculoService;
+    private final ParqueaderoCodeService parqueaderoService;
+    private final PagoCodeService pagoService;
+    private final MembresiaCodeService membresiaService;
+    // Vehículos que aparecen en pagos o membresías pero no están registrados
+    private final Map<String, Vehiculo> vehiculosSinRegistro = new HashMap<>();
+    // Barrera de entradas, salidas y pagos; los registros y las membresías se detienen con su monitor
+    private final ReadWriteLock barrera = new ReentrantReadWriteLock();
+
+    public RecuperadorEstado(ClienteCodeService clienteService, VehiculoCodeService vehiculoService,
+                             ParqueaderoCodeService parqueaderoService, PagoCodeService pagoService,
+                             MembresiaCodeService membresiaService) {
+        this.clienteService = clienteService;
+        this.vehiculoService = vehiculoService;
+        this.parqueaderoService = parqueaderoService;
+        this.pagoService = pagoService;
+        this.membresiaService = membresiaService;
+        // Las tarifas que trae la instantánea se restauran en el parqueadero; los pagos las comparten
+        pagoService.setTarifasVigentes(parqueaderoService.getTarifasVigentes());
+    }
+
+    /**
+     * Aplica todos los eventos de la bitácora y la conecta a los servicios
+     * @param bitacora Bitácora de donde se lee el estado
+     * @return Cantidad de eventos aplicados
+     * @throws IOException si no se puede leer la bitácora
+     */
+    public long recuperar(BitacoraEventos bitacora) throws IOException {
+        long aplicados = bitacora.reproducir(this::aplicar);
+        conectar(bitacora);
+        return aplicados;
+    }
+
+    /**
+     * Carga la última instantánea, aplica los eventos posteriores de la
+     * bitácora y la conecta a los servicios
+     * @param bitacora Bitácora con los eventos posteriores a la instantánea
+     * @param almacen Almacén de instantáneas
+     * @return Cantidad de eventos aplicados después de la instantánea
+     * @throws IOException si no se puede leer la instantánea o la bitácora
+     */
+    public long recuperar(BitacoraEventos bitacora, AlmacenInstantaneas almacen) throws IOException {
+        long secuencia = almacen.cargarUltima(entrada -> CodificadorEstado.leer(entrada, clienteService,
+                vehiculoService, parqueaderoService, pagoService));
+        membresiaService.reindexarVencimientos();
+        long aplicados = bitacora.reproducir(secuencia, this::aplicar);
+        conectar(bitacora);
+        return aplicados;
+    }
+
+    /**
+     * Guarda una instantánea del estado actual y borra los segmentos de la
+     * bitácora que quedan cubiertos por ella.
+     * <p>
+     * Se puede llamar con operaciones en curso: detiene las escrituras de todos
+     * los servicios mientras copia el estado en memoria, así el estado copiado
+     * corresponde exactamente a la secuencia devuelta. El archivo se escribe
+     * después, con las operaciones ya reanudadas.
+     * @param bitacora Bitácora conectada a los servicios
+     * @param almacen Almacén de instantáneas
+     * @return Secuencia incluida en la instantánea
+     * @throws IOException si no se puede escribir la instantánea o compactar la bitácora
+     */
+    public long tomarInstantanea(BitacoraEventos bitacora, AlmacenInstantaneas almacen) throws IOException {
+        long secuencia;
+        ByteArrayOutputStream estado = new ByteArrayOutputStream();
+        // Mismo orden de monitores que usan las membresías al llamar a los registros
+        synchronized (membresiaService) {
+            synchronized (vehiculoService) {
+                synchronized (clienteService) {
+                    barrera.writeLock().lock();
+                    try {
+                        // Cerrar el segmento activo para que también pueda borrarse; al volver,
+                        // todo evento encolado está en disco y ya se aplicó en memoria
+                        secuencia = bitacora.rotar();
+                        CodificadorEstado.escribir(new DataOutputStream(estado), clienteService,
+                                vehiculoService, parqueaderoService, pagoService);
+                    } finally {
+                        barrera.writeLock().unlock();
+                    }
+                }
+            }
+        }
+        byte[] bytes = estado.toByteArray();
+        almacen.guardar(secuencia, salida -> salida.write(bytes));
+        bitacora.compactarHasta(secuencia);
+        return secuencia;
+    }
+
+    /**
+     * Conecta la bitácora a todos los servicios para registrar las operaciones nuevas
+     * @param bitacora Bitácora de eventos
+     */
+    public void conectar(BitacoraEventos bitacora) {
+        clienteService.setBitacora(bitacora);
+        vehiculoService.setBitacora(bitacora);
+        parqueaderoService.setBitacora(bitacora);
+        pagoService.setBitacora(bitacora);
+        membresiaService.setBitacora(bitacora);
+        parqueaderoService.setBarrera(barrera);
+        pagoService.setBarrera(barrera);
+    }
+
+    /**
+     * Aplica un evento a los servicios
+     * @param evento El evento a aplicar
+     */
+    public void aplicar(EventoParqueadero evento) {
+        switch (evento) {
+            case ClienteRegistrado e ->
+                    clienteService.añadirCliente(e.nombre(), e.cedula(), e.telefono(), e.correo());
+            case VehiculoRegistrado e -> {
+                if (e.cedulaPropietario() == null) {
+                    vehiculoService.registrarVehiculo(e.tipoVehiculo(), e.placa(), e.color(), e.modelo());
+                } else {
+                    vehiculoService.registrarVehiculoParaCedula(e.cedulaPropietario(), e.placa(), e.color(), e.modelo());
+                }
+            }
+            case ClienteActualizado e ->
+                    clienteService.actualizarCliente(buscarCliente(e.cedula()), e.campo(), e.nuevoValor());
+            case ClienteEliminado e -> clienteService.eliminarCliente(buscarCliente(e.cedula()));
+            case VehiculoActualizado e ->
+                    vehiculoService.actualizarVehiculo(e.placa(), e.nuevaPlaca(), e.nuevoColor(), e.nuevoModelo());
+            case VehiculoEliminado e -> vehiculoService.eliminarVehiculo(e.placa());
+            case VehiculoAsignado e -> vehiculoService.asignarVehiculoACedula(e.cedulaCliente(), e.placa());
+            case VehiculoDesvinculado e -> vehiculoService.desvincularVehiculoDeCedula(e.cedulaCliente(), e.placa());
+            case VehiculoIngresado e -> parqueaderoService.restaurarEntrada(e);
+            case VehiculoSalio e -> parqueaderoService.restaurarSalida(e);
+            case SalidaCobrada e -> {
+                aplicar(e.salida());
+                aplicar(e.pago());
+            }
+            case PagoRegistrado e -> pagoService.restaurarPago(new Pago(e.id(), e.monto(), e.fechaHora(),
+                    e.concepto(), buscarVehiculo(e.placa()), buscarCliente(e.cedulaCliente()), e.tipoVehiculo()));
+            case MembresiaRegistrada e -> membresiaService.restaurarMembresia(buscarVehiculo(e.placa()),
+                    buscarCliente(e.cedulaCliente()), e);
+            case MembresiaCancelada e -> membresiaService.restaurarCancelacion(buscarVehiculo(e.placa()));
+            case MembresiaVencida e -> membresiaService.restaurarVencimiento(buscarVehiculo(e.placa()));
+        }
+    }
+
+    private Vehiculo buscarVehiculo(String placa) {
+        if (placa == null) {
+            return null;
+        }
+        Vehiculo vehiculo = vehiculoService.buscarVehiculo(placa);
+        if (vehiculo == null) {
+            vehiculo = parqueaderoService.buscarVehiculoPorPlaca(placa);
+        }
+        if (vehiculo == null) {
+            vehiculo = vehiculosSinRegistro.computeIfAbsent(UtilidadesPlaca.normalizar(placa),
+                    clave -> new Vehiculo(placa, "No registrado", "No registrado"));
+        }
+        return vehiculo;
+    }
+
+    private Cliente buscarCliente(String cedula) {
+        return cedula != null ? clienteService.buscarCliente(cedula, 1) : null;
+    }
+}
@@ -0,0 +1,36 @@
+package codeService;
+
+import model.Vehiculo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estancia de un vehículo dentro del parqueadero: el vehículo, su hora de
+ * entrada y el puesto que ocupa.
+ */
+public class RegistroEstacionamiento {
+    private final Vehiculo vehiculo;
+    private final LocalDateTime horaEntrada;
+    private final int puesto;
+
+    public RegistroEstacionamiento(Vehiculo vehiculo, LocalDateTime horaEntrada, int puesto) {
+        this.vehiculo = vehiculo;
+        this.horaEntrada = horaEntrada;
+        this.puesto = puesto;
+    }
+
+    public Vehiculo getVehiculo() {
+        return vehiculo;
+    }
+
+    public LocalDateTime getHoraEntrada() {
+        return horaEntrada;
+    }
+
+    /**
+     * Obtiene el número de puesto asignado (desde 1), o -1 si no tiene puesto
+     */
+    public int getPuesto() {
+        return puesto;
+    }
+}
@@ -0,0 +1,68 @@
+package codeService;
+
+import model.Cliente;
+import model.Vehiculo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte de clientes con membresías activas y próximas a vencer
+ * @param activas Vehículos con membresía activa, por cliente
+ * @param proximasAVencer Vehículos cuya membresía vence pronto, por cliente
+ * @param diasProximidadVencimiento Días que se consideran "pronto"
+ * @param error Motivo por el que no se pudo generar, o null si se generó
+ */
+public record ReporteMembresias(Map<Cliente, List<Vehiculo>> activas,
+                                Map<Cliente, List<Vehiculo>> proximasAVencer,
+                                int diasProximidadVencimiento, String error) {
+
+    /**
+     * Crea un reporte que no se pudo generar
+     * @param error El motivo
+     * @return El reporte vacío con el error
+     */
+    public static ReporteMembresias conError(String error) {
+        return new ReporteMembresias(Map.of(), Map.of(), 0, error);
+    }
+
+    public int totalClientes() {
+        return activas.size();
+    }
+
+    public int totalVehiculos() {
+        return contar(activas);
+    }
+
+    public int totalProximosVencer() {
+        return contar(proximasAVencer);
+    }
+
+    /**
+     * Convierte el reporte al mapa que devuelve {@link MembresiaCodeService#generarReporteMembresiasActivas()}
+     * @return Mapa con la información del reporte
+     */
+    public Map<String, Object> aMapa() {
+        Map<String, Object> reporte = new HashMap<>();
+        if (error != null) {
+            reporte.put("error", error);
+            return reporte;
+        }
+        reporte.put("totalClientes", totalClientes());
+        reporte.put("totalVehiculos", totalVehiculos());
+        reporte.put("totalProximosVencer", totalProximosVencer());
+        reporte.put("clientesConMembresiasActivas", activas);
+        reporte.put("clientesConMembresiasProximasAVencer", proximasAVencer);
+        reporte.put("diasProximidadVencimiento", diasProximidadVencimiento);
+        return reporte;
+    }
+
+    private static int contar(Map<Cliente, List<Vehiculo>> porCliente) {
+        int total = 0;
+        for (List<Vehiculo> vehiculos : porCliente.values()) {
+            total += vehiculos.size();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package codeService;
+
+import model.TipoVehiculo;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resultado de la salida de un vehículo del parqueadero
+ * @param placa Placa con la que se pidió la salida
+ * @param tipoVehiculo Tipo del vehículo, o null si no es de un tipo conocido
+ * @param horaEntrada Hora de entrada
+ * @param horaSalida Hora de salida
+ * @param horasEstadia Horas cobradas (mínimo 1)
+ * @param puesto Puesto que ocupaba, o -1 si no tenía
+ * @param tieneMembresiaActiva true si una membresía vigente cubre la estadía
+ * @param tarifaHora Tarifa por hora aplicada (0 con membresía)
+ * @param montoTotal Monto a pagar
+ * @param pagoRegistrado true si quien procesó la salida también registró el cobro
+ */
+public record SalidaResultado(String placa, TipoVehiculo tipoVehiculo,
+                              LocalDateTime horaEntrada, LocalDateTime horaSalida, long horasEstadia, int puesto,
+                              boolean tieneMembresiaActiva, double tarifaHora, double montoTotal,
+                              boolean pagoRegistrado) {
+
+    /**
+     * Copia este resultado marcando si se registró el cobro
+     * @param registrado true si el pago quedó registrado
+     * @return El resultado con el cobro marcado
+     */
+    public SalidaResultado conPagoRegistrado(boolean registrado) {
+        return new SalidaResultado(placa, tipoVehiculo, horaEntrada, horaSalida, horasEstadia, puesto,
+                tieneMembresiaActiva, tarifaHora, montoTotal, registrado);
+    }
+
+    /**
+     * Convierte el resultado al mapa que devuelve {@link ParqueaderoCodeService#registrarSalidaVehiculo(String)}
+     * @return Mapa con información sobre la salida del vehículo
+     */
+    public Map<String, Object> aMapa() {
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("placa", placa);
+        resultado.put("horaEntrada", horaEntrada);
+        resultado.put("horaSalida", horaSalida);
+        resultado.put("horasEstadia", horasEstadia);
+        resultado.put("puesto", puesto);
+        resultado.put("tieneMembresiaActiva", tieneMembresiaActiva);
+        resultado.put("montoTotal", montoTotal);
+        if (!tieneMembresiaActiva) {
+            resultado.put("tipoVehiculo", tipoVehiculo != null ? tipoVehiculo.getNombre() : "");
+            resultado.put("tarifaHora", tarifaHora);
+        }
+        return resultado;
+    }
+}
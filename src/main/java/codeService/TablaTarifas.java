@@ -0,0 +1,124 @@
+package codeService;
+
+import model.TipoMembresia;
+import model.Vehiculo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Tabla inmutable de tarifas: la tarifa por hora de cada tipo de vehículo y la
+ * de cada membresía, en arreglos indexados por el código de tipo de vehículo
+ * (0=Automóvil, 1=Moto, 2=Camión) y el ordinal de {@link TipoMembresia}.
+ * <p>
+ * Consultar una tarifa es leer una posición de un arreglo. Para cambiar tarifas
+ * se crea una tabla nueva y se reemplaza la referencia, así que quien está
+ * leyendo nunca ve una tabla a medio cambiar y no necesita bloquearse.
+ */
+public final class TablaTarifas {
+    private static final int CANTIDAD_MEMBRESIAS = TipoMembresia.values().length;
+
+    /** Tarifas con las que arranca el parqueadero */
+    public static final TablaTarifas PREDETERMINADA = new TablaTarifas(new double[OcupacionParqueadero.CANTIDAD_TIPOS],
+            new double[OcupacionParqueadero.CANTIDAD_TIPOS][CANTIDAD_MEMBRESIAS])
+            .conTarifasHora(1000, 2000, 3000)
+            .conTarifasMembresia(OcupacionParqueadero.TIPO_AUTOMOVIL, 100000, 270000, 960000)
+            .conTarifasMembresia(OcupacionParqueadero.TIPO_MOTO, 50000, 135000, 480000)
+            .conTarifasMembresia(OcupacionParqueadero.TIPO_CAMION, 150000, 405000, 1440000);
+
+    private final double[] porHora;
+    private final double[][] porMembresia;
+
+    private TablaTarifas(double[] porHora, double[][] porMembresia) {
+        this.porHora = porHora;
+        this.porMembresia = porMembresia;
+    }
+
+    /**
+     * Obtiene la tarifa por hora de un tipo de vehículo
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @return La tarifa o 0 si el tipo no es válido
+     */
+    public double tarifaHora(int tipo) {
+        return tipo >= 0 && tipo < porHora.length ? porHora[tipo] : 0;
+    }
+
+    /**
+     * Calcula el cobro de una estadía: la tarifa por hora por las horas completas, mínimo una
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @param horas Horas de la estadía, de {@link #horasCobradas}
+     * @return El cobro o 0 si el tipo no es válido
+     */
+    public double cobroEstadia(int tipo, long horas) {
+        return tarifaHora(tipo) * horas;
+    }
+
+    /**
+     * Calcula las horas que se cobran de una estadía: las completas, mínimo una
+     * @param entrada Hora de entrada
+     * @param salida Hora de salida
+     * @return Horas a cobrar
+     */
+    public static long horasCobradas(LocalDateTime entrada, LocalDateTime salida) {
+        return Math.max(1, Duration.between(entrada, salida).toHours());
+    }
+
+    /**
+     * Obtiene la tarifa de una membresía para un tipo de vehículo
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @param membresia Tipo de membresía
+     * @return La tarifa o 0 si el tipo no es válido o la membresía es nula o NINGUNA
+     */
+    public double tarifaMembresia(int tipo, TipoMembresia membresia) {
+        if (tipo < 0 || tipo >= porMembresia.length || membresia == null) {
+            return 0;
+        }
+        return porMembresia[tipo][membresia.ordinal()];
+    }
+
+    /**
+     * Obtiene la tarifa de una membresía para un vehículo
+     * @param vehiculo El vehículo
+     * @param membresia Tipo de membresía
+     * @return La tarifa o 0 si el vehículo no es de un tipo conocido
+     */
+    public double tarifaMembresia(Vehiculo vehiculo, TipoMembresia membresia) {
+        return tarifaMembresia(OcupacionParqueadero.tipoDeVehiculo(vehiculo), membresia);
+    }
+
+    /**
+     * Crea una tabla igual a esta con otras tarifas por hora
+     * @param moto Tarifa por hora para motos
+     * @param automovil Tarifa por hora para automóviles
+     * @param camion Tarifa por hora para camiones
+     * @return La tabla nueva
+     */
+    public TablaTarifas conTarifasHora(double moto, double automovil, double camion) {
+        double[] nuevas = porHora.clone();
+        nuevas[OcupacionParqueadero.TIPO_MOTO] = moto;
+        nuevas[OcupacionParqueadero.TIPO_AUTOMOVIL] = automovil;
+        nuevas[OcupacionParqueadero.TIPO_CAMION] = camion;
+        return new TablaTarifas(nuevas, porMembresia);
+    }
+
+    /**
+     * Crea una tabla igual a esta con otras tarifas de membresía para un tipo de vehículo
+     * @param tipo 0=Automóvil, 1=Moto, 2=Camión
+     * @param mensual Tarifa de la membresía mensual
+     * @param trimestral Tarifa de la membresía trimestral
+     * @param anual Tarifa de la membresía anual
+     * @return La tabla nueva, o esta misma si el tipo no es válido
+     */
+    public TablaTarifas conTarifasMembresia(int tipo, double mensual, double trimestral, double anual) {
+        if (tipo < 0 || tipo >= porMembresia.length) {
+            return this;
+        }
+        double[][] nuevas = porMembresia.clone();
+        nuevas[tipo] = Arrays.copyOf(porMembresia[tipo], CANTIDAD_MEMBRESIAS);
+        nuevas[tipo][TipoMembresia.MENSUAL.ordinal()] = mensual;
+        nuevas[tipo][TipoMembresia.TRIMESTRAL.ordinal()] = trimestral;
+        nuevas[tipo][TipoMembresia.ANUAL.ordinal()] = anual;
+        return new TablaTarifas(porHora, nuevas);
+    }
+}
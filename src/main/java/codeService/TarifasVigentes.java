@@ -0,0 +1,58 @@
+package codeService;
+
+/**
+ * Referencia a la {@link TablaTarifas} vigente que comparten los servicios que
+ * cobran. Quien configura tarifas reemplaza la tabla aquí y todos los que leen
+ * esta referencia cotizan con la nueva desde la siguiente consulta.
+ * <p>
+ * Leer es una lectura volátil; los cambios se serializan para que dos
+ * configuraciones simultáneas no se pisen.
+ */
+public final class TarifasVigentes {
+    private volatile TablaTarifas tabla;
+
+    /**
+     * Crea la referencia con las tarifas predeterminadas
+     */
+    public TarifasVigentes() {
+        this(TablaTarifas.PREDETERMINADA);
+    }
+
+    /**
+     * Crea la referencia con una tabla inicial
+     * @param tabla Tabla inicial; si es null se usan las predeterminadas
+     */
+    public TarifasVigentes(TablaTarifas tabla) {
+        this.tabla = tabla != null ? tabla : TablaTarifas.PREDETERMINADA;
+    }
+
+    /**
+     * Obtiene la tabla vigente
+     * @return La tabla
+     */
+    public TablaTarifas obtener() {
+        return tabla;
+    }
+
+    /**
+     * Reemplaza la tabla completa
+     * @param tabla La tabla nueva; null no cambia nada
+     */
+    public synchronized void reemplazar(TablaTarifas tabla) {
+        if (tabla != null) {
+            this.tabla = tabla;
+        }
+    }
+
+    /**
+     * Cambia las tarifas por hora conservando las de membresía
+     * @param moto Tarifa por hora para motos
+     * @param automovil Tarifa por hora para automóviles
+     * @param camion Tarifa por hora para camiones
+     * @return La tabla nueva
+     */
+    public synchronized TablaTarifas cambiarTarifasHora(double moto, double automovil, double camion) {
+        tabla = tabla.conTarifasHora(moto, automovil, camion);
+        return tabla;
+    }
+}
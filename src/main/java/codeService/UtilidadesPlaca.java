@@ -0,0 +1,29 @@
+package codeService;
+
+import java.util.Locale;
+
+/**
+ * Utilidades para trabajar con placas de vehículos.
+ */
+public final class UtilidadesPlaca {
+
+    private UtilidadesPlaca() {
+    }
+
+    /**
+     * Normaliza una placa para usarla como llave de búsqueda: sin espacios
+     * al inicio o al final y en mayúsculas
+     * @param placa La placa a normalizar
+     * @return La placa normalizada o null si la placa es nula o vacía
+     */
+    public static String normalizar(String placa) {
+        if (placa == null) {
+            return null;
+        }
+        String normalizada = placa.trim();
+        if (normalizada.isEmpty()) {
+            return null;
+        }
+        return normalizada.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package codeService;
+
+import model.FechasMembresia;
+import model.TipoMembresia;
+import model.TipoVehiculo;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Vehículo que está en el parqueadero, con su estancia y su membresía
+ * @param placa Placa del vehículo
+ * @param tipo Tipo del vehículo, o null si no es de un tipo conocido
+ * @param color Color del vehículo
+ * @param modelo Modelo del vehículo
+ * @param horaEntrada Hora de entrada
+ * @param puesto Puesto que ocupa, o -1 si no tiene
+ * @param tipoMembresia Membresía del vehículo, o null si no tiene
+ * @param diaFinMembresia Día de fin de la membresía (ver {@link FechasMembresia})
+ */
+public record VehiculoActual(String placa, TipoVehiculo tipo, String color, String modelo,
+                             LocalDateTime horaEntrada, int puesto,
+                             TipoMembresia tipoMembresia, int diaFinMembresia) {
+
+    public boolean tieneMembresia() {
+        return tipoMembresia != null && tipoMembresia != TipoMembresia.NINGUNA;
+    }
+
+    /**
+     * Obtiene la fecha de fin de la membresía en formato dd/MM/yyyy
+     * @return La fecha o null si no tiene
+     */
+    public String fechaFinMembresia() {
+        return FechasMembresia.aTexto(diaFinMembresia);
+    }
+
+    /**
+     * Convierte el vehículo a una fila de {@link ParqueaderoCodeService#obtenerListaVehiculosActuales()}
+     * @return Mapa con la información del vehículo
+     */
+    public Map<String, Object> aMapa() {
+        Map<String, Object> infoVehiculo = new HashMap<>();
+        infoVehiculo.put("placa", placa);
+        infoVehiculo.put("tipo", tipo != null ? tipo.getNombre() : OcupacionParqueadero.nombreDeTipo(-1));
+        infoVehiculo.put("color", color);
+        infoVehiculo.put("modelo", modelo);
+        infoVehiculo.put("horaEntrada", horaEntrada);
+        infoVehiculo.put("puesto", puesto);
+        infoVehiculo.put("tieneMembresia", tieneMembresia());
+        if (tieneMembresia()) {
+            infoVehiculo.put("tipoMembresia", tipoMembresia);
+            infoVehiculo.put("fechaFinMembresia", fechaFinMembresia());
+        }
+        return infoVehiculo;
+    }
+}
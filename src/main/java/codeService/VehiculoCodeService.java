@@ -1,20 +1,58 @@
 package codeService;
 
+import model.Automovil;
+import model.Camion;
 import model.Cliente;
+import model.Moto;
 import model.Vehiculo;
+import eventos.VehiculoActualizado;
+import eventos.VehiculoAsignado;
+import eventos.VehiculoDesvinculado;
+import eventos.VehiculoEliminado;
+import eventos.VehiculoRegistrado;
+import persistencia.BitacoraEventos;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Registro de vehículos y de sus propietarios. Las porterías y la API lo usan
+ * desde varios hilos, así que cada operación toma el monitor del servicio:
+ * validar, escribir en la bitácora y cambiar los índices ocurre sin que otro
+ * hilo vea un estado a medias
+ */
 public class VehiculoCodeService {
     private Map<String, List<Vehiculo>> vehiculosPorCliente;
-    private List<Vehiculo> listaGeneralVehiculos; // Lista general para guardar todos los vehículos
+    // Índice general de vehículos por placa normalizada, en orden de registro
+    private Map<String, Vehiculo> vehiculosPorPlaca;
+    // Índice de las mismas placas para búsquedas parciales
+    private IndicePlacas indicePlacas;
+    // Índice inverso: cédulas de los propietarios de cada placa normalizada, en orden de asignación
+    private Map<String, Set<String>> propietariosPorPlaca;
+    private BitacoraEventos bitacora; // Bitácora donde se guardan los registros (opcional)
+    // Cuenta los vehículos eliminados, desvinculados o asignados a otro cliente, para que
+    // otros índices sepan que deben rehacerse
+    private volatile long cambiosPropietarios;
 
     public VehiculoCodeService() {
         this.vehiculosPorCliente = new HashMap<>();
-        this.listaGeneralVehiculos = new ArrayList<>(); // Inicialización de la lista general
+        this.vehiculosPorPlaca = new LinkedHashMap<>();
+        this.indicePlacas = new IndicePlacas();
+        this.propietariosPorPlaca = new HashMap<>();
+    }
+
+    /**
+     * Establece la bitácora donde se registran los vehículos nuevos
+     * 
+     * @param bitacora Bitácora de eventos
+     */
+    public void setBitacora(BitacoraEventos bitacora) {
+        this.bitacora = bitacora;
     }
 
     /**
@@ -25,24 +63,45 @@ public class VehiculoCodeService {
      * @param modelo El modelo del vehículo
      * @return true si el registro fue exitoso, false en caso contrario
      */
-    public boolean registrarVehiculo(String placa, String color, String modelo) {
+    public synchronized boolean registrarVehiculo(String placa, String color, String modelo) {
+        return registrarVehiculo(-1, placa, color, modelo);
+    }
+
+    /**
+     * Registra un vehículo de un tipo en la lista general. Solo los vehículos con
+     * tipo tienen tarifa de membresía
+     * 
+     * @param tipoVehiculo 0=Automóvil, 1=Moto, 2=Camión, o -1 para un vehículo genérico
+     * @param placa  La placa del vehículo
+     * @param color  El color del vehículo
+     * @param modelo El modelo del vehículo
+     * @return true si el registro fue exitoso, false en caso contrario
+     */
+    public synchronized boolean registrarVehiculo(int tipoVehiculo, String placa, String color, String modelo) {
         // Validar que no haya campos vacíos
         if (placa == null || placa.trim().isEmpty() || 
             color == null || color.trim().isEmpty() || 
-            modelo == null || modelo.trim().isEmpty()) {
+            modelo == null || modelo.trim().isEmpty() ||
+            tipoVehiculo < -1 || tipoVehiculo > 2) {
             return false;
         }
 
-        // Verificar si ya existe la placa en la lista general
-        boolean placaExiste = listaGeneralVehiculos.stream()
-                .anyMatch(v -> v.getPlaca().equalsIgnoreCase(placa));
-
-        if (placaExiste) {
+        // Verificar si ya existe la placa
+        String clave = UtilidadesPlaca.normalizar(placa);
+        if (vehiculosPorPlaca.containsKey(clave)) {
             return false;
         }
 
-        Vehiculo nuevoVehiculo = new Vehiculo(placa, color, modelo);
-        listaGeneralVehiculos.add(nuevoVehiculo);
+        Vehiculo nuevoVehiculo = switch (tipoVehiculo) {
+            case OcupacionParqueadero.TIPO_AUTOMOVIL -> new Automovil(placa, color, modelo);
+            case OcupacionParqueadero.TIPO_MOTO -> new Moto(placa, color, modelo);
+            case OcupacionParqueadero.TIPO_CAMION -> new Camion(placa, color, modelo);
+            default -> new Vehiculo(placa, color, modelo);
+        };
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new VehiculoRegistrado(placa, color, modelo, null, tipoVehiculo));
+        }
+        agregarPlaca(clave, nuevoVehiculo);
         return true;
     }
 
@@ -55,63 +114,163 @@ public class VehiculoCodeService {
      * @param modelo  El modelo del vehículo
      * @return true si el registro fue exitoso, false en caso contrario
      */
-    public boolean registrarVehiculo(Cliente cliente, String placa, String color, String modelo) {
-        // Validar que el cliente no sea nulo y que no haya campos vacíos
-        if (cliente == null || 
+    public synchronized boolean registrarVehiculo(Cliente cliente, String placa, String color, String modelo) {
+        if (cliente == null) {
+            return false;
+        }
+        return registrarVehiculoParaCedula(cliente.getCedula(), placa, color, modelo);
+    }
+
+    /**
+     * Registra un vehículo asociado a la cédula de un cliente
+     * 
+     * @param cedula La cédula del propietario
+     * @param placa  La placa del vehículo
+     * @param color  El color del vehículo
+     * @param modelo El modelo del vehículo
+     * @return true si el registro fue exitoso, false en caso contrario
+     */
+    synchronized boolean registrarVehiculoParaCedula(String cedula, String placa, String color, String modelo) {
+        // Validar que no haya campos vacíos
+        if (cedula == null || 
             placa == null || placa.trim().isEmpty() || 
             color == null || color.trim().isEmpty() || 
             modelo == null || modelo.trim().isEmpty()) {
             return false;
         }
 
-        // Obtener la lista de vehículos del cliente
-        List<Vehiculo> listaVehiculos = vehiculosPorCliente.getOrDefault(cliente.getCedula(), new ArrayList<>());
-
-        // Verificar si ya existe la placa
-        boolean placaExiste = listaVehiculos.stream()
-                .anyMatch(v -> v.getPlaca().equalsIgnoreCase(placa));
-        boolean placaExisteGeneral = listaGeneralVehiculos.stream()
-                .anyMatch(v -> v.getPlaca().equalsIgnoreCase(placa));
-
-        if (placaExiste || placaExisteGeneral) {
+        // Verificar si ya existe la placa; todo vehículo de un cliente también está en el índice general
+        String clave = UtilidadesPlaca.normalizar(placa);
+        if (vehiculosPorPlaca.containsKey(clave)) {
             return false;
         }
 
         Vehiculo nuevoVehiculo = new Vehiculo(placa, color, modelo);
-        listaVehiculos.add(nuevoVehiculo);
-        listaGeneralVehiculos.add(nuevoVehiculo); // Agregar a la lista general también
-        vehiculosPorCliente.put(cliente.getCedula(), listaVehiculos);
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new VehiculoRegistrado(placa, color, modelo, cedula));
+        }
+        agregarPlaca(clave, nuevoVehiculo);
+        vincular(cedula, clave, nuevoVehiculo);
         return true;
     }
 
+    /**
+     * Agrega a la lista general un vehículo leído de una instantánea
+     * 
+     * @param vehiculo El vehículo a agregar
+     */
+    synchronized void restaurarVehiculo(Vehiculo vehiculo) {
+        agregarPlaca(UtilidadesPlaca.normalizar(vehiculo.getPlaca()), vehiculo);
+    }
+
+    /**
+     * Asocia a una cédula un vehículo leído de una instantánea
+     * 
+     * @param cedula   La cédula del propietario
+     * @param vehiculo El vehículo a asociar
+     */
+    synchronized void restaurarAsignacion(String cedula, Vehiculo vehiculo) {
+        String clave = UtilidadesPlaca.normalizar(vehiculo.getPlaca());
+        agregarPlaca(clave, vehiculo);
+        vincular(cedula, clave, vehiculo);
+    }
+
+    /**
+     * Agrega un vehículo a los índices de placas si su placa no está registrada
+     * 
+     * @param clave    La placa normalizada
+     * @param vehiculo El vehículo
+     */
+    private void agregarPlaca(String clave, Vehiculo vehiculo) {
+        if (vehiculosPorPlaca.putIfAbsent(clave, vehiculo) == null) {
+            indicePlacas.agregar(clave);
+        }
+    }
+
+    /**
+     * Quita una placa de los índices de placas
+     * 
+     * @param clave La placa normalizada
+     * @return El vehículo que tenía la placa o null si no estaba registrada
+     */
+    private Vehiculo quitarPlaca(String clave) {
+        Vehiculo vehiculo = vehiculosPorPlaca.remove(clave);
+        if (vehiculo != null) {
+            indicePlacas.quitar(clave);
+        }
+        return vehiculo;
+    }
+
+    /**
+     * Agrega un vehículo a la lista de un cliente y al índice inverso
+     * 
+     * @param cedula   La cédula del propietario
+     * @param clave    La placa normalizada
+     * @param vehiculo El vehículo
+     */
+    private void vincular(String cedula, String clave, Vehiculo vehiculo) {
+        vehiculosPorCliente.computeIfAbsent(cedula, c -> new ArrayList<>()).add(vehiculo);
+        propietariosPorPlaca.computeIfAbsent(clave, c -> new LinkedHashSet<>()).add(cedula);
+    }
+
+    /**
+     * Obtiene una copia de los vehículos asociados a cada cédula
+     * 
+     * @return Mapa de cédula a vehículos
+     */
+    synchronized Map<String, List<Vehiculo>> obtenerVehiculosPorCedula() {
+        Map<String, List<Vehiculo>> copia = new HashMap<>();
+        for (Map.Entry<String, List<Vehiculo>> entry : vehiculosPorCliente.entrySet()) {
+            copia.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return copia;
+    }
+
+    /**
+     * Obtiene cuántas veces se ha eliminado un vehículo o ha cambiado uno de sus propietarios
+     * 
+     * @return Contador que solo crece
+     */
+    long getCambiosPropietarios() {
+        return cambiosPropietarios;
+    }
+
     /**
      * Busca un vehículo por su placa
      * 
      * @param placa La placa del vehículo a buscar
      * @return El vehículo encontrado o null si no existe
      */
-    public Vehiculo buscarVehiculo(String placa) {
+    public synchronized Vehiculo buscarVehiculo(String placa) {
         if (placa == null || placa.trim().isEmpty()) {
             return null;
         }
         
-        // Primero buscar en la lista general
-        for (Vehiculo vehiculo : listaGeneralVehiculos) {
-            if (vehiculo.getPlaca().equalsIgnoreCase(placa.trim())) {
-                return vehiculo;
-            }
+        return vehiculosPorPlaca.get(UtilidadesPlaca.normalizar(placa));
+    }
+
+    /**
+     * Busca los vehículos cuya placa contiene un texto, para búsquedas mientras se escribe.
+     * Primero va la placa exacta, luego las que empiezan por el texto y después
+     * las que lo contienen más adelante. Con menos de tres caracteres solo se
+     * buscan placas que empiecen por el texto.
+     * 
+     * @param texto        Parte de la placa
+     * @param pagina       Número de página, desde 0
+     * @param tamanoPagina Cantidad de vehículos por página
+     * @return Vehículos de la página pedida o lista vacía si no hay coincidencias
+     */
+    public synchronized List<Vehiculo> buscarVehiculosPorPlacaParcial(String texto, int pagina, int tamanoPagina) {
+        List<Vehiculo> encontrados = new ArrayList<>();
+        String clave = UtilidadesPlaca.normalizar(texto);
+        if (clave == null) {
+            return encontrados;
         }
         
-        // Si no se encuentra en la lista general, buscar en las listas por cliente
-        for (List<Vehiculo> vehiculos : vehiculosPorCliente.values()) {
-            for (Vehiculo vehiculo : vehiculos) {
-                if (vehiculo.getPlaca().equalsIgnoreCase(placa.trim())) {
-                    return vehiculo;
-                }
-            }
+        for (String placa : indicePlacas.buscar(clave, pagina, tamanoPagina)) {
+            encontrados.add(vehiculosPorPlaca.get(placa));
         }
-        
-        return null;
+        return encontrados;
     }
 
     /**
@@ -123,32 +282,51 @@ public class VehiculoCodeService {
      * @param nuevoModelo  El nuevo modelo del vehículo (null o vacío si no cambia)
      * @return true si la actualización fue exitosa, false en caso contrario
      */
-    public boolean actualizarVehiculo(String placaActual, String nuevaPlaca, String nuevoColor, String nuevoModelo) {
+    public synchronized boolean actualizarVehiculo(String placaActual, String nuevaPlaca, String nuevoColor, String nuevoModelo) {
         Vehiculo vehiculo = buscarVehiculo(placaActual);
 
         if (vehiculo == null) {
             return false;
         }
 
-        // Actualizar placa si se proporciona una nueva
-        if (nuevaPlaca != null && !nuevaPlaca.trim().isEmpty() && !nuevaPlaca.equals(placaActual)) {
-            // Verificar que la nueva placa no exista ya en otro vehículo
-            boolean placaExiste = listaGeneralVehiculos.stream()
-                    .anyMatch(v -> v.getPlaca().equalsIgnoreCase(nuevaPlaca) && !v.equals(vehiculo));
-            
-            if (placaExiste) {
+        boolean cambiaPlaca = nuevaPlaca != null && !nuevaPlaca.trim().isEmpty() && !nuevaPlaca.equals(placaActual);
+        boolean cambiaColor = nuevoColor != null && !nuevoColor.trim().isEmpty();
+        boolean cambiaModelo = nuevoModelo != null && !nuevoModelo.trim().isEmpty();
+        String claveNueva = cambiaPlaca ? UtilidadesPlaca.normalizar(nuevaPlaca) : null;
+
+        // Verificar que la nueva placa no exista ya en otro vehículo
+        if (cambiaPlaca) {
+            Vehiculo existente = vehiculosPorPlaca.get(claveNueva);
+            if (existente != null && existente != vehiculo) {
                 return false;
             }
+        }
+
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new VehiculoActualizado(vehiculo.getPlaca(), cambiaPlaca ? nuevaPlaca : null,
+                    cambiaColor ? nuevoColor : null, cambiaModelo ? nuevoModelo : null));
+        }
+
+        // Actualizar placa si se proporciona una nueva
+        if (cambiaPlaca) {
+            // Mover el vehículo a su nueva llave; las listas por cliente guardan el mismo objeto
+            String claveActual = UtilidadesPlaca.normalizar(vehiculo.getPlaca());
+            quitarPlaca(claveActual);
+            Set<String> propietarios = propietariosPorPlaca.remove(claveActual);
             vehiculo.setPlaca(nuevaPlaca);
+            agregarPlaca(claveNueva, vehiculo);
+            if (propietarios != null) {
+                propietariosPorPlaca.put(claveNueva, propietarios);
+            }
         }
 
         // Actualizar color si se proporciona uno nuevo
-        if (nuevoColor != null && !nuevoColor.trim().isEmpty()) {
+        if (cambiaColor) {
             vehiculo.setColor(nuevoColor);
         }
 
         // Actualizar modelo si se proporciona uno nuevo
-        if (nuevoModelo != null && !nuevoModelo.trim().isEmpty()) {
+        if (cambiaModelo) {
             vehiculo.setModelo(nuevoModelo);
         }
 
@@ -161,7 +339,7 @@ public class VehiculoCodeService {
      * @param cliente Cliente del que se obtendrán los vehículos
      * @return Lista de vehículos asociados al cliente
      */
-    public List<Vehiculo> obtenerVehiculosPorCliente(Cliente cliente) {
+    public synchronized List<Vehiculo> obtenerVehiculosPorCliente(Cliente cliente) {
         if (cliente == null) {
             return new ArrayList<>();
         }
@@ -180,8 +358,8 @@ public class VehiculoCodeService {
      * 
      * @return Lista con todos los vehículos
      */
-    public List<Vehiculo> obtenerTodosLosVehiculos() {
-        return new ArrayList<>(listaGeneralVehiculos);
+    public synchronized List<Vehiculo> obtenerTodosLosVehiculos() {
+        return new ArrayList<>(vehiculosPorPlaca.values());
     }
     
     /**
@@ -190,26 +368,35 @@ public class VehiculoCodeService {
      * @param placa La placa del vehículo a eliminar
      * @return true si se eliminó correctamente, false si no se encontró el vehículo
      */
-    public boolean eliminarVehiculo(String placa) {
+    public synchronized boolean eliminarVehiculo(String placa) {
         if (placa == null || placa.trim().isEmpty()) {
             return false;
         }
         
-        // Verificar si el vehículo existe
-        Vehiculo vehiculo = buscarVehiculo(placa);
-        if (vehiculo == null) {
+        // Eliminar del índice general
+        String clave = UtilidadesPlaca.normalizar(placa);
+        Vehiculo registrado = vehiculosPorPlaca.get(clave);
+        if (registrado == null) {
             return false;
         }
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new VehiculoEliminado(registrado.getPlaca()));
+        }
+        Vehiculo vehiculo = quitarPlaca(clave);
+        cambiosPropietarios++;
         
-        // Eliminar de la lista general
-        boolean removido = listaGeneralVehiculos.removeIf(v -> v.getPlaca().equalsIgnoreCase(placa));
-        
-        // Eliminar de las listas por cliente
-        for (Map.Entry<String, List<Vehiculo>> entry : vehiculosPorCliente.entrySet()) {
-            entry.getValue().removeIf(v -> v.getPlaca().equalsIgnoreCase(placa));
+        // Eliminar solo de las listas de sus propietarios
+        Set<String> propietarios = propietariosPorPlaca.remove(clave);
+        if (propietarios != null) {
+            for (String cedula : propietarios) {
+                List<Vehiculo> vehiculos = vehiculosPorCliente.get(cedula);
+                if (vehiculos != null) {
+                    vehiculos.remove(vehiculo);
+                }
+            }
         }
         
-        return removido;
+        return true;
     }
     
     /**
@@ -274,20 +461,17 @@ public class VehiculoCodeService {
      * @param placa La placa del vehículo
      * @return La cédula del cliente propietario o null si no se encuentra
      */
-    public String buscarPropietarioVehiculo(String placa) {
+    public synchronized String buscarPropietarioVehiculo(String placa) {
         if (placa == null || placa.trim().isEmpty()) {
             return null;
         }
         
-        for (Map.Entry<String, List<Vehiculo>> entry : vehiculosPorCliente.entrySet()) {
-            for (Vehiculo vehiculo : entry.getValue()) {
-                if (vehiculo.getPlaca().equalsIgnoreCase(placa.trim())) {
-                    return entry.getKey(); // Retorna la cédula del propietario
-                }
-            }
+        // Si el vehículo tiene varios propietarios, retorna el primero que se asignó
+        Set<String> propietarios = propietariosPorPlaca.get(UtilidadesPlaca.normalizar(placa));
+        if (propietarios == null || propietarios.isEmpty()) {
+            return null;
         }
-        
-        return null;
+        return propietarios.iterator().next();
     }
     
     /**
@@ -298,7 +482,21 @@ public class VehiculoCodeService {
      * @return true si la asignación fue exitosa, false en caso contrario
      */
     public boolean asignarVehiculoACliente(Cliente cliente, String placa) {
-        if (cliente == null || placa == null || placa.trim().isEmpty()) {
+        if (cliente == null) {
+            return false;
+        }
+        return asignarVehiculoACedula(cliente.getCedula(), placa);
+    }
+
+    /**
+     * Asigna un vehículo existente a la cédula de un cliente
+     * 
+     * @param cedula La cédula del cliente
+     * @param placa La placa del vehículo a asignar
+     * @return true si la asignación fue exitosa, false en caso contrario
+     */
+    synchronized boolean asignarVehiculoACedula(String cedula, String placa) {
+        if (cedula == null || placa == null || placa.trim().isEmpty()) {
             return false;
         }
         
@@ -308,14 +506,18 @@ public class VehiculoCodeService {
         }
         
         // Verificar si el vehículo ya está asignado a este cliente
-        List<Vehiculo> vehiculosCliente = vehiculosPorCliente.getOrDefault(cliente.getCedula(), new ArrayList<>());
-        if (vehiculosCliente.contains(vehiculo)) {
+        String clave = UtilidadesPlaca.normalizar(vehiculo.getPlaca());
+        Set<String> propietarios = propietariosPorPlaca.get(clave);
+        if (propietarios != null && propietarios.contains(cedula)) {
             return false; // Ya está asignado
         }
         
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new VehiculoAsignado(vehiculo.getPlaca(), cedula));
+        }
         // Añadir a la lista de vehículos del cliente
-        vehiculosCliente.add(vehiculo);
-        vehiculosPorCliente.put(cliente.getCedula(), vehiculosCliente);
+        vincular(cedula, clave, vehiculo);
+        cambiosPropietarios++;
         
         return true;
     }
@@ -328,22 +530,54 @@ public class VehiculoCodeService {
      * @return true si la desvinculación fue exitosa, false en caso contrario
      */
     public boolean desvincularVehiculoDeCliente(Cliente cliente, String placa) {
-        if (cliente == null || placa == null || placa.trim().isEmpty()) {
+        if (cliente == null) {
+            return false;
+        }
+        return desvincularVehiculoDeCedula(cliente.getCedula(), placa);
+    }
+
+    /**
+     * Desvincula un vehículo de la cédula de un cliente sin eliminarlo del sistema
+     * 
+     * @param cedula La cédula del cliente
+     * @param placa La placa del vehículo a desvincular
+     * @return true si la desvinculación fue exitosa, false en caso contrario
+     */
+    synchronized boolean desvincularVehiculoDeCedula(String cedula, String placa) {
+        if (cedula == null || placa == null || placa.trim().isEmpty()) {
             return false;
         }
         
-        List<Vehiculo> vehiculosCliente = vehiculosPorCliente.get(cliente.getCedula());
+        List<Vehiculo> vehiculosCliente = vehiculosPorCliente.get(cedula);
         if (vehiculosCliente == null || vehiculosCliente.isEmpty()) {
             return false;
         }
         
-        boolean removido = vehiculosCliente.removeIf(v -> v.getPlaca().equalsIgnoreCase(placa));
-        if (removido) {
-            vehiculosPorCliente.put(cliente.getCedula(), vehiculosCliente);
-            return true;
+        String clave = UtilidadesPlaca.normalizar(placa);
+        boolean asociado = false;
+        for (Vehiculo vehiculo : vehiculosCliente) {
+            if (clave.equals(UtilidadesPlaca.normalizar(vehiculo.getPlaca()))) {
+                asociado = true;
+                break;
+            }
+        }
+        if (!asociado) {
+            return false;
         }
         
-        return false;
+        if (bitacora != null) {
+            bitacora.registrarYEsperar(new VehiculoDesvinculado(placa, cedula));
+        }
+        vehiculosCliente.removeIf(v -> clave.equals(UtilidadesPlaca.normalizar(v.getPlaca())));
+        cambiosPropietarios++;
+        Set<String> propietarios = propietariosPorPlaca.get(clave);
+        if (propietarios != null) {
+            propietarios.remove(cedula);
+            if (propietarios.isEmpty()) {
+                propietariosPorPlaca.remove(clave);
+            }
+        }
+        return true;
     }
     
     /**
@@ -353,18 +587,13 @@ public class VehiculoCodeService {
      * @param placa La placa del vehículo
      * @return true si el vehículo pertenece al cliente, false en caso contrario
      */
-    public boolean vehiculoPerteneceACliente(Cliente cliente, String placa) {
+    public synchronized boolean vehiculoPerteneceACliente(Cliente cliente, String placa) {
         if (cliente == null || placa == null || placa.trim().isEmpty()) {
             return false;
         }
         
-        List<Vehiculo> vehiculosCliente = vehiculosPorCliente.get(cliente.getCedula());
-        if (vehiculosCliente == null || vehiculosCliente.isEmpty()) {
-            return false;
-        }
-        
-        return vehiculosCliente.stream()
-                .anyMatch(v -> v.getPlaca().equalsIgnoreCase(placa));
+        Set<String> propietarios = propietariosPorPlaca.get(UtilidadesPlaca.normalizar(placa));
+        return propietarios != null && propietarios.contains(cliente.getCedula());
     }
     
     /**
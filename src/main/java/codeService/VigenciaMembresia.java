@@ -0,0 +1,72 @@
+package codeService;
+
+import model.FechasMembresia;
+import model.TipoMembresia;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Vigencia de la membresía de un vehículo en un día dado
+ * @param tipoMembresia Tipo de la membresía
+ * @param diaVencimiento Día de fin (ver {@link FechasMembresia}), o
+ *                       {@link FechasMembresia#SIN_FECHA} si no tiene una fecha válida
+ * @param diasRestantes Días que faltan para el vencimiento; negativo si ya venció
+ */
+public record VigenciaMembresia(TipoMembresia tipoMembresia, int diaVencimiento, long diasRestantes) {
+
+    /**
+     * Calcula la vigencia de una membresía
+     * @param tipoMembresia Tipo de la membresía
+     * @param diaVencimiento Día de fin de la membresía
+     * @param hoy Día de la consulta
+     * @return La vigencia
+     */
+    public static VigenciaMembresia en(TipoMembresia tipoMembresia, int diaVencimiento, int hoy) {
+        long restantes = diaVencimiento != FechasMembresia.SIN_FECHA ? (long) diaVencimiento - hoy : -1;
+        return new VigenciaMembresia(tipoMembresia, diaVencimiento, restantes);
+    }
+
+    public boolean tieneFechaValida() {
+        return diaVencimiento != FechasMembresia.SIN_FECHA;
+    }
+
+    public boolean vigente() {
+        return tieneFechaValida() && diasRestantes >= 0;
+    }
+
+    /**
+     * Obtiene la fecha de vencimiento en formato dd/MM/yyyy
+     * @return La fecha o null si no tiene una fecha válida
+     */
+    public String fechaVencimiento() {
+        return FechasMembresia.aTexto(diaVencimiento);
+    }
+
+    public String mensaje() {
+        if (!tieneFechaValida()) {
+            return "Error al verificar la vigencia: la membresía no tiene una fecha de fin válida";
+        }
+        return vigente() ? "La membresía está vigente" : "La membresía ha vencido";
+    }
+
+    /**
+     * Convierte la vigencia al mapa que devuelve {@link MembresiaCodeService#verificarVigencia}
+     * @return Mapa con la información de vigencia
+     */
+    public Map<String, Object> aMapa() {
+        Map<String, Object> resultado = new HashMap<>();
+        if (!tieneFechaValida()) {
+            resultado.put("error", mensaje());
+            return resultado;
+        }
+        resultado.put("tipoMembresia", tipoMembresia);
+        resultado.put("fechaVencimiento", fechaVencimiento());
+        resultado.put("vigente", vigente());
+        resultado.put("mensaje", mensaje());
+        if (vigente()) {
+            resultado.put("diasRestantes", diasRestantes);
+        }
+        return resultado;
+    }
+}
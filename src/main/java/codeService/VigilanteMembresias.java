@@ -0,0 +1,151 @@
+package codeService;
+
+import interfaces.IEscuchaMembresias;
+import model.FechasMembresia;
+import model.Vehiculo;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revisa en segundo plano los vencimientos de membresías usando el índice de
+ * vencimientos del servicio de membresías.
+ * <p>
+ * Al iniciar hace una revisión y luego una cada medianoche: baja a NINGUNA las
+ * membresías vencidas y avisa a los escuchas, y avisa una sola vez por
+ * membresía cuando le quedan {@link #DIAS_AVISO} días o menos. Cada revisión
+ * solo recorre las membresías vencidas y las que están en el periodo de aviso.
+ */
+public class VigilanteMembresias implements AutoCloseable {
+    /** Días antes del vencimiento en que se avisa */
+    public static final int DIAS_AVISO = 30;
+
+    private final MembresiaCodeService membresiaService;
+    private final Clock reloj;
+    private final List<IEscuchaMembresias> escuchas = new CopyOnWriteArrayList<>();
+    // Día de fin ya avisado por vehículo, para no repetir el aviso cada noche
+    private final Map<Vehiculo, Integer> avisados = new HashMap<>();
+    private ScheduledExecutorService programador;
+
+    public VigilanteMembresias(MembresiaCodeService membresiaService) {
+        this(membresiaService, Clock.systemDefaultZone());
+    }
+
+    public VigilanteMembresias(MembresiaCodeService membresiaService, Clock reloj) {
+        this.membresiaService = membresiaService;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Agrega un escucha de los avisos de vencimiento
+     * @param escucha El escucha
+     */
+    public void agregarEscucha(IEscuchaMembresias escucha) {
+        if (escucha != null) {
+            escuchas.add(escucha);
+        }
+    }
+
+    /**
+     * Quita un escucha de los avisos de vencimiento
+     * @param escucha El escucha
+     * @return true si estaba registrado
+     */
+    public boolean quitarEscucha(IEscuchaMembresias escucha) {
+        return escuchas.remove(escucha);
+    }
+
+    /**
+     * Inicia las revisiones en segundo plano: una inmediata y una cada medianoche
+     * @return false si ya estaba iniciado
+     */
+    public synchronized boolean iniciar() {
+        if (programador != null) {
+            return false;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "vigilante-membresias");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.execute(this::ejecutarYProgramar);
+        return true;
+    }
+
+    /**
+     * Detiene las revisiones en segundo plano
+     */
+    @Override
+    public synchronized void close() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+    }
+
+    /**
+     * Revisa los vencimientos de un día: baja las membresías vencidas y avisa
+     * de las que entran al periodo de aviso
+     * @param hoy Día de la revisión
+     * @return Cantidad de membresías que vencieron en esta revisión
+     */
+    public synchronized int revisar(LocalDate hoy) {
+        List<IndiceVencimientos.Vencimiento> vencidas = membresiaService.vencerMembresias(hoy);
+        for (IndiceVencimientos.Vencimiento vencida : vencidas) {
+            avisados.remove(vencida.vehiculo());
+            for (IEscuchaMembresias escucha : escuchas) {
+                try {
+                    escucha.membresiaVencida(vencida.vehiculo(), vencida.cliente(), vencida.diaFin());
+                } catch (RuntimeException e) {
+                    // Un escucha con errores no detiene los avisos a los demás
+                }
+            }
+        }
+
+        int dia = FechasMembresia.aDia(hoy);
+        // Olvidar los avisos de membresías que ya no están (canceladas o vencidas)
+        avisados.values().removeIf(diaFin -> diaFin < dia);
+        for (IndiceVencimientos.Vencimiento proxima : membresiaService.obtenerVencimientosEntre(hoy, hoy.plusDays(DIAS_AVISO))) {
+            Integer avisado = avisados.put(proxima.vehiculo(), proxima.diaFin());
+            if (avisado != null && avisado == proxima.diaFin()) {
+                continue;
+            }
+            for (IEscuchaMembresias escucha : escuchas) {
+                try {
+                    escucha.membresiaPorVencer(proxima.vehiculo(), proxima.cliente(), proxima.diaFin() - dia);
+                } catch (RuntimeException e) {
+                    // Un escucha con errores no detiene los avisos a los demás
+                }
+            }
+        }
+        return vencidas.size();
+    }
+
+    private void ejecutarYProgramar() {
+        try {
+            revisar(LocalDate.now(reloj));
+        } finally {
+            synchronized (this) {
+                if (programador != null) {
+                    programador.schedule(this::ejecutarYProgramar, demoraHastaMedianoche(), TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    private long demoraHastaMedianoche() {
+        ZonedDateTime ahora = ZonedDateTime.now(reloj);
+        ZonedDateTime medianoche = ahora.toLocalDate().plusDays(1).atStartOfDay(ahora.getZone());
+        // Un segundo de margen para que la revisión ya vea el día nuevo
+        return Duration.between(ahora, medianoche).toMillis() + 1000;
+    }
+}
@@ -52,6 +52,7 @@ public class Main {
         membresiaService.setClienteService(clienteService);
 
         ParqueaderoService parqueaderoService = new ParqueaderoService(parque);
+        pagoService.setTarifasVigentes(parqueaderoService.getTarifasVigentes());
         boolean continuar = true;
 
         while (continuar) {
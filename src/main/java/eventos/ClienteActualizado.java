@@ -0,0 +1,8 @@
+package eventos;
+
+/**
+ * Se cambió un dato de un cliente.
+ * @param campo 0=Nombre, 1=Teléfono, 2=Correo
+ */
+public record ClienteActualizado(String cedula, int campo, String nuevoValor) implements EventoParqueadero {
+}
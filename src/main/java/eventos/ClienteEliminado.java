@@ -0,0 +1,7 @@
+package eventos;
+
+/**
+ * Se eliminó un cliente del registro.
+ */
+public record ClienteEliminado(String cedula) implements EventoParqueadero {
+}
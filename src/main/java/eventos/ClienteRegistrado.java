@@ -0,0 +1,8 @@
+package eventos;
+
+/**
+ * Se añadió un cliente al registro de clientes.
+ */
+public record ClienteRegistrado(String nombre, String cedula, String telefono, String correo)
+        implements EventoParqueadero {
+}
@@ -0,0 +1,13 @@
+package eventos;
+
+/**
+ * Cambio de estado del parqueadero que se guarda en la bitácora de eventos.
+ * Cada evento es inmutable y contiene todo lo necesario para volver a
+ * aplicarlo al reconstruir el estado en memoria.
+ */
+public sealed interface EventoParqueadero
+        permits ClienteRegistrado, ClienteActualizado, ClienteEliminado,
+                VehiculoRegistrado, VehiculoActualizado, VehiculoEliminado, VehiculoAsignado, VehiculoDesvinculado,
+                VehiculoIngresado, VehiculoSalio, PagoRegistrado, MembresiaRegistrada, MembresiaCancelada,
+                MembresiaVencida, SalidaCobrada {
+}
@@ -0,0 +1,7 @@
+package eventos;
+
+/**
+ * Se canceló la membresía de un vehículo.
+ */
+public record MembresiaCancelada(String placa) implements EventoParqueadero {
+}
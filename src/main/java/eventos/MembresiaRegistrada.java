@@ -0,0 +1,12 @@
+package eventos;
+
+import model.TipoMembresia;
+
+import java.time.LocalDate;
+
+/**
+ * Se registró o renovó la membresía de un vehículo.
+ */
+public record MembresiaRegistrada(String placa, String cedulaCliente, TipoMembresia tipo,
+                                  LocalDate fechaInicio, LocalDate fechaFin, int tarifa) implements EventoParqueadero {
+}
@@ -0,0 +1,9 @@
+package eventos;
+
+import java.time.LocalDate;
+
+/**
+ * Venció la membresía de un vehículo; conserva sus fechas para consultarlas después.
+ */
+public record MembresiaVencida(String placa, LocalDate fechaFin) implements EventoParqueadero {
+}
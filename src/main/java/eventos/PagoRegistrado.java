@@ -0,0 +1,11 @@
+package eventos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se registró un pago de estacionamiento o de membresía.
+ * @param cedulaCliente Cédula del cliente o null para pagos de estacionamiento
+ */
+public record PagoRegistrado(String id, double monto, LocalDateTime fechaHora, String concepto,
+                             String tipoVehiculo, String placa, String cedulaCliente) implements EventoParqueadero {
+}
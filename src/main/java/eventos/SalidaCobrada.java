@@ -0,0 +1,8 @@
+package eventos;
+
+/**
+ * Un vehículo salió y se cobró su estadía. La salida y el pago van en un solo
+ * registro de la bitácora, así nunca queda uno sin el otro.
+ */
+public record SalidaCobrada(VehiculoSalio salida, PagoRegistrado pago) implements EventoParqueadero {
+}
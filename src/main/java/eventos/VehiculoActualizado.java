@@ -0,0 +1,12 @@
+package eventos;
+
+/**
+ * Se cambiaron los datos de un vehículo registrado.
+ * @param placa Placa que tenía el vehículo
+ * @param nuevaPlaca Placa nueva, o null si no cambió
+ * @param nuevoColor Color nuevo, o null si no cambió
+ * @param nuevoModelo Modelo nuevo, o null si no cambió
+ */
+public record VehiculoActualizado(String placa, String nuevaPlaca, String nuevoColor, String nuevoModelo)
+        implements EventoParqueadero {
+}
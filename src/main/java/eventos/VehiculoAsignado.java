@@ -0,0 +1,7 @@
+package eventos;
+
+/**
+ * Se asignó un vehículo ya registrado a un cliente.
+ */
+public record VehiculoAsignado(String placa, String cedulaCliente) implements EventoParqueadero {
+}
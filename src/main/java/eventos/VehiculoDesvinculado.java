@@ -0,0 +1,7 @@
+package eventos;
+
+/**
+ * Se desvinculó un vehículo de un cliente sin eliminarlo del registro.
+ */
+public record VehiculoDesvinculado(String placa, String cedulaCliente) implements EventoParqueadero {
+}
@@ -0,0 +1,7 @@
+package eventos;
+
+/**
+ * Se eliminó un vehículo del registro.
+ */
+public record VehiculoEliminado(String placa) implements EventoParqueadero {
+}
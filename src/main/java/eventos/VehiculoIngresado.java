@@ -0,0 +1,12 @@
+package eventos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un vehículo entró al parqueadero por una portería.
+ * @param tipoVehiculo 0=Automóvil, 1=Moto, 2=Camión
+ * @param puesto Puesto asignado (desde 1)
+ */
+public record VehiculoIngresado(int tipoVehiculo, String placa, String color, String modelo,
+                                LocalDateTime horaEntrada, int puesto) implements EventoParqueadero {
+}
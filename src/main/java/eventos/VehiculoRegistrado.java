@@ -0,0 +1,17 @@
+package eventos;
+
+/**
+ * Se registró un vehículo, opcionalmente asociado a un cliente.
+ * @param cedulaPropietario Cédula del cliente o null si se registró sin cliente
+ * @param tipoVehiculo 0=Automóvil, 1=Moto, 2=Camión, o -1 si es un vehículo genérico
+ */
+public record VehiculoRegistrado(String placa, String color, String modelo, String cedulaPropietario,
+                                 int tipoVehiculo) implements EventoParqueadero {
+
+    /**
+     * Registro de un vehículo genérico
+     */
+    public VehiculoRegistrado(String placa, String color, String modelo, String cedulaPropietario) {
+        this(placa, color, modelo, cedulaPropietario, -1);
+    }
+}
@@ -0,0 +1,9 @@
+package eventos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un vehículo salió del parqueadero.
+ */
+public record VehiculoSalio(String placa, LocalDateTime horaSalida) implements EventoParqueadero {
+}
@@ -0,0 +1,25 @@
+package interfaces;
+
+import model.Cliente;
+import model.Vehiculo;
+
+/**
+ * Recibe los avisos de vencimiento de membresías
+ */
+public interface IEscuchaMembresias {
+    /**
+     * Se llama cuando la membresía de un vehículo venció y pasó a NINGUNA
+     * @param vehiculo El vehículo
+     * @param cliente El cliente de la membresía, puede ser null
+     * @param diaFin Último día que estuvo vigente, en días desde 1970-01-01
+     */
+    void membresiaVencida(Vehiculo vehiculo, Cliente cliente, int diaFin);
+
+    /**
+     * Se llama una vez cuando la membresía de un vehículo entra en el periodo de aviso
+     * @param vehiculo El vehículo
+     * @param cliente El cliente de la membresía, puede ser null
+     * @param diasRestantes Días que le quedan, 0 si vence hoy
+     */
+    void membresiaPorVencer(Vehiculo vehiculo, Cliente cliente, int diasRestantes);
+}
@@ -3,7 +3,7 @@ package model;
 public class Automovil extends Vehiculo{
 
     public Automovil(String placa, String color, String modelo) {
-        super(placa, color, modelo);
+        super(placa, color, modelo, TipoVehiculo.AUTOMOVIL);
     }
 
 
@@ -3,7 +3,7 @@ package model;
 public class Camion extends Vehiculo{
 
     public Camion(String placa, String color, String modelo) {
-        super(placa, color, modelo);
+        super(placa, color, modelo, TipoVehiculo.CAMION);
     }
     
 }
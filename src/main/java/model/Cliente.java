@@ -2,8 +2,6 @@ package model;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import interfaces.IMembresiaActiva;
 
 public class Cliente implements IMembresiaActiva {
@@ -120,20 +118,11 @@ public class Cliente implements IMembresiaActiva {
         }
 
         // Verificar si alguna de las membresías está activa
-        LocalDate fechaActual = LocalDate.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
+        // Una membresía sin fecha de fin tiene SIN_FECHA, que nunca es mayor que hoy
+        int hoy = FechasMembresia.hoy();
         for (Membresia membresia : membresias) {
-            if (membresia.getFechaFin() != null) {
-                try {
-                    LocalDate fechaFin = LocalDate.parse(membresia.getFechaFin(), formatter);
-                    if (fechaActual.isBefore(fechaFin) || fechaActual.isEqual(fechaFin)) {
-                        return true;
-                    }
-                } catch (Exception e) {
-                    // Si hay un error al parsear la fecha, continuamos con la siguiente membresía
-                    continue;
-                }
+            if (hoy <= membresia.getDiaFin()) {
+                return true;
             }
         }
 
@@ -0,0 +1,97 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversión entre las fechas de membresía guardadas como días desde 1970-01-01
+ * (epoch day) y su texto dd/MM/yyyy de la interfaz.
+ * <p>
+ * Las fechas se leen una sola vez al asignarlas; las verificaciones de vigencia
+ * comparan enteros. Una fecha vacía o ilegible se guarda como {@link #SIN_FECHA},
+ * que es menor que cualquier día, así que una membresía sin fecha de fin nunca
+ * queda vigente.
+ */
+public final class FechasMembresia {
+    /** Valor de un día sin fecha o con una fecha que no se pudo leer */
+    public static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private FechasMembresia() {
+    }
+
+    /**
+     * Convierte un texto dd/MM/yyyy (o yyyy-MM-dd) a día
+     * @param texto Fecha en texto
+     * @return El día o {@link #SIN_FECHA} si el texto es nulo o no es una fecha
+     */
+    public static int aDia(String texto) {
+        if (texto == null) {
+            return SIN_FECHA;
+        }
+        try {
+            return aDia(LocalDate.parse(texto, FORMATO));
+        } catch (DateTimeParseException e) {
+            try {
+                return aDia(LocalDate.parse(texto));
+            } catch (DateTimeParseException e2) {
+                return SIN_FECHA;
+            }
+        }
+    }
+
+    /**
+     * Convierte una fecha a día
+     * @param fecha La fecha
+     * @return El día o {@link #SIN_FECHA} si la fecha es nula
+     */
+    public static int aDia(LocalDate fecha) {
+        return fecha != null ? (int) fecha.toEpochDay() : SIN_FECHA;
+    }
+
+    /**
+     * Convierte un día a fecha
+     * @param dia El día
+     * @return La fecha o null si es {@link #SIN_FECHA}
+     */
+    public static LocalDate aFecha(int dia) {
+        return dia != SIN_FECHA ? LocalDate.ofEpochDay(dia) : null;
+    }
+
+    /**
+     * Convierte un día a texto dd/MM/yyyy
+     * @param dia El día
+     * @return El texto o null si es {@link #SIN_FECHA}
+     */
+    public static String aTexto(int dia) {
+        return dia != SIN_FECHA ? LocalDate.ofEpochDay(dia).format(FORMATO) : null;
+    }
+
+    /**
+     * Calcula la fecha de fin de una membresía que empieza en una fecha
+     * @param tipo Tipo de membresía
+     * @param inicio Fecha de inicio
+     * @return La fecha de fin o null si el tipo es nulo o NINGUNA
+     */
+    public static LocalDate calcularFin(TipoMembresia tipo, LocalDate inicio) {
+        if (tipo == null || inicio == null) {
+            return null;
+        }
+        switch (tipo) {
+            case MENSUAL: return inicio.plusMonths(1);
+            case TRIMESTRAL: return inicio.plusMonths(3);
+            case ANUAL: return inicio.plusYears(1);
+            default: return null;
+        }
+    }
+
+    /**
+     * Obtiene el día de hoy
+     * @return Día actual
+     */
+    public static int hoy() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+}
@@ -1,12 +1,10 @@
 package model;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-
 public class Membresia {
 
-    private String fechaInicio;
-    private String fechaFin;
+    // Días desde 1970-01-01; FechasMembresia.SIN_FECHA si no hay fecha
+    private int diaInicio = FechasMembresia.SIN_FECHA;
+    private int diaFin = FechasMembresia.SIN_FECHA;
     private int tarifa;
     private TipoMembresia tipo; // Nuevo atributo
 
@@ -15,25 +13,40 @@ public class Membresia {
 
     public Membresia(TipoMembresia tipo, String fechaInicio, String fechaFin, int tarifa) {
         this.tipo = tipo;
-        this.fechaInicio = fechaInicio;
-        this.fechaFin = fechaFin;
+        this.diaInicio = FechasMembresia.aDia(fechaInicio);
+        this.diaFin = FechasMembresia.aDia(fechaFin);
+        this.tarifa = tarifa;
+    }
+
+    public Membresia(TipoMembresia tipo, int diaInicio, int diaFin, int tarifa) {
+        this.tipo = tipo;
+        this.diaInicio = diaInicio;
+        this.diaFin = diaFin;
         this.tarifa = tarifa;
     }
 
     public String getFechaInicio() {
-        return fechaInicio;
+        return FechasMembresia.aTexto(diaInicio);
     }
 
     public void setFechaInicio(String fechaInicio) {
-        this.fechaInicio = fechaInicio;
+        this.diaInicio = FechasMembresia.aDia(fechaInicio);
     }
 
     public String getFechaFin() {
-        return fechaFin;
+        return FechasMembresia.aTexto(diaFin);
     }
 
     public void setFechaFin(String fechaFin) {
-        this.fechaFin = fechaFin;
+        this.diaFin = FechasMembresia.aDia(fechaFin);
+    }
+
+    public int getDiaInicio() {
+        return diaInicio;
+    }
+
+    public int getDiaFin() {
+        return diaFin;
     }
 
     public int getTarifa() {
@@ -56,20 +69,21 @@ public class Membresia {
     public String toString() {
         return "Membresía:\n" +
                 "Tipo: " + tipo + "\n" +
-                "Fecha Inicio: " + fechaInicio + "\n" +
-                "Fecha Fin: " + fechaFin + "\n" +
+                "Fecha Inicio: " + getFechaInicio() + "\n" +
+                "Fecha Fin: " + getFechaFin() + "\n" +
                 "Tarifa: $" + tarifa;
     }
 
     public boolean verificarVigencia() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        LocalDate hoy = LocalDate.now();
-        try {
-            LocalDate inicio = LocalDate.parse(fechaInicio, formatter);
-            LocalDate fin = LocalDate.parse(fechaFin, formatter);
-            return (hoy.isEqual(inicio) || hoy.isAfter(inicio)) && (hoy.isBefore(fin) || hoy.isEqual(fin));
-        } catch (Exception e) {
-            return false;
-        }
+        return vigenteEn(FechasMembresia.hoy());
+    }
+
+    /**
+     * Verifica si la membresía cubre un día
+     * @param dia Día a verificar, en días desde 1970-01-01
+     * @return true si el día está entre la fecha de inicio y la de fin
+     */
+    public boolean vigenteEn(int dia) {
+        return diaInicio != FechasMembresia.SIN_FECHA && diaInicio <= dia && dia <= diaFin;
     }
 }
\ No newline at end of file
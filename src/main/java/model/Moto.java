@@ -3,7 +3,7 @@ package model;
 public class Moto extends Vehiculo{
 
     public Moto(String placa, String color, String modelo) {
-        super(placa, color, modelo);
+        super(placa, color, modelo, TipoVehiculo.MOTO);
     }
 
 }
@@ -1,6 +1,7 @@
 package model;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.UUID;
 
 public class Pago {
@@ -11,6 +12,7 @@ public class Pago {
     private Vehiculo vehiculo;
     private Cliente cliente;
     private String tipoVehiculo;  // "Automóvil", "Moto", "Camión"
+    private TipoVehiculo tipo;  // null si el tipo no se reconoce
 
     /**
      * Constructor para pagos de estacionamiento
@@ -22,6 +24,7 @@ public class Pago {
         this.concepto = "Estacionamiento";
         this.vehiculo = vehiculo;
         this.tipoVehiculo = tipoVehiculo;
+        this.tipo = TipoVehiculo.deNombre(tipoVehiculo);
     }
 
     /**
@@ -34,18 +37,23 @@ public class Pago {
         this.concepto = "Membresía " + tipoMembresia.toString();
         this.vehiculo = vehiculo;
         this.cliente = cliente;
-        this.tipoVehiculo = determinarTipoVehiculo(vehiculo);
+        this.tipo = vehiculo != null ? vehiculo.getTipo() : null;
+        this.tipoVehiculo = tipo != null ? tipo.getNombre() : "Desconocido";
     }
 
-    private String determinarTipoVehiculo(Vehiculo vehiculo) {
-        if (vehiculo instanceof Automovil) {
-            return "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            return "Moto";
-        } else if (vehiculo instanceof Camion) {
-            return "Camión";
-        }
-        return "Desconocido";
+    /**
+     * Constructor para reconstruir un pago registrado previamente
+     */
+    public Pago(String id, double monto, LocalDateTime fechaHora, String concepto,
+                Vehiculo vehiculo, Cliente cliente, String tipoVehiculo) {
+        this.id = id;
+        this.monto = monto;
+        this.fechaHora = fechaHora;
+        this.concepto = concepto;
+        this.vehiculo = vehiculo;
+        this.cliente = cliente;
+        this.tipoVehiculo = tipoVehiculo;
+        this.tipo = TipoVehiculo.deNombre(tipoVehiculo);
     }
 
     // Getters y setters
@@ -85,6 +93,29 @@ public class Pago {
         return tipoVehiculo;
     }
 
+    /**
+     * Obtiene el tipo de vehículo del pago
+     * @return El tipo o null si no se reconoce
+     */
+    public TipoVehiculo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Dos pagos son iguales si tienen el mismo ID
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Pago)) return false;
+        return Objects.equals(id, ((Pago) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return "Pago{" +
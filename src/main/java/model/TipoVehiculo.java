@@ -0,0 +1,54 @@
+package model;
+
+/**
+ * Tipo de vehículo que admite el parqueadero.
+ * <p>
+ * El ordinal es el código de tipo con el que se indexan los contadores de
+ * ocupación, las tarifas y las columnas del libro de pagos (0=Automóvil,
+ * 1=Moto, 2=Camión), así que no se debe cambiar el orden de las constantes.
+ */
+public enum TipoVehiculo {
+    AUTOMOVIL("Automóvil"), MOTO("Moto"), CAMION("Camión");
+
+    private static final TipoVehiculo[] VALORES = values();
+
+    private final String nombre;
+
+    TipoVehiculo(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Obtiene el nombre que se muestra del tipo
+     * @return "Automóvil", "Moto" o "Camión"
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el tipo de un código
+     * @param codigo 0=Automóvil, 1=Moto, 2=Camión
+     * @return El tipo o null si el código no es válido
+     */
+    public static TipoVehiculo deCodigo(int codigo) {
+        return codigo >= 0 && codigo < VALORES.length ? VALORES[codigo] : null;
+    }
+
+    /**
+     * Obtiene el tipo a partir del nombre que se muestra
+     * @param nombre "Automóvil", "Moto" o "Camión"
+     * @return El tipo o null si el nombre no se reconoce
+     */
+    public static TipoVehiculo deNombre(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        switch (nombre) {
+            case "Automóvil": return AUTOMOVIL;
+            case "Moto": return MOTO;
+            case "Camión": return CAMION;
+            default: return null;
+        }
+    }
+}
@@ -4,15 +4,30 @@ public class Vehiculo {
     public String placa;
     public String color;
     public String modelo;
-    private TipoMembresia membresia;
-    private String fechaFinMembresia;
-    private String fechaInicioMembresia;
+    private final TipoVehiculo tipo; // null en vehículos genéricos
+    private volatile TipoMembresia membresia; // La cambia también el vigilante de vencimientos
+    // Días desde 1970-01-01; FechasMembresia.SIN_FECHA si no hay fecha. Volátiles como
+    // la membresía, porque el vigilante y las porterías las leen desde otros hilos
+    private volatile int diaFinMembresia = FechasMembresia.SIN_FECHA;
+    private volatile int diaInicioMembresia = FechasMembresia.SIN_FECHA;
 
     public Vehiculo(String placa, String color, String modelo) {
+        this(placa, color, modelo, null);
+    }
+
+    protected Vehiculo(String placa, String color, String modelo, TipoVehiculo tipo) {
         this.placa = placa;
         this.color = color;
         this.modelo = modelo;
+        this.tipo = tipo;
+    }
 
+    /**
+     * Obtiene el tipo del vehículo
+     * @return El tipo o null si es un vehículo genérico
+     */
+    public TipoVehiculo getTipo() {
+        return tipo;
     }
 
     public String getPlaca() {
@@ -48,18 +63,43 @@ public class Vehiculo {
     }
 
     public String getFechaFinMembresia() {
-        return fechaFinMembresia;
+        return FechasMembresia.aTexto(diaFinMembresia);
     }
 
     public void setFechaFinMembresia(String fechaFinMembresia) {
-        this.fechaFinMembresia = fechaFinMembresia;
+        this.diaFinMembresia = FechasMembresia.aDia(fechaFinMembresia);
     }
 
     public String getFechaInicioMembresia() {
-        return fechaInicioMembresia;
+        return FechasMembresia.aTexto(diaInicioMembresia);
     }
 
     public void setFechaInicioMembresia(String fechaInicoMembresia) {
-        this.fechaInicioMembresia = fechaInicoMembresia;
+        this.diaInicioMembresia = FechasMembresia.aDia(fechaInicoMembresia);
+    }
+
+    public int getDiaFinMembresia() {
+        return diaFinMembresia;
+    }
+
+    public void setDiaFinMembresia(int diaFinMembresia) {
+        this.diaFinMembresia = diaFinMembresia;
+    }
+
+    public int getDiaInicioMembresia() {
+        return diaInicioMembresia;
+    }
+
+    public void setDiaInicioMembresia(int diaInicioMembresia) {
+        this.diaInicioMembresia = diaInicioMembresia;
+    }
+
+    /**
+     * Verifica si la membresía del vehículo cubre un día
+     * @param dia Día a verificar, en días desde 1970-01-01
+     * @return true si tiene membresía y el día no pasa de la fecha de fin
+     */
+    public boolean membresiaVigenteEn(int dia) {
+        return membresia != null && membresia != TipoMembresia.NINGUNA && dia <= diaFinMembresia;
     }
-}
\ No newline at end of file
+}
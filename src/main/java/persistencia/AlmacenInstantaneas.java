@@ -0,0 +1,175 @@
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Almacén de instantáneas del estado del parqueadero.
+ * <p>
+ * Cada instantánea es un archivo {@code instantanea-<secuencia>.snap} con el
+ * estado completo después de aplicar el evento con esa secuencia. Se escribe
+ * primero en un archivo temporal y se renombra al terminar, así que una caída
+ * nunca deja una instantánea a medias con el nombre definitivo. Al final del
+ * archivo va un CRC32 de todo el contenido.
+ * <p>
+ * Al arrancar se carga la instantánea más reciente y solo se reproducen los
+ * eventos de la bitácora posteriores a su secuencia.
+ */
+public class AlmacenInstantaneas {
+    static final String PREFIJO = "instantanea-";
+    static final String EXTENSION = ".snap";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+    private static final int MAGIA = 0x50514931; // "PQI1"
+
+    private final Path directorio;
+
+    /**
+     * Escribe el estado en una instantánea
+     */
+    @FunctionalInterface
+    public interface EscritorEstado {
+        void escribir(DataOutput salida) throws IOException;
+    }
+
+    /**
+     * Lee el estado desde una instantánea
+     */
+    @FunctionalInterface
+    public interface LectorEstado {
+        void leer(DataInput entrada) throws IOException;
+    }
+
+    /**
+     * Crea el almacén en un directorio
+     * @param directorio Directorio donde se guardan las instantáneas
+     * @throws IOException si no se puede crear el directorio
+     */
+    public AlmacenInstantaneas(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        this.directorio = directorio;
+    }
+
+    /**
+     * Guarda una instantánea y borra las anteriores
+     * @param secuencia Secuencia del último evento incluido en el estado
+     * @param escritor Escribe el contenido del estado
+     * @return Archivo de la instantánea guardada
+     * @throws IOException si no se puede escribir
+     */
+    public Path guardar(long secuencia, EscritorEstado escritor) throws IOException {
+        Path destino = directorio.resolve(nombreInstantanea(secuencia));
+        Path temporal = directorio.resolve(destino.getFileName() + EXTENSION_TEMPORAL);
+        try (FileOutputStream archivo = new FileOutputStream(temporal.toFile())) {
+            CheckedOutputStream verificado = new CheckedOutputStream(archivo, new CRC32());
+            DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(verificado, 1 << 16));
+            salida.writeInt(MAGIA);
+            salida.writeLong(secuencia);
+            escritor.escribir(salida);
+            salida.flush();
+            // El CRC se escribe fuera del flujo verificado
+            new DataOutputStream(archivo).writeInt((int) verificado.getChecksum().getValue());
+            archivo.getChannel().force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path anterior : listar()) {
+            if (!anterior.equals(destino)) {
+                Files.deleteIfExists(anterior);
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * Carga la instantánea válida más reciente.
+     * Una instantánea corrupta se ignora y se intenta con la anterior.
+     * @param lector Lee el contenido del estado
+     * @return Secuencia de la instantánea cargada, 0 si no hay ninguna válida
+     * @throws IOException si el lector falla al leer una instantánea válida
+     */
+    public long cargarUltima(LectorEstado lector) throws IOException {
+        List<Path> instantaneas = listar();
+        for (int i = instantaneas.size() - 1; i >= 0; i--) {
+            Path archivo = instantaneas.get(i);
+            if (!esValida(archivo)) {
+                continue;
+            }
+            try (DataInputStream entrada = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+                entrada.readInt();
+                long secuencia = entrada.readLong();
+                lector.leer(entrada);
+                return secuencia;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Obtiene las instantáneas guardadas, de la más antigua a la más reciente
+     * @return Lista de archivos
+     * @throws IOException si no se puede leer el directorio
+     */
+    public List<Path> listar() throws IOException {
+        List<Path> archivos = new ArrayList<>();
+        try (DirectoryStream<Path> encontrados = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path archivo : encontrados) {
+                archivos.add(archivo);
+            }
+        }
+        // El número tiene ancho fijo, así que el orden alfabético es el numérico
+        archivos.sort(null);
+        return archivos;
+    }
+
+    private static boolean esValida(Path archivo) throws IOException {
+        long tamano = Files.size(archivo);
+        if (tamano < 16) {
+            return false;
+        }
+        try (InputStream flujo = new BufferedInputStream(Files.newInputStream(archivo), 1 << 16)) {
+            CheckedInputStream verificado = new CheckedInputStream(flujo, new CRC32());
+            DataInputStream entrada = new DataInputStream(verificado);
+            if (entrada.readInt() != MAGIA) {
+                return false;
+            }
+            long restantes = tamano - 8;
+            byte[] bloque = new byte[8192];
+            while (restantes > 0) {
+                int leidos = entrada.read(bloque, 0, (int) Math.min(bloque.length, restantes));
+                if (leidos < 0) {
+                    return false;
+                }
+                restantes -= leidos;
+            }
+            int calculado = (int) verificado.getChecksum().getValue();
+            return new DataInputStream(flujo).readInt() == calculado;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    static String nombreInstantanea(long secuencia) {
+        return String.format("%s%020d%s", PREFIJO, secuencia, EXTENSION);
+    }
+}
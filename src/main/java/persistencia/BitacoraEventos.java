@@ -0,0 +1,541 @@
+package persistencia;
+
+import eventos.EventoParqueadero;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora de eventos del parqueadero (write-ahead log).
+ * <p>
+ * Los eventos se agregan al final de un archivo binario y nunca se modifican.
+ * Un único hilo escritor toma todos los eventos pendientes, los escribe juntos
+ * y hace un solo {@code force} por lote (group commit), de modo que muchas
+ * porterías comparten el costo de cada sincronización con el disco.
+ * <p>
+ * La bitácora se divide en segmentos {@code bitacora-<secuencia>.log}, donde la
+ * secuencia es la del primer evento del segmento. Cuando el segmento activo
+ * supera su tamaño máximo se abre uno nuevo; los segmentos anteriores a una
+ * instantánea se pueden borrar con {@link #compactarHasta(long)}.
+ * <p>
+ * Cada registro tiene la forma {@code [largo][secuencia][tipo][contenido][crc32]}.
+ * Al abrir la bitácora se descarta cualquier registro incompleto o corrupto al
+ * final del último segmento, que es lo que deja una caída a mitad de una escritura.
+ * <p>
+ * La cola de eventos pendientes es acotada: si el disco no da abasto, quien
+ * registra espera a que el escritor libere espacio en lugar de acumular
+ * eventos en memoria sin límite.
+ */
+public class BitacoraEventos implements AutoCloseable {
+    static final String PREFIJO_SEGMENTO = "bitacora-";
+    static final String EXTENSION_SEGMENTO = ".log";
+    public static final long TAMANO_SEGMENTO_PREDETERMINADO = 64L * 1024 * 1024;
+    private static final int MAGIA = 0x50514231; // "PQB1"
+    private static final int TAMANO_CABECERA = 4;
+    private static final int MAXIMO_LOTE = 1024;
+    private static final int MAXIMO_PENDIENTES = 64 * MAXIMO_LOTE;
+    // largo(4) + secuencia(8) + tipo(1) + crc(4)
+    private static final int TAMANO_MARCO = 17;
+
+    private final Path directorio;
+    private final long tamanoMaximoSegmento;
+    private final BlockingQueue<Pendiente> pendientes = new ArrayBlockingQueue<>(MAXIMO_PENDIENTES);
+    private final Thread escritor;
+    private final AtomicBoolean cerrando = new AtomicBoolean();
+    // Segmentos en orden; el último es el activo. Protegidos por el monitor de la lista
+    private final List<Segmento> segmentos = new ArrayList<>();
+    private FileChannel canal;
+    private volatile boolean cerrada;
+    private volatile IOException falla;
+    private volatile long ultimaSecuencia;
+    private long posicionConfirmada;
+
+    /**
+     * Abre (o crea) la bitácora en un directorio con el tamaño de segmento predeterminado
+     * @param directorio Directorio donde se guarda la bitácora
+     * @throws IOException si no se puede abrir o crear el archivo
+     */
+    public BitacoraEventos(Path directorio) throws IOException {
+        this(directorio, TAMANO_SEGMENTO_PREDETERMINADO);
+    }
+
+    /**
+     * Abre (o crea) la bitácora en un directorio
+     * @param directorio Directorio donde se guarda la bitácora
+     * @param tamanoMaximoSegmento Bytes a partir de los cuales se abre un segmento nuevo
+     * @throws IOException si no se puede abrir o crear el archivo
+     */
+    public BitacoraEventos(Path directorio, long tamanoMaximoSegmento) throws IOException {
+        Files.createDirectories(directorio);
+        this.directorio = directorio;
+        this.tamanoMaximoSegmento = tamanoMaximoSegmento;
+        segmentos.addAll(buscarSegmentos(directorio));
+
+        if (segmentos.isEmpty()) {
+            abrirSegmento(1);
+        } else {
+            // Recorrer el último segmento para encontrar el final válido
+            Segmento activo = segmentos.get(segmentos.size() - 1);
+            canal = FileChannel.open(activo.archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (canal.size() < TAMANO_CABECERA) {
+                escribirCabecera();
+                ultimaSecuencia = activo.primeraSecuencia - 1;
+            } else {
+                long[] resultado = recorrer(activo.archivo, Long.MAX_VALUE, 0, null);
+                posicionConfirmada = resultado[0];
+                ultimaSecuencia = resultado[1] > 0 ? resultado[1] : activo.primeraSecuencia - 1;
+                if (canal.size() > posicionConfirmada) {
+                    canal.truncate(posicionConfirmada);
+                    canal.force(true);
+                }
+            }
+        }
+        canal.position(posicionConfirmada);
+
+        escritor = new Thread(this::escribirLotes, "bitacora-eventos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola un evento para escribirlo en la bitácora.
+     * No espera al disco: la confirmación se completa con la secuencia del
+     * evento cuando el lote que lo contiene quedó sincronizado.
+     * @param evento El evento a registrar
+     * @return Confirmación que se completa al quedar el evento en disco
+     */
+    public CompletableFuture<Long> registrar(EventoParqueadero evento) {
+        return encolar(new Pendiente(CodificadorEventos.tipoDe(evento), CodificadorEventos.codificar(evento)));
+    }
+
+    /**
+     * Registra un evento y espera a que quede en disco
+     * @param evento El evento a registrar
+     * @return Secuencia asignada al evento
+     */
+    public long registrarYEsperar(EventoParqueadero evento) {
+        return esperar(registrar(evento));
+    }
+
+    /**
+     * Espera la confirmación de un evento encolado
+     * @param confirmacion Confirmación devuelta por {@link #registrar}
+     * @return Secuencia asignada al evento
+     * @throws IllegalStateException si el evento no se pudo escribir
+     */
+    public static long esperar(CompletableFuture<Long> confirmacion) {
+        try {
+            return confirmacion.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("No se pudo escribir en la bitácora de eventos", e.getCause());
+        }
+    }
+
+    /**
+     * Lee en orden todos los eventos confirmados de la bitácora
+     * @param consumidor Recibe cada evento
+     * @return Cantidad de eventos leídos
+     * @throws IOException si no se puede leer el archivo
+     */
+    public long reproducir(Consumer<EventoParqueadero> consumidor) throws IOException {
+        return reproducir(0, consumidor);
+    }
+
+    /**
+     * Lee en orden los eventos confirmados posteriores a una secuencia.
+     * Los segmentos que solo contienen eventos anteriores no se abren.
+     * @param desdeSecuencia Secuencia ya aplicada (por ejemplo, la de una instantánea)
+     * @param consumidor Recibe cada evento
+     * @return Cantidad de eventos leídos
+     * @throws IOException si no se puede leer el archivo
+     */
+    public long reproducir(long desdeSecuencia, Consumer<EventoParqueadero> consumidor) throws IOException {
+        List<Segmento> copia;
+        long limiteActivo;
+        synchronized (segmentos) {
+            copia = new ArrayList<>(segmentos);
+            limiteActivo = posicionConfirmada;
+        }
+        long[] contador = new long[1];
+        for (int i = 0; i < copia.size(); i++) {
+            boolean esActivo = i == copia.size() - 1;
+            if (!esActivo && copia.get(i + 1).primeraSecuencia <= desdeSecuencia + 1) {
+                continue;
+            }
+            recorrer(copia.get(i).archivo, esActivo ? limiteActivo : Long.MAX_VALUE, desdeSecuencia, evento -> {
+                contador[0]++;
+                consumidor.accept(evento);
+            });
+        }
+        return contador[0];
+    }
+
+    /**
+     * Cierra el segmento activo y abre uno nuevo, si el activo tiene eventos.
+     * La rotación se atiende después de escribir todo lo encolado antes, así
+     * que al volver esos eventos ya están en disco y confirmados
+     * @return Secuencia del último evento del segmento cerrado
+     * @throws IllegalStateException si la bitácora está cerrada o falló
+     */
+    public long rotar() {
+        return esperar(encolar(new Pendiente(Pendiente.ROTAR, new byte[0])));
+    }
+
+    /**
+     * Borra los segmentos cuyos eventos son todos anteriores o iguales a una
+     * secuencia. El segmento activo nunca se borra.
+     * @param secuencia Secuencia cubierta por una instantánea guardada
+     * @return Cantidad de segmentos borrados
+     * @throws IOException si no se puede borrar un segmento
+     */
+    public int compactarHasta(long secuencia) throws IOException {
+        List<Segmento> borrables = new ArrayList<>();
+        synchronized (segmentos) {
+            while (segmentos.size() > 1 && segmentos.get(1).primeraSecuencia - 1 <= secuencia) {
+                borrables.add(segmentos.remove(0));
+            }
+        }
+        for (Segmento segmento : borrables) {
+            Files.deleteIfExists(segmento.archivo);
+        }
+        return borrables.size();
+    }
+
+    /**
+     * Obtiene la secuencia del último evento escrito
+     * @return Secuencia del último evento, 0 si la bitácora está vacía
+     */
+    public long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    /**
+     * Obtiene los archivos de los segmentos actuales, del más antiguo al activo
+     * @return Lista de archivos
+     */
+    public List<Path> getSegmentos() {
+        List<Path> archivos = new ArrayList<>();
+        synchronized (segmentos) {
+            for (Segmento segmento : segmentos) {
+                archivos.add(segmento.archivo);
+            }
+        }
+        return archivos;
+    }
+
+    /**
+     * Cierra la bitácora esperando a que se escriban los eventos pendientes.
+     * Llamarlo más de una vez no tiene efecto
+     */
+    @Override
+    public void close() throws IOException {
+        if (!cerrando.compareAndSet(false, true)) {
+            return;
+        }
+        cerrada = true;
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                pendientes.put(Pendiente.FIN);
+                break;
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        while (true) {
+            try {
+                escritor.join();
+                break;
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        // Eventos que llegaron después del cierre
+        Pendiente tardio;
+        while ((tardio = pendientes.poll()) != null) {
+            rechazarCerrada(tardio);
+        }
+        canal.close();
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Long> encolar(Pendiente pendiente) {
+        if (cerrada || falla != null) {
+            pendiente.confirmacion.completeExceptionally(
+                    falla != null ? falla : new IOException("La bitácora está cerrada"));
+            return pendiente.confirmacion;
+        }
+        try {
+            // Si la cola está llena se espera al escritor: es la contrapresión sobre el disco
+            pendientes.put(pendiente);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendiente.confirmacion.completeExceptionally(new IOException("Registro interrumpido", e));
+            return pendiente.confirmacion;
+        }
+        // Si close() vació la cola antes de que el evento entrara, nadie lo atendería:
+        // se retira aquí. Si ya no está, el escritor o close() se encargan de él
+        if (cerrada && pendientes.remove(pendiente)) {
+            rechazarCerrada(pendiente);
+        }
+        return pendiente.confirmacion;
+    }
+
+    private static void rechazarCerrada(Pendiente pendiente) {
+        pendiente.confirmacion.completeExceptionally(new IOException("La bitácora está cerrada"));
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> recibidos = new ArrayList<>();
+        List<Pendiente> lote = new ArrayList<>();
+        boolean terminar = false;
+        while (!terminar) {
+            try {
+                recibidos.add(pendientes.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            pendientes.drainTo(recibidos, MAXIMO_LOTE - 1);
+            for (Pendiente pendiente : recibidos) {
+                if (pendiente.tipo > 0) {
+                    lote.add(pendiente);
+                    continue;
+                }
+                // Las marcas de control se atienden después de escribir lo anterior
+                escribirLote(lote);
+                if (pendiente == Pendiente.FIN) {
+                    terminar = true;
+                } else {
+                    rotarSegmento(pendiente);
+                }
+            }
+            escribirLote(lote);
+            recibidos.clear();
+            if (!terminar && falla == null && posicionConfirmada >= tamanoMaximoSegmento) {
+                rotarSegmento(null);
+            }
+        }
+    }
+
+    private void escribirLote(List<Pendiente> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        if (falla != null) {
+            for (Pendiente pendiente : lote) {
+                pendiente.confirmacion.completeExceptionally(falla);
+            }
+            lote.clear();
+            return;
+        }
+        int tamano = 0;
+        for (Pendiente pendiente : lote) {
+            tamano += TAMANO_MARCO + pendiente.datos.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamano);
+        long secuencia = ultimaSecuencia;
+        CRC32 crc = new CRC32();
+        for (Pendiente pendiente : lote) {
+            pendiente.secuencia = ++secuencia;
+            int inicio = buffer.position() + 4;
+            buffer.putInt(9 + pendiente.datos.length);
+            buffer.putLong(pendiente.secuencia);
+            buffer.put(pendiente.tipo);
+            buffer.put(pendiente.datos);
+            crc.reset();
+            crc.update(buffer.array(), inicio, buffer.position() - inicio);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            // Después de una falla de escritura no se aceptan más eventos
+            falla = e;
+            for (Pendiente pendiente : lote) {
+                pendiente.confirmacion.completeExceptionally(e);
+            }
+            lote.clear();
+            return;
+        }
+        ultimaSecuencia = secuencia;
+        synchronized (segmentos) {
+            posicionConfirmada += tamano;
+        }
+        for (Pendiente pendiente : lote) {
+            pendiente.confirmacion.complete(pendiente.secuencia);
+        }
+        lote.clear();
+    }
+
+    /**
+     * Cierra el segmento activo y abre el siguiente. Solo lo llama el hilo escritor.
+     * @param solicitud Marca de rotación a confirmar, o null si la rotación es automática
+     */
+    private void rotarSegmento(Pendiente solicitud) {
+        try {
+            if (falla != null) {
+                throw falla;
+            }
+            if (posicionConfirmada > TAMANO_CABECERA) {
+                canal.close();
+                abrirSegmento(ultimaSecuencia + 1);
+            }
+            if (solicitud != null) {
+                solicitud.confirmacion.complete(ultimaSecuencia);
+            }
+        } catch (IOException e) {
+            falla = e;
+            if (solicitud != null) {
+                solicitud.confirmacion.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void abrirSegmento(long primeraSecuencia) throws IOException {
+        Path archivo = directorio.resolve(nombreSegmento(primeraSecuencia));
+        FileChannel nuevo = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        synchronized (segmentos) {
+            canal = nuevo;
+            segmentos.add(new Segmento(primeraSecuencia, archivo));
+            escribirCabecera();
+        }
+    }
+
+    private void escribirCabecera() throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA).putInt(MAGIA).flip();
+        canal.truncate(0);
+        canal.write(cabecera, 0);
+        canal.force(true);
+        canal.position(TAMANO_CABECERA);
+        posicionConfirmada = TAMANO_CABECERA;
+    }
+
+    static String nombreSegmento(long primeraSecuencia) {
+        return String.format("%s%020d%s", PREFIJO_SEGMENTO, primeraSecuencia, EXTENSION_SEGMENTO);
+    }
+
+    private static List<Segmento> buscarSegmentos(Path directorio) throws IOException {
+        List<Segmento> encontrados = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio,
+                PREFIJO_SEGMENTO + "*" + EXTENSION_SEGMENTO)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                try {
+                    long primera = Long.parseLong(nombre.substring(PREFIJO_SEGMENTO.length(),
+                            nombre.length() - EXTENSION_SEGMENTO.length()));
+                    encontrados.add(new Segmento(primera, archivo));
+                } catch (NumberFormatException e) {
+                    // No es un segmento de la bitácora
+                }
+            }
+        }
+        encontrados.sort((a, b) -> Long.compare(a.primeraSecuencia, b.primeraSecuencia));
+        return encontrados;
+    }
+
+    /**
+     * Recorre los registros válidos de un segmento
+     * @param archivo Segmento a recorrer
+     * @param limite Posición máxima a leer
+     * @param desdeSecuencia Los eventos con secuencia menor o igual no se decodifican
+     * @param consumidor Recibe cada evento, puede ser null para solo validar
+     * @return Posición final válida y última secuencia leída
+     */
+    private static long[] recorrer(Path archivo, long limite, long desdeSecuencia,
+                                   Consumer<EventoParqueadero> consumidor) throws IOException {
+        long posicion = TAMANO_CABECERA;
+        long secuencia = 0;
+        // Un largo mayor que lo que queda del archivo es basura de una escritura interrumpida
+        long fin = Math.min(limite, Files.size(archivo));
+        try (InputStream flujo = new BufferedInputStream(Files.newInputStream(archivo), 1 << 16);
+             DataInputStream entrada = new DataInputStream(flujo)) {
+            if (entrada.readInt() != MAGIA) {
+                throw new IOException("El archivo no es una bitácora de eventos: " + archivo);
+            }
+            CRC32 crc = new CRC32();
+            while (posicion < fin) {
+                int largo;
+                byte[] registro;
+                int crcGuardado;
+                try {
+                    largo = entrada.readInt();
+                    if (largo < 9 || largo > fin - posicion - 8) {
+                        break;
+                    }
+                    registro = new byte[largo];
+                    entrada.readFully(registro);
+                    crcGuardado = entrada.readInt();
+                } catch (EOFException e) {
+                    // Registro incompleto al final: escritura interrumpida
+                    break;
+                }
+                crc.reset();
+                crc.update(registro);
+                if ((int) crc.getValue() != crcGuardado) {
+                    break;
+                }
+                ByteBuffer datos = ByteBuffer.wrap(registro);
+                secuencia = datos.getLong();
+                byte tipo = datos.get();
+                if (consumidor != null && secuencia > desdeSecuencia) {
+                    DataInputStream contenido = new DataInputStream(
+                            new ByteArrayInputStream(registro, 9, largo - 9));
+                    consumidor.accept(CodificadorEventos.leer(tipo, contenido));
+                }
+                posicion += 8L + largo;
+            }
+        }
+        return new long[] { posicion, secuencia };
+    }
+
+    /**
+     * Archivo de un segmento y secuencia de su primer evento
+     */
+    private record Segmento(long primeraSecuencia, Path archivo) {
+    }
+
+    /**
+     * Evento codificado a la espera de ser escrito, o una marca de control
+     * (tipo 0 para terminar, -1 para rotar el segmento)
+     */
+    private static final class Pendiente {
+        static final byte ROTAR = -1;
+        static final Pendiente FIN = new Pendiente((byte) 0, new byte[0]);
+
+        final byte tipo;
+        final byte[] datos;
+        final CompletableFuture<Long> confirmacion = new CompletableFuture<>();
+        long secuencia;
+
+        Pendiente(byte tipo, byte[] datos) {
+            this.tipo = tipo;
+            this.datos = datos;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package persistencia;
+
+import eventos.ClienteActualizado;
+import eventos.ClienteEliminado;
+import eventos.ClienteRegistrado;
+import eventos.EventoParqueadero;
+import eventos.MembresiaCancelada;
+import eventos.MembresiaVencida;
+import eventos.MembresiaRegistrada;
+import eventos.PagoRegistrado;
+import eventos.SalidaCobrada;
+import eventos.VehiculoActualizado;
+import eventos.VehiculoAsignado;
+import eventos.VehiculoDesvinculado;
+import eventos.VehiculoEliminado;
+import eventos.VehiculoIngresado;
+import eventos.VehiculoRegistrado;
+import eventos.VehiculoSalio;
+import model.TipoMembresia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Convierte los eventos del parqueadero a su forma binaria y viceversa.
+ * Las fechas se guardan como números (segundos y días desde 1970) y los
+ * textos con {@link DataOutput#writeUTF}, precedidos de una marca de nulo.
+ */
+public final class CodificadorEventos {
+    static final byte CLIENTE_REGISTRADO = 1;
+    static final byte VEHICULO_REGISTRADO = 2;
+    static final byte VEHICULO_INGRESADO = 3;
+    static final byte VEHICULO_SALIO = 4;
+    static final byte PAGO_REGISTRADO = 5;
+    static final byte MEMBRESIA_REGISTRADA = 6;
+    static final byte MEMBRESIA_CANCELADA = 7;
+    static final byte CLIENTE_ACTUALIZADO = 8;
+    static final byte CLIENTE_ELIMINADO = 9;
+    static final byte VEHICULO_ACTUALIZADO = 10;
+    static final byte VEHICULO_ELIMINADO = 11;
+    static final byte VEHICULO_ASIGNADO = 12;
+    static final byte VEHICULO_DESVINCULADO = 13;
+    static final byte MEMBRESIA_VENCIDA = 14;
+    static final byte SALIDA_COBRADA = 15;
+    // Un vehículo con tipo lleva el tipo antes de los datos; los genéricos se guardan como antes
+    static final byte VEHICULO_CON_TIPO_REGISTRADO = 16;
+
+    private static final TipoMembresia[] TIPOS_MEMBRESIA = TipoMembresia.values();
+
+    private CodificadorEventos() {
+    }
+
+    /**
+     * Obtiene el código de tipo con el que se guarda un evento
+     * @param evento El evento
+     * @return Código de un byte
+     */
+    public static byte tipoDe(EventoParqueadero evento) {
+        return switch (evento) {
+            case ClienteRegistrado e -> CLIENTE_REGISTRADO;
+            case VehiculoRegistrado e -> e.tipoVehiculo() < 0 ? VEHICULO_REGISTRADO : VEHICULO_CON_TIPO_REGISTRADO;
+            case VehiculoIngresado e -> VEHICULO_INGRESADO;
+            case VehiculoSalio e -> VEHICULO_SALIO;
+            case PagoRegistrado e -> PAGO_REGISTRADO;
+            case MembresiaRegistrada e -> MEMBRESIA_REGISTRADA;
+            case MembresiaCancelada e -> MEMBRESIA_CANCELADA;
+            case ClienteActualizado e -> CLIENTE_ACTUALIZADO;
+            case ClienteEliminado e -> CLIENTE_ELIMINADO;
+            case VehiculoActualizado e -> VEHICULO_ACTUALIZADO;
+            case VehiculoEliminado e -> VEHICULO_ELIMINADO;
+            case VehiculoAsignado e -> VEHICULO_ASIGNADO;
+            case VehiculoDesvinculado e -> VEHICULO_DESVINCULADO;
+            case MembresiaVencida e -> MEMBRESIA_VENCIDA;
+            case SalidaCobrada e -> SALIDA_COBRADA;
+        };
+    }
+
+    /**
+     * Codifica el contenido de un evento (sin el código de tipo)
+     * @param evento El evento a codificar
+     * @return Bytes del contenido
+     */
+    public static byte[] codificar(EventoParqueadero evento) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        try {
+            escribir(evento, salida);
+        } catch (IOException e) {
+            // Escribir en memoria no falla
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Escribe el contenido de un evento en una salida binaria
+     * @param evento El evento a escribir
+     * @param salida Destino
+     * @throws IOException si la salida falla
+     */
+    public static void escribir(EventoParqueadero evento, DataOutput salida) throws IOException {
+        switch (evento) {
+            case ClienteRegistrado e -> {
+                escribirTexto(salida, e.nombre());
+                escribirTexto(salida, e.cedula());
+                escribirTexto(salida, e.telefono());
+                escribirTexto(salida, e.correo());
+            }
+            case VehiculoRegistrado e -> {
+                if (e.tipoVehiculo() >= 0) {
+                    salida.writeByte(e.tipoVehiculo());
+                }
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.color());
+                escribirTexto(salida, e.modelo());
+                escribirTexto(salida, e.cedulaPropietario());
+            }
+            case VehiculoIngresado e -> {
+                salida.writeByte(e.tipoVehiculo());
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.color());
+                escribirTexto(salida, e.modelo());
+                escribirFechaHora(salida, e.horaEntrada());
+                salida.writeInt(e.puesto());
+            }
+            case VehiculoSalio e -> {
+                escribirTexto(salida, e.placa());
+                escribirFechaHora(salida, e.horaSalida());
+            }
+            case PagoRegistrado e -> {
+                escribirTexto(salida, e.id());
+                salida.writeDouble(e.monto());
+                escribirFechaHora(salida, e.fechaHora());
+                escribirTexto(salida, e.concepto());
+                escribirTexto(salida, e.tipoVehiculo());
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.cedulaCliente());
+            }
+            case MembresiaRegistrada e -> {
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.cedulaCliente());
+                salida.writeByte(e.tipo().ordinal());
+                escribirFecha(salida, e.fechaInicio());
+                escribirFecha(salida, e.fechaFin());
+                salida.writeInt(e.tarifa());
+            }
+            case MembresiaCancelada e -> escribirTexto(salida, e.placa());
+            case ClienteActualizado e -> {
+                escribirTexto(salida, e.cedula());
+                salida.writeByte(e.campo());
+                escribirTexto(salida, e.nuevoValor());
+            }
+            case ClienteEliminado e -> escribirTexto(salida, e.cedula());
+            case VehiculoActualizado e -> {
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.nuevaPlaca());
+                escribirTexto(salida, e.nuevoColor());
+                escribirTexto(salida, e.nuevoModelo());
+            }
+            case VehiculoEliminado e -> escribirTexto(salida, e.placa());
+            case VehiculoAsignado e -> {
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.cedulaCliente());
+            }
+            case VehiculoDesvinculado e -> {
+                escribirTexto(salida, e.placa());
+                escribirTexto(salida, e.cedulaCliente());
+            }
+            case MembresiaVencida e -> {
+                escribirTexto(salida, e.placa());
+                escribirFecha(salida, e.fechaFin());
+            }
+            case SalidaCobrada e -> {
+                escribir(e.salida(), salida);
+                escribir(e.pago(), salida);
+            }
+        }
+    }
+
+    /**
+     * Lee un evento a partir de su código de tipo y su contenido
+     * @param tipo Código de tipo del evento
+     * @param entrada Origen del contenido
+     * @return El evento leído
+     * @throws IOException si el contenido está incompleto o el tipo no existe
+     */
+    public static EventoParqueadero leer(byte tipo, DataInput entrada) throws IOException {
+        switch (tipo) {
+            case CLIENTE_REGISTRADO:
+                return new ClienteRegistrado(leerTexto(entrada), leerTexto(entrada),
+                        leerTexto(entrada), leerTexto(entrada));
+            case VEHICULO_REGISTRADO:
+                return new VehiculoRegistrado(leerTexto(entrada), leerTexto(entrada),
+                        leerTexto(entrada), leerTexto(entrada));
+            case VEHICULO_CON_TIPO_REGISTRADO: {
+                byte tipoVehiculo = entrada.readByte();
+                return new VehiculoRegistrado(leerTexto(entrada), leerTexto(entrada),
+                        leerTexto(entrada), leerTexto(entrada), tipoVehiculo);
+            }
+            case VEHICULO_INGRESADO:
+                return new VehiculoIngresado(entrada.readByte(), leerTexto(entrada), leerTexto(entrada),
+                        leerTexto(entrada), leerFechaHora(entrada), entrada.readInt());
+            case VEHICULO_SALIO:
+                return new VehiculoSalio(leerTexto(entrada), leerFechaHora(entrada));
+            case PAGO_REGISTRADO:
+                return new PagoRegistrado(leerTexto(entrada), entrada.readDouble(), leerFechaHora(entrada),
+                        leerTexto(entrada), leerTexto(entrada), leerTexto(entrada), leerTexto(entrada));
+            case MEMBRESIA_REGISTRADA:
+                return new MembresiaRegistrada(leerTexto(entrada), leerTexto(entrada),
+                        TIPOS_MEMBRESIA[entrada.readByte()], leerFecha(entrada), leerFecha(entrada),
+                        entrada.readInt());
+            case MEMBRESIA_CANCELADA:
+                return new MembresiaCancelada(leerTexto(entrada));
+            case CLIENTE_ACTUALIZADO:
+                return new ClienteActualizado(leerTexto(entrada), entrada.readByte(), leerTexto(entrada));
+            case CLIENTE_ELIMINADO:
+                return new ClienteEliminado(leerTexto(entrada));
+            case VEHICULO_ACTUALIZADO:
+                return new VehiculoActualizado(leerTexto(entrada), leerTexto(entrada),
+                        leerTexto(entrada), leerTexto(entrada));
+            case VEHICULO_ELIMINADO:
+                return new VehiculoEliminado(leerTexto(entrada));
+            case VEHICULO_ASIGNADO:
+                return new VehiculoAsignado(leerTexto(entrada), leerTexto(entrada));
+            case VEHICULO_DESVINCULADO:
+                return new VehiculoDesvinculado(leerTexto(entrada), leerTexto(entrada));
+            case MEMBRESIA_VENCIDA:
+                return new MembresiaVencida(leerTexto(entrada), leerFecha(entrada));
+            case SALIDA_COBRADA:
+                return new SalidaCobrada((VehiculoSalio) leer(VEHICULO_SALIO, entrada),
+                        (PagoRegistrado) leer(PAGO_REGISTRADO, entrada));
+            default:
+                throw new IOException("Tipo de evento desconocido: " + tipo);
+        }
+    }
+
+    public static void escribirTexto(DataOutput salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    public static String leerTexto(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    public static void escribirFechaHora(DataOutput salida, LocalDateTime fechaHora) throws IOException {
+        salida.writeBoolean(fechaHora != null);
+        if (fechaHora != null) {
+            salida.writeLong(fechaHora.toEpochSecond(ZoneOffset.UTC));
+            salida.writeInt(fechaHora.getNano());
+        }
+    }
+
+    public static LocalDateTime leerFechaHora(DataInput entrada) throws IOException {
+        if (!entrada.readBoolean()) {
+            return null;
+        }
+        long segundos = entrada.readLong();
+        int nanos = entrada.readInt();
+        return LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+    }
+
+    public static void escribirFecha(DataOutput salida, LocalDate fecha) throws IOException {
+        salida.writeBoolean(fecha != null);
+        if (fecha != null) {
+            salida.writeInt((int) fecha.toEpochDay());
+        }
+    }
+
+    public static LocalDate leerFecha(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? LocalDate.ofEpochDay(entrada.readInt()) : null;
+    }
+}
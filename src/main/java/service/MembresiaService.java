@@ -4,9 +4,8 @@ import model.Cliente;
 import model.Membresia;
 import model.TipoMembresia;
 import model.Vehiculo;
-import model.Automovil;
-import model.Moto;
-import model.Camion;
+import codeService.OcupacionParqueadero;
+import codeService.TablaTarifas;
 
 import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
@@ -596,36 +595,12 @@ public class MembresiaService {
             // Si tenemos el servicio de pagos, usar su método
             return (int) pagoService.calcularTarifaMembresia(vehiculo, tipo);
         } else {
-            // Tarifas por defecto si no hay servicio de pagos
-            if (vehiculo instanceof Automovil) {
-                switch (tipo) {
-                    case MENSUAL: return 100000;
-                    case TRIMESTRAL: return 270000;
-                    case ANUAL: return 960000;
-                    default: return 0;
-                }
-            } else if (vehiculo instanceof Moto) {
-                switch (tipo) {
-                    case MENSUAL: return 50000;
-                    case TRIMESTRAL: return 135000;
-                    case ANUAL: return 480000;
-                    default: return 0;
-                }
-            } else if (vehiculo instanceof Camion) {
-                switch (tipo) {
-                    case MENSUAL: return 150000;
-                    case TRIMESTRAL: return 405000;
-                    case ANUAL: return 1440000;
-                    default: return 0;
-                }
-            }
-            // Valor predeterminado para otros tipos de vehículos
-            switch (tipo) {
-                case MENSUAL: return 100000;
-                case TRIMESTRAL: return 270000;
-                case ANUAL: return 960000;
-                default: return 0;
+            // Tarifas por defecto si no hay servicio de pagos; otros tipos de vehículo pagan como automóvil
+            int tipoVehiculo = OcupacionParqueadero.tipoDeVehiculo(vehiculo);
+            if (tipoVehiculo < 0) {
+                tipoVehiculo = OcupacionParqueadero.TIPO_AUTOMOVIL;
             }
+            return (int) TablaTarifas.PREDETERMINADA.tarifaMembresia(tipoVehiculo, tipo);
         }
     }
 }
\ No newline at end of file
@@ -4,42 +4,41 @@ import model.Cliente;
 import model.Pago;
 import model.TipoMembresia;
 import model.Vehiculo;
-import model.Automovil;
-import model.Moto;
-import model.Camion;
 import model.Membresia;
+import codeService.LibroPagos;
+import codeService.OcupacionParqueadero;
+import codeService.TarifasVigentes;
+import codeService.PagoCodeService.ReporteTotales;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class PagoService {
     private ClienteService clienteService;
     private VehiculoService vehiculoService;
-    private List<Pago> historialPagos;
-
-    // Tarifas de membresía por tipo de vehículo y período
-    private static final double TARIFA_MENSUAL_AUTO = 100000;
-    private static final double TARIFA_TRIMESTRAL_AUTO = 270000;
-    private static final double TARIFA_ANUAL_AUTO = 960000;
-
-    private static final double TARIFA_MENSUAL_MOTO = 50000;
-    private static final double TARIFA_TRIMESTRAL_MOTO = 135000;
-    private static final double TARIFA_ANUAL_MOTO = 480000;
-
-    private static final double TARIFA_MENSUAL_CAMION = 150000;
-    private static final double TARIFA_TRIMESTRAL_CAMION = 405000;
-    private static final double TARIFA_ANUAL_CAMION = 1440000;
+    // Historial de pagos con totales por día, mes y año
+    private final LibroPagos historialPagos = new LibroPagos();
+    // Tarifas vigentes; Main comparte aquí las que configura el parqueadero
+    private TarifasVigentes tarifas = new TarifasVigentes();
 
     public PagoService(ClienteService clienteService, VehiculoService vehiculoService) {
         this.clienteService = clienteService;
         this.vehiculoService = vehiculoService;
-        this.historialPagos = new ArrayList<>();
+    }
+
+    /**
+     * Usa las tarifas que configura otro servicio
+     */
+    public void setTarifasVigentes(TarifasVigentes tarifas) {
+        if (tarifas != null) {
+            this.tarifas = tarifas;
+        }
     }
 
     /**
@@ -64,7 +63,7 @@ public class PagoService {
 
         String tipoVehiculo = determinarTipoVehiculo(vehiculo);
         Pago pago = new Pago(monto, vehiculo, tipoVehiculo);
-        historialPagos.add(pago);
+        historialPagos.agregar(pago);
 
         JOptionPane.showMessageDialog(null,
                 "Pago registrado exitosamente\n" +
@@ -79,7 +78,7 @@ public class PagoService {
     public void registrarPagoMembresia(Vehiculo vehiculo, Cliente cliente, TipoMembresia tipoMembresia) {
         double monto = calcularTarifaMembresia(vehiculo, tipoMembresia);
         Pago pago = new Pago(monto, vehiculo, cliente, tipoMembresia);
-        historialPagos.add(pago);
+        historialPagos.agregar(pago);
 
         JOptionPane.showMessageDialog(null,
                 "Pago de membresía registrado exitosamente\n" +
@@ -93,54 +92,24 @@ public class PagoService {
      * Calcula el monto a pagar por una membresía según el tipo de vehículo y período
      */
     public double calcularTarifaMembresia(Vehiculo vehiculo, TipoMembresia tipoMembresia) {
-        if (vehiculo instanceof Automovil) {
-            switch (tipoMembresia) {
-                case MENSUAL: return TARIFA_MENSUAL_AUTO;
-                case TRIMESTRAL: return TARIFA_TRIMESTRAL_AUTO;
-                case ANUAL: return TARIFA_ANUAL_AUTO;
-                default: return 0;
-            }
-        } else if (vehiculo instanceof Moto) {
-            switch (tipoMembresia) {
-                case MENSUAL: return TARIFA_MENSUAL_MOTO;
-                case TRIMESTRAL: return TARIFA_TRIMESTRAL_MOTO;
-                case ANUAL: return TARIFA_ANUAL_MOTO;
-                default: return 0;
-            }
-        } else if (vehiculo instanceof Camion) {
-            switch (tipoMembresia) {
-                case MENSUAL: return TARIFA_MENSUAL_CAMION;
-                case TRIMESTRAL: return TARIFA_TRIMESTRAL_CAMION;
-                case ANUAL: return TARIFA_ANUAL_CAMION;
-                default: return 0;
-            }
-        }
-        return 0;
+        return tarifas.obtener().tarifaMembresia(vehiculo, tipoMembresia);
     }
 
     /**
      * Determina el tipo de vehículo como texto
      */
     private String determinarTipoVehiculo(Vehiculo vehiculo) {
-        if (vehiculo instanceof Automovil) {
-            return "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            return "Moto";
-        } else if (vehiculo instanceof Camion) {
-            return "Camión";
-        }
-        return "Desconocido";
+        return OcupacionParqueadero.nombreDeTipo(OcupacionParqueadero.tipoDeVehiculo(vehiculo));
     }
 
     /**
      * Busca un pago por su ID
      */
     public Pago buscarPagoPorId(String id) {
-        for (Pago pago : historialPagos) {
-            if (pago.getId().equals(id)) {
-                mostrarDetallePago(pago);
-                return pago;
-            }
+        Pago pago = historialPagos.buscarPorId(id);
+        if (pago != null) {
+            mostrarDetallePago(pago);
+            return pago;
         }
         JOptionPane.showMessageDialog(null, "Pago no encontrado con ID: " + id, "Error", JOptionPane.ERROR_MESSAGE);
         return null;
@@ -179,13 +148,7 @@ public class PagoService {
 
         try {
             int horas = Integer.parseInt(horasStr);
-            double tarifaHora = 0;
-
-            switch (tipo) {
-                case 0: tarifaHora = 2000; break; // Automóvil
-                case 1: tarifaHora = 1000; break; // Moto
-                case 2: tarifaHora = 3000; break; // Camión
-            }
+            double tarifaHora = tarifas.obtener().tarifaHora(tipo);
 
             double total = tarifaHora * horas;
 
@@ -242,11 +205,8 @@ public class PagoService {
     private void generarReporteDiario() {
         LocalDate hoy = LocalDate.now();
 
-        List<Pago> pagosDia = historialPagos.stream()
-                .filter(pago -> pago.getFechaHora().toLocalDate().equals(hoy))
-                .collect(Collectors.toList());
-
-        generarReporte(pagosDia, "REPORTE DE INGRESOS DEL DÍA " + hoy.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        generarReporte(historialPagos.obtenerEntre(hoy, hoy), historialPagos.totalesDia(hoy),
+                "REPORTE DE INGRESOS DEL DÍA " + hoy.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
     }
 
     /**
@@ -275,12 +235,10 @@ public class PagoService {
         // Ajustar mes a base 1 para LocalDate
         int mes = mesSeleccionado + 1;
 
-        List<Pago> pagosMes = historialPagos.stream()
-                .filter(pago -> pago.getFechaHora().getMonthValue() == mes &&
-                        pago.getFechaHora().getYear() == anioActual)
-                .collect(Collectors.toList());
-
-        generarReporte(pagosMes, "REPORTE DE INGRESOS DE " + meses[mesSeleccionado].toUpperCase() + " " + anioActual);
+        YearMonth periodo = YearMonth.of(anioActual, mes);
+        generarReporte(historialPagos.obtenerEntre(periodo.atDay(1), periodo.atEndOfMonth()),
+                historialPagos.totalesMes(periodo),
+                "REPORTE DE INGRESOS DE " + meses[mesSeleccionado].toUpperCase() + " " + anioActual);
     }
 
     /**
@@ -295,12 +253,10 @@ public class PagoService {
         try {
             int anio = Integer.parseInt(anioStr);
 
-            List<Pago> pagosAnio = historialPagos.stream()
-                    .filter(pago -> pago.getFechaHora().getYear() == anio)
-                    .collect(Collectors.toList());
+            List<Pago> pagosAnio = historialPagos.obtenerEntre(LocalDate.of(anio, 1, 1), LocalDate.of(anio, 12, 31));
 
-            generarReporte(pagosAnio, "REPORTE DE INGRESOS DEL AÑO " + anio);
-        } catch (NumberFormatException e) {
+            generarReporte(pagosAnio, historialPagos.totalesAnio(anio), "REPORTE DE INGRESOS DEL AÑO " + anio);
+        } catch (NumberFormatException | DateTimeException e) {
             JOptionPane.showMessageDialog(null, "Por favor ingrese un año válido", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -329,15 +285,9 @@ public class PagoService {
                 return;
             }
 
-            List<Pago> pagosRango = historialPagos.stream()
-                    .filter(pago -> {
-                        LocalDate fechaPago = pago.getFechaHora().toLocalDate();
-                        return (fechaPago.isEqual(fechaInicio) || fechaPago.isAfter(fechaInicio)) &&
-                                (fechaPago.isEqual(fechaFin) || fechaPago.isBefore(fechaFin));
-                    })
-                    .collect(Collectors.toList());
-
-            generarReporte(pagosRango, "REPORTE DE INGRESOS DEL " + fechaInicioStr + " AL " + fechaFinStr);
+            generarReporte(historialPagos.obtenerEntre(fechaInicio, fechaFin),
+                    historialPagos.totalesEntre(fechaInicio, fechaFin),
+                    "REPORTE DE INGRESOS DEL " + fechaInicioStr + " AL " + fechaFinStr);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(null, "Error en el formato de fechas. Use DD/MM/YYYY",
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -345,38 +295,23 @@ public class PagoService {
     }
 
     /**
-     * Genera y muestra un reporte de ingresos basado en una lista de pagos
+     * Genera y muestra un reporte de ingresos con los totales ya acumulados
+     * del período y el detalle de sus pagos
      */
-    private void generarReporte(List<Pago> pagos, String titulo) {
+    private void generarReporte(List<Pago> pagos, ReporteTotales totales, String titulo) {
         if (pagos.isEmpty()) {
             JOptionPane.showMessageDialog(null, "No hay pagos registrados en el período seleccionado",
                     "Sin Datos", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
-        double totalEstacionamiento = 0;
-        double totalMembresias = 0;
-
-        // Contadores por tipo de vehículo
-        double totalAutomoviles = 0;
-        double totalMotos = 0;
-        double totalCamiones = 0;
+        double totalEstacionamiento = totales.getTotalEstacionamiento();
+        double totalMembresias = totales.getTotalMembresias();
 
-        // Contadores por concepto
-        for (Pago pago : pagos) {
-            if (pago.getConcepto().startsWith("Estacionamiento")) {
-                totalEstacionamiento += pago.getMonto();
-            } else {
-                totalMembresias += pago.getMonto();
-            }
-
-            // Contadores por tipo de vehículo
-            switch (pago.getTipoVehiculo()) {
-                case "Automóvil": totalAutomoviles += pago.getMonto(); break;
-                case "Moto": totalMotos += pago.getMonto(); break;
-                case "Camión": totalCamiones += pago.getMonto(); break;
-            }
-        }
+        // Totales por tipo de vehículo
+        double totalAutomoviles = totales.getTotalAutomoviles();
+        double totalMotos = totales.getTotalMotos();
+        double totalCamiones = totales.getTotalCamiones();
 
         double totalGeneral = totalEstacionamiento + totalMembresias;
 
@@ -464,16 +399,8 @@ public class PagoService {
         // Crear un array con las placas para mostrar en el selector
         String[] placas = new String[vehiculosCliente.size()];
         for (int i = 0; i < vehiculosCliente.size(); i++) {
-            String tipoVehiculo = "";
             Vehiculo v = vehiculosCliente.get(i);
-
-            if (v instanceof Automovil) {
-                tipoVehiculo = "Automóvil";
-            } else if (v instanceof Moto) {
-                tipoVehiculo = "Moto";
-            } else if (v instanceof Camion) {
-                tipoVehiculo = "Camión";
-            }
+            String tipoVehiculo = v.getTipo() != null ? v.getTipo().getNombre() : "";
 
             placas[i] = v.getPlaca() + " - " + v.getModelo() + " (" + tipoVehiculo + ")";
         }
@@ -551,30 +478,7 @@ public class PagoService {
         // Si el monto es 0, algo salió mal con el cálculo
         if (monto == 0) {
             // Detectar el tipo de vehículo para mostrar información de depuración
-            String tipoVehiculo = "Desconocido";
-            if (vehiculoSeleccionado instanceof Automovil) {
-                tipoVehiculo = "Automóvil";
-                // Asignar tarifa manualmente según el tipo de membresía
-                switch (tipoMembresia) {
-                    case MENSUAL: monto = TARIFA_MENSUAL_AUTO; break;
-                    case TRIMESTRAL: monto = TARIFA_TRIMESTRAL_AUTO; break;
-                    case ANUAL: monto = TARIFA_ANUAL_AUTO; break;
-                }
-            } else if (vehiculoSeleccionado instanceof Moto) {
-                tipoVehiculo = "Moto";
-                switch (tipoMembresia) {
-                    case MENSUAL: monto = TARIFA_MENSUAL_MOTO; break;
-                    case TRIMESTRAL: monto = TARIFA_TRIMESTRAL_MOTO; break;
-                    case ANUAL: monto = TARIFA_ANUAL_MOTO; break;
-                }
-            } else if (vehiculoSeleccionado instanceof Camion) {
-                tipoVehiculo = "Camión";
-                switch (tipoMembresia) {
-                    case MENSUAL: monto = TARIFA_MENSUAL_CAMION; break;
-                    case TRIMESTRAL: monto = TARIFA_TRIMESTRAL_CAMION; break;
-                    case ANUAL: monto = TARIFA_ANUAL_CAMION; break;
-                }
-            }
+            String tipoVehiculo = determinarTipoVehiculo(vehiculoSeleccionado);
 
             JOptionPane.showMessageDialog(null,
                     "Se ha detectado un problema al calcular la tarifa.\n" +
@@ -6,6 +6,9 @@ import model.Automovil;
 import model.Moto;
 import model.Camion;
 import model.TipoMembresia;
+import model.TipoVehiculo;
+import codeService.OcupacionParqueadero;
+import codeService.TarifasVigentes;
 
 import javax.swing.JOptionPane;
 import java.time.LocalDateTime;
@@ -22,15 +25,20 @@ public class ParqueaderoService {
     private Parqueadero parqueadero;
     // Registro de vehículos actualmente en el parqueadero con su hora de entrada
     private Map<String, LocalDateTime> vehiculosActuales = new HashMap<>();
-    // Tarifas por hora para cada tipo de vehículo
-    private double tarifaHoraAutomovil = 2000;
-    private double tarifaHoraMoto = 1000;
-    private double tarifaHoraCamion = 3000;
+    // Tarifas vigentes, compartidas con el servicio de pagos
+    private final TarifasVigentes tarifas = new TarifasVigentes();
 
     public ParqueaderoService(Parqueadero parqueadero) {
         this.parqueadero = parqueadero;
     }
 
+    /**
+     * Obtiene la referencia a las tarifas que cambia {@link #configurarTarifas()}
+     */
+    public TarifasVigentes getTarifasVigentes() {
+        return tarifas;
+    }
+
     /**
      * Configura las capacidades del parqueadero
      */
@@ -72,9 +80,7 @@ public class ParqueaderoService {
             double tarifaAutomovil = Double.parseDouble(tarifaAutomovilStr);
             double tarifaCamion = Double.parseDouble(tarifaCamionStr);
 
-            this.tarifaHoraMoto = tarifaMoto;
-            this.tarifaHoraAutomovil = tarifaAutomovil;
-            this.tarifaHoraCamion = tarifaCamion;
+            tarifas.cambiarTarifasHora(tarifaMoto, tarifaAutomovil, tarifaCamion);
 
             JOptionPane.showMessageDialog(null,
                     "Tarifas configuradas exitosamente:\n" +
@@ -217,15 +223,10 @@ public class ParqueaderoService {
         double tarifaHora = 0;
         String tipoVehiculo = "";
 
-        if (vehiculo instanceof Automovil) {
-            tarifaHora = tarifaHoraAutomovil;
-            tipoVehiculo = "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            tarifaHora = tarifaHoraMoto;
-            tipoVehiculo = "Moto";
-        } else if (vehiculo instanceof Camion) {
-            tarifaHora = tarifaHoraCamion;
-            tipoVehiculo = "Camión";
+        TipoVehiculo tipo = vehiculo.getTipo();
+        if (tipo != null) {
+            tarifaHora = tarifas.obtener().tarifaHora(tipo.ordinal());
+            tipoVehiculo = tipo.getNombre();
         }
 
         double montoTotal = tarifaHora * horasEstadia;
@@ -258,9 +259,9 @@ public class ParqueaderoService {
      * Muestra el estado actual de ocupación del parqueadero
      */
     public void mostrarEstadoParqueadero() {
-        int motosActuales = contarVehiculosPorTipo(Moto.class);
-        int automovilesActuales = contarVehiculosPorTipo(Automovil.class);
-        int camionesActuales = contarVehiculosPorTipo(Camion.class);
+        int motosActuales = contarVehiculosPorTipo(TipoVehiculo.MOTO);
+        int automovilesActuales = contarVehiculosPorTipo(TipoVehiculo.AUTOMOVIL);
+        int camionesActuales = contarVehiculosPorTipo(TipoVehiculo.CAMION);
 
         StringBuilder estado = new StringBuilder("ESTADO ACTUAL DEL PARQUEADERO\n");
         estado.append("---------------------------\n\n");
@@ -285,7 +286,7 @@ public class ParqueaderoService {
      * @return true si hay espacio disponible
      */
     public boolean verificarDisponibilidadMotos() {
-        int motosActuales = contarVehiculosPorTipo(Moto.class);
+        int motosActuales = contarVehiculosPorTipo(TipoVehiculo.MOTO);
         return motosActuales < parqueadero.getPuestosMotos();
     }
 
@@ -294,7 +295,7 @@ public class ParqueaderoService {
      * @return true si hay espacio disponible
      */
     public boolean verificarDisponibilidadAutomoviles() {
-        int automovilesActuales = contarVehiculosPorTipo(Automovil.class);
+        int automovilesActuales = contarVehiculosPorTipo(TipoVehiculo.AUTOMOVIL);
         return automovilesActuales < parqueadero.getPuestosAutomoviles();
     }
 
@@ -303,19 +304,19 @@ public class ParqueaderoService {
      * @return true si hay espacio disponible
      */
     public boolean verificarDisponibilidadCamiones() {
-        int camionesActuales = contarVehiculosPorTipo(Camion.class);
+        int camionesActuales = contarVehiculosPorTipo(TipoVehiculo.CAMION);
         return camionesActuales < parqueadero.getPuestosCamiones();
     }
 
     /**
      * Cuenta cuántos vehículos de un tipo específico hay actualmente en el parqueadero
-     * @param clase La clase del tipo de vehículo
+     * @param tipo El tipo de vehículo
      * @return Número de vehículos de ese tipo
      */
-    private int contarVehiculosPorTipo(Class<?> clase) {
+    private int contarVehiculosPorTipo(TipoVehiculo tipo) {
         int contador = 0;
         for (Vehiculo vehiculo : parqueadero.getListaDevehiculos()) {
-            if (clase.isInstance(vehiculo)) {
+            if (vehiculo.getTipo() == tipo) {
                 contador++;
             }
         }
@@ -441,16 +442,9 @@ public class ParqueaderoService {
     }
 
     /**
-     * Determina el tipo de vehículo basado en su instancia
+     * Determina el tipo de vehículo como texto
      */
     private String obtenerTipoVehiculo(Vehiculo vehiculo) {
-        if (vehiculo instanceof Automovil) {
-            return "Automóvil";
-        } else if (vehiculo instanceof Moto) {
-            return "Moto";
-        } else if (vehiculo instanceof Camion) {
-            return "Camión";
-        }
-        return "Desconocido";
+        return OcupacionParqueadero.nombreDeTipo(OcupacionParqueadero.tipoDeVehiculo(vehiculo));
     }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package api;
+
+import codeService.ClienteCodeService;
+import codeService.MembresiaCodeService;
+import codeService.PagoCodeService;
+import codeService.ParqueaderoCodeService;
+import codeService.VehiculoCodeService;
+import eventos.ClienteRegistrado;
+import eventos.MembresiaRegistrada;
+import eventos.VehiculoRegistrado;
+import model.Cliente;
+import model.Parqueadero;
+import model.TipoMembresia;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.BitacoraEventos;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServidorPorteriaTest {
+
+    private ClienteCodeService clienteService;
+    private VehiculoCodeService vehiculoService;
+    private PagoCodeService pagoService;
+    private ServidorPorteria servidor;
+    private HttpClient cliente;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        clienteService = new ClienteCodeService();
+        vehiculoService = new VehiculoCodeService();
+        pagoService = new PagoCodeService();
+        MembresiaCodeService membresiaService = new MembresiaCodeService();
+        membresiaService.setClienteService(clienteService);
+        membresiaService.setVehiculoService(vehiculoService);
+        servidor = new ServidorPorteria(new ParqueaderoCodeService(new Parqueadero()),
+                pagoService, vehiculoService, membresiaService);
+        assertTrue(servidor.iniciar(new InetSocketAddress("127.0.0.1", 0)));
+        cliente = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        servidor.close();
+        assertEquals(-1, servidor.getPuerto());
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String cuerpo) throws Exception {
+        HttpRequest.Builder solicitud = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + servidor.getPuerto() + ruta));
+        solicitud.method(metodo, cuerpo != null ? HttpRequest.BodyPublishers.ofString(cuerpo)
+                : HttpRequest.BodyPublishers.noBody());
+        return cliente.send(solicitud.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Test entrada y salida por la API cobran la estadía una sola vez")
+    public void testEntradaYSalida() throws Exception {
+        assertEquals(200, enviar("POST", "/parqueadero/espacios", "{\"motos\":1,\"automoviles\":2,\"camiones\":1}").statusCode());
+
+        HttpResponse<String> entrada = enviar("POST", "/entradas", "{\"tipo\":\"Automóvil\",\"placa\":\"ABC123\"}");
+        assertEquals(201, entrada.statusCode());
+        assertEquals(1L, Json.leerObjeto(entrada.body()).get("puesto"));
+        assertEquals(409, enviar("POST", "/entradas", "{\"tipo\":0,\"placa\":\" abc123 \"}").statusCode());
+
+        Map<String, Object> estado = Json.leerObjeto(enviar("GET", "/parqueadero", null).body());
+        assertEquals(1L, estado.get("automovilesActuales"));
+        long version = (Long) estado.get("version");
+        assertEquals(304, enviar("GET", "/parqueadero?version=" + version, null).statusCode());
+        assertEquals(200, enviar("GET", "/parqueadero?version=" + (version - 1), null).statusCode());
+
+        HttpResponse<String> salida = enviar("POST", "/salidas", "{\"placa\":\"ABC123\"}");
+        assertEquals(200, salida.statusCode());
+        Map<String, Object> factura = Json.leerObjeto(salida.body());
+        assertEquals(2000.0, factura.get("montoTotal"));
+        assertEquals(Boolean.TRUE, factura.get("pagoRegistrado"));
+        assertEquals(1, pagoService.getHistorialPagos().size());
+
+        assertEquals(404, enviar("POST", "/salidas", "{\"placa\":\"ABC123\"}").statusCode());
+        assertEquals(1, pagoService.getHistorialPagos().size());
+    }
+
+    @Test
+    @DisplayName("Test solicitudes inválidas reciben el código de error adecuado")
+    public void testSolicitudesInvalidas() throws Exception {
+        assertEquals(400, enviar("POST", "/entradas", "{\"placa\":").statusCode());
+        assertEquals(400, enviar("POST", "/entradas", "{\"tipo\":\"Bicicleta\",\"placa\":\"ABC123\"}").statusCode());
+        assertEquals(405, enviar("GET", "/entradas", null).statusCode());
+        assertEquals(404, enviar("GET", "/parqueadero/otra", null).statusCode());
+        assertEquals(404, enviar("GET", "/vehiculos/NOEXISTE", null).statusCode());
+        assertEquals(400, enviar("GET", "/pagos/totales?desde=ayer", null).statusCode());
+
+        HttpResponse<String> respuesta = enviar("GET", "/pagos/monto?tipo=Moto&horas=3", null);
+        assertEquals(200, respuesta.statusCode());
+        assertEquals(3000.0, Json.leerObjeto(respuesta.body()).get("monto"));
+    }
+
+    @Test
+    @DisplayName("Test las tarifas configuradas aplican a las salidas y a las cotizaciones")
+    public void testTarifasConfiguradas() throws Exception {
+        assertEquals(200, enviar("POST", "/parqueadero/espacios", "{\"motos\":1,\"automoviles\":1,\"camiones\":1}").statusCode());
+        assertEquals(200, enviar("POST", "/parqueadero/tarifas", "{\"moto\":1500,\"automovil\":2500,\"camion\":3500}").statusCode());
+
+        HttpResponse<String> monto = enviar("GET", "/pagos/monto?tipo=Moto&horas=2", null);
+        assertEquals(200, monto.statusCode());
+        assertEquals(3000.0, Json.leerObjeto(monto.body()).get("monto"));
+        assertEquals(2500.0, pagoService.calcularMontoAPagar("Automóvil", 1));
+
+        assertEquals(201, enviar("POST", "/entradas", "{\"tipo\":\"Camión\",\"placa\":\"CAM001\"}").statusCode());
+        Map<String, Object> factura = Json.leerObjeto(enviar("POST", "/salidas", "{\"placa\":\"CAM001\"}").body());
+        assertEquals(3500.0, factura.get("montoTotal"));
+    }
+
+    @Test
+    @DisplayName("Test entradas simultáneas no exceden la capacidad")
+    public void testEntradasConcurrentes() throws Exception {
+        enviar("POST", "/parqueadero/espacios", "{\"motos\":50,\"automoviles\":0,\"camiones\":0}");
+
+        List<Future<Integer>> codigos = new ArrayList<>();
+        try (ExecutorService porterias = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                String cuerpo = "{\"tipo\":\"MOTO\",\"placa\":\"MOT" + i + "\"}";
+                codigos.add(porterias.submit(() -> enviar("POST", "/entradas", cuerpo).statusCode()));
+            }
+        }
+
+        int admitidas = 0;
+        for (Future<Integer> codigo : codigos) {
+            if (codigo.get() == 201) {
+                admitidas++;
+            } else {
+                assertEquals(409, codigo.get());
+            }
+        }
+        assertEquals(50, admitidas);
+        assertEquals(50L, Json.leerObjeto(enviar("GET", "/parqueadero", null).body()).get("motosActuales"));
+    }
+
+    @Test
+    @DisplayName("Test registrar y consultar una membresía por la API")
+    public void testMembresias() throws Exception {
+        clienteService.añadirCliente("Ana Pérez", "123", "3001234567", "ana@correo.com");
+        Cliente ana = clienteService.buscarCliente("123", ClienteCodeService.BUSQUEDA_CEDULA);
+        vehiculoService.registrarVehiculo(ana, "XYZ789", "Azul", "2022");
+
+        assertEquals(404, enviar("GET", "/membresias/XYZ789", null).statusCode());
+        assertEquals(400, enviar("POST", "/membresias", "{\"placa\":\"XYZ789\",\"tipo\":\"NINGUNA\"}").statusCode());
+
+        HttpResponse<String> registro = enviar("POST", "/membresias", "{\"placa\":\"XYZ789\",\"tipo\":\"mensual\"}");
+        assertEquals(201, registro.statusCode());
+        assertEquals(Boolean.TRUE, Json.leerObjeto(registro.body()).get("vigente"));
+        assertEquals(409, enviar("POST", "/membresias", "{\"placa\":\"XYZ789\",\"tipo\":\"ANUAL\",\"cedula\":\"123\"}").statusCode());
+
+        Map<String, Object> vigencia = Json.leerObjeto(enviar("GET", "/membresias/XYZ789", null).body());
+        assertEquals("MENSUAL", vigencia.get("tipoMembresia"));
+        assertTrue(enviar("GET", "/membresias?dias=40", null).body().contains("XYZ789"));
+    }
+
+    @Test
+    @DisplayName("Test el servidor abierto sobre un directorio recupera vehículos y pagos al reiniciar")
+    public void testReiniciarConDirectorio(@TempDir Path datos) throws Exception {
+        servidor.close();
+        servidor = ServidorPorteria.abrir(datos);
+        assertTrue(servidor.iniciar(new InetSocketAddress("127.0.0.1", 0)));
+        enviar("POST", "/parqueadero/espacios", "{\"motos\":1,\"automoviles\":0,\"camiones\":0}");
+        assertEquals(400, enviar("POST", "/vehiculos",
+                "{\"placa\":\"BIC123\",\"color\":\"Rojo\",\"modelo\":\"2020\",\"tipo\":\"Bicicleta\"}").statusCode());
+        assertEquals(201, enviar("POST", "/vehiculos",
+                "{\"placa\":\"MOT123\",\"color\":\"Rojo\",\"modelo\":\"2020\",\"tipo\":\"Moto\"}").statusCode());
+        assertEquals(201, enviar("POST", "/entradas", "{\"tipo\":\"Moto\",\"placa\":\"MOT123\"}").statusCode());
+        assertEquals(Boolean.TRUE, Json.leerObjeto(enviar("POST", "/salidas", "{\"placa\":\"MOT123\"}").body())
+                .get("pagoRegistrado"));
+        servidor.close();
+
+        servidor = ServidorPorteria.abrir(datos);
+        assertTrue(servidor.iniciar(new InetSocketAddress("127.0.0.1", 0)));
+        assertEquals(200, enviar("GET", "/vehiculos/MOT123", null).statusCode());
+        LocalDate hoy = LocalDate.now();
+        Map<String, Object> totales = Json.leerObjeto(enviar("GET", "/pagos/totales?desde=" + hoy.minusDays(1)
+                + "&hasta=" + hoy.plusDays(1), null).body());
+        assertEquals(1000.0, totales.get("totalMotos"));
+    }
+
+    @Test
+    @DisplayName("Test el servidor abierto sobre un directorio baja las membresías que vencieron mientras no corría")
+    public void testVencerMembresiasAlAbrir(@TempDir Path datos) throws Exception {
+        LocalDate hoy = LocalDate.now();
+        try (BitacoraEventos bitacora = new BitacoraEventos(datos.resolve("bitacora"))) {
+            bitacora.registrarYEsperar(new ClienteRegistrado("Ana Pérez", "123", "3001234567", "ana@correo.com"));
+            bitacora.registrarYEsperar(new VehiculoRegistrado("XYZ789", "Azul", "2022", "123"));
+            bitacora.registrarYEsperar(new MembresiaRegistrada("XYZ789", "123", TipoMembresia.MENSUAL,
+                    hoy.minusMonths(2), hoy.minusMonths(1), 100000));
+        }
+
+        servidor.close();
+        servidor = ServidorPorteria.abrir(datos);
+        assertTrue(servidor.iniciar(new InetSocketAddress("127.0.0.1", 0)));
+        // La revisión corre en segundo plano apenas se abre el servidor
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (enviar("GET", "/membresias/XYZ789", null).statusCode() != 404) {
+            assertTrue(System.nanoTime() < limite, "La membresía vencida no se bajó");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("Test JSON se escribe y se vuelve a leer igual")
+    public void testJson() {
+        String texto = Json.escribir(Map.of("placa", "A\"B\\C\n", "horas", 3, "activa", true,
+                "lista", List.of(1.5, "x"), "vacio", new java.util.HashMap<>()));
+        Map<String, Object> leido = Json.leerObjeto(texto);
+        assertEquals("A\"B\\C\n", leido.get("placa"));
+        assertEquals(3L, leido.get("horas"));
+        assertEquals(Boolean.TRUE, leido.get("activa"));
+        assertEquals(List.of(1.5, "x"), leido.get("lista"));
+        assertEquals(Map.of(), leido.get("vacio"));
+
+        assertNull(Json.leerObjeto("[1,2]"));
+        assertNull(Json.leerObjeto("{\"a\":1} extra"));
+        assertNull(Json.leerObjeto("{\"a\":tru}"));
+        assertEquals(Map.of("ñ", "é"), Json.leerObjeto("{\"\\u00f1\" : \"é\"}"));
+
+        // Un anidamiento excesivo se rechaza como cualquier otro JSON inválido
+        assertNull(Json.leerObjeto("{\"a\":" + "[".repeat(10000) + "]".repeat(10000) + "}"));
+        assertNotNull(Json.leerObjeto("{\"a\":" + "[".repeat(20) + "]".repeat(20) + "}"));
+    }
+}
@@ -0,0 +1,92 @@
+package codeService;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AcumuladoIngresosTest {
+
+    private AcumuladoIngresos acumulado;
+    private List<Pago> pagos;
+
+    @BeforeEach
+    public void setUp() {
+        acumulado = new AcumuladoIngresos();
+        pagos = new ArrayList<>();
+        Vehiculo automovil = new Automovil("ABC123", "Rojo", "2020");
+        Vehiculo moto = new Moto("MOT45A", "Negro", "2022");
+        Vehiculo camion = new Camion("CAM001", "Blanco", "2015");
+
+        agregar(new Pago("1", 2000.50, LocalDateTime.of(2023, 12, 31, 22, 0), "Estacionamiento", automovil, null, "Automóvil"));
+        agregar(new Pago("2", 1000, LocalDateTime.of(2024, 1, 1, 8, 0), "Estacionamiento", moto, null, "Moto"));
+        agregar(new Pago("3", 960000, LocalDateTime.of(2024, 1, 15, 9, 0), "Membresía ANUAL", automovil, null, "Automóvil"));
+        agregar(new Pago("4", 3000, LocalDateTime.of(2024, 2, 29, 18, 0), "Estacionamiento", camion, null, "Camión"));
+        agregar(new Pago("5", 150000, LocalDateTime.of(2024, 3, 1, 7, 0), "Membresía MENSUAL", camion, null, "Camión"));
+        agregar(new Pago("6", 500, LocalDateTime.of(2024, 3, 1, 7, 0), "Estacionamiento", null, null, "Desconocido"));
+    }
+
+    private void agregar(Pago pago) {
+        acumulado.registrar(pago);
+        pagos.add(pago);
+    }
+
+    private void assertMismosTotales(PagoCodeService.ReporteTotales esperado, PagoCodeService.ReporteTotales obtenido) {
+        assertEquals(esperado.getTotalEstacionamiento(), obtenido.getTotalEstacionamiento(), 0.001);
+        assertEquals(esperado.getTotalMembresias(), obtenido.getTotalMembresias(), 0.001);
+        assertEquals(esperado.getTotalAutomoviles(), obtenido.getTotalAutomoviles(), 0.001);
+        assertEquals(esperado.getTotalMotos(), obtenido.getTotalMotos(), 0.001);
+        assertEquals(esperado.getTotalCamiones(), obtenido.getTotalCamiones(), 0.001);
+    }
+
+    private PagoCodeService.ReporteTotales recorrer(LocalDate desde, LocalDate hasta) {
+        List<Pago> filtrados = new ArrayList<>();
+        for (Pago pago : pagos) {
+            LocalDate dia = pago.getFechaHora().toLocalDate();
+            if (!dia.isBefore(desde) && !dia.isAfter(hasta)) {
+                filtrados.add(pago);
+            }
+        }
+        return AcumuladoIngresos.totalizar(filtrados);
+    }
+
+    @Test
+    @DisplayName("Los totales por día, mes y año coinciden con recorrer los pagos")
+    public void testTotalesPorPeriodo() {
+        PagoCodeService.ReporteTotales marzo = acumulado.totalesDia(LocalDate.of(2024, 3, 1));
+        assertEquals(500, marzo.getTotalEstacionamiento(), 0.001);
+        assertEquals(150000, marzo.getTotalMembresias(), 0.001);
+        assertEquals(150000, marzo.getTotalCamiones(), 0.001);
+        assertEquals(150500, marzo.getTotalGeneral(), 0.001);
+
+        assertMismosTotales(recorrer(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)),
+                acumulado.totalesMes(YearMonth.of(2024, 1)));
+        assertMismosTotales(recorrer(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)),
+                acumulado.totalesAnio(2024));
+        assertEquals(2000.50, acumulado.totalesAnio(2023).getTotalAutomoviles(), 0.001);
+        assertEquals(0, acumulado.totalesAnio(2022).getTotalGeneral());
+    }
+
+    @Test
+    @DisplayName("Los totales de un rango combinan años, meses y días")
+    public void testTotalesEntre() {
+        LocalDate[][] rangos = {
+                { LocalDate.of(2023, 12, 31), LocalDate.of(2024, 3, 1) },
+                { LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31) },
+                { LocalDate.of(2024, 1, 2), LocalDate.of(2024, 2, 29) },
+                { LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 28) },
+                { LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 1) },
+        };
+        for (LocalDate[] rango : rangos) {
+            assertMismosTotales(recorrer(rango[0], rango[1]), acumulado.totalesEntre(rango[0], rango[1]));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package codeService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsignadorPuestosTest {
+
+    private AsignadorPuestos asignador;
+
+    @BeforeEach
+    public void setUp() {
+        asignador = new AsignadorPuestos();
+    }
+
+    @Test
+    @DisplayName("Test asigna los puestos más cercanos a la entrada")
+    public void testAsignaPuestosEnOrden() {
+        assertEquals(1, asignador.asignar(5));
+        assertEquals(2, asignador.asignar(5));
+        assertEquals(3, asignador.asignar(5));
+        assertTrue(asignador.estaOcupado(2));
+        assertFalse(asignador.estaOcupado(4));
+    }
+
+    @Test
+    @DisplayName("Test reutiliza el puesto liberado más bajo")
+    public void testReutilizaPuestoLiberado() {
+        for (int i = 0; i < 5; i++) {
+            asignador.asignar(5);
+        }
+        assertTrue(asignador.liberar(4));
+        assertTrue(asignador.liberar(2));
+
+        assertEquals(2, asignador.asignar(5));
+        assertEquals(4, asignador.asignar(5));
+        assertEquals(-1, asignador.asignar(5));
+    }
+
+    @Test
+    @DisplayName("Test no asigna puestos sin capacidad")
+    public void testSinCapacidad() {
+        assertEquals(-1, asignador.asignar(0));
+        assertEquals(1, asignador.asignar(1));
+        assertEquals(-1, asignador.asignar(1));
+    }
+
+    @Test
+    @DisplayName("Test liberar puestos inválidos o libres")
+    public void testLiberarInvalido() {
+        assertFalse(asignador.liberar(0));
+        assertFalse(asignador.liberar(1));
+        asignador.asignar(3);
+        assertFalse(asignador.liberar(100));
+        assertTrue(asignador.liberar(1));
+        assertFalse(asignador.liberar(1));
+    }
+
+    @Test
+    @DisplayName("Test ocupar un puesto específico")
+    public void testOcuparPuesto() {
+        assertTrue(asignador.ocupar(3));
+        assertFalse(asignador.ocupar(3));
+        assertFalse(asignador.ocupar(0));
+
+        assertEquals(1, asignador.asignar(5));
+        assertEquals(2, asignador.asignar(5));
+        assertEquals(4, asignador.asignar(5));
+    }
+
+    @Test
+    @DisplayName("Test funciona con decenas de miles de puestos")
+    public void testMuchosPuestos() {
+        int capacidad = 50_000;
+        for (int i = 1; i <= capacidad; i++) {
+            assertEquals(i, asignador.asignar(capacidad));
+        }
+        assertEquals(-1, asignador.asignar(capacidad));
+
+        assertTrue(asignador.liberar(40_000));
+        assertTrue(asignador.liberar(12_345));
+        assertEquals(12_345, asignador.asignar(capacidad));
+        assertEquals(40_000, asignador.asignar(capacidad));
+
+        // Al ampliar la capacidad aparecen puestos nuevos
+        assertEquals(capacidad + 1, asignador.asignar(capacidad + 10));
+
+        asignador.reiniciar();
+        assertEquals(1, asignador.asignar(capacidad));
+    }
+}
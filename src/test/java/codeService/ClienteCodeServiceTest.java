@@ -144,6 +144,44 @@ public class ClienteCodeServiceTest {
         assertNull(clienteEncontrado3);
     }
 
+    @Test
+    @DisplayName("Test buscar clientes por prefijo del nombre")
+    public void testBuscarClientesPorPrefijoNombre() {
+        clienteService.añadirCliente("Juan Pérez", "1", "3001", "juan@example.com");
+        clienteService.añadirCliente("Juana Díaz", "2", "3002", "juana@example.com");
+        clienteService.añadirCliente("María Gómez", "3", "3003", "maria@example.com");
+
+        List<Cliente> encontrados = clienteService.buscarClientesPorPrefijoNombre("jua", 10);
+        assertEquals(2, encontrados.size());
+        assertEquals("Juan Pérez", encontrados.get(0).getNombre());
+        assertEquals(1, clienteService.buscarClientesPorPrefijoNombre("JUA", 1).size());
+        assertTrue(clienteService.buscarClientesPorPrefijoNombre("Pedro", 10).isEmpty());
+        assertTrue(clienteService.buscarClientesPorPrefijoNombre("", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test los índices se actualizan al modificar y eliminar clientes")
+    public void testIndicesSeActualizan() {
+        clienteService.añadirCliente("Juan Pérez", "ABC-1", "300 123-4567", "juan@example.com");
+        Cliente cliente = clienteService.buscarCliente("abc-1", 1);
+        assertNotNull(cliente);
+        assertSame(cliente, clienteService.buscarCliente("3001234567", 2));
+        assertFalse(clienteService.añadirCliente("Otro", " abc-1 ", "1", "otro@example.com"));
+
+        clienteService.actualizarCliente(cliente, 0, "Juan Carlos Pérez");
+        clienteService.actualizarCliente(cliente, 1, "3109876543");
+        assertNull(clienteService.buscarCliente("Juan Pérez", 0));
+        assertNull(clienteService.buscarCliente("3001234567", 2));
+        assertSame(cliente, clienteService.buscarCliente("juan carlos pérez", 0));
+        assertSame(cliente, clienteService.buscarCliente("310-987-6543", 2));
+
+        assertTrue(clienteService.eliminarCliente(cliente));
+        assertNull(clienteService.buscarCliente("ABC-1", 1));
+        assertNull(clienteService.buscarCliente("Juan Carlos Pérez", 0));
+        assertNull(clienteService.buscarCliente("3109876543", 2));
+        assertTrue(clienteService.añadirCliente("Otro", "ABC-1", "1", "otro@example.com"));
+    }
+
     // Tests para el método actualizarCliente
     @Test
     @DisplayName("Test actualizar nombre del cliente")
@@ -0,0 +1,99 @@
+package codeService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndicePlacasAproximadoTest {
+
+    private IndicePlacasAproximado indice;
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndicePlacasAproximado();
+        indice.agregar("ABC123");
+        indice.agregar("XYZ789");
+        indice.agregar("KLM456");
+    }
+
+    @Test
+    @DisplayName("Los caracteres que confunde la cámara tienen la misma forma canónica")
+    public void testFormaCanonica() {
+        assertEquals(IndicePlacasAproximado.canonica("ABC123"), IndicePlacasAproximado.canonica("A8C-l23"));
+        assertEquals(IndicePlacasAproximado.canonica("OIB"), IndicePlacasAproximado.canonica("018"));
+        assertNull(IndicePlacasAproximado.canonica(" - "));
+        assertEquals("ABC123", indice.buscarUnica("A8C-L23"));
+    }
+
+    @Test
+    @DisplayName("Se toleran un carácter cambiado, de más, de menos o vecinos intercambiados")
+    public void testDistanciaUno() {
+        assertEquals("ABC123", indice.buscarUnica("ABC124"));
+        assertEquals("ABC123", indice.buscarUnica("ABC1233"));
+        assertEquals("ABC123", indice.buscarUnica("ABC12"));
+        assertEquals("ABC123", indice.buscarUnica("ACB123"));
+        assertNull(indice.buscarUnica("ABC999"));
+        assertTrue(IndicePlacasAproximado.distanciaMaximaUno("ABCD", "ABDC"));
+        assertFalse(IndicePlacasAproximado.distanciaMaximaUno("ABCD", "BACE"));
+    }
+
+    @Test
+    @DisplayName("Si varias placas se parecen igual, no se elige ninguna")
+    public void testAmbiguedad() {
+        indice.agregar("ABC124");
+        assertNull(indice.buscarUnica("ABC125"));
+        assertEquals(List.of("ABC123", "ABC124"), indice.buscar("ABC125"));
+        // La placa idéntica siempre gana
+        assertEquals("ABC124", indice.buscarUnica("ABC124"));
+        assertEquals(List.of("ABC124", "ABC123"), indice.buscar("ABC124"));
+    }
+
+    @Test
+    @DisplayName("Las placas quitadas dejan de ser candidatas")
+    public void testQuitar() {
+        indice.quitar("ABC123");
+        assertNull(indice.buscarUnica("A8C123"));
+        assertTrue(indice.buscar("ABC12").isEmpty());
+        indice.limpiar();
+        assertTrue(indice.buscar("XYZ789").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Agregar y quitar placas desde varios hilos deja el índice consistente")
+    public void testVariosHilos() throws Exception {
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            final int hilo = h;
+            hilos.add(new Thread(() -> {
+                // Placas de la misma forma canónica y vecinas entre hilos: comparten llaves
+                for (int i = 0; i < 2000; i++) {
+                    String placa = "QR" + hilo + (i % 10);
+                    indice.agregar(placa);
+                    indice.quitar(placa);
+                    indice.agregar("OR" + hilo + (i % 10));
+                }
+            }));
+        }
+        for (Thread hilo : hilos) {
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        assertEquals("OR05", indice.buscarUnica("OR05"));
+        // Las placas con Q se quitaron: la lectura con Q solo encuentra la que tiene O
+        assertEquals("OR05", indice.buscarUnica("QR05"));
+        for (int h = 0; h < 4; h++) {
+            for (int i = 0; i < 10; i++) {
+                indice.quitar("OR" + h + i);
+            }
+        }
+        assertTrue(indice.buscar("OR05").isEmpty());
+        assertEquals("ABC123", indice.buscarUnica("A8C123"));
+    }
+}
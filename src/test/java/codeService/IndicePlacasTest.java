@@ -0,0 +1,65 @@
+package codeService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndicePlacasTest {
+
+    private IndicePlacas indice;
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndicePlacas();
+        for (String placa : List.of("ABC123", "ABC124", "XABC99", "ZZABC1", "ABC", "QWE123")) {
+            indice.agregar(placa);
+        }
+    }
+
+    @Test
+    @DisplayName("La placa exacta va primero, luego las de prefijo y después las que contienen el texto")
+    public void testOrdenDeResultados() {
+        assertEquals(List.of("ABC", "ABC123", "ABC124", "XABC99", "ZZABC1"), indice.buscar("ABC", 0, 10));
+        assertEquals(List.of("ABC123", "QWE123"), indice.buscar("123", 0, 10));
+        assertTrue(indice.buscar("NOEXISTE", 0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Los resultados se entregan por páginas")
+    public void testPaginacion() {
+        assertEquals(List.of("ABC", "ABC123"), indice.buscar("ABC", 0, 2));
+        assertEquals(List.of("ABC124", "XABC99"), indice.buscar("ABC", 1, 2));
+        assertEquals(List.of("ZZABC1"), indice.buscar("ABC", 2, 2));
+        assertTrue(indice.buscar("ABC", 3, 2).isEmpty());
+        assertTrue(indice.buscar("ABC", -1, 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Con menos de tres caracteres solo se busca por prefijo")
+    public void testTextoCorto() {
+        assertEquals(List.of("ABC", "ABC123", "ABC124"), indice.buscar("AB", 0, 10));
+        assertEquals(List.of("ZZABC1"), indice.buscar("Z", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Las placas quitadas no aparecen, aun después de reconstruir el índice")
+    public void testQuitarYReconstruir() {
+        assertTrue(indice.quitar("XABC99"));
+        assertFalse(indice.quitar("XABC99"));
+        assertEquals(List.of("ABC", "ABC123", "ABC124", "ZZABC1"), indice.buscar("ABC", 0, 10));
+
+        for (int i = 0; i < 3000; i++) {
+            indice.agregar(String.format("T%05d", i));
+        }
+        for (int i = 0; i < 3000; i++) {
+            indice.quitar(String.format("T%05d", i));
+        }
+        assertEquals(5, indice.tamano());
+        assertTrue(indice.buscar("000", 0, 10).isEmpty());
+        assertEquals(List.of("ZZABC1"), indice.buscar("ZAB", 0, 10));
+    }
+}
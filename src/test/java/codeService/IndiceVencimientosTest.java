@@ -0,0 +1,80 @@
+package codeService;
+
+import model.Automovil;
+import model.Cliente;
+import model.Moto;
+import model.Vehiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceVencimientosTest {
+
+    private IndiceVencimientos indice;
+    private Cliente cliente;
+    private Vehiculo auto;
+    private Vehiculo moto;
+    private Vehiculo otroAuto;
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndiceVencimientos();
+        cliente = new Cliente("Ana", "100", "3001", "ana@correo.com");
+        auto = new Automovil("ABC123", "Rojo", "2020");
+        moto = new Moto("XYZ789", "Azul", "2021");
+        otroAuto = new Automovil("DEF456", "Negro", "2022");
+        indice.registrar(auto, cliente, 20);
+        indice.registrar(moto, cliente, 10);
+        indice.registrar(otroAuto, null, 20);
+    }
+
+    @Test
+    @DisplayName("Las membresías de un rango salen ordenadas por vencimiento")
+    public void testVencenEntre() {
+        List<IndiceVencimientos.Vencimiento> vencen = indice.vencenEntre(10, 20);
+        assertEquals(List.of(moto, auto, otroAuto), vencen.stream().map(IndiceVencimientos.Vencimiento::vehiculo).toList());
+        assertEquals(cliente, vencen.get(0).cliente());
+        assertTrue(indice.vencenEntre(11, 19).isEmpty());
+        assertTrue(indice.vencenEntre(20, 10).isEmpty());
+        assertEquals(2, indice.contarVigentesEn(11));
+        assertEquals(3, indice.contarVigentesEn(10));
+        assertEquals(0, indice.contarVigentesEn(21));
+    }
+
+    @Test
+    @DisplayName("Registrar de nuevo mueve la membresía y quitar la elimina")
+    public void testMoverYQuitar() {
+        indice.registrar(moto, cliente, 30);
+        assertEquals(30, indice.buscar(moto).diaFin());
+        assertTrue(indice.vencenEntre(0, 15).isEmpty());
+        assertEquals(3, indice.tamano());
+
+        assertTrue(indice.quitar(auto));
+        assertFalse(indice.quitar(auto));
+        assertNull(indice.buscar(auto));
+        assertEquals(List.of(otroAuto, moto),
+                indice.vencenEntre(0, 100).stream().map(IndiceVencimientos.Vencimiento::vehiculo).toList());
+    }
+
+    @Test
+    @DisplayName("Los propietarios de un vehículo se conservan al moverlo y no se repiten")
+    public void testPropietarios() {
+        Cliente otro = new Cliente("Luis", "200", "3002", "luis@correo.com");
+        assertTrue(indice.agregarPropietario(auto, otro));
+        assertTrue(indice.agregarPropietario(auto, otro));
+        assertFalse(indice.agregarPropietario(new Automovil("NUE111", "Gris", "2023"), otro));
+        assertEquals(List.of(cliente, otro), indice.buscar(auto).propietarios());
+        assertTrue(indice.buscar(otroAuto).propietarios().isEmpty());
+
+        indice.registrar(auto, cliente, 40);
+        assertEquals(List.of(cliente, otro), indice.buscar(auto).propietarios());
+        assertEquals(cliente, indice.buscar(auto).cliente());
+        assertEquals(3, indice.tamano());
+        assertEquals(List.of(moto, otroAuto, auto),
+                indice.vencenEntre(0, 100).stream().map(IndiceVencimientos.Vencimiento::vehiculo).toList());
+    }
+}
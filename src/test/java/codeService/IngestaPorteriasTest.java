@@ -0,0 +1,219 @@
+package codeService;
+
+import model.Pago;
+import model.Parqueadero;
+import model.Vehiculo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.BitacoraEventos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestaPorteriasTest {
+
+    @TempDir
+    Path directorio;
+
+    private static ParqueaderoCodeService nuevoParqueadero(int motos) {
+        Parqueadero parqueadero = new Parqueadero();
+        parqueadero.setPuestosMotos(motos);
+        parqueadero.setPuestosAutomoviles(10);
+        parqueadero.setPuestosCamiones(10);
+        return new ParqueaderoCodeService(parqueadero);
+    }
+
+    @Test
+    @DisplayName("Test ráfaga de entradas y salidas se aplica por lotes y queda en la bitácora")
+    public void testRafagaConBitacora() throws IOException {
+        ParqueaderoCodeService parqueaderoService = nuevoParqueadero(50);
+        PagoCodeService pagoService = new PagoCodeService();
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            parqueaderoService.setBitacora(bitacora);
+            pagoService.setBitacora(bitacora);
+
+            List<CompletableFuture<Boolean>> entradas = new ArrayList<>();
+            try (IngestaPorterias ingesta = new IngestaPorterias(parqueaderoService, pagoService)) {
+                for (int i = 0; i < 80; i++) {
+                    entradas.add(ingesta.ofrecerEntrada(OcupacionParqueadero.TIPO_MOTO, "MOT" + i, "Rojo", "2020"));
+                }
+                int admitidas = 0;
+                for (CompletableFuture<Boolean> entrada : entradas) {
+                    if (entrada.join()) {
+                        admitidas++;
+                    }
+                }
+                assertEquals(50, admitidas);
+                // Lo que la portería encadena a la respuesta no corre en el hilo escritor
+                String hilo = ingesta.ofrecerEntrada(OcupacionParqueadero.TIPO_AUTOMOVIL, "AUT0", "Gris", "2020")
+                        .thenApply(admitida -> Thread.currentThread().getName()).join();
+                assertNotEquals("ingesta-porterias", hilo);
+
+                SalidaResultado salida = ingesta.ofrecerSalida("MOT0").join();
+                assertEquals(1000.0, salida.montoTotal());
+                assertTrue(salida.pagoRegistrado());
+                assertNull(ingesta.ofrecerSalida("MOT0").join());
+                assertEquals(0, ingesta.getRechazados());
+            }
+
+            assertEquals(50, parqueaderoService.getVehiculosActuales().size());
+            assertEquals(1, pagoService.getHistorialPagos().size());
+            // 51 entradas y una salida con su pago en el mismo evento
+            assertEquals(52, bitacora.getUltimaSecuencia());
+        }
+    }
+
+    @Test
+    @DisplayName("Test los eventos que la bitácora no confirma se deshacen")
+    public void testDeshacerLoteNoConfirmado() throws IOException {
+        ParqueaderoCodeService parqueaderoService = nuevoParqueadero(5);
+        PagoCodeService pagoService = new PagoCodeService();
+        BitacoraEventos bitacora = new BitacoraEventos(directorio);
+        parqueaderoService.setBitacora(bitacora);
+        pagoService.setBitacora(bitacora);
+        try (IngestaPorterias ingesta = new IngestaPorterias(parqueaderoService, pagoService)) {
+            assertTrue(ingesta.ofrecerEntrada(OcupacionParqueadero.TIPO_MOTO, "MOT0", "Rojo", "2020").join());
+            int puesto = parqueaderoService.obtenerPuestoVehiculo("MOT0");
+
+            // Con la bitácora cerrada ninguna escritura se confirma
+            bitacora.close();
+            CompletableFuture<Boolean> entrada = ingesta.ofrecerEntrada(OcupacionParqueadero.TIPO_MOTO, "MOT1", "Rojo", "2020");
+            CompletableFuture<SalidaResultado> salida = ingesta.ofrecerSalida("MOT0");
+            assertThrows(CompletionException.class, entrada::join);
+            assertThrows(CompletionException.class, salida::join);
+
+            assertNull(parqueaderoService.buscarVehiculoPorPlaca("MOT1"));
+            assertEquals(puesto, parqueaderoService.obtenerPuestoVehiculo("MOT0"));
+            assertEquals(1, parqueaderoService.obtenerEstadoParqueadero().get("motosActuales"));
+            assertTrue(pagoService.getHistorialPagos().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Test una salida y su pago se confirman o fallan juntos")
+    public void testSalidaYPagoJuntos() throws IOException {
+        ParqueaderoCodeService parqueaderoService = nuevoParqueadero(5);
+        PagoCodeService pagoService = new PagoCodeService() {
+            @Override
+            Pago prepararPago(Vehiculo vehiculo, double monto) {
+                if (vehiculo.getPlaca().equals("SINPAGO")) {
+                    throw new IllegalStateException("No se pudo preparar el pago");
+                }
+                return super.prepararPago(vehiculo, monto);
+            }
+        };
+        BitacoraEventos bitacora = new BitacoraEventos(directorio);
+        parqueaderoService.setBitacora(bitacora);
+        pagoService.setBitacora(bitacora);
+        try (IngestaPorterias ingesta = new IngestaPorterias(parqueaderoService, pagoService)) {
+            assertTrue(ingesta.ofrecerEntrada(OcupacionParqueadero.TIPO_MOTO, "MOT0", "Rojo", "2020").join());
+            assertTrue(ingesta.ofrecerEntrada(OcupacionParqueadero.TIPO_MOTO, "SINPAGO", "Azul", "2021").join());
+
+            // Falla el pago: la salida tampoco se aplica
+            assertThrows(CompletionException.class, () -> ingesta.ofrecerSalida("SINPAGO").join());
+            assertNotNull(parqueaderoService.buscarVehiculoPorPlaca("SINPAGO"));
+            assertEquals(1, parqueaderoService.buscarVehiculosPorPlacaAproximada("SINPAG0").size());
+
+            // Falla la salida: el pago tampoco entra al historial
+            bitacora.close();
+            assertThrows(CompletionException.class, () -> ingesta.ofrecerSalida("MOT0").join());
+            assertNotNull(parqueaderoService.buscarVehiculoPorPlaca("MOT0"));
+            assertTrue(pagoService.getHistorialPagos().isEmpty());
+            assertEquals(2, parqueaderoService.obtenerEstadoParqueadero().get("motosActuales"));
+
+            // Al reintentar se cobra una sola vez
+            bitacora = new BitacoraEventos(directorio);
+            parqueaderoService.setBitacora(bitacora);
+            pagoService.setBitacora(bitacora);
+            assertTrue(ingesta.ofrecerSalida("MOT0").join().pagoRegistrado());
+            assertEquals(1, pagoService.getHistorialPagos().size());
+        }
+
+        // Al recuperar, la salida llega con su pago
+        ParqueaderoCodeService recuperado = nuevoParqueadero(5);
+        PagoCodeService pagosRecuperados = new PagoCodeService();
+        RecuperadorEstado recuperador = new RecuperadorEstado(new ClienteCodeService(), new VehiculoCodeService(),
+                recuperado, pagosRecuperados, new MembresiaCodeService());
+        bitacora.reproducir(recuperador::aplicar);
+        bitacora.close();
+        assertNull(recuperado.buscarVehiculoPorPlaca("MOT0"));
+        assertNotNull(recuperado.buscarVehiculoPorPlaca("SINPAGO"));
+        assertEquals(1, pagosRecuperados.getHistorialPagos().size());
+    }
+
+    @Test
+    @DisplayName("Test interrumpir al escritor detiene el canal")
+    public void testInterrupcionDetiene() {
+        ParqueaderoCodeService parqueaderoService = new ParqueaderoCodeService(new Parqueadero()) {
+            @Override
+            CompletableFuture<Long> admitirEntrada(int tipoVehiculo, String placa, String color, String modelo) {
+                if (placa.equals("ALTO")) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.admitirEntrada(tipoVehiculo, placa, color, modelo);
+            }
+        };
+        parqueaderoService.configurarEspacios(5, 5, 5);
+
+        IngestaPorterias ingesta = new IngestaPorterias(parqueaderoService, null);
+        // El lote en curso termina y se responde
+        assertTrue(ingesta.ofrecerEntrada(0, "ALTO", "Gris", "2021").join());
+        CompletableFuture<Boolean> tardia = ingesta.ofrecerEntrada(0, "AUTO1", "Gris", "2021");
+        if (tardia != null) {
+            assertThrows(CompletionException.class, tardia::join);
+        }
+        assertNull(ingesta.ofrecerEntrada(0, "AUTO2", "Gris", "2021"));
+        ingesta.close();
+        assertNull(parqueaderoService.buscarVehiculoPorPlaca("AUTO1"));
+        assertNull(parqueaderoService.buscarVehiculoPorPlaca("AUTO2"));
+    }
+
+    @Test
+    @DisplayName("Test canal lleno rechaza en lugar de esperar")
+    public void testCanalLlenoRechaza() throws InterruptedException {
+        CountDownLatch aplicando = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        ParqueaderoCodeService parqueaderoService = new ParqueaderoCodeService(new Parqueadero()) {
+            @Override
+            CompletableFuture<Long> admitirEntrada(int tipoVehiculo, String placa, String color, String modelo) {
+                aplicando.countDown();
+                try {
+                    continuar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.admitirEntrada(tipoVehiculo, placa, color, modelo);
+            }
+        };
+        parqueaderoService.configurarEspacios(5, 5, 5);
+
+        IngestaPorterias ingesta = new IngestaPorterias(parqueaderoService, null, 2);
+        CompletableFuture<Boolean> primera = ingesta.ofrecerEntrada(0, "AUTO0", "Gris", "2021");
+        aplicando.await();
+        // El escritor está ocupado con la primera: solo caben dos más
+        CompletableFuture<Boolean> segunda = ingesta.ofrecerEntrada(0, "AUTO1", "Gris", "2021");
+        CompletableFuture<Boolean> tercera = ingesta.ofrecerEntrada(0, "AUTO2", "Gris", "2021");
+        assertNotNull(segunda);
+        assertNotNull(tercera);
+        assertEquals(0, ingesta.getCapacidadLibre());
+        assertNull(ingesta.ofrecerEntrada(0, "AUTO3", "Gris", "2021"));
+        assertEquals(1, ingesta.getRechazados());
+
+        continuar.countDown();
+        assertTrue(primera.join());
+        assertTrue(segunda.join());
+        assertTrue(tercera.join());
+        ingesta.close();
+
+        assertNull(ingesta.ofrecerSalida("AUTO0"));
+        assertEquals(3, parqueaderoService.getVehiculosActuales().size());
+    }
+}
@@ -0,0 +1,160 @@
+package codeService;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibroPagosTest {
+
+    private LibroPagos libro;
+    private Vehiculo automovil;
+
+    @BeforeEach
+    public void setUp() {
+        libro = new LibroPagos();
+        automovil = new Automovil("ABC123", "Rojo", "2020");
+    }
+
+    private Pago pagoEn(String id, LocalDateTime fecha) {
+        return new Pago(id, 1000, fecha, "Estacionamiento", automovil, null, "Automóvil");
+    }
+
+    @Test
+    @DisplayName("Las consultas por rango solo devuelven los días pedidos, ordenados por día")
+    public void testObtenerEntre() {
+        libro.agregar(pagoEn("c", LocalDateTime.of(2024, 3, 1, 9, 0)));
+        libro.agregar(pagoEn("a", LocalDateTime.of(2024, 1, 31, 23, 59)));
+        libro.agregar(pagoEn("b", LocalDateTime.of(2024, 2, 15, 12, 0)));
+        libro.agregar(pagoEn("b2", LocalDateTime.of(2024, 2, 15, 8, 0)));
+
+        List<Pago> febrero = libro.obtenerEntre(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+        assertEquals(2, febrero.size());
+        assertEquals("b", febrero.get(0).getId());
+        assertEquals("b2", febrero.get(1).getId());
+
+        List<Pago> todos = libro.obtenerEntre(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 3, 1));
+        assertEquals(List.of("a", "b", "b2", "c"), todos.stream().map(Pago::getId).toList());
+
+        assertTrue(libro.obtenerEntre(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 12, 31)).isEmpty());
+        assertTrue(libro.obtenerEntre(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 1, 1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Contar y recorrer un rango no necesita construir los pagos")
+    public void testContarYRecorrerEntre() {
+        libro.agregar(pagoEn("a", LocalDateTime.of(2024, 1, 31, 23, 59)));
+        libro.agregar(pagoEn("b", LocalDateTime.of(2024, 2, 15, 12, 0)));
+        libro.agregar(new Pago("b2", 2500.5, LocalDateTime.of(2024, 2, 15, 8, 0), "Membresía MENSUAL",
+                automovil, null, "Automóvil"));
+
+        LocalDate inicio = LocalDate.of(2024, 2, 1);
+        LocalDate fin = LocalDate.of(2024, 2, 29);
+        assertEquals(2, libro.contarEntre(inicio, fin));
+        assertEquals(3, libro.contarEntre(LocalDate.of(2024, 1, 1), fin));
+        assertEquals(0, libro.contarEntre(fin, inicio));
+
+        List<String> ids = new ArrayList<>();
+        long[] centavos = new long[1];
+        libro.recorrerEntre(inicio, fin, (id, monto, segundos, concepto, tipoVehiculo) -> {
+            ids.add(id + ":" + concepto);
+            centavos[0] += monto;
+        });
+        assertEquals(List.of("b:Estacionamiento", "b2:Membresía MENSUAL"), ids);
+        assertEquals(350050, centavos[0]);
+    }
+
+    @Test
+    @DisplayName("Un ID repetido se encuentra en su primera fila")
+    public void testBuscarIdRepetido() {
+        libro.agregar(pagoEn("r", LocalDateTime.of(2024, 5, 1, 10, 0)));
+        libro.agregar(pagoEn("r", LocalDateTime.of(2024, 6, 1, 10, 0)));
+
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), libro.buscarPorId("r").getFechaHora());
+        assertNull(libro.buscarPorId(null));
+    }
+
+    @Test
+    @DisplayName("El historial conserva el orden de registro")
+    public void testObtenerTodos() {
+        libro.agregar(pagoEn("x", LocalDateTime.of(2024, 5, 2, 10, 0)));
+        libro.agregar(pagoEn("y", LocalDateTime.of(2024, 5, 1, 10, 0)));
+
+        assertEquals(2, libro.tamano());
+        assertEquals("x", libro.obtenerTodos().get(0).getId());
+        assertEquals("y", libro.buscarPorId("y").getId());
+        assertNull(libro.buscarPorId("z"));
+    }
+
+    @Test
+    @DisplayName("Los pagos reconstruidos desde las columnas conservan sus datos")
+    public void testReconstruccionDesdeColumnas() {
+        Cliente cliente = new Cliente("Ana", "123", "555", "ana@correo.com");
+        Pago generado = new Pago(12345.67, automovil, cliente, TipoMembresia.MENSUAL);
+        libro.agregar(generado);
+        libro.agregar(pagoEn("no-hex", LocalDateTime.of(2024, 5, 1, 10, 0)));
+
+        Pago copia = libro.buscarPorId(generado.getId());
+        assertEquals(generado, copia);
+        assertEquals(12345.67, copia.getMonto(), 0.001);
+        assertEquals("Membresía MENSUAL", copia.getConcepto());
+        assertEquals(generado.getTipoVehiculo(), copia.getTipoVehiculo());
+        assertEquals(generado.getFechaHora().withNano(0), copia.getFechaHora());
+        assertSame(automovil, copia.getVehiculo());
+        assertSame(cliente, copia.getCliente());
+
+        Pago otro = libro.buscarPorId("no-hex");
+        assertNull(otro.getCliente());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), otro.getFechaHora());
+    }
+
+    @Test
+    @DisplayName("Los IDs hexadecimales y los de otra forma se buscan y se devuelven iguales")
+    public void testIdsHexadecimalesYOtros() {
+        libro.agregar(pagoEn("0000abcd", LocalDateTime.of(2024, 5, 1, 10, 0)));
+        libro.agregar(pagoEn("ABCDEF12", LocalDateTime.of(2024, 5, 1, 11, 0)));
+        libro.agregar(pagoEn("abcdef12", LocalDateTime.of(2024, 5, 1, 12, 0)));
+        libro.agregar(pagoEn(null, LocalDateTime.of(2024, 5, 1, 13, 0)));
+
+        assertEquals("0000abcd", libro.buscarPorId("0000abcd").getId());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 11, 0), libro.buscarPorId("ABCDEF12").getFechaHora());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 12, 0), libro.buscarPorId("abcdef12").getFechaHora());
+        assertNull(libro.buscarPorId("0000abce"));
+        assertNull(libro.buscarPorId("ABCDEF13"));
+        assertEquals(Arrays.asList("0000abcd", "ABCDEF12", "abcdef12", null),
+                libro.obtenerTodos().stream().map(Pago::getId).toList());
+
+        // El índice crece sin perder las filas anteriores
+        List<Pago> generados = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Pago pago = new Pago(1000, automovil, "Automóvil");
+            generados.add(pago);
+            libro.agregar(pago);
+        }
+        for (Pago pago : generados) {
+            assertEquals(pago.getId(), libro.buscarPorId(pago.getId()).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Cada pago conserva su propio vehículo y ve sus cambios de placa")
+    public void testVehiculoDeCadaPago() {
+        Vehiculo otraEstadia = new Automovil("ABC123", "Rojo", "2020");
+        libro.agregar(pagoEn("p1", LocalDateTime.of(2024, 5, 1, 10, 0)));
+        libro.agregar(new Pago("p2", 1000, LocalDateTime.of(2024, 5, 1, 11, 0), "Estacionamiento",
+                otraEstadia, null, "Automóvil"));
+
+        otraEstadia.setPlaca("XYZ999");
+        assertSame(automovil, libro.buscarPorId("p1").getVehiculo());
+        assertSame(otraEstadia, libro.buscarPorId("p2").getVehiculo());
+        assertEquals("XYZ999", libro.buscarPorId("p2").getVehiculo().getPlaca());
+    }
+}
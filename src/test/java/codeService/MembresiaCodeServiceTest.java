@@ -89,6 +89,11 @@ class MembresiaCodeServiceTest {
         public List<Cliente> obtenerTodosLosClientes() {
             return clientes;
         }
+
+        @Override
+        public int obtenerNumeroClientes() {
+            return clientes.size();
+        }
     }
 
     // Clase de prueba para VehiculoCodeService
@@ -279,6 +284,23 @@ class MembresiaCodeServiceTest {
         assertEquals("La membresía ha vencido", resultado.get("mensaje"));
     }
 
+    @Test
+    @DisplayName("Prueba de consulta tipada de vigencia")
+    void testConsultarVigencia() {
+        Automovil vehiculo = new Automovil("ABC123", "Toyota", "Corolla");
+        assertNull(membresiaService.consultarVigencia(vehiculo));
+
+        vehiculo.setMembresia(TipoMembresia.MENSUAL);
+        vehiculo.setFechaFinMembresia(LocalDate.now().plusDays(10).format(FORMATTER));
+        VigenciaMembresia vigencia = membresiaService.consultarVigencia(vehiculo);
+        assertTrue(vigencia.vigente());
+        assertEquals(10, vigencia.diasRestantes());
+        assertEquals(vigencia.aMapa(), membresiaService.verificarVigencia(vehiculo));
+
+        vehiculo.setFechaFinMembresia(LocalDate.now().minusDays(1).format(FORMATTER));
+        assertFalse(membresiaService.consultarVigencia(vehiculo).vigente());
+    }
+
     // ... continuar con todos los tests, aplicando las modificaciones mencionadas ...
 
     @Test
@@ -565,8 +587,13 @@ class MembresiaCodeServiceTest {
         };
         clienteProblematico.setMembresias(new ArrayList<>());
         
-        // Agregar cliente problemático
+        // Agregar cliente problemático con un vehículo de membresía vigente,
+        // para que el reporte llegue a consultarlo
+        Automovil auto = new Automovil("ABC123", "Toyota", "Corolla");
+        auto.setMembresia(TipoMembresia.MENSUAL);
+        auto.setFechaFinMembresia(LocalDate.now().plusDays(10).format(FORMATTER));
         clienteService.addCliente(clienteProblematico);
+        vehiculoService.agregarVehiculoACliente(clienteProblematico, auto);
         
         // Ejecutar método
         Map<String, Object> reporte = membresiaService.generarReporteMembresiasActivas();
@@ -577,6 +604,38 @@ class MembresiaCodeServiceTest {
         assertTrue(((String)reporte.get("error")).contains("Error al generar el reporte"));
     }
 
+    @Test
+    @DisplayName("Prueba de membresías por vencer y conteo de activas con el índice de vencimientos")
+    void testMembresiasPorVencerYConteoActivas() {
+        Cliente cliente = new Cliente("Juan Pérez", "123456789", "3001234567", "juan@example.com");
+        Automovil auto = new Automovil("ABC123", "Toyota", "Corolla");
+        Moto moto = new Moto("XYZ789", "Honda", "CBR");
+        Camion camion = new Camion("JKL456", "Volvo", "FH16");
+        clienteService.addCliente(cliente);
+        vehiculoService.agregarVehiculoACliente(cliente, auto);
+        vehiculoService.agregarVehiculoACliente(cliente, moto);
+        vehiculoService.agregarVehiculoACliente(cliente, camion);
+
+        // Membresía cargada antes de la primera consulta: entra al construir el índice
+        camion.setMembresia(TipoMembresia.MENSUAL);
+        camion.setFechaFinMembresia(LocalDate.now().plusDays(5).format(FORMATTER));
+        assertEquals(1, membresiaService.contarMembresiasActivas());
+
+        // Las operaciones del servicio mantienen el índice
+        assertTrue(membresiaService.registrarMembresia(auto, cliente, TipoMembresia.MENSUAL));
+        assertTrue(membresiaService.registrarMembresia(moto, cliente, TipoMembresia.ANUAL));
+        assertEquals(3, membresiaService.contarMembresiasActivas());
+        assertEquals(List.of(camion), membresiaService.obtenerMembresiasPorVencer(10));
+        assertEquals(List.of(camion, auto), membresiaService.obtenerMembresiasPorVencer(31));
+
+        assertTrue(membresiaService.renovarMembresia(camion, cliente));
+        assertEquals(List.of(auto, camion), membresiaService.obtenerMembresiasPorVencer(40));
+
+        assertTrue(membresiaService.cancelarMembresia(auto));
+        assertEquals(2, membresiaService.contarMembresiasActivas());
+        assertEquals(List.of(camion, moto), membresiaService.obtenerMembresiasPorVencer(366));
+    }
+
     
 @Test
 @DisplayName("Prueba de renovación con mismo tipo - parámetros nulos")
@@ -1806,4 +1865,92 @@ void testRenovarConMismoTipoFormatoFechaInvalido() {
         assertEquals(-1, spyMembresiaService.diasRestantesMembresia(vehiculo));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Los vehículos y clientes eliminados salen del reporte de membresías")
+    void testReporteDespuesDeEliminar() {
+        ClienteCodeService clientes = new ClienteCodeService();
+        VehiculoCodeService vehiculos = new VehiculoCodeService();
+        membresiaService.setClienteService(clientes);
+        membresiaService.setVehiculoService(vehiculos);
+
+        assertTrue(clientes.añadirCliente("Juan Pérez", "123456789", "3001234567", "juan@example.com"));
+        assertTrue(clientes.añadirCliente("Ana Gómez", "987654321", "3007654321", "ana@example.com"));
+        Cliente juan = clientes.buscarCliente("123456789", ClienteCodeService.BUSQUEDA_CEDULA);
+        Cliente ana = clientes.buscarCliente("987654321", ClienteCodeService.BUSQUEDA_CEDULA);
+        LocalDate fechaFin = LocalDate.now().plusDays(10);
+        for (Cliente cliente : List.of(juan, ana)) {
+            cliente.getMembresias().add(new Membresia(TipoMembresia.MENSUAL,
+                    LocalDate.now().format(FORMATTER), fechaFin.format(FORMATTER), 100000));
+        }
+        Automovil abc = new Automovil("ABC123", "Rojo", "2020");
+        Automovil def = new Automovil("DEF456", "Azul", "2021");
+        Automovil ghi = new Automovil("GHI789", "Gris", "2022");
+        for (Automovil auto : List.of(abc, def, ghi)) {
+            auto.setMembresia(TipoMembresia.MENSUAL);
+            auto.setFechaInicioMembresia(LocalDate.now().format(FORMATTER));
+            auto.setFechaFinMembresia(fechaFin.format(FORMATTER));
+        }
+        vehiculos.restaurarAsignacion(juan.getCedula(), abc);
+        vehiculos.restaurarAsignacion(juan.getCedula(), def);
+        vehiculos.restaurarAsignacion(ana.getCedula(), ghi);
+
+        ReporteMembresias reporte = membresiaService.generarReporteMembresias();
+        assertEquals(3, reporte.totalVehiculos());
+        assertEquals(3, membresiaService.contarMembresiasActivas());
+
+        // Eliminar un vehículo y desvincular otro después de construir el índice
+        assertTrue(vehiculos.eliminarVehiculo("ABC123"));
+        assertTrue(vehiculos.desvincularVehiculoDeCliente(juan, "DEF456"));
+        reporte = membresiaService.generarReporteMembresias();
+        assertEquals(1, reporte.totalVehiculos());
+        assertEquals(List.of(ghi), reporte.activas().get(ana));
+        assertEquals(1, membresiaService.contarMembresiasActivas());
+        assertEquals(List.of(ghi), membresiaService.obtenerMembresiasPorVencer(30));
+
+        // Eliminar el cliente que queda
+        assertTrue(clientes.eliminarCliente(ana));
+        assertEquals(0, membresiaService.contarMembresiasActivas());
+        assertTrue(membresiaService.obtenerMembresiasPorVencer(30).isEmpty());
+        assertTrue(membresiaService.vencerMembresias(fechaFin.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un vehículo con varios propietarios sale en el reporte con cada uno")
+    void testReporteVehiculoConVariosPropietarios() {
+        ClienteCodeService clientes = new ClienteCodeService();
+        VehiculoCodeService vehiculos = new VehiculoCodeService();
+        membresiaService.setClienteService(clientes);
+        membresiaService.setVehiculoService(vehiculos);
+
+        assertTrue(clientes.añadirCliente("Juan Pérez", "123456789", "3001234567", "juan@example.com"));
+        assertTrue(clientes.añadirCliente("Ana Gómez", "987654321", "3007654321", "ana@example.com"));
+        assertTrue(clientes.añadirCliente("Luis Díaz", "555555555", "3005555555", "luis@example.com"));
+        Cliente juan = clientes.buscarCliente("123456789", ClienteCodeService.BUSQUEDA_CEDULA);
+        Cliente ana = clientes.buscarCliente("987654321", ClienteCodeService.BUSQUEDA_CEDULA);
+        Cliente luis = clientes.buscarCliente("555555555", ClienteCodeService.BUSQUEDA_CEDULA);
+        LocalDate fechaFin = LocalDate.now().plusDays(10);
+        for (Cliente cliente : List.of(juan, ana, luis)) {
+            cliente.getMembresias().add(new Membresia(TipoMembresia.MENSUAL,
+                    LocalDate.now().format(FORMATTER), fechaFin.format(FORMATTER), 100000));
+        }
+        Automovil compartido = new Automovil("ABC123", "Rojo", "2020");
+        compartido.setMembresia(TipoMembresia.MENSUAL);
+        compartido.setFechaInicioMembresia(LocalDate.now().format(FORMATTER));
+        compartido.setFechaFinMembresia(fechaFin.format(FORMATTER));
+        vehiculos.restaurarAsignacion(juan.getCedula(), compartido);
+        vehiculos.restaurarAsignacion(ana.getCedula(), compartido);
+
+        ReporteMembresias reporte = membresiaService.generarReporteMembresias();
+        assertEquals(List.of(compartido), reporte.activas().get(juan));
+        assertEquals(List.of(compartido), reporte.activas().get(ana));
+        assertEquals(1, membresiaService.contarMembresiasActivas());
+        assertEquals(List.of(compartido), membresiaService.obtenerMembresiasPorVencer(30));
+
+        // Un propietario asignado después de construir el índice también aparece
+        assertTrue(vehiculos.asignarVehiculoACliente(luis, "ABC123"));
+        reporte = membresiaService.generarReporteMembresias();
+        assertEquals(List.of(compartido), reporte.activas().get(luis));
+        assertEquals(List.of(compartido), reporte.activas().get(juan));
+    }
+}
@@ -0,0 +1,122 @@
+package codeService;
+
+import model.Automovil;
+import model.Camion;
+import model.Moto;
+import model.TipoVehiculo;
+import model.Vehiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OcupacionParqueaderoTest {
+
+    private OcupacionParqueadero ocupacion;
+
+    @BeforeEach
+    public void setUp() {
+        ocupacion = new OcupacionParqueadero();
+    }
+
+    @Test
+    @DisplayName("Test contadores inician en cero")
+    public void testContadoresIniciales() {
+        assertEquals(0, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(0, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_MOTO));
+        assertEquals(0, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_CAMION));
+        assertEquals(0, ocupacion.obtenerTotalOcupados());
+    }
+
+    @Test
+    @DisplayName("Test entradas y salidas actualizan los contadores")
+    public void testEntradasYSalidas() {
+        ocupacion.registrarEntrada(OcupacionParqueadero.TIPO_AUTOMOVIL);
+        ocupacion.registrarEntrada(OcupacionParqueadero.TIPO_AUTOMOVIL);
+        ocupacion.registrarEntrada(OcupacionParqueadero.TIPO_MOTO);
+
+        assertEquals(2, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(1, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_MOTO));
+        assertEquals(3, ocupacion.obtenerTotalOcupados());
+
+        ocupacion.registrarSalida(OcupacionParqueadero.TIPO_AUTOMOVIL);
+        assertEquals(1, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_AUTOMOVIL));
+
+        // Una salida sin vehículos no deja el contador en negativo
+        ocupacion.registrarSalida(OcupacionParqueadero.TIPO_CAMION);
+        assertEquals(0, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_CAMION));
+    }
+
+    @Test
+    @DisplayName("Test tipos inválidos se ignoran")
+    public void testTiposInvalidos() {
+        ocupacion.registrarEntrada(-1);
+        ocupacion.registrarEntrada(3);
+
+        assertEquals(0, ocupacion.obtenerTotalOcupados());
+        assertEquals(0, ocupacion.obtenerOcupados(-1));
+        assertEquals(0, ocupacion.obtenerOcupados(3));
+    }
+
+    @Test
+    @DisplayName("Test reconstruir contadores desde una lista")
+    public void testReconstruir() {
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        vehiculos.add(new Automovil("AUTO1", "Rojo", "2023"));
+        vehiculos.add(new Moto("MOTO1", "Azul", "2022"));
+        vehiculos.add(new Moto("MOTO2", "Negro", "2021"));
+        vehiculos.add(new Camion("CAMION1", "Blanco", "2020"));
+        vehiculos.add(new Vehiculo("DESC1", "Gris", "2019"));
+
+        ocupacion.registrarEntrada(OcupacionParqueadero.TIPO_AUTOMOVIL);
+        ocupacion.reconstruir(vehiculos);
+
+        assertEquals(1, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(2, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_MOTO));
+        assertEquals(1, ocupacion.obtenerOcupados(OcupacionParqueadero.TIPO_CAMION));
+        assertEquals(4, ocupacion.obtenerTotalOcupados());
+
+        ocupacion.reconstruir(null);
+        assertEquals(0, ocupacion.obtenerTotalOcupados());
+    }
+
+    @Test
+    @DisplayName("Test códigos de tipo coinciden con el tipo del vehículo")
+    public void testCodigosDeTipo() {
+        assertEquals(TipoVehiculo.AUTOMOVIL, new Automovil("AUTO1", "Rojo", "2023").getTipo());
+        assertEquals(OcupacionParqueadero.TIPO_MOTO, OcupacionParqueadero.tipoDeVehiculo(new Moto("MOTO1", "Azul", "2022")));
+        assertEquals(OcupacionParqueadero.TIPO_CAMION, TipoVehiculo.CAMION.ordinal());
+        assertEquals(-1, OcupacionParqueadero.tipoDeVehiculo(new Vehiculo("DESC1", "Gris", "2019")));
+        assertEquals(-1, OcupacionParqueadero.tipoDeVehiculo(null));
+
+        assertEquals(TipoVehiculo.values().length, OcupacionParqueadero.CANTIDAD_TIPOS);
+        for (TipoVehiculo tipo : TipoVehiculo.values()) {
+            assertEquals(tipo, TipoVehiculo.deCodigo(tipo.ordinal()));
+            assertEquals(tipo.ordinal(), OcupacionParqueadero.tipoDeNombre(tipo.getNombre()));
+            assertEquals(tipo.getNombre(), OcupacionParqueadero.nombreDeTipo(tipo.ordinal()));
+        }
+        assertNull(TipoVehiculo.deCodigo(3));
+        assertNull(TipoVehiculo.deNombre("Bicicleta"));
+        assertEquals("Desconocido", OcupacionParqueadero.nombreDeTipo(-1));
+    }
+
+    @Test
+    @DisplayName("Test servicio usa los vehículos que ya trae el parqueadero")
+    public void testServicioConParqueaderoPrecargado() {
+        model.Parqueadero parqueadero = new model.Parqueadero();
+        parqueadero.setPuestosMotos(1);
+        parqueadero.setPuestosAutomoviles(2);
+        parqueadero.setPuestosCamiones(1);
+        parqueadero.getListaDevehiculos().add(new Moto("MOTO1", "Azul", "2022"));
+
+        ParqueaderoCodeService servicio = new ParqueaderoCodeService(parqueadero);
+
+        assertFalse(servicio.verificarDisponibilidadMotos());
+        assertTrue(servicio.verificarDisponibilidadAutomoviles());
+        assertEquals(1, servicio.obtenerEstadoParqueadero().get("totalOcupacion"));
+    }
+}
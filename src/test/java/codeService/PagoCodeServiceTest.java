@@ -335,30 +335,21 @@ class PagoCodeServiceTest {
             pagoService.registrarPago(moto, 5000); // Hoy
             pagoHoy = pagoService.getHistorialPagos().get(0);
             
-            // Crear un pago de ayer modificando la fecha manualmente
-            pagoService.registrarPago(camion, 15000);
-            pagoAyer = pagoService.getHistorialPagos().get(2);
-            // Simulamos que el pago es de ayer
-            setFechaPago(pagoAyer, LocalDateTime.now().minus(1, ChronoUnit.DAYS));
+            // Crear un pago de ayer
+            pagoAyer = registrarPagoEnFecha(camion, 15000, LocalDateTime.now().minus(1, ChronoUnit.DAYS));
             
             // Crear un pago del mes anterior
-            pagoService.registrarPago(moto, 8000);
-            pagoMesAnterior = pagoService.getHistorialPagos().get(3);
-            // Simulamos que el pago es del mes anterior
-            setFechaPago(pagoMesAnterior, LocalDateTime.now().minus(1, ChronoUnit.MONTHS));
+            pagoMesAnterior = registrarPagoEnFecha(moto, 8000, LocalDateTime.now().minus(1, ChronoUnit.MONTHS));
         }
         
-        // Método auxiliar para simular fechas en los pagos para pruebas
-        private void setFechaPago(Pago pago, LocalDateTime fecha) {
-            // Este método es solo para pruebas y simula cambiar la fecha del pago
-            // En una implementación real, esto requeriría acceso a métodos setter o reflexión
-            try {
-                java.lang.reflect.Field field = Pago.class.getDeclaredField("fechaHora");
-                field.setAccessible(true);
-                field.set(pago, fecha);
-            } catch (Exception e) {
-                fail("No se pudo modificar la fecha del pago para las pruebas: " + e.getMessage());
-            }
+        // Método auxiliar para registrar pagos con fechas pasadas en las pruebas.
+        // Los pagos se ubican por su fecha al registrarse, así que la fecha no se
+        // puede cambiar después.
+        private Pago registrarPagoEnFecha(Vehiculo vehiculo, double monto, LocalDateTime fecha) {
+            Pago pago = new Pago("P" + fecha.toLocalDate(), monto, fecha, "Estacionamiento",
+                    vehiculo, null, pagoService.determinarTipoVehiculo(vehiculo));
+            pagoService.restaurarPago(pago);
+            return pago;
         }
 
         @Test
@@ -4,14 +4,21 @@ import model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.BitacoraEventos;
 
-import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -223,16 +230,71 @@ public class ParqueaderoCodeServiceTest {
         assertEquals("ABC123", vehiculoMinusculas.getPlaca());
     }
 
+    @Test
+    @DisplayName("Test el índice de placas normaliza mayúsculas y espacios")
+    public void testIndicePlacasNormalizado() {
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
+
+        // La misma placa escrita distinto se considera duplicada
+        assertFalse(parqueaderoService.registrarEntradaVehiculo(0, " abc123 ", "Azul", "2024"));
+        assertEquals(1, parqueadero.getListaDevehiculos().size());
+
+        assertNotNull(parqueaderoService.buscarVehiculoPorPlaca(" abc123"));
+        assertNull(parqueaderoService.buscarVehiculoPorPlaca(null));
+        assertNull(parqueaderoService.buscarVehiculoPorPlaca("  "));
+
+        // La salida también encuentra el vehículo con la placa normalizada
+        Map<String, Object> resultado = parqueaderoService.registrarSalidaVehiculo("abc123 ");
+        assertNotNull(resultado);
+        assertTrue(parqueaderoService.getVehiculosActuales().isEmpty());
+        assertEquals(0, parqueadero.getListaDevehiculos().size());
+    }
+
+    @Test
+    @DisplayName("Test asignación de puestos en entrada y salida")
+    public void testAsignacionPuestos() {
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "AUTO1", "Rojo", "2023"));
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "AUTO2", "Azul", "2023"));
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(1, "MOTO1", "Negro", "2022"));
+
+        // Cada tipo tiene su propia numeración
+        assertEquals(1, parqueaderoService.obtenerPuestoVehiculo("AUTO1"));
+        assertEquals(2, parqueaderoService.obtenerPuestoVehiculo("AUTO2"));
+        assertEquals(1, parqueaderoService.obtenerPuestoVehiculo("MOTO1"));
+        assertEquals(-1, parqueaderoService.obtenerPuestoVehiculo("NOEXISTE"));
+        assertEquals(-1, parqueaderoService.obtenerPuestoVehiculo(null));
+
+        // Al salir se libera el puesto y se reutiliza en la siguiente entrada
+        Map<String, Object> salida = parqueaderoService.registrarSalidaVehiculo("AUTO1");
+        assertEquals(1, salida.get("puesto"));
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "AUTO3", "Verde", "2024"));
+        assertEquals(1, parqueaderoService.obtenerPuestoVehiculo("AUTO3"));
+    }
+
+    @Test
+    @DisplayName("Test los vehículos que ya trae el parqueadero reciben puestos dentro de la capacidad de su tipo")
+    public void testPuestosDeVehiculosPrecargados() {
+        parqueadero.setPuestosMotos(1);
+        parqueadero.getListaDevehiculos().add(new Moto("MOTO1", "Negro", "2022"));
+        parqueadero.getListaDevehiculos().add(new Moto("MOTO2", "Rojo", "2023"));
+        parqueadero.getListaDevehiculos().add(new Automovil("AUTO1", "Azul", "2024"));
+        parqueaderoService.setParqueadero(parqueadero);
+
+        assertEquals(1, parqueaderoService.obtenerPuestoVehiculo("MOTO1"));
+        // No hay un segundo puesto de moto: el vehículo queda sin puesto en lugar de uno inexistente
+        assertEquals(-1, parqueaderoService.obtenerPuestoVehiculo("MOTO2"));
+        assertEquals(1, parqueaderoService.obtenerPuestoVehiculo("AUTO1"));
+    }
+
     @Test
     @DisplayName("Test registrar salida de vehículo sin membresía")
     public void testRegistrarSalidaVehiculoSinMembresia() throws Exception {
         // Registrar un vehículo usando un tiempo de entrada fijo para pruebas
         assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
         
-        // Configurar hora de entrada fija (2 horas atrás) mediante reflexión
+        // Configurar hora de entrada fija (2 horas atrás)
         LocalDateTime horaEntradaFija = LocalDateTime.now().minusHours(2);
-        Map<String, LocalDateTime> vehiculosActuales = getVehiculosActualesMap();
-        vehiculosActuales.put("ABC123", horaEntradaFija);
+        parqueaderoService.establecerHoraEntrada("ABC123", horaEntradaFija);
         
         // Registrar salida
         Map<String, Object> resultado = parqueaderoService.registrarSalidaVehiculo("ABC123");
@@ -256,10 +318,9 @@ public class ParqueaderoCodeServiceTest {
         // Registrar un vehículo
         assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
         
-        // Configurar hora de entrada fija mediante reflexión
+        // Configurar hora de entrada fija
         LocalDateTime horaEntradaFija = LocalDateTime.now().minusHours(3);
-        Map<String, LocalDateTime> vehiculosActuales = getVehiculosActualesMap();
-        vehiculosActuales.put("ABC123", horaEntradaFija);
+        parqueaderoService.establecerHoraEntrada("ABC123", horaEntradaFija);
         
         // Asignar membresía al vehículo
         Vehiculo vehiculo = parqueaderoService.buscarVehiculoPorPlaca("ABC123");
@@ -280,6 +341,23 @@ public class ParqueaderoCodeServiceTest {
         assertEquals(0, parqueadero.getListaDevehiculos().size());
     }
 
+    @Test
+    @DisplayName("Test registrar salida de vehículo con membresía vencida")
+    public void testRegistrarSalidaVehiculoConMembresiaVencida() throws Exception {
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
+        parqueaderoService.establecerHoraEntrada("ABC123", LocalDateTime.now().minusHours(3));
+
+        Vehiculo vehiculo = parqueaderoService.buscarVehiculoPorPlaca("ABC123");
+        vehiculo.setMembresia(TipoMembresia.MENSUAL);
+        vehiculo.setFechaFinMembresia(LocalDate.now().minusDays(1).toString());
+
+        // Una membresía vencida no cubre la estadía
+        Map<String, Object> resultado = parqueaderoService.registrarSalidaVehiculo("ABC123");
+        assertNotNull(resultado);
+        assertEquals(false, resultado.get("tieneMembresiaActiva"));
+        assertTrue((Double) resultado.get("montoTotal") > 0);
+    }
+
     @Test
     @DisplayName("Test registrar salida con datos inválidos")
     public void testRegistrarSalidaDatosInvalidos() {
@@ -372,6 +450,34 @@ public class ParqueaderoCodeServiceTest {
         assertEquals(4, estadoActual.get("totalOcupacion"));
     }
 
+    @Test
+    @DisplayName("Test estado publicado cambia de versión solo cuando cambia la ocupación")
+    public void testEstadoVersionado() {
+        EstadoParqueadero inicial = parqueaderoService.obtenerEstado();
+        assertSame(inicial, parqueaderoService.obtenerEstado());
+        assertFalse(parqueaderoService.cambioDesde(inicial.version()));
+
+        parqueaderoService.registrarEntradaVehiculo(1, "MOTO1", "Verde", "2021");
+        EstadoParqueadero conMoto = parqueaderoService.obtenerEstado();
+        assertTrue(parqueaderoService.cambioDesde(inicial.version()));
+        assertEquals(1, conMoto.motosActuales());
+        assertEquals(4, conMoto.motosDisponibles());
+        // La foto anterior no cambia
+        assertEquals(0, inicial.motosActuales());
+
+        // Una entrada rechazada no publica nada nuevo
+        assertFalse(parqueaderoService.registrarEntradaVehiculo(1, "MOTO1", "Verde", "2021"));
+        assertFalse(parqueaderoService.cambioDesde(conMoto.version()));
+
+        parqueaderoService.configurarEspacios(6, 10, 3);
+        assertEquals(19, parqueaderoService.obtenerEstado().totalEspacios());
+        parqueaderoService.registrarSalidaVehiculo("MOTO1");
+        EstadoParqueadero vacio = parqueaderoService.obtenerEstado();
+        assertEquals(0, vacio.totalOcupacion());
+        assertTrue(vacio.cambioDesde(conMoto.version()));
+        assertEquals(vacio.aMapa(), parqueaderoService.obtenerEstadoParqueadero());
+    }
+
     @Test
     @DisplayName("Test obtener lista de vehículos actuales")
     public void testObtenerListaVehiculosActuales() {
@@ -427,6 +533,26 @@ public class ParqueaderoCodeServiceTest {
         assertNotNull(motoConMembresia.get("fechaFinMembresia"));
     }
 
+    @Test
+    @DisplayName("Test salida y lista de vehículos con resultados tipados")
+    public void testResultadosTipados() {
+        parqueaderoService.registrarEntradaVehiculo(2, "CAMION1", "Blanco", "2020");
+
+        List<VehiculoActual> actuales = parqueaderoService.listarVehiculosActuales();
+        assertEquals(1, actuales.size());
+        assertEquals(TipoVehiculo.CAMION, actuales.get(0).tipo());
+        assertFalse(actuales.get(0).tieneMembresia());
+        assertEquals(actuales.get(0).aMapa(), parqueaderoService.obtenerListaVehiculosActuales().get(0));
+
+        SalidaResultado salida = parqueaderoService.registrarSalida("CAMION1");
+        assertEquals(TipoVehiculo.CAMION, salida.tipoVehiculo());
+        assertEquals(1, salida.horasEstadia());
+        assertEquals(3000.0, salida.montoTotal());
+        assertFalse(salida.tieneMembresiaActiva());
+        assertEquals("Camión", salida.aMapa().get("tipoVehiculo"));
+        assertNull(parqueaderoService.registrarSalida("CAMION1"));
+    }
+
     @Test
     @DisplayName("Test obtener tipo de vehículo")
     public void testObtenerTipoVehiculo() {
@@ -461,8 +587,7 @@ public class ParqueaderoCodeServiceTest {
         
         // Configurar hora de entrada que resultaría en menos de 1 hora
         LocalDateTime horaEntradaFija = LocalDateTime.now().minusMinutes(30);
-        Map<String, LocalDateTime> vehiculosActuales = getVehiculosActualesMap();
-        vehiculosActuales.put("AUTO_MIN", horaEntradaFija);
+        parqueaderoService.establecerHoraEntrada("AUTO_MIN", horaEntradaFija);
         
         // Registrar salida
         Map<String, Object> resultado = parqueaderoService.registrarSalidaVehiculo("AUTO_MIN");
@@ -472,10 +597,140 @@ public class ParqueaderoCodeServiceTest {
         assertEquals(2000.0, resultado.get("montoTotal")); // 1 hora * 2000
     }
 
-    // Método auxiliar para acceder al mapa de vehículos actuales mediante reflexión
-    private Map<String, LocalDateTime> getVehiculosActualesMap() throws Exception {
-        Field field = ParqueaderoCodeService.class.getDeclaredField("vehiculosActuales");
-        field.setAccessible(true);
-        return (Map<String, LocalDateTime>) field.get(parqueaderoService);
+    @Test
+    @DisplayName("Test buscar vehículo con una placa mal leída")
+    public void testBuscarVehiculoPorPlacaTolerante() {
+        parqueaderoService.registrarEntradaVehiculo(0, "BOS123", "Rojo", "2020");
+        parqueaderoService.registrarEntradaVehiculo(0, "XYZ789", "Azul", "2021");
+
+        assertEquals("BOS123", parqueaderoService.buscarVehiculoPorPlacaTolerante("8O5-l23").getPlaca());
+        assertEquals("XYZ789", parqueaderoService.buscarVehiculoPorPlacaTolerante("XYZ78").getPlaca());
+        assertEquals("BOS123", parqueaderoService.buscarVehiculosPorPlacaAproximada("B0S12").get(0).getPlaca());
+        assertNull(parqueaderoService.buscarVehiculoPorPlacaTolerante("QQQ000"));
+
+        parqueaderoService.registrarSalidaVehiculo("BOS123");
+        assertNull(parqueaderoService.buscarVehiculoPorPlacaTolerante("8OS123"));
+        assertTrue(parqueaderoService.buscarVehiculosPorPlacaAproximada("BOS123").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test entradas concurrentes no exceden la capacidad")
+    public void testEntradasConcurrentesRespetanCapacidad() throws Exception {
+        int porterias = 8;
+        int intentosPorPorteria = 50;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(porterias);
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicInteger admitidos = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int p = 0; p < porterias; p++) {
+            final int porteria = p;
+            tareas.add(ejecutor.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < intentosPorPorteria; i++) {
+                    if (parqueaderoService.registrarEntradaVehiculo(0, "P" + porteria + "-" + i, "Rojo", "2023")) {
+                        admitidos.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+
+        assertEquals(10, admitidos.get());
+        assertEquals(10, parqueadero.getListaDevehiculos().size());
+        assertEquals(10, parqueaderoService.getVehiculosActuales().size());
+        assertFalse(parqueaderoService.verificarDisponibilidadAutomoviles());
+    }
+
+    @Test
+    @DisplayName("Test una placa duplicada no le quita el último espacio a una entrada válida")
+    public void testDuplicadoNoOcupaUltimoEspacio() throws Exception {
+        parqueaderoService.configurarEspacios(5, 2, 3);
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
+
+        for (int ronda = 0; ronda < 50; ronda++) {
+            int porterias = 4;
+            ExecutorService ejecutor = Executors.newFixedThreadPool(porterias + 1);
+            CountDownLatch inicio = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int p = 0; p < porterias; p++) {
+                tareas.add(ejecutor.submit(() -> {
+                    inicio.await();
+                    for (int i = 0; i < 20; i++) {
+                        assertFalse(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Azul", "2024"));
+                    }
+                    return null;
+                }));
+            }
+            Future<Boolean> valida = ejecutor.submit(() -> {
+                inicio.await();
+                return parqueaderoService.registrarEntradaVehiculo(0, "XYZ789", "Negro", "2022");
+            });
+            inicio.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            assertTrue(valida.get());
+            ejecutor.shutdown();
+
+            assertEquals(2, parqueadero.getListaDevehiculos().size());
+            assertNotNull(parqueaderoService.registrarSalida("XYZ789"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test salidas concurrentes de la misma placa se procesan una sola vez")
+    public void testSalidasConcurrentesMismaPlaca() throws Exception {
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
+
+        int porterias = 4;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(porterias);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Map<String, Object>>> tareas = new ArrayList<>();
+        for (int p = 0; p < porterias; p++) {
+            tareas.add(ejecutor.submit(() -> {
+                inicio.await();
+                return parqueaderoService.registrarSalidaVehiculo("ABC123");
+            }));
+        }
+        inicio.countDown();
+        int salidas = 0;
+        for (Future<Map<String, Object>> tarea : tareas) {
+            if (tarea.get() != null) {
+                salidas++;
+            }
+        }
+        ejecutor.shutdown();
+
+        assertEquals(1, salidas);
+        assertEquals(0, parqueadero.getListaDevehiculos().size());
+        assertEquals(0, parqueaderoService.obtenerEstadoParqueadero().get("automovilesActuales"));
+    }
+
+    @Test
+    @DisplayName("Test entrada y salida que la bitácora no confirma se deshacen")
+    public void testDeshacerCambiosNoConfirmados(@TempDir Path directorio) throws Exception {
+        assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2023"));
+        BitacoraEventos bitacora = new BitacoraEventos(directorio);
+        bitacora.close();
+        parqueaderoService.setBitacora(bitacora);
+
+        // La salida falla: el vehículo sigue en su puesto
+        assertThrows(IllegalStateException.class, () -> parqueaderoService.registrarSalida("ABC123"));
+        assertTrue(parqueaderoService.getVehiculosActuales().containsKey("ABC123"));
+        assertEquals(1, parqueadero.getListaDevehiculos().size());
+        assertEquals(1, parqueaderoService.obtenerEstado().automovilesActuales());
+
+        // La entrada falla: no queda rastro del vehículo
+        assertThrows(IllegalStateException.class,
+                () -> parqueaderoService.registrarEntradaVehiculo(1, "XYZ12A", "Negro", "2020"));
+        assertFalse(parqueaderoService.getVehiculosActuales().containsKey("XYZ12A"));
+        assertEquals(1, parqueadero.getListaDevehiculos().size());
+        assertEquals(0, parqueaderoService.obtenerEstado().motosActuales());
     }
-}
\ No newline at end of file
+}
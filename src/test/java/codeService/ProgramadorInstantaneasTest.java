@@ -0,0 +1,80 @@
+package codeService;
+
+import model.Parqueadero;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.AlmacenInstantaneas;
+import persistencia.BitacoraEventos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramadorInstantaneasTest {
+
+    @TempDir
+    Path directorio;
+
+    private ClienteCodeService clienteService;
+    private RecuperadorEstado recuperador;
+    private AlmacenInstantaneas almacen;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Parqueadero parqueadero = new Parqueadero();
+        parqueadero.setListaDevehiculos(new ArrayList<>());
+        clienteService = new ClienteCodeService();
+        VehiculoCodeService vehiculoService = new VehiculoCodeService();
+        MembresiaCodeService membresiaService = new MembresiaCodeService();
+        membresiaService.setClienteService(clienteService);
+        membresiaService.setVehiculoService(vehiculoService);
+        recuperador = new RecuperadorEstado(clienteService, vehiculoService,
+                new ParqueaderoCodeService(parqueadero), new PagoCodeService(), membresiaService);
+        almacen = new AlmacenInstantaneas(directorio.resolve("instantaneas"));
+    }
+
+    @Test
+    @DisplayName("Solo se toma una instantánea si hubo eventos desde la anterior")
+    public void testTomarSoloConEventosNuevos() throws IOException {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio.resolve("bitacora"));
+             ProgramadorInstantaneas programador = new ProgramadorInstantaneas(recuperador, bitacora, almacen)) {
+            recuperador.recuperar(bitacora, almacen);
+            assertEquals(-1, programador.getUltimaSecuencia());
+
+            assertTrue(clienteService.añadirCliente("Ana", "123", "300", "ana@correo.com"));
+            assertTrue(programador.tomar());
+            assertEquals(1, programador.getUltimaSecuencia());
+            assertFalse(programador.tomar());
+
+            assertTrue(clienteService.añadirCliente("Luis", "456", "301", "luis@correo.com"));
+            assertTrue(programador.tomar());
+            assertEquals(2, programador.getUltimaSecuencia());
+            assertEquals(1, almacen.listar().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Las instantáneas en segundo plano se toman cada intervalo")
+    public void testInstantaneasEnSegundoPlano() throws Exception {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio.resolve("bitacora"));
+             ProgramadorInstantaneas programador = new ProgramadorInstantaneas(recuperador, bitacora, almacen)) {
+            recuperador.recuperar(bitacora, almacen);
+            assertTrue(clienteService.añadirCliente("Ana", "123", "300", "ana@correo.com"));
+
+            assertFalse(programador.iniciar(Duration.ZERO));
+            assertTrue(programador.iniciar(Duration.ofMillis(20)));
+            assertFalse(programador.iniciar(Duration.ofMillis(20)));
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (programador.getUltimaSecuencia() < 1 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, programador.getUltimaSecuencia());
+            assertNull(programador.getUltimaFalla());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package codeService;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.AlmacenInstantaneas;
+import persistencia.BitacoraEventos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecuperadorEstadoTest {
+
+    @TempDir
+    Path directorio;
+
+    private ClienteCodeService clienteService;
+    private VehiculoCodeService vehiculoService;
+    private ParqueaderoCodeService parqueaderoService;
+    private PagoCodeService pagoService;
+    private MembresiaCodeService membresiaService;
+    private RecuperadorEstado recuperador;
+
+    @BeforeEach
+    public void setUp() {
+        crearServicios();
+    }
+
+    private void crearServicios() {
+        Parqueadero parqueadero = new Parqueadero("Parqueadero Test", "Calle Test 123", "John Doe", "123456789", "test@example.com");
+        parqueadero.setPuestosMotos(5);
+        parqueadero.setPuestosAutomoviles(10);
+        parqueadero.setPuestosCamiones(3);
+        parqueadero.setListaDevehiculos(new ArrayList<>());
+        parqueadero.setListaDeClientes(new ArrayList<>());
+
+        clienteService = new ClienteCodeService();
+        vehiculoService = new VehiculoCodeService();
+        parqueaderoService = new ParqueaderoCodeService(parqueadero);
+        pagoService = new PagoCodeService();
+        // Sin servicio de pagos: los vehículos registrados no tienen tipo y su tarifa sería 0
+        membresiaService = new MembresiaCodeService();
+        membresiaService.setClienteService(clienteService);
+        membresiaService.setVehiculoService(vehiculoService);
+        recuperador = new RecuperadorEstado(clienteService, vehiculoService, parqueaderoService,
+                pagoService, membresiaService);
+    }
+
+    @Test
+    @DisplayName("El estado se reconstruye igual después de reiniciar")
+    public void testRecuperarEstado() throws IOException {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            assertEquals(0, recuperador.recuperar(bitacora));
+
+            assertTrue(clienteService.añadirCliente("Ana", "123", "300", "ana@correo.com"));
+            Cliente ana = clienteService.buscarCliente("123", 1);
+            assertTrue(vehiculoService.registrarVehiculo(ana, "ABC123", "Rojo", "2020"));
+            assertTrue(vehiculoService.registrarVehiculo("XYZ789", "Azul", "2018"));
+            assertTrue(membresiaService.registrarMembresia(vehiculoService.buscarVehiculo("ABC123"), ana,
+                    TipoMembresia.MENSUAL));
+
+            assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2020"));
+            assertTrue(parqueaderoService.registrarEntradaVehiculo(1, "MOT45A", "Negro", "2022"));
+            assertTrue(parqueaderoService.registrarEntradaVehiculo(2, "CAM001", "Blanco", "2015"));
+            assertNotNull(parqueaderoService.registrarSalidaVehiculo("MOT45A"));
+            assertTrue(pagoService.registrarPago(parqueaderoService.buscarVehiculoPorPlaca("CAM001"), 3000));
+        }
+        int puestoCamion = parqueaderoService.obtenerPuestoVehiculo("CAM001");
+        int pagos = pagoService.getHistorialPagos().size();
+
+        crearServicios();
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            assertTrue(recuperador.recuperar(bitacora) > 0);
+
+            assertEquals(1, clienteService.obtenerNumeroClientes());
+            assertEquals(2, vehiculoService.obtenerTodosLosVehiculos().size());
+            assertEquals("123", vehiculoService.buscarPropietarioVehiculo("ABC123"));
+
+            Vehiculo abc = vehiculoService.buscarVehiculo("ABC123");
+            assertEquals(TipoMembresia.MENSUAL, abc.getMembresia());
+            assertTrue(membresiaService.tieneMembresiasActiva(abc));
+            assertEquals(1, clienteService.buscarCliente("123", 1).getMembresias().size());
+
+            Map<String, Object> estado = parqueaderoService.obtenerEstadoParqueadero();
+            assertNotNull(parqueaderoService.buscarVehiculoPorPlaca("ABC123"));
+            assertNull(parqueaderoService.buscarVehiculoPorPlaca("MOT45A"));
+            assertEquals(2, parqueaderoService.getParqueadero().getListaDevehiculos().size());
+            assertEquals(puestoCamion, parqueaderoService.obtenerPuestoVehiculo("CAM001"));
+            assertNotNull(estado);
+
+            assertEquals(pagos, pagoService.getHistorialPagos().size());
+
+            // Las operaciones nuevas se siguen registrando
+            assertNotNull(parqueaderoService.registrarSalidaVehiculo("CAM001"));
+        }
+
+        crearServicios();
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            recuperador.recuperar(bitacora);
+            assertNull(parqueaderoService.buscarVehiculoPorPlaca("CAM001"));
+            assertEquals(1, parqueaderoService.getParqueadero().getListaDevehiculos().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Las eliminaciones y cambios de clientes y vehículos sobreviven al reinicio")
+    public void testRecuperarEliminacionesYCambios() throws IOException {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            recuperador.recuperar(bitacora);
+
+            clienteService.añadirCliente("Ana", "123", "300", "ana@correo.com");
+            clienteService.añadirCliente("Luis", "456", "301", "luis@correo.com");
+            Cliente ana = clienteService.buscarCliente("123", 1);
+            Cliente luis = clienteService.buscarCliente("456", 1);
+            vehiculoService.registrarVehiculo(ana, "ABC123", "Rojo", "2020");
+            vehiculoService.registrarVehiculo("XYZ789", "Azul", "2018");
+            vehiculoService.registrarVehiculo("DEL000", "Gris", "2010");
+
+            assertTrue(clienteService.actualizarCliente(ana, 0, "Ana María"));
+            assertTrue(clienteService.eliminarCliente(luis));
+            assertTrue(vehiculoService.actualizarVehiculo("ABC123", "ABC124", "Negro", null));
+            assertTrue(vehiculoService.eliminarVehiculo("DEL000"));
+            assertTrue(vehiculoService.asignarVehiculoACliente(ana, "XYZ789"));
+            assertTrue(vehiculoService.desvincularVehiculoDeCliente(ana, "ABC124"));
+        }
+
+        crearServicios();
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            recuperador.recuperar(bitacora);
+
+            assertEquals(1, clienteService.obtenerNumeroClientes());
+            assertNull(clienteService.buscarCliente("456", 1));
+            assertEquals("Ana María", clienteService.buscarCliente("123", 1).getNombre());
+            assertNotNull(clienteService.buscarCliente("ana maría", 0));
+
+            assertNull(vehiculoService.buscarVehiculo("DEL000"));
+            assertNull(vehiculoService.buscarVehiculo("ABC123"));
+            Vehiculo abc = vehiculoService.buscarVehiculo("ABC124");
+            assertEquals("Negro", abc.getColor());
+            assertEquals("2020", abc.getModelo());
+            assertNull(vehiculoService.buscarPropietarioVehiculo("ABC124"));
+            assertEquals("123", vehiculoService.buscarPropietarioVehiculo("XYZ789"));
+        }
+    }
+
+    @Test
+    @DisplayName("Una membresía vencida sigue vencida después de reiniciar")
+    public void testRecuperarVencimiento() throws IOException {
+        LocalDate despuesDelFin;
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            recuperador.recuperar(bitacora);
+
+            clienteService.añadirCliente("Ana", "123", "300", "ana@correo.com");
+            Cliente ana = clienteService.buscarCliente("123", 1);
+            vehiculoService.registrarVehiculo(ana, "ABC123", "Rojo", "2020");
+            Vehiculo abc = vehiculoService.buscarVehiculo("ABC123");
+            assertTrue(membresiaService.registrarMembresia(abc, ana, TipoMembresia.MENSUAL));
+
+            despuesDelFin = FechasMembresia.aFecha(abc.getDiaFinMembresia()).plusDays(1);
+            assertEquals(1, membresiaService.vencerMembresias(despuesDelFin).size());
+            assertEquals(TipoMembresia.NINGUNA, abc.getMembresia());
+        }
+        int diaFin = vehiculoService.buscarVehiculo("ABC123").getDiaFinMembresia();
+
+        crearServicios();
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            recuperador.recuperar(bitacora);
+
+            Vehiculo abc = vehiculoService.buscarVehiculo("ABC123");
+            assertEquals(TipoMembresia.NINGUNA, abc.getMembresia());
+            assertEquals(diaFin, abc.getDiaFinMembresia());
+            // El vencimiento ya se avisó antes de reiniciar
+            assertTrue(membresiaService.vencerMembresias(despuesDelFin).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("El arranque carga la instantánea y solo aplica los eventos posteriores")
+    public void testRecuperarDesdeInstantanea() throws IOException {
+        AlmacenInstantaneas almacen = new AlmacenInstantaneas(directorio.resolve("instantaneas"));
+        Path dirBitacora = directorio.resolve("bitacora");
+        try (BitacoraEventos bitacora = new BitacoraEventos(dirBitacora)) {
+            recuperador.recuperar(bitacora, almacen);
+
+            assertTrue(clienteService.añadirCliente("Ana", "123", "300", "ana@correo.com"));
+            Cliente ana = clienteService.buscarCliente("123", 1);
+            assertTrue(vehiculoService.registrarVehiculo(ana, "ABC123", "Rojo", "2020"));
+            assertTrue(membresiaService.registrarMembresia(vehiculoService.buscarVehiculo("ABC123"), ana,
+                    TipoMembresia.ANUAL));
+            assertTrue(parqueaderoService.registrarEntradaVehiculo(0, "ABC123", "Rojo", "2020"));
+            assertTrue(parqueaderoService.registrarEntradaVehiculo(2, "CAM001", "Blanco", "2015"));
+            assertTrue(pagoService.registrarPago(parqueaderoService.buscarVehiculoPorPlaca("CAM001"), 3000));
+            parqueaderoService.configurarTarifas(1500, 2500, 3500);
+
+            assertEquals(bitacora.getUltimaSecuencia(), recuperador.tomarInstantanea(bitacora, almacen));
+            assertEquals(1, bitacora.getSegmentos().size());
+
+            // Eventos posteriores a la instantánea
+            assertNotNull(parqueaderoService.registrarSalidaVehiculo("CAM001"));
+            assertTrue(parqueaderoService.registrarEntradaVehiculo(1, "MOT45A", "Negro", "2022"));
+        }
+        int puestoAuto = parqueaderoService.obtenerPuestoVehiculo("ABC123");
+
+        crearServicios();
+        try (BitacoraEventos bitacora = new BitacoraEventos(dirBitacora)) {
+            assertEquals(2, recuperador.recuperar(bitacora, almacen));
+
+            assertEquals(1, clienteService.obtenerNumeroClientes());
+            Vehiculo abc = vehiculoService.buscarVehiculo("ABC123");
+            assertEquals(TipoMembresia.ANUAL, abc.getMembresia());
+            assertEquals("123", vehiculoService.buscarPropietarioVehiculo("ABC123"));
+            assertEquals(1, clienteService.buscarCliente("123", 1).getMembresias().size());
+
+            assertEquals(puestoAuto, parqueaderoService.obtenerPuestoVehiculo("ABC123"));
+            assertNull(parqueaderoService.buscarVehiculoPorPlaca("CAM001"));
+            assertNotNull(parqueaderoService.buscarVehiculoPorPlaca("MOT45A"));
+            assertEquals(2, parqueaderoService.getParqueadero().getListaDevehiculos().size());
+            assertEquals(2500, parqueaderoService.obtenerTarifaPorTipo(0));
+
+            assertEquals(1, pagoService.getHistorialPagos().size());
+            assertEquals("CAM001", pagoService.getHistorialPagos().get(0).getVehiculo().getPlaca());
+        }
+    }
+
+    @Test
+    @DisplayName("Una instantánea tomada con operaciones en curso corresponde a su secuencia")
+    public void testInstantaneaConOperacionesEnCurso() throws Exception {
+        AlmacenInstantaneas almacen = new AlmacenInstantaneas(directorio.resolve("instantaneas"));
+        Path dirBitacora = directorio.resolve("bitacora");
+        Map<String, java.time.LocalDateTime> estacionados;
+        int pagos;
+        try (BitacoraEventos bitacora = new BitacoraEventos(dirBitacora)) {
+            recuperador.recuperar(bitacora, almacen);
+
+            int porterias = 4;
+            AtomicBoolean seguir = new AtomicBoolean(true);
+            ExecutorService ejecutor = Executors.newFixedThreadPool(porterias);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int p = 0; p < porterias; p++) {
+                String prefijo = "PT" + p;
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; seguir.get(); i++) {
+                        String placa = prefijo + (i % 3);
+                        if (parqueaderoService.registrarEntradaVehiculo(0, placa, "Rojo", "2020")) {
+                            pagoService.registrarPago(parqueaderoService.buscarVehiculoPorPlaca(placa), 2000);
+                        }
+                        if (i % 2 == 0) {
+                            parqueaderoService.registrarSalida(placa);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                recuperador.tomarInstantanea(bitacora, almacen);
+            }
+            seguir.set(false);
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            ejecutor.shutdown();
+            estacionados = parqueaderoService.getVehiculosActuales();
+            pagos = pagoService.getHistorialPagos().size();
+        }
+
+        crearServicios();
+        try (BitacoraEventos bitacora = new BitacoraEventos(dirBitacora)) {
+            recuperador.recuperar(bitacora, almacen);
+
+            // Un evento aplicado dos veces (en la instantánea y al reproducir) duplicaría pagos
+            assertEquals(pagos, pagoService.getHistorialPagos().size());
+            assertEquals(estacionados.keySet(), parqueaderoService.getVehiculosActuales().keySet());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package codeService;
+
+import model.Automovil;
+import model.Camion;
+import model.Moto;
+import model.TipoMembresia;
+import model.Vehiculo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablaTarifasTest {
+
+    @Test
+    @DisplayName("La tabla predeterminada tiene las tarifas por hora y de membresía del parqueadero")
+    public void testTarifasPredeterminadas() {
+        TablaTarifas tabla = TablaTarifas.PREDETERMINADA;
+        assertEquals(2000, tabla.tarifaHora(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(1000, tabla.tarifaHora(OcupacionParqueadero.TIPO_MOTO));
+        assertEquals(3000, tabla.tarifaHora(OcupacionParqueadero.TIPO_CAMION));
+        assertEquals(0, tabla.tarifaHora(-1));
+        assertEquals(0, tabla.tarifaHora(3));
+
+        assertEquals(960000, tabla.tarifaMembresia(new Automovil("A", "Rojo", "2020"), TipoMembresia.ANUAL));
+        assertEquals(135000, tabla.tarifaMembresia(new Moto("M", "Rojo", "2020"), TipoMembresia.TRIMESTRAL));
+        assertEquals(150000, tabla.tarifaMembresia(new Camion("C", "Rojo", "2020"), TipoMembresia.MENSUAL));
+        assertEquals(0, tabla.tarifaMembresia(new Camion("C", "Rojo", "2020"), TipoMembresia.NINGUNA));
+        assertEquals(0, tabla.tarifaMembresia(new Vehiculo("V", "Rojo", "2020"), TipoMembresia.MENSUAL));
+        assertEquals(0, tabla.tarifaMembresia(OcupacionParqueadero.TIPO_MOTO, null));
+    }
+
+    @Test
+    @DisplayName("Cambiar tarifas crea una tabla nueva sin tocar la anterior")
+    public void testCambiarTarifas() {
+        TablaTarifas anterior = TablaTarifas.PREDETERMINADA;
+        TablaTarifas nueva = anterior.conTarifasHora(1500, 2500, 3500)
+                .conTarifasMembresia(OcupacionParqueadero.TIPO_MOTO, 60000, 160000, 500000);
+
+        assertEquals(2500, nueva.tarifaHora(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(1500, nueva.tarifaHora(OcupacionParqueadero.TIPO_MOTO));
+        assertEquals(60000, nueva.tarifaMembresia(OcupacionParqueadero.TIPO_MOTO, TipoMembresia.MENSUAL));
+        assertEquals(100000, nueva.tarifaMembresia(OcupacionParqueadero.TIPO_AUTOMOVIL, TipoMembresia.MENSUAL));
+
+        assertEquals(2000, anterior.tarifaHora(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(50000, anterior.tarifaMembresia(OcupacionParqueadero.TIPO_MOTO, TipoMembresia.MENSUAL));
+        assertSame(nueva, nueva.conTarifasMembresia(7, 1, 2, 3));
+    }
+
+    @Test
+    @DisplayName("Las tarifas compartidas llegan a los servicios de parqueadero y de pagos")
+    public void testTarifasCompartidas() {
+        ParqueaderoCodeService parqueaderoService = new ParqueaderoCodeService();
+        PagoCodeService pagoService = new PagoCodeService();
+        pagoService.setTarifasVigentes(parqueaderoService.getTarifasVigentes());
+
+        assertTrue(parqueaderoService.configurarTarifas(1500, 2500, 3500));
+        assertEquals(2500, parqueaderoService.obtenerTarifaPorTipo(OcupacionParqueadero.TIPO_AUTOMOVIL));
+        assertEquals(7000, pagoService.calcularMontoAPagar("Camión", 2));
+        // Las tarifas de membresía se conservan al cambiar las de hora
+        assertEquals(100000, pagoService.calcularTarifaMembresia(new Automovil("A", "Rojo", "2020"), TipoMembresia.MENSUAL));
+        assertSame(parqueaderoService.getTablaTarifas(), pagoService.getTablaTarifas());
+    }
+}
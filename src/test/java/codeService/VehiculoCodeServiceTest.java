@@ -1,14 +1,21 @@
 package codeService;
 
 import model.Cliente;
+import model.TipoMembresia;
+import model.TipoVehiculo;
 import model.Vehiculo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,6 +109,17 @@ class VehiculoCodeServiceTest {
             assertFalse(resultado);
             assertEquals(1, vehiculoService.obtenerTodosLosVehiculos().size());
         }
+
+        @Test
+        @DisplayName("Registrar vehículo con tipo crea el vehículo de ese tipo y tiene tarifa de membresía")
+        void testRegistrarVehiculoConTipo() {
+            assertTrue(vehiculoService.registrarVehiculo(OcupacionParqueadero.TIPO_MOTO, "MOT123", "Rojo", "2020"));
+            assertFalse(vehiculoService.registrarVehiculo(3, "CAM123", "Rojo", "2020"));
+
+            Vehiculo moto = vehiculoService.buscarVehiculo("MOT123");
+            assertEquals(TipoVehiculo.MOTO, moto.getTipo());
+            assertTrue(new PagoCodeService().calcularTarifaMembresia(moto, TipoMembresia.MENSUAL) > 0);
+        }
     }
 
     @Nested
@@ -218,6 +236,29 @@ class VehiculoCodeServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tests para buscarVehiculosPorPlacaParcial(String, int, int)")
+    class BuscarVehiculosPorPlacaParcial {
+
+        @Test
+        @DisplayName("Buscar por parte de la placa sigue los cambios del registro")
+        void testBuscarPorParteDeLaPlaca() {
+            vehiculoService.registrarVehiculo("ABC123", "Rojo", "Toyota Corolla");
+            vehiculoService.registrarVehiculo(cliente1, "XAB123", "Azul", "Honda Civic");
+
+            List<Vehiculo> encontrados = vehiculoService.buscarVehiculosPorPlacaParcial(" ab ", 0, 10);
+            assertEquals(1, encontrados.size());
+            assertEquals("ABC123", encontrados.get(0).getPlaca());
+            assertEquals(2, vehiculoService.buscarVehiculosPorPlacaParcial("123", 0, 10).size());
+
+            vehiculoService.actualizarVehiculo("XAB123", "KLM456", null, null);
+            vehiculoService.eliminarVehiculo("ABC123");
+            assertTrue(vehiculoService.buscarVehiculosPorPlacaParcial("123", 0, 10).isEmpty());
+            assertEquals("KLM456", vehiculoService.buscarVehiculosPorPlacaParcial("LM4", 0, 10).get(0).getPlaca());
+            assertTrue(vehiculoService.buscarVehiculosPorPlacaParcial(null, 0, 10).isEmpty());
+        }
+    }
+
     @Nested
     @DisplayName("Tests para actualizarVehiculo(String, String, String, String)")
     class ActualizarVehiculo {
@@ -301,6 +342,30 @@ class VehiculoCodeServiceTest {
             assertEquals("Azul", vehiculo2.getColor());
             assertEquals("Honda Civic", vehiculo2.getModelo());
         }
+
+        @Test
+        @DisplayName("Cambiar la placa de un vehículo de cliente mantiene la lista del cliente")
+        void testActualizarPlacaVehiculoDeCliente() {
+            vehiculoService.registrarVehiculo(cliente1, "ABC123", "Rojo", "Toyota Corolla");
+
+            assertTrue(vehiculoService.actualizarVehiculo("abc123", "XYZ789", null, null));
+            assertNull(vehiculoService.buscarVehiculo("ABC123"));
+            assertSame(vehiculoService.buscarVehiculo(" xyz789 "), vehiculoService.obtenerVehiculosPorCliente(cliente1).get(0));
+
+            // La placa anterior queda libre para otro vehículo
+            assertTrue(vehiculoService.registrarVehiculo("ABC123", "Azul", "Honda Civic"));
+            assertEquals(2, vehiculoService.obtenerTodosLosVehiculos().size());
+        }
+
+        @Test
+        @DisplayName("Cambiar solo las mayúsculas de la placa")
+        void testActualizarMayusculasPlaca() {
+            vehiculoService.registrarVehiculo("abc123", "Rojo", "Toyota Corolla");
+
+            assertTrue(vehiculoService.actualizarVehiculo("abc123", "ABC123", null, null));
+            assertEquals("ABC123", vehiculoService.buscarVehiculo("abc123").getPlaca());
+            assertEquals(1, vehiculoService.obtenerTodosLosVehiculos().size());
+        }
     }
 
     @Nested
@@ -612,6 +677,27 @@ class VehiculoCodeServiceTest {
             String cedula = vehiculoService.buscarPropietarioVehiculo("ABC123");
             assertNull(cedula);
         }
+
+        @Test
+        @DisplayName("El propietario se actualiza al asignar, desvincular, renombrar y eliminar")
+        void testPropietarioSeMantieneConLasOperaciones() {
+            vehiculoService.registrarVehiculo("ABC123", "Rojo", "Toyota Corolla");
+            vehiculoService.asignarVehiculoACliente(cliente1, "abc123");
+            vehiculoService.asignarVehiculoACliente(cliente2, "ABC123");
+            assertEquals(cliente1.getCedula(), vehiculoService.buscarPropietarioVehiculo("abc123"));
+
+            vehiculoService.desvincularVehiculoDeCliente(cliente1, "ABC123");
+            assertEquals(cliente2.getCedula(), vehiculoService.buscarPropietarioVehiculo("ABC123"));
+            assertFalse(vehiculoService.vehiculoPerteneceACliente(cliente1, "ABC123"));
+
+            vehiculoService.actualizarVehiculo("ABC123", "XYZ789", null, null);
+            assertNull(vehiculoService.buscarPropietarioVehiculo("ABC123"));
+            assertEquals(cliente2.getCedula(), vehiculoService.buscarPropietarioVehiculo("XYZ789"));
+
+            assertTrue(vehiculoService.eliminarVehiculo("xyz789"));
+            assertNull(vehiculoService.buscarPropietarioVehiculo("XYZ789"));
+            assertTrue(vehiculoService.obtenerVehiculosPorCliente(cliente2).isEmpty());
+        }
     }
 
     @Nested
@@ -772,4 +858,49 @@ class VehiculoCodeServiceTest {
             assertTrue(vehiculos.isEmpty());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Tests de registros concurrentes")
+    class RegistrosConcurrentes {
+
+        @Test
+        @DisplayName("Registrar vehículos desde varios hilos no pierde ni duplica placas")
+        void testRegistrarVehiculosConcurrentes() throws Exception {
+            int hilos = 8;
+            int porHilo = 500;
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            CountDownLatch inicio = new CountDownLatch(1);
+            List<Future<Integer>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(ejecutor.submit(() -> {
+                    inicio.await();
+                    int registrados = 0;
+                    for (int i = 0; i < porHilo; i++) {
+                        // Cada placa se intenta registrar desde dos hilos
+                        String placa = String.format("P%05d", (hilo / 2) * porHilo + i);
+                        Cliente cliente = hilo % 2 == 0 ? cliente1 : cliente2;
+                        if (vehiculoService.registrarVehiculo(cliente, placa, "Rojo", "2024")) {
+                            registrados++;
+                        }
+                        vehiculoService.buscarVehiculosPorPlacaParcial("P0", 0, 5);
+                    }
+                    return registrados;
+                }));
+            }
+            inicio.countDown();
+            int registrados = 0;
+            for (Future<Integer> tarea : tareas) {
+                registrados += tarea.get();
+            }
+            ejecutor.shutdown();
+
+            int placas = hilos / 2 * porHilo;
+            assertEquals(placas, registrados);
+            assertEquals(placas, vehiculoService.obtenerTodosLosVehiculos().size());
+            assertEquals(placas, vehiculoService.contarVehiculosPorCliente(cliente1)
+                    + vehiculoService.contarVehiculosPorCliente(cliente2));
+            assertNotNull(vehiculoService.buscarVehiculo("P00000"));
+        }
+    }
+}
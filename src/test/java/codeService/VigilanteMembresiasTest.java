@@ -0,0 +1,113 @@
+package codeService;
+
+import interfaces.IEscuchaMembresias;
+import model.Cliente;
+import model.TipoMembresia;
+import model.Vehiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VigilanteMembresiasTest {
+
+    private MembresiaCodeService membresiaService;
+    private VigilanteMembresias vigilante;
+    private Cliente cliente;
+    private Vehiculo auto;
+    private Vehiculo moto;
+    private final List<String> avisos = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ClienteCodeService clienteService = new ClienteCodeService();
+        VehiculoCodeService vehiculoService = new VehiculoCodeService();
+        membresiaService = new MembresiaCodeService();
+        membresiaService.setClienteService(clienteService);
+        membresiaService.setVehiculoService(vehiculoService);
+
+        assertTrue(clienteService.añadirCliente("Ana", "100", "3001", "ana@correo.com"));
+        cliente = clienteService.buscarCliente("100", ClienteCodeService.BUSQUEDA_CEDULA);
+        assertTrue(vehiculoService.registrarVehiculo(cliente, "ABC123", "Rojo", "2020"));
+        assertTrue(vehiculoService.registrarVehiculo(cliente, "XYZ789", "Azul", "2021"));
+        auto = vehiculoService.buscarVehiculo("ABC123");
+        moto = vehiculoService.buscarVehiculo("XYZ789");
+
+        // Registradas hoy: el auto vence en un mes y la moto en un año
+        assertTrue(membresiaService.registrarMembresia(auto, cliente, TipoMembresia.MENSUAL));
+        assertTrue(membresiaService.registrarMembresia(moto, cliente, TipoMembresia.ANUAL));
+
+        vigilante = new VigilanteMembresias(membresiaService);
+        vigilante.agregarEscucha(new IEscuchaMembresias() {
+            @Override
+            public void membresiaVencida(Vehiculo vehiculo, Cliente c, int diaFin) {
+                avisos.add("vencida " + vehiculo.getPlaca());
+            }
+
+            @Override
+            public void membresiaPorVencer(Vehiculo vehiculo, Cliente c, int diasRestantes) {
+                avisos.add("por vencer " + vehiculo.getPlaca() + " " + diasRestantes);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Avisa una sola vez al entrar al periodo de aviso y baja la membresía al vencer")
+    public void testAvisosYVencimiento() {
+        LocalDate finAuto = LocalDate.now().plusMonths(1);
+
+        assertEquals(0, vigilante.revisar(finAuto.minusDays(VigilanteMembresias.DIAS_AVISO + 1)));
+        assertTrue(avisos.isEmpty());
+
+        assertEquals(0, vigilante.revisar(finAuto.minusDays(5)));
+        assertEquals(List.of("por vencer ABC123 5"), avisos);
+        assertEquals(0, vigilante.revisar(finAuto.minusDays(4)));
+        assertEquals(1, avisos.size());
+
+        // El último día sigue vigente; al día siguiente vence
+        assertEquals(0, vigilante.revisar(finAuto));
+        assertEquals(TipoMembresia.MENSUAL, auto.getMembresia());
+        assertEquals(1, vigilante.revisar(finAuto.plusDays(1)));
+        assertEquals(List.of("por vencer ABC123 5", "vencida ABC123"), avisos);
+        assertEquals(TipoMembresia.NINGUNA, auto.getMembresia());
+        assertEquals(TipoMembresia.ANUAL, moto.getMembresia());
+        assertEquals(1, membresiaService.contarMembresiasActivas());
+
+        // Ya vencida no se vuelve a avisar, y puede registrar una membresía nueva
+        assertEquals(0, vigilante.revisar(finAuto.plusDays(2)));
+        assertEquals(2, avisos.size());
+        assertTrue(membresiaService.registrarMembresia(auto, cliente, TipoMembresia.MENSUAL));
+    }
+
+    @Test
+    @DisplayName("La revisión en segundo plano corre al iniciar")
+    public void testRevisionEnSegundoPlano() throws Exception {
+        CountDownLatch revisado = new CountDownLatch(1);
+        auto.setFechaFinMembresia(LocalDate.now().minusDays(1).toString());
+        membresiaService.reindexarVencimientos();
+        vigilante.agregarEscucha(new IEscuchaMembresias() {
+            @Override
+            public void membresiaVencida(Vehiculo vehiculo, Cliente c, int diaFin) {
+                revisado.countDown();
+            }
+
+            @Override
+            public void membresiaPorVencer(Vehiculo vehiculo, Cliente c, int diasRestantes) {
+            }
+        });
+
+        try (VigilanteMembresias enMarcha = vigilante) {
+            assertTrue(enMarcha.iniciar());
+            assertFalse(enMarcha.iniciar());
+            assertTrue(revisado.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(TipoMembresia.NINGUNA, auto.getMembresia());
+    }
+}
@@ -0,0 +1,51 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+class FechasMembresiaTest {
+
+    @Test
+    @DisplayName("Test convertir texto a día y de vuelta")
+    void testConvertirTextoYDia() {
+        int dia = FechasMembresia.aDia("15/03/2024");
+        assertEquals(LocalDate.of(2024, 3, 15).toEpochDay(), dia);
+        assertEquals("15/03/2024", FechasMembresia.aTexto(dia));
+        assertEquals(dia, FechasMembresia.aDia("2024-03-15"));
+        assertEquals(LocalDate.of(2024, 3, 15), FechasMembresia.aFecha(dia));
+    }
+
+    @Test
+    @DisplayName("Test textos vacíos o inválidos quedan sin fecha")
+    void testTextosInvalidos() {
+        assertEquals(FechasMembresia.SIN_FECHA, FechasMembresia.aDia((String) null));
+        assertEquals(FechasMembresia.SIN_FECHA, FechasMembresia.aDia("fecha-invalida"));
+        assertNull(FechasMembresia.aTexto(FechasMembresia.SIN_FECHA));
+        assertNull(FechasMembresia.aFecha(FechasMembresia.SIN_FECHA));
+    }
+
+    @Test
+    @DisplayName("Test vigencia de membresía por días")
+    void testVigenciaPorDias() {
+        Vehiculo vehiculo = new Automovil("ABC123", "Rojo", "2023");
+        int hoy = FechasMembresia.hoy();
+        vehiculo.setMembresia(TipoMembresia.MENSUAL);
+        vehiculo.setDiaFinMembresia(hoy);
+        assertTrue(vehiculo.membresiaVigenteEn(hoy));
+        assertFalse(vehiculo.membresiaVigenteEn(hoy + 1));
+
+        vehiculo.setFechaFinMembresia("formato-invalido");
+        assertFalse(vehiculo.membresiaVigenteEn(hoy));
+        assertNull(vehiculo.getFechaFinMembresia());
+
+        Membresia membresia = new Membresia(TipoMembresia.MENSUAL, hoy - 10, hoy, 100000);
+        assertTrue(membresia.verificarVigencia());
+        assertFalse(membresia.vigenteEn(hoy - 11));
+        assertEquals(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                membresia.getFechaFin());
+    }
+}
@@ -0,0 +1,63 @@
+package persistencia;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlmacenInstantaneasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Sin instantáneas se parte desde la secuencia 0")
+    public void testSinInstantaneas() throws IOException {
+        AlmacenInstantaneas almacen = new AlmacenInstantaneas(directorio);
+        assertEquals(0, almacen.cargarUltima(entrada -> fail("No debería leer nada")));
+    }
+
+    @Test
+    @DisplayName("Se carga la última instantánea guardada y se borran las anteriores")
+    public void testGuardarYCargar() throws IOException {
+        AlmacenInstantaneas almacen = new AlmacenInstantaneas(directorio);
+        almacen.guardar(10, salida -> salida.writeUTF("primera"));
+        almacen.guardar(25, salida -> salida.writeUTF("segunda"));
+        assertEquals(1, almacen.listar().size());
+
+        String[] leido = new String[1];
+        assertEquals(25, almacen.cargarUltima(entrada -> leido[0] = entrada.readUTF()));
+        assertEquals("segunda", leido[0]);
+    }
+
+    @Test
+    @DisplayName("Una instantánea corrupta se ignora")
+    public void testInstantaneaCorrupta() throws IOException {
+        AlmacenInstantaneas almacen = new AlmacenInstantaneas(directorio);
+        Path archivo = almacen.guardar(7, salida -> salida.writeUTF("estado"));
+
+        byte[] bytes = Files.readAllBytes(archivo);
+        bytes[bytes.length - 6] ^= 0x1F;
+        Files.write(archivo, bytes);
+
+        assertEquals(0, almacen.cargarUltima(entrada -> fail("No debería leer una instantánea corrupta")));
+    }
+
+    @Test
+    @DisplayName("Si el escritor falla no queda ningún archivo")
+    public void testEscritorFalla() throws IOException {
+        AlmacenInstantaneas almacen = new AlmacenInstantaneas(directorio);
+        assertThrows(IOException.class, () -> almacen.guardar(3, salida -> {
+            throw new IOException("falla");
+        }));
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(List.of(), archivos.toList());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package persistencia;
+
+import eventos.ClienteActualizado;
+import eventos.ClienteEliminado;
+import eventos.ClienteRegistrado;
+import eventos.EventoParqueadero;
+import eventos.MembresiaRegistrada;
+import eventos.MembresiaVencida;
+import eventos.PagoRegistrado;
+import eventos.SalidaCobrada;
+import eventos.VehiculoActualizado;
+import eventos.VehiculoAsignado;
+import eventos.VehiculoDesvinculado;
+import eventos.VehiculoEliminado;
+import eventos.VehiculoIngresado;
+import eventos.VehiculoRegistrado;
+import eventos.VehiculoSalio;
+import model.TipoMembresia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitacoraEventosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Los eventos se leen en el mismo orden y con los mismos datos")
+    public void testRegistrarYReproducir() throws IOException {
+        LocalDateTime hora = LocalDateTime.of(2024, 5, 10, 8, 30, 15, 123000000);
+        List<EventoParqueadero> eventos = List.of(
+                new ClienteRegistrado("Ana", "123", "300", "ana@correo.com"),
+                new VehiculoRegistrado("MOT123", "Negro", "2019", null, 1),
+                new VehiculoRegistrado("GEN123", "Gris", "2018", "123"),
+                new VehiculoIngresado(0, "ABC123", "Rojo", "2020", hora, 4),
+                new VehiculoSalio("ABC123", hora.plusHours(2)),
+                new PagoRegistrado("p1", 4000, hora.plusHours(2), "Estacionamiento", "Automóvil", "ABC123", null),
+                new MembresiaRegistrada("ABC123", "123", TipoMembresia.MENSUAL,
+                        LocalDate.of(2024, 5, 10), LocalDate.of(2024, 6, 10), 100000),
+                new ClienteActualizado("123", 1, "301"),
+                new VehiculoActualizado("ABC123", "ABC124", null, "2021"),
+                new VehiculoAsignado("ABC124", "123"),
+                new VehiculoDesvinculado("ABC124", "123"),
+                new MembresiaVencida("ABC124", LocalDate.of(2024, 6, 10)),
+                new SalidaCobrada(new VehiculoSalio("ABC124", hora.plusHours(3)),
+                        new PagoRegistrado("p2", 6000, hora.plusHours(3), "Estacionamiento", "Automóvil", "ABC124", null)),
+                new VehiculoEliminado("ABC124"),
+                new ClienteEliminado("123"));
+
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            for (EventoParqueadero evento : eventos) {
+                bitacora.registrarYEsperar(evento);
+            }
+            assertEquals(eventos.size(), bitacora.getUltimaSecuencia());
+
+            List<EventoParqueadero> leidos = new ArrayList<>();
+            assertEquals(eventos.size(), bitacora.reproducir(leidos::add));
+            assertEquals(eventos, leidos);
+        }
+    }
+
+    @Test
+    @DisplayName("Los eventos sobreviven al cerrar y volver a abrir la bitácora")
+    public void testReabrir() throws IOException {
+        List<CompletableFuture<Long>> confirmaciones = new ArrayList<>();
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            for (int i = 0; i < 500; i++) {
+                confirmaciones.add(bitacora.registrar(new VehiculoSalio("P" + i, LocalDateTime.now())));
+            }
+        }
+        for (CompletableFuture<Long> confirmacion : confirmaciones) {
+            assertTrue(confirmacion.isDone());
+        }
+
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            assertEquals(500, bitacora.getUltimaSecuencia());
+            List<EventoParqueadero> leidos = new ArrayList<>();
+            bitacora.reproducir(leidos::add);
+            assertEquals(500, leidos.size());
+            assertEquals("P499", ((VehiculoSalio) leidos.get(499)).placa());
+
+            // La numeración continúa después de la última secuencia
+            assertEquals(501, bitacora.registrarYEsperar(new VehiculoSalio("X", LocalDateTime.now())));
+        }
+    }
+
+    @Test
+    @DisplayName("Un registro incompleto al final se descarta al abrir")
+    public void testDescartarRegistroIncompleto() throws IOException {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            bitacora.registrarYEsperar(new VehiculoSalio("AAA111", LocalDateTime.now()));
+            bitacora.registrarYEsperar(new VehiculoSalio("BBB222", LocalDateTime.now()));
+        }
+
+        // Simular una caída a mitad de la escritura del segundo registro
+        Path archivo = directorio.resolve(BitacoraEventos.nombreSegmento(1));
+        long tamano = Files.size(archivo);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(tamano - 3);
+        }
+
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            List<EventoParqueadero> leidos = new ArrayList<>();
+            assertEquals(1, bitacora.reproducir(leidos::add));
+            assertEquals("AAA111", ((VehiculoSalio) leidos.get(0)).placa());
+            assertEquals(2, bitacora.registrarYEsperar(new VehiculoSalio("CCC333", LocalDateTime.now())));
+        }
+    }
+
+    @Test
+    @DisplayName("Un largo dañado al final se descarta sin reservar memoria")
+    public void testDescartarLargoDanado() throws IOException {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            bitacora.registrarYEsperar(new VehiculoSalio("AAA111", LocalDateTime.now()));
+        }
+
+        // Un encabezado de registro con un largo enorme, sin datos detrás
+        Path archivo = directorio.resolve(BitacoraEventos.nombreSegmento(1));
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE - 8).flip());
+        }
+
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio)) {
+            assertEquals(1, bitacora.reproducir(evento -> { }));
+            assertEquals(2, bitacora.registrarYEsperar(new VehiculoSalio("BBB222", LocalDateTime.now())));
+        }
+    }
+
+    @Test
+    @DisplayName("No se aceptan eventos después de cerrar la bitácora")
+    public void testRegistrarDespuesDeCerrar() throws IOException {
+        BitacoraEventos bitacora = new BitacoraEventos(directorio);
+        bitacora.close();
+        assertThrows(IllegalStateException.class,
+                () -> bitacora.registrarYEsperar(new VehiculoSalio("ABC123", LocalDateTime.now())));
+        // Cerrar otra vez no tiene efecto
+        bitacora.close();
+    }
+
+    @Test
+    @DisplayName("Los eventos registrados mientras se cierra la bitácora siempre reciben respuesta")
+    public void testRegistrarMientrasSeCierra() throws Exception {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            BitacoraEventos bitacora = new BitacoraEventos(directorio.resolve("r" + ronda));
+            List<CompletableFuture<Long>> confirmaciones = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> hilos = new ArrayList<>();
+            for (int h = 0; h < 4; h++) {
+                Thread hilo = new Thread(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        confirmaciones.add(bitacora.registrar(new VehiculoSalio("P" + i, LocalDateTime.now())));
+                    }
+                });
+                hilos.add(hilo);
+                hilo.start();
+            }
+            bitacora.close();
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+            for (CompletableFuture<Long> confirmacion : confirmaciones) {
+                // Cada confirmación termina, escrita o rechazada, sin quedar colgada
+                confirmacion.handle((s, e) -> null).get(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Los segmentos cubiertos por una secuencia se pueden borrar")
+    public void testSegmentosYCompactacion() throws IOException {
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio, 256)) {
+            for (int i = 1; i <= 40; i++) {
+                bitacora.registrarYEsperar(new VehiculoSalio("P" + i, LocalDateTime.now()));
+            }
+            bitacora.rotar();
+            int segmentos = bitacora.getSegmentos().size();
+            assertTrue(segmentos > 2);
+
+            // Solo se leen los eventos posteriores a la secuencia indicada
+            List<EventoParqueadero> leidos = new ArrayList<>();
+            assertEquals(10, bitacora.reproducir(30, leidos::add));
+            assertEquals("P31", ((VehiculoSalio) leidos.get(0)).placa());
+
+            assertEquals(segmentos - 1, bitacora.compactarHasta(40));
+            assertEquals(1, bitacora.getSegmentos().size());
+            assertEquals(0, bitacora.reproducir(40, evento -> { }));
+        }
+
+        try (BitacoraEventos bitacora = new BitacoraEventos(directorio, 256)) {
+            assertEquals(40, bitacora.getUltimaSecuencia());
+            assertEquals(41, bitacora.registrarYEsperar(new VehiculoSalio("X", LocalDateTime.now())));
+            List<EventoParqueadero> leidos = new ArrayList<>();
+            bitacora.reproducir(leidos::add);
+            assertEquals(1, leidos.size());
+        }
+    }
+}